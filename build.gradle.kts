@@ -54,14 +54,23 @@ tasks.withType<JavaCompile> {
 }
 
 tasks.withType<Test> {
+    val isBenchmark = name == "benchmark"
     useTestNG {
         testLogging {
             exceptionFormat = TestExceptionFormat.FULL
             showStandardStreams = true
         }
+        if (isBenchmark) includeGroups("benchmark") else excludeGroups("benchmark")
     }
 }
 
+val benchmark by tasks.registering(Test::class) {
+    description = "Runs performance benchmarks."
+    group = "verification"
+    testClassesDirs = sourceSets["test"].output.classesDirs
+    classpath = sourceSets["test"].runtimeClasspath
+}
+
 application {
     mainClassName = "svnserver.server.Main"
 }
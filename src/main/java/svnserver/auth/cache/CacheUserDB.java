@@ -7,13 +7,17 @@
  */
 package svnserver.auth.cache;
 
+import com.google.common.base.Ticker;
 import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.apache.commons.codec.binary.Hex;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
 import org.tmatesoft.svn.core.SVNException;
 import svnserver.HashHelper;
-import svnserver.UserType;
+import svnserver.Loggers;
 import svnserver.auth.Authenticator;
 import svnserver.auth.PlainAuthenticator;
 import svnserver.auth.User;
@@ -24,26 +28,75 @@ import java.security.MessageDigest;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Caching user authentication result for reduce external API usage.
+ * <p>
+ * Concurrent misses for the same key are collapsed into single backend call (by cache loader).
+ * Failed lookups are cached for shorter time than successful ones.
+ * Successful entries older than refresh time are reloaded in background while stale value is returned.
  *
  * @author Artem V. Navrotskiy
  */
 public final class CacheUserDB implements UserDB {
   @NotNull
-  private final static User invalidUser = User.create("invalid", "invalid", null, null, UserType.Local);
+  private static final Logger log = Loggers.misc;
   @NotNull
   private final Collection<Authenticator> authenticators = Collections.singleton(new PlainAuthenticator(this));
   @NotNull
   private final UserDB userDB;
   @NotNull
-  private final Cache<String, User> cache;
+  private final Cache<String, CachedUser> cache;
+  private final long negativeExpireNanos;
+  private final long refreshNanos;
+  @NotNull
+  private final Executor refreshExecutor;
+  @NotNull
+  private final Ticker ticker;
+  @NotNull
+  private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+  @NotNull
+  private final AtomicLong hitCount = new AtomicLong();
+  @NotNull
+  private final AtomicLong missCount = new AtomicLong();
+  @NotNull
+  private final AtomicLong loadSuccessCount = new AtomicLong();
+  @NotNull
+  private final AtomicLong loadExceptionCount = new AtomicLong();
+  @NotNull
+  private final AtomicLong totalLoadTime = new AtomicLong();
+
+  public CacheUserDB(@NotNull UserDB userDB, @NotNull Cache<String, CachedUser> cache) {
+    this(userDB, cache, Long.MAX_VALUE, 0, MoreExecutors.directExecutor(), Ticker.systemTicker());
+  }
 
-  public CacheUserDB(@NotNull UserDB userDB, @NotNull Cache<String, User> cache) {
+  /**
+   * @param userDB              Backend user database.
+   * @param cache               Cache storage. Its expiration is used for successful lookups.
+   * @param negativeExpireNanos Expiration time for failed lookups.
+   * @param refreshNanos        Age of successful entry, after which it is refreshed in background (0 - disabled).
+   * @param refreshExecutor     Executor for background refresh.
+   * @param ticker              Time source (should be same as cache ticker).
+   */
+  public CacheUserDB(@NotNull UserDB userDB,
+                     @NotNull Cache<String, CachedUser> cache,
+                     long negativeExpireNanos,
+                     long refreshNanos,
+                     @NotNull Executor refreshExecutor,
+                     @NotNull Ticker ticker) {
     this.userDB = userDB;
     this.cache = cache;
+    this.negativeExpireNanos = negativeExpireNanos;
+    this.refreshNanos = refreshNanos;
+    this.refreshExecutor = refreshExecutor;
+    this.ticker = ticker;
   }
 
   @NotNull
@@ -74,14 +127,40 @@ public final class CacheUserDB implements UserDB {
     userDB.updateEnvironment(environment, userInfo);
   }
 
+  /**
+   * Cache statistics. Load statistics include background refreshes.
+   */
+  @NotNull
+  public CacheStats getStats() {
+    return new CacheStats(hitCount.get(), missCount.get(), loadSuccessCount.get(), loadExceptionCount.get(), totalLoadTime.get(), cache.stats().evictionCount());
+  }
+
+  @Override
+  public void close() throws Exception {
+    log.info("Authentication cache: {}", getStats());
+  }
+
   @Nullable
   private User cached(@NotNull String key, @NotNull CachedCallback callback) throws SVNException {
+    CachedUser cachedUser = cache.getIfPresent(key);
+    if (cachedUser != null) {
+      final long age = ticker.read() - cachedUser.loadTime;
+      if (cachedUser.user == null && age >= negativeExpireNanos) {
+        cache.asMap().remove(key, cachedUser);
+        cachedUser = null;
+      } else if (cachedUser.user != null && refreshNanos > 0 && age >= refreshNanos) {
+        refreshAsync(key, callback);
+      }
+    }
+
+    if (cachedUser != null) {
+      hitCount.incrementAndGet();
+      return cachedUser.user;
+    }
+
+    missCount.incrementAndGet();
     try {
-      final User cachedUser = cache.get(key, () -> {
-        final User authUser = callback.exec(userDB);
-        return authUser != null ? authUser : invalidUser;
-      });
-      return cachedUser != invalidUser ? cachedUser : null;
+      return cache.get(key, () -> load(callback)).user;
     } catch (ExecutionException e) {
       if (e.getCause() instanceof SVNException) {
         throw (SVNException) e.getCause();
@@ -90,6 +169,42 @@ public final class CacheUserDB implements UserDB {
     }
   }
 
+  private void refreshAsync(@NotNull String key, @NotNull CachedCallback callback) {
+    if (!refreshing.add(key))
+      return;
+
+    try {
+      refreshExecutor.execute(() -> {
+        try {
+          cache.put(key, load(callback));
+        } catch (SVNException e) {
+          log.warn("Failed to refresh cached user", e);
+        } finally {
+          refreshing.remove(key);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      refreshing.remove(key);
+    }
+  }
+
+  @NotNull
+  private CachedUser load(@NotNull CachedCallback callback) throws SVNException {
+    final long start = ticker.read();
+    try {
+      final User user = callback.exec(userDB);
+      loadSuccessCount.incrementAndGet();
+      return new CachedUser(user, ticker.read());
+    } catch (SVNException | RuntimeException e) {
+      loadExceptionCount.incrementAndGet();
+      throw e;
+    } finally {
+      final long elapsed = ticker.read() - start;
+      totalLoadTime.addAndGet(elapsed);
+      log.debug("User database lookup took {} ms", elapsed / 1000000);
+    }
+  }
+
   @NotNull
   private String hash(@NotNull String userName, @NotNull String password) {
     final MessageDigest digest = HashHelper.sha256();
@@ -115,4 +230,18 @@ public final class CacheUserDB implements UserDB {
     @Nullable
     User exec(@NotNull UserDB userDB) throws SVNException;
   }
+
+  /**
+   * Cached lookup result.
+   */
+  public static final class CachedUser {
+    @Nullable
+    private final User user;
+    private final long loadTime;
+
+    private CachedUser(@Nullable User user, long loadTime) {
+      this.user = user;
+      this.loadTime = loadTime;
+    }
+  }
 }
@@ -7,6 +7,7 @@
  */
 package svnserver.auth.cache.config;
 
+import com.google.common.base.Ticker;
 import com.google.common.cache.CacheBuilder;
 import org.jetbrains.annotations.NotNull;
 import svnserver.auth.UserDB;
@@ -41,11 +42,28 @@ public final class CacheUserDBConfig implements UserDBConfig {
    */
   private long expireTimeMs = 15000;
 
+  /**
+   * Cache item expiration for failed authentication/lookup (ms).
+   */
+  private long negativeExpireTimeMs = 5000;
+
+  /**
+   * Cache item age, after which it is refreshed in background (ms, 0 - disabled).
+   */
+  private long refreshTimeMs = 10000;
+
   @NotNull
   public UserDB create(@NotNull SharedContext context) throws Exception {
+    final Ticker ticker = Ticker.systemTicker();
     return new CacheUserDB(userDB.create(context), CacheBuilder.newBuilder()
         .maximumSize(maximumSize)
         .expireAfterWrite(expireTimeMs, TimeUnit.MILLISECONDS)
-        .build());
+        .ticker(ticker)
+        .recordStats()
+        .build(),
+        TimeUnit.MILLISECONDS.toNanos(Math.min(negativeExpireTimeMs, expireTimeMs)),
+        TimeUnit.MILLISECONDS.toNanos(refreshTimeMs),
+        context.getThreadPoolExecutor(),
+        ticker);
   }
 }
@@ -0,0 +1,57 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.auth.ldap;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Rejects requests for some time after several consecutive failures.
+ * <p>
+ * After open time is over, single request is allowed to check server health.
+ */
+final class LdapCircuitBreaker {
+  private final int failureThreshold;
+  private final long openTimeNanos;
+  private final AtomicInteger failures = new AtomicInteger();
+  private final AtomicLong openUntil = new AtomicLong();
+  @NotNull
+  private final LongSupplier clock;
+
+  LdapCircuitBreaker(int failureThreshold, long openTimeMs) {
+    this(failureThreshold, openTimeMs, System::nanoTime);
+  }
+
+  LdapCircuitBreaker(int failureThreshold, long openTimeMs, @NotNull LongSupplier clock) {
+    this.failureThreshold = failureThreshold;
+    this.openTimeNanos = TimeUnit.MILLISECONDS.toNanos(openTimeMs);
+    this.clock = clock;
+  }
+
+  boolean tryAcquire() {
+    if (failureThreshold <= 0 || failures.get() < failureThreshold)
+      return true;
+
+    final long until = openUntil.get();
+    final long now = clock.getAsLong();
+    return now - until >= 0 && openUntil.compareAndSet(until, now + openTimeNanos);
+  }
+
+  void onSuccess() {
+    failures.set(0);
+  }
+
+  void onFailure() {
+    if (failures.incrementAndGet() == failureThreshold)
+      openUntil.set(clock.getAsLong() + openTimeNanos);
+  }
+}
@@ -36,8 +36,10 @@ import java.nio.file.Path;
 import java.security.KeyStore;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 
 /**
@@ -60,14 +62,18 @@ public final class LdapUserDB implements UserDB {
   private final String baseDn;
   @Nullable
   private final String fakeMailSuffix;
+  @NotNull
+  private final LdapCircuitBreaker circuitBreaker;
 
   public LdapUserDB(@NotNull SharedContext context, @NotNull LdapUserDBConfig config) throws Exception {
     URI ldapUri = URI.create(config.getConnectionUrl());
     this.baseDn = ldapUri.getPath().isEmpty() ? "" : ldapUri.getPath().substring(1);
     final ServerSet serverSet = createServerSet(context, config);
     final BindRequest bindRequest = config.getBind().createBindRequest();
-    this.pool = new LDAPConnectionPool(serverSet, bindRequest, 1, config.getMaxConnections());
+    this.pool = new LDAPConnectionPool(serverSet, bindRequest, config.getInitialConnections(), config.getMaxConnections());
+    this.pool.setRetryFailedOperationsDueToInvalidConnections(true);
     this.fakeMailSuffix = createFakeMailSuffix(config);
+    this.circuitBreaker = new LdapCircuitBreaker(config.getCircuitBreakerThreshold(), config.getCircuitBreakerTimeMs());
     this.config = config;
   }
 
@@ -88,9 +94,40 @@ public final class LdapUserDB implements UserDB {
       default:
         throw new IllegalStateException("Unknown ldap scheme: " + ldapUri.getScheme());
     }
-    final String ldapHost = ldapUri.getHost();
-    final int ldapPort = ldapUri.getPort() > 0 ? ldapUri.getPort() : defaultPort;
-    return new SingleServerSet(ldapHost, ldapPort, factory);
+
+    final List<URI> uris = new ArrayList<>();
+    uris.add(ldapUri);
+    for (String url : config.getAdditionalConnectionUrls()) {
+      final URI uri = URI.create(url);
+      if (!ldapUri.getScheme().equalsIgnoreCase(uri.getScheme()))
+        throw new IllegalStateException("All ldap servers must use same scheme: " + url);
+      uris.add(uri);
+    }
+
+    final String[] ldapHosts = new String[uris.size()];
+    final int[] ldapPorts = new int[uris.size()];
+    for (int i = 0; i < uris.size(); ++i) {
+      ldapHosts[i] = uris.get(i).getHost();
+      ldapPorts[i] = uris.get(i).getPort() > 0 ? uris.get(i).getPort() : defaultPort;
+    }
+
+    final LDAPConnectionOptions options = new LDAPConnectionOptions();
+    options.setConnectTimeoutMillis(config.getConnectTimeoutMs());
+    options.setResponseTimeoutMillis(config.getResponseTimeoutMs());
+
+    if (uris.size() == 1)
+      return new SingleServerSet(ldapHosts[0], ldapPorts[0], factory, options);
+
+    switch (config.getServerSetMode()) {
+      case RoundRobin:
+        return new RoundRobinServerSet(ldapHosts, ldapPorts, factory, options);
+      case FewestConnections:
+        return new FewestConnectionsServerSet(ldapHosts, ldapPorts, factory, options);
+      case Failover:
+        return new FailoverServerSet(ldapHosts, ldapPorts, factory, options);
+      default:
+        throw new IllegalStateException("Unknown ldap server set mode: " + config.getServerSetMode());
+    }
   }
 
   @Nullable
@@ -185,6 +222,9 @@ public final class LdapUserDB implements UserDB {
   private User findUser(@NotNull String userName, @NotNull LdapCheck ldapCheck) throws SVNException {
     log.debug("LDAP lookup for user: {}", userName);
 
+    if (!circuitBreaker.tryAcquire())
+      throw new SVNException(SVNErrorMessage.create(SVNErrorCode.AUTHN_NO_PROVIDER, "LDAP server is unavailable, try again later"));
+
     final SearchResultEntry entry;
     try {
       final Filter filter = config.createSearchFilter(userName);
@@ -194,11 +234,13 @@ public final class LdapUserDB implements UserDB {
       log.debug("LDAP search result: {}", search);
 
       if (search.getEntryCount() < 1) {
+        circuitBreaker.onSuccess();
         log.info("User not found in LDAP: {}. Rejecting authentication", userName);
         return null;
       }
 
       if (search.getEntryCount() > 1) {
+        circuitBreaker.onSuccess();
         log.warn("Non-unique LDAP result for user: {}. Rejecting authentication", userName);
         return null;
       }
@@ -206,24 +248,31 @@ public final class LdapUserDB implements UserDB {
       entry = search.getSearchEntries().get(0);
 
     } catch (LDAPException e) {
+      circuitBreaker.onFailure();
       throw new SVNException(SVNErrorMessage.create(SVNErrorCode.AUTHN_NO_PROVIDER, e.getMessage()), e);
     }
 
     final String login = getAttribute(entry, config.getLoginAttribute());
-    if (login == null)
+    if (login == null) {
+      circuitBreaker.onSuccess();
       throw new SVNException(SVNErrorMessage.create(SVNErrorCode.AUTHN_NO_PROVIDER, String.format("LDAP entry doesn't contain username for user: %s. Please, recheck 'loginAttribute' in git-as-svn LDAP configuration", userName)));
+    }
 
     try {
-      if (!ldapCheck.check(entry.getDN())) {
+      final boolean checked = ldapCheck.check(entry.getDN());
+      circuitBreaker.onSuccess();
+      if (!checked) {
         log.info("LDAP check failed for user: {}. Rejecting authentication", userName);
         return null;
       }
     } catch (LDAPException e) {
       if (e.getResultCode() == ResultCode.INVALID_CREDENTIALS) {
+        circuitBreaker.onSuccess();
         log.info("Invalid LDAP credentials for user: {}. Rejecting authentication", userName);
         return null;
       }
 
+      circuitBreaker.onFailure();
       throw new SVNException(SVNErrorMessage.create(SVNErrorCode.AUTHN_NO_PROVIDER, e.getMessage(), e));
     }
 
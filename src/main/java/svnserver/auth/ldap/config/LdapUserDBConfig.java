@@ -18,6 +18,8 @@ import svnserver.config.serializer.ConfigType;
 import svnserver.context.SharedContext;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author Marat Radchenko <marat@slonopotamus.org>
@@ -32,6 +34,18 @@ public final class LdapUserDBConfig implements UserDBConfig {
   @NotNull
   private String connectionUrl;
 
+  /**
+   * Additional LDAP servers with the same directory content (only scheme, host and port are used).
+   */
+  @NotNull
+  private List<String> additionalConnectionUrls = new ArrayList<>();
+
+  /**
+   * How to choose LDAP server for new connection if more than one server is configured.
+   */
+  @NotNull
+  private ServerSetMode serverSetMode = ServerSetMode.Failover;
+
   /**
    * Bind configuration.
    */
@@ -80,6 +94,31 @@ public final class LdapUserDBConfig implements UserDBConfig {
    */
   private int maxConnections;
 
+  /**
+   * LDAP connections, established on startup.
+   */
+  private int initialConnections = 1;
+
+  /**
+   * LDAP connection establishing timeout (ms).
+   */
+  private int connectTimeoutMs = 10000;
+
+  /**
+   * LDAP operation (bind, search) response timeout (ms).
+   */
+  private long responseTimeoutMs = 15000;
+
+  /**
+   * Consecutive LDAP failures, after which requests are rejected without contacting server (0 - disabled).
+   */
+  private int circuitBreakerThreshold = 5;
+
+  /**
+   * Time to reject requests after circuit breaker opens (ms).
+   */
+  private long circuitBreakerTimeMs = 30000;
+
   public LdapUserDBConfig() {
     this(
         "ldap://localhost:389/ou=groups,dc=mycompany,dc=com",
@@ -114,6 +153,44 @@ public final class LdapUserDBConfig implements UserDBConfig {
     this.fakeMailSuffix = fakeMailSuffix;
   }
 
+  @NotNull
+  public List<String> getAdditionalConnectionUrls() {
+    return additionalConnectionUrls;
+  }
+
+  public void setAdditionalConnectionUrls(@NotNull List<String> additionalConnectionUrls) {
+    this.additionalConnectionUrls = additionalConnectionUrls;
+  }
+
+  @NotNull
+  public ServerSetMode getServerSetMode() {
+    return serverSetMode;
+  }
+
+  public void setServerSetMode(@NotNull ServerSetMode serverSetMode) {
+    this.serverSetMode = serverSetMode;
+  }
+
+  public int getInitialConnections() {
+    return Math.max(1, Math.min(initialConnections, maxConnections));
+  }
+
+  public int getConnectTimeoutMs() {
+    return connectTimeoutMs;
+  }
+
+  public long getResponseTimeoutMs() {
+    return responseTimeoutMs;
+  }
+
+  public int getCircuitBreakerThreshold() {
+    return circuitBreakerThreshold;
+  }
+
+  public long getCircuitBreakerTimeMs() {
+    return circuitBreakerTimeMs;
+  }
+
   @NotNull
   public String getLoginAttribute() {
     return loginAttribute;
@@ -166,4 +243,19 @@ public final class LdapUserDBConfig implements UserDBConfig {
         ? filter
         : Filter.createANDFilter(Filter.create(searchFilter), filter);
   }
+
+  public enum ServerSetMode {
+    /**
+     * Always use first available server in order of configuration.
+     */
+    Failover,
+    /**
+     * Cycle through servers.
+     */
+    RoundRobin,
+    /**
+     * Use server with fewest established connections.
+     */
+    FewestConnections,
+  }
 }
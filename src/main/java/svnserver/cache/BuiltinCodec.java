@@ -0,0 +1,75 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.mapdb.DataInput2;
+import org.mapdb.DataOutput2;
+import org.mapdb.Serializer;
+
+import java.io.*;
+
+/**
+ * Built-in codec backed by MapDB serializer.
+ * <p>
+ * {@link MapDbCacheStore} stores such collections with the original serializer, so existing cache files stay readable.
+ */
+final class BuiltinCodec<T> implements CacheCodec<T> {
+  @NotNull
+  static final BuiltinCodec<String> STRING = new BuiltinCodec<>(Serializer.STRING);
+  @NotNull
+  static final BuiltinCodec<Long> LONG = new BuiltinCodec<>(Serializer.LONG);
+  @NotNull
+  static final BuiltinCodec<Boolean> BOOLEAN = new BuiltinCodec<>(Serializer.BOOLEAN);
+
+  @NotNull
+  private final Serializer<T> serializer;
+
+  private BuiltinCodec(@NotNull Serializer<T> serializer) {
+    this.serializer = serializer;
+  }
+
+  @NotNull
+  Serializer<T> getSerializer() {
+    return serializer;
+  }
+
+  @Override
+  public void write(@NotNull DataOutput out, @NotNull T value) throws IOException {
+    if (out instanceof DataOutput2) {
+      serializer.serialize((DataOutput2) out, value);
+      return;
+    }
+    final DataOutput2 buffer = new DataOutput2();
+    serializer.serialize(buffer, value);
+    out.write(buffer.buf, 0, buffer.pos);
+  }
+
+  @NotNull
+  @Override
+  public T read(@NotNull DataInput input) throws IOException {
+    if (input instanceof DataInput2)
+      return serializer.deserialize((DataInput2) input, -1);
+
+    return serializer.deserialize(new DataInput2.DataInputToStream(new InputStream() {
+      @Override
+      public int read() throws IOException {
+        try {
+          return input.readUnsignedByte();
+        } catch (EOFException e) {
+          return -1;
+        }
+      }
+    }), -1);
+  }
+
+  @Override
+  public int fixedSize() {
+    return serializer.fixedSize();
+  }
+}
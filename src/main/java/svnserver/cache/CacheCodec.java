@@ -0,0 +1,40 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.cache;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Binary format of values stored in {@link CacheStore} collections.
+ * <p>
+ * Codec defines on-disk format, so changing it requires a new collection name.
+ */
+public interface CacheCodec<T> {
+  @NotNull
+  CacheCodec<String> STRING = BuiltinCodec.STRING;
+  @NotNull
+  CacheCodec<Long> LONG = BuiltinCodec.LONG;
+  @NotNull
+  CacheCodec<Boolean> BOOLEAN = BuiltinCodec.BOOLEAN;
+
+  void write(@NotNull DataOutput out, @NotNull T value) throws IOException;
+
+  @NotNull
+  T read(@NotNull DataInput input) throws IOException;
+
+  /**
+   * @return Size of serialized value in bytes or -1 if size is variable.
+   */
+  default int fixedSize() {
+    return -1;
+  }
+}
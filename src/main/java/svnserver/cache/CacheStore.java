@@ -0,0 +1,75 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.cache;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+
+/**
+ * Persistent key-value storage for caches, locks and other server state.
+ * <p>
+ * Collections are identified by dot-separated names. Storage may place different namespaces (name prefixes)
+ * into independent backends, so callers should not assume anything about sharing between collections.
+ * <p>
+ * Values are written by {@link CacheCodec}, which also defines on-disk format of stored data.
+ */
+public interface CacheStore extends AutoCloseable {
+  /**
+   * Get or create hash map.
+   *
+   * @param name       Collection name.
+   * @param keyCodec   Key codec.
+   * @param valueCodec Value codec.
+   * @return Hash map.
+   */
+  @NotNull
+  <K, V> ConcurrentMap<K, V> getHashMap(@NotNull String name, @NotNull CacheCodec<K> keyCodec, @NotNull CacheCodec<V> valueCodec);
+
+  /**
+   * Get or create sorted map.
+   *
+   * @param name       Collection name.
+   * @param keyCodec   Key codec.
+   * @param valueCodec Value codec.
+   * @return Sorted map.
+   */
+  @NotNull
+  <K, V> ConcurrentNavigableMap<K, V> getTreeMap(@NotNull String name, @NotNull CacheCodec<K> keyCodec, @NotNull CacheCodec<V> valueCodec);
+
+  /**
+   * Check collection existence.
+   *
+   * @param name Collection name.
+   * @return True if collection is already created.
+   */
+  boolean exists(@NotNull String name);
+
+  /**
+   * Persist changes of the namespace containing given collection.
+   * <p>
+   * Collections from other namespaces may be persisted too if they share the same backend.
+   *
+   * @param name Collection name.
+   */
+  void commit(@NotNull String name);
+
+  /**
+   * Persist changes of all collections.
+   * <p>
+   * Used for collections without own commit points, like filter caches.
+   */
+  void commit();
+
+  /**
+   * Persist changes of all collections and release storage.
+   */
+  @Override
+  void close();
+}
@@ -0,0 +1,186 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mapdb.DB;
+import org.mapdb.DataInput2;
+import org.mapdb.DataOutput2;
+import org.mapdb.Serializer;
+import org.mapdb.serializer.GroupSerializerObjectArray;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+
+/**
+ * Cache storage on top of MapDB.
+ * <p>
+ * Namespaces can be placed into separate MapDB instances. Such namespaces have their own commit and
+ * store locks, so heavy writes to one namespace do not block others.
+ */
+public final class MapDbCacheStore implements CacheStore {
+  // MapDB defaults for hash map layout
+  private static final int HASH_DIR_SIZE = 16;
+  private static final int HASH_LEVELS = 4;
+
+  @NotNull
+  private final DB defaultDb;
+  // Sorted by prefix length descending for longest prefix match
+  @NotNull
+  private final List<Namespace> namespaces;
+
+  public MapDbCacheStore(@NotNull DB defaultDb) {
+    this(defaultDb, Collections.emptyList());
+  }
+
+  public MapDbCacheStore(@NotNull DB defaultDb, @NotNull Collection<Namespace> namespaces) {
+    this.defaultDb = defaultDb;
+    this.namespaces = new ArrayList<>(namespaces);
+    this.namespaces.sort(Comparator.comparingInt((Namespace namespace) -> namespace.prefix.length()).reversed());
+  }
+
+  @NotNull
+  @Override
+  public <K, V> ConcurrentMap<K, V> getHashMap(@NotNull String name, @NotNull CacheCodec<K> keyCodec, @NotNull CacheCodec<V> valueCodec) {
+    final Namespace namespace = getNamespace(name);
+    DB.HashMapMaker<K, V> maker = getDb(namespace).hashMap(name, getSerializer(keyCodec), getSerializer(valueCodec));
+    if (namespace != null && namespace.concurrency > 0)
+      maker = maker.layout(namespace.concurrency, HASH_DIR_SIZE, HASH_LEVELS);
+
+    return maker.createOrOpen();
+  }
+
+  @NotNull
+  @Override
+  public <K, V> ConcurrentNavigableMap<K, V> getTreeMap(@NotNull String name, @NotNull CacheCodec<K> keyCodec, @NotNull CacheCodec<V> valueCodec) {
+    final Namespace namespace = getNamespace(name);
+    DB.TreeMapMaker<K, V> maker = getDb(namespace).treeMap(name, getSerializer(keyCodec), getSerializer(valueCodec));
+    if (namespace != null && namespace.nodeSize > 0)
+      maker = maker.maxNodeSize(namespace.nodeSize);
+
+    return maker.createOrOpen();
+  }
+
+  @Override
+  public boolean exists(@NotNull String name) {
+    return getDb(getNamespace(name)).exists(name);
+  }
+
+  @Override
+  public void commit(@NotNull String name) {
+    getDb(getNamespace(name)).commit();
+  }
+
+  @Override
+  public void commit() {
+    for (DB db : getDatabases())
+      db.commit();
+  }
+
+  @Override
+  public void close() {
+    final List<DB> databases = getDatabases();
+    for (int i = databases.size() - 1; i >= 0; --i) {
+      final DB db = databases.get(i);
+      if (!db.isClosed())
+        db.commit();
+      db.close();
+    }
+  }
+
+  /**
+   * Distinct MapDB instances, default one is first.
+   */
+  @NotNull
+  private List<DB> getDatabases() {
+    final List<DB> result = new ArrayList<>();
+    result.add(defaultDb);
+    for (Namespace namespace : namespaces)
+      if (namespace.db != null && result.stream().noneMatch(db -> db == namespace.db))
+        result.add(namespace.db);
+
+    return result;
+  }
+
+  @Nullable
+  private Namespace getNamespace(@NotNull String name) {
+    for (Namespace namespace : namespaces)
+      if (name.startsWith(namespace.prefix))
+        return namespace;
+
+    return null;
+  }
+
+  @NotNull
+  private DB getDb(@Nullable Namespace namespace) {
+    return namespace == null || namespace.db == null ? defaultDb : namespace.db;
+  }
+
+  @NotNull
+  private static <T> Serializer<T> getSerializer(@NotNull CacheCodec<T> codec) {
+    if (codec instanceof BuiltinCodec)
+      return ((BuiltinCodec<T>) codec).getSerializer();
+
+    return new CodecSerializer<>(codec);
+  }
+
+  /**
+   * Stores custom codec values the same way as former MapDB serializers did.
+   */
+  private static final class CodecSerializer<T> extends GroupSerializerObjectArray<T> {
+    @NotNull
+    private final CacheCodec<T> codec;
+
+    private CodecSerializer(@NotNull CacheCodec<T> codec) {
+      this.codec = codec;
+    }
+
+    @Override
+    public void serialize(@NotNull DataOutput2 out, @NotNull T value) throws IOException {
+      codec.write(out, value);
+    }
+
+    @Override
+    public T deserialize(@NotNull DataInput2 input, int available) throws IOException {
+      return codec.read(input);
+    }
+
+    @Override
+    public int fixedSize() {
+      return codec.fixedSize();
+    }
+  }
+
+  /**
+   * Storage parameters for collections with common name prefix.
+   */
+  public static final class Namespace {
+    @NotNull
+    private final String prefix;
+    @Nullable
+    private final DB db;
+    private final int concurrency;
+    private final int nodeSize;
+
+    /**
+     * @param prefix      Collection name prefix.
+     * @param db          Separate MapDB instance for namespace or null for default one.
+     * @param concurrency Hash map segment count or 0 for MapDB default.
+     * @param nodeSize    Tree map node size or 0 for MapDB default.
+     */
+    public Namespace(@NotNull String prefix, @Nullable DB db, int concurrency, int nodeSize) {
+      this.prefix = prefix;
+      this.db = db;
+      this.concurrency = concurrency;
+      this.nodeSize = nodeSize;
+    }
+  }
+}
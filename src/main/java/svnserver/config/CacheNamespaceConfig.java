@@ -0,0 +1,54 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.config;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mapdb.DB;
+import svnserver.cache.MapDbCacheStore;
+
+/**
+ * Storage tuning for cache collections with common name prefix.
+ */
+public final class CacheNamespaceConfig {
+  /**
+   * Separate cache file for namespace. Empty value means main cache file.
+   */
+  @NotNull
+  private String path = "";
+  private boolean enableTransactions = true;
+  /**
+   * Hash map segment count, 0 for default.
+   */
+  private int concurrency = 0;
+  /**
+   * Tree map node size, 0 for default.
+   */
+  private int nodeSize = 0;
+
+  public CacheNamespaceConfig() {
+  }
+
+  public CacheNamespaceConfig(@NotNull String path) {
+    this.path = path;
+  }
+
+  @NotNull
+  public String getPath() {
+    return path;
+  }
+
+  public boolean isEnableTransactions() {
+    return enableTransactions;
+  }
+
+  @NotNull
+  MapDbCacheStore.Namespace create(@NotNull String prefix, @Nullable DB db) {
+    return new MapDbCacheStore.Namespace(prefix, db, concurrency, nodeSize);
+  }
+}
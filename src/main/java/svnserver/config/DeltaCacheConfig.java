@@ -0,0 +1,33 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.config;
+
+import org.jetbrains.annotations.NotNull;
+import svnserver.config.serializer.ConfigType;
+import svnserver.context.SharedContext;
+import svnserver.repository.git.GitDeltaCache;
+
+/**
+ * Cache of file deltas for get-file-revs (svn blame).
+ */
+@ConfigType("deltaCache")
+public final class DeltaCacheConfig implements SharedConfig {
+  /**
+   * Maximum cache size in megabytes.
+   */
+  private long maxSizeMb = 256;
+  /**
+   * Maximum size of single cached delta in kilobytes.
+   */
+  private long maxEntrySizeKb = 4 * 1024;
+
+  @Override
+  public void create(@NotNull SharedContext context) {
+    context.add(GitDeltaCache.class, new GitDeltaCache(maxSizeMb * 1024 * 1024, maxEntrySizeKb * 1024));
+  }
+}
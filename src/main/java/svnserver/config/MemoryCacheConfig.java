@@ -8,11 +8,16 @@
 package svnserver.config;
 
 import org.jetbrains.annotations.NotNull;
-import org.mapdb.DB;
 import org.mapdb.DBMaker;
+import svnserver.cache.CacheStore;
+import svnserver.cache.MapDbCacheStore;
 import svnserver.config.serializer.ConfigType;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * In-memory cache config.
@@ -21,9 +26,19 @@ import java.nio.file.Path;
  */
 @ConfigType("memoryCache")
 public class MemoryCacheConfig implements CacheConfig {
+  /**
+   * Collection name prefix -> storage tuning. Namespace path is ignored.
+   */
+  @NotNull
+  private Map<String, CacheNamespaceConfig> namespaces = new TreeMap<>();
+
   @NotNull
   @Override
-  public DB createCache(@NotNull Path basePath) {
-    return DBMaker.memoryDB().make();
+  public CacheStore createCache(@NotNull Path basePath) {
+    final List<MapDbCacheStore.Namespace> result = new ArrayList<>();
+    for (Map.Entry<String, CacheNamespaceConfig> entry : namespaces.entrySet())
+      result.add(entry.getValue().create(entry.getKey(), null));
+
+    return new MapDbCacheStore(DBMaker.memoryDB().make(), result);
   }
 }
@@ -11,11 +11,14 @@ import org.jetbrains.annotations.NotNull;
 import org.mapdb.DB;
 import org.mapdb.DBException;
 import org.mapdb.DBMaker;
+import svnserver.cache.CacheStore;
+import svnserver.cache.MapDbCacheStore;
 import svnserver.config.serializer.ConfigType;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.*;
 
 /**
  * Persistent cache config.
@@ -24,14 +27,74 @@ import java.nio.file.Path;
  */
 @ConfigType("persistentCache")
 public class PersistentCacheConfig implements CacheConfig {
+  @NotNull
+  private static final String LOCKS_PREFIX = "locks.";
   @SuppressWarnings("FieldCanBeLocal")
   @NotNull
   private String path = "git-as-svn.mapdb";
   private boolean enableTransactions = true;
+  /**
+   * Collection name prefix -> storage tuning.
+   */
+  @NotNull
+  private Map<String, CacheNamespaceConfig> namespaces = new TreeMap<>();
+
+  public PersistentCacheConfig() {
+  }
+
+  public PersistentCacheConfig(@NotNull String path, @NotNull Map<String, CacheNamespaceConfig> namespaces) {
+    this.path = path;
+    this.namespaces = new TreeMap<>(namespaces);
+  }
 
   @NotNull
   @Override
-  public DB createCache(@NotNull Path basePath) throws IOException {
+  public CacheStore createCache(@NotNull Path basePath) throws IOException {
+    validate(basePath);
+
+    final List<DB> opened = new ArrayList<>();
+    try {
+      final DB defaultDb = openDB(basePath, path, enableTransactions);
+      opened.add(defaultDb);
+
+      final List<MapDbCacheStore.Namespace> result = new ArrayList<>();
+      for (Map.Entry<String, CacheNamespaceConfig> entry : namespaces.entrySet()) {
+        final CacheNamespaceConfig namespace = entry.getValue();
+        final DB db = namespace.getPath().isEmpty() ? null : openDB(basePath, namespace.getPath(), namespace.isEnableTransactions());
+        if (db != null)
+          opened.add(db);
+
+        result.add(namespace.create(entry.getKey(), db));
+      }
+      return new MapDbCacheStore(defaultDb, result);
+    } catch (IOException | RuntimeException e) {
+      for (DB db : opened)
+        db.close();
+      throw e;
+    }
+  }
+
+  private void validate(@NotNull Path basePath) {
+    final Map<Path, String> paths = new HashMap<>();
+    paths.put(ConfigHelper.joinPath(basePath, path), "main cache");
+    for (Map.Entry<String, CacheNamespaceConfig> entry : namespaces.entrySet()) {
+      final String prefix = entry.getKey();
+      final String namespacePath = entry.getValue().getPath();
+      if (namespacePath.isEmpty())
+        continue;
+
+      // Locks are not recomputable, moving them to another file would silently drop existing ones
+      if (prefix.startsWith(LOCKS_PREFIX) || LOCKS_PREFIX.startsWith(prefix))
+        throw new IllegalStateException("Cache namespace " + prefix + " can't be moved to separate file: it contains " + LOCKS_PREFIX + " collections");
+
+      final String other = paths.putIfAbsent(ConfigHelper.joinPath(basePath, namespacePath), "namespace " + prefix);
+      if (other != null)
+        throw new IllegalStateException("Cache namespace " + prefix + " uses the same file as " + other + ": " + namespacePath);
+    }
+  }
+
+  @NotNull
+  private static DB openDB(@NotNull Path basePath, @NotNull String path, boolean enableTransactions) throws IOException {
     final Path cacheBase = ConfigHelper.joinPath(basePath, path);
     Files.createDirectories(cacheBase.getParent());
 
@@ -8,7 +8,7 @@
 package svnserver.context;
 
 import org.jetbrains.annotations.NotNull;
-import org.mapdb.DB;
+import svnserver.cache.CacheStore;
 import svnserver.config.SharedConfig;
 
 import javax.annotation.concurrent.ThreadSafe;
@@ -31,23 +31,23 @@ public final class SharedContext extends Context<Shared> implements AutoCloseabl
   @NotNull
   private final Path basePath;
   @NotNull
-  private final DB cacheDB;
+  private final CacheStore cacheStore;
   @NotNull
   private final ThreadPoolExecutor threadPoolExecutor;
   @NotNull
   private final String realm;
 
-  private SharedContext(@NotNull Path basePath, @NotNull DB cacheDb, @NotNull ThreadPoolExecutor threadPoolExecutor, @NotNull String realm) {
+  private SharedContext(@NotNull Path basePath, @NotNull CacheStore cacheStore, @NotNull ThreadPoolExecutor threadPoolExecutor, @NotNull String realm) {
     this.basePath = basePath;
-    this.cacheDB = cacheDb;
+    this.cacheStore = cacheStore;
     this.threadPoolExecutor = threadPoolExecutor;
     this.realm = realm;
   }
 
   @NotNull
-  public static SharedContext create(@NotNull Path basePath, @NotNull String realm, @NotNull DB cacheDb, @NotNull ThreadFactory threadFactory, @NotNull List<SharedConfig> shared) throws Exception {
+  public static SharedContext create(@NotNull Path basePath, @NotNull String realm, @NotNull CacheStore cacheStore, @NotNull ThreadFactory threadFactory, @NotNull List<SharedConfig> shared) throws Exception {
     final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
-    final SharedContext context = new SharedContext(basePath, cacheDb, threadPoolExecutor, realm);
+    final SharedContext context = new SharedContext(basePath, cacheStore, threadPoolExecutor, realm);
     for (SharedConfig config : shared) {
       config.create(context);
     }
@@ -80,7 +80,7 @@ public final class SharedContext extends Context<Shared> implements AutoCloseabl
     for (int i = values.size() - 1; i >= 0; --i)
       values.get(i).close();
 
-    cacheDB.close();
+    cacheStore.close();
   }
 
   @NotNull
@@ -89,7 +89,7 @@ public final class SharedContext extends Context<Shared> implements AutoCloseabl
   }
 
   @NotNull
-  public DB getCacheDB() {
-    return cacheDB;
+  public CacheStore getCacheStore() {
+    return cacheStore;
   }
 }
@@ -55,7 +55,7 @@ final class GiteaMapper extends Thread implements DirectoryWatcher.DirectoryMapp
             try {
               Repository repository = repositoryApi.repoGet(owner, repo);
               GiteaProject project = mapping.addRepository(repository);
-              if (project != null) {
+              if (project != null && !project.isLazy()) {
                 project.initRevisions();
               }
               it.remove();
@@ -16,7 +16,7 @@ import svnserver.context.LocalContext;
 import svnserver.context.SharedContext;
 import svnserver.repository.RepositoryMapping;
 import svnserver.repository.VcsAccess;
-import svnserver.repository.git.GitRepository;
+import svnserver.repository.git.GitRepositoryHolder;
 
 import java.io.IOException;
 import java.nio.file.Path;
@@ -37,10 +37,13 @@ final class GiteaMapping implements RepositoryMapping<GiteaProject> {
   private final SharedContext context;
   @NotNull
   private final GiteaMappingConfig config;
+  @Nullable
+  private final GitRepositoryHolder.Lru lru;
 
   GiteaMapping(@NotNull SharedContext context, @NotNull GiteaMappingConfig config) {
     this.context = context;
     this.config = config;
+    this.lru = config.isLazyLoad() ? new GitRepositoryHolder.Lru(config.getMaxLoadedRepositories()) : null;
   }
 
   @NotNull
@@ -62,10 +65,15 @@ final class GiteaMapping implements RepositoryMapping<GiteaProject> {
       final Path basePath = ConfigHelper.joinPath(context.getBasePath(), config.getPath());
       // the repository name is lowercased as per gitea cmd/serv.go:141
       final Path repoPath = ConfigHelper.joinPath(basePath, repository.getFullName().toLowerCase(Locale.ENGLISH) + ".git");
-      final LocalContext local = new LocalContext(context, repository.getFullName());
-      local.add(VcsAccess.class, new GiteaAccess(local, config, repository));
-      final GitRepository vcsRepository = config.getTemplate().create(local, repoPath);
-      final GiteaProject newProject = new GiteaProject(local, vcsRepository, repository.getId(), repository.getOwner().getLogin(), projectName);
+      final GitRepositoryHolder vcsRepository = new GitRepositoryHolder(projectName, () -> {
+        final LocalContext local = new LocalContext(context, repository.getFullName());
+        local.add(VcsAccess.class, new GiteaAccess(local, config, repository));
+        return config.getTemplate().create(local, repoPath);
+      }, lru);
+      if (!vcsRepository.isLazy())
+        vcsRepository.open();
+
+      final GiteaProject newProject = new GiteaProject(vcsRepository, repository.getId(), repository.getOwner().getLogin(), projectName);
       if (mapping.compute(projectKey, (key, value) -> value != null && value.getProjectId() == repository.getId() ? value : newProject) == newProject) {
         return newProject;
       }
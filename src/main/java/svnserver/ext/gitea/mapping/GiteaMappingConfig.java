@@ -43,6 +43,14 @@ public final class GiteaMappingConfig implements RepositoryMappingConfig {
   private DirectoryWatcher watcher;
   private int cacheTimeSec = 15;
   private int cacheMaximumSize = 1000;
+  /**
+   * Open and index repositories on first access instead of server startup.
+   */
+  private boolean lazyLoad = false;
+  /**
+   * Maximum opened repositories in lazy mode (0 - unlimited). Least recently used repositories are closed.
+   */
+  private int maxLoadedRepositories = 0;
 
   public GiteaMappingConfig() {
     this("/var/git/repositories/", GitCreateMode.ERROR);
@@ -75,6 +83,14 @@ public final class GiteaMappingConfig implements RepositoryMappingConfig {
     return cacheMaximumSize;
   }
 
+  boolean isLazyLoad() {
+    return lazyLoad;
+  }
+
+  int getMaxLoadedRepositories() {
+    return maxLoadedRepositories;
+  }
+
   @NotNull
   @Override
   public RepositoryMapping create(@NotNull SharedContext context, boolean canUseParallelIndexing) throws IOException {
@@ -103,11 +119,14 @@ public final class GiteaMappingConfig implements RepositoryMappingConfig {
       watcher = new DirectoryWatcher(path, new GiteaMapper(apiClient, mapping));
     }
 
+    if (lazyLoad)
+      return mapping;
+
     final Consumer<GiteaProject> init = repository -> {
       try {
         repository.initRevisions();
       } catch (IOException | SVNException e) {
-        throw new RuntimeException(String.format("[%s]: failed to initialize", repository.getContext().getName()), e);
+        throw new RuntimeException(String.format("[%s]: failed to initialize", repository), e);
       }
     };
 
@@ -8,16 +8,12 @@
 package svnserver.ext.gitea.mapping;
 
 import org.jetbrains.annotations.NotNull;
-import org.slf4j.Logger;
 import org.tmatesoft.svn.core.SVNException;
-import svnserver.Loggers;
-import svnserver.context.LocalContext;
 import svnserver.repository.git.BranchProvider;
 import svnserver.repository.git.GitBranch;
-import svnserver.repository.git.GitRepository;
+import svnserver.repository.git.GitRepositoryHolder;
 
 import java.io.IOException;
-import java.util.Collections;
 import java.util.NavigableMap;
 
 /**
@@ -28,19 +24,12 @@ import java.util.NavigableMap;
  */
 public class GiteaProject implements AutoCloseable, BranchProvider {
   @NotNull
-  private static final Logger log = Loggers.gitea;
-  @NotNull
-  private final GitRepository repository;
-  @NotNull
-  private final LocalContext context;
+  private final GitRepositoryHolder repository;
   private final long projectId;
   private final String owner;
   private final String repositoryName;
 
-  private volatile boolean ready = false;
-
-  GiteaProject(@NotNull LocalContext context, @NotNull GitRepository repository, long projectId, String owner, String repositoryName) {
-    this.context = context;
+  GiteaProject(@NotNull GitRepositoryHolder repository, long projectId, String owner, String repositoryName) {
     this.repository = repository;
     this.projectId = projectId;
     this.owner = owner;
@@ -48,19 +37,11 @@ public class GiteaProject implements AutoCloseable, BranchProvider {
   }
 
   void initRevisions() throws IOException, SVNException {
-    if (!ready) {
-      log.info("[{}]: initing...", context.getName());
-
-      for (GitBranch branch : repository.getBranches().values())
-        branch.updateRevisions();
-
-      ready = true;
-    }
+    repository.initRevisions();
   }
 
-  @NotNull
-  public LocalContext getContext() {
-    return context;
+  boolean isLazy() {
+    return repository.isLazy();
   }
 
   long getProjectId() {
@@ -76,26 +57,29 @@ public class GiteaProject implements AutoCloseable, BranchProvider {
   }
 
   @NotNull
-  public GitRepository getRepository() {
+  public GitRepositoryHolder getRepository() {
     return repository;
   }
 
-  boolean isReady() {
-    return ready;
-  }
-
   @Override
   public void close() {
-    try {
-      context.close();
-    } catch (Exception e) {
-      log.error("Can't close context for repository: " + context.getName(), e);
-    }
+    repository.close();
   }
 
   @NotNull
   @Override
   public NavigableMap<String, GitBranch> getBranches() {
-    return ready ? repository.getBranches() : Collections.emptyNavigableMap();
+    return repository.getBranches();
+  }
+
+  @NotNull
+  @Override
+  public Pin pin() {
+    return repository.pin();
+  }
+
+  @Override
+  public String toString() {
+    return repository.toString();
   }
 }
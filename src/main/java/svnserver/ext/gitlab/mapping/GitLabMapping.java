@@ -26,8 +26,7 @@ import svnserver.ext.gitlab.config.GitLabContext;
 import svnserver.ext.web.server.WebServer;
 import svnserver.repository.RepositoryMapping;
 import svnserver.repository.VcsAccess;
-import svnserver.repository.git.GitBranch;
-import svnserver.repository.git.GitRepository;
+import svnserver.repository.git.GitRepositoryHolder;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -46,7 +45,6 @@ import java.util.NavigableMap;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.stream.Collectors;
 
 /**
  * Simple repository mapping by predefined list.
@@ -67,11 +65,14 @@ final class GitLabMapping implements RepositoryMapping<GitLabProject> {
   @NotNull
   private final GitLabMappingConfig config;
   private final GitLabContext gitLabContext;
+  @Nullable
+  private final GitRepositoryHolder.Lru lru;
 
   GitLabMapping(@NotNull SharedContext context, @NotNull GitLabMappingConfig config, @NotNull GitLabContext gitLabContext) {
     this.context = context;
     this.config = config;
     this.gitLabContext = gitLabContext;
+    this.lru = config.isLazyLoad() ? new GitRepositoryHolder.Lru(config.getMaxLoadedRepositories()) : null;
   }
 
   @NotNull
@@ -91,8 +92,7 @@ final class GitLabMapping implements RepositoryMapping<GitLabProject> {
     final GitLabProject oldProject = mapping.get(projectKey);
 
     if (oldProject != null && oldProject.getProjectId() == project.getId()) {
-      final Set<String> oldBranches = oldProject.getBranches().values().stream().map(GitBranch::getShortBranchName).collect(Collectors.toSet());
-      if (oldBranches.equals(branches))
+      if (oldProject.getBranchNames().equals(branches))
         // Old project is good enough already
         return oldProject;
     }
@@ -102,13 +102,17 @@ final class GitLabMapping implements RepositoryMapping<GitLabProject> {
 
     final Path basePath = ConfigHelper.joinPath(context.getBasePath(), config.getPath());
     final String sha256 = Hashing.sha256().hashString(project.getId().toString(), Charset.defaultCharset()).toString();
-    Path repoPath = basePath.resolve(HASHED_PATH).resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256 + ".git");
-    if (!Files.exists(repoPath))
-      repoPath = ConfigHelper.joinPath(basePath, project.getPathWithNamespace() + ".git");
-    final LocalContext local = new LocalContext(context, project.getPathWithNamespace());
-    local.add(VcsAccess.class, new GitLabAccess(local, config, project.getId()));
-    final GitRepository repository = config.getTemplate().create(local, repoPath, branches);
-    final GitLabProject newProject = new GitLabProject(local, repository, project.getId());
+    final Path hashedPath = basePath.resolve(HASHED_PATH).resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256 + ".git");
+    final Path repoPath = Files.exists(hashedPath) ? hashedPath : ConfigHelper.joinPath(basePath, project.getPathWithNamespace() + ".git");
+    final GitRepositoryHolder repository = new GitRepositoryHolder(project.getPathWithNamespace(), () -> {
+      final LocalContext local = new LocalContext(context, project.getPathWithNamespace());
+      local.add(VcsAccess.class, new GitLabAccess(local, config, project.getId()));
+      return config.getTemplate().create(local, repoPath, branches);
+    }, lru);
+    if (!repository.isLazy())
+      repository.open();
+
+    final GitLabProject newProject = new GitLabProject(repository, branches, project.getId());
     if (mapping.compute(projectKey, (key, value) -> value != null && value.getProjectId() == project.getId() ? value : newProject) == newProject) {
       return newProject;
     }
@@ -203,8 +207,10 @@ final class GitLabMapping implements RepositoryMapping<GitLabProject> {
             final GitlabAPI api = gitLabContext.connect();
             final GitLabProject project = updateRepository(api.getProject(event.getProjectId()));
             if (project != null) {
-              log.info(event.getEventName() + " event happened, init project revisions ...");
-              project.initRevisions();
+              if (!project.isLazy()) {
+                log.info(event.getEventName() + " event happened, init project revisions ...");
+                project.initRevisions();
+              }
             } else {
               log.warn(event.getEventName() + " event happened, but can not found project!");
             }
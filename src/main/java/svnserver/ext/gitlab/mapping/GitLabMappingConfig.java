@@ -36,6 +36,14 @@ public final class GitLabMappingConfig implements RepositoryMappingConfig {
   private String path;
   private int cacheTimeSec = 15;
   private int cacheMaximumSize = 1000;
+  /**
+   * Open and index repositories on first access instead of server startup.
+   */
+  private boolean lazyLoad = false;
+  /**
+   * Maximum opened repositories in lazy mode (0 - unlimited). Least recently used repositories are closed.
+   */
+  private int maxLoadedRepositories = 0;
 
   public GitLabMappingConfig() {
     this("/var/opt/gitlab/git-data/repositories/", GitCreateMode.ERROR);
@@ -68,6 +76,14 @@ public final class GitLabMappingConfig implements RepositoryMappingConfig {
     return cacheMaximumSize;
   }
 
+  boolean isLazyLoad() {
+    return lazyLoad;
+  }
+
+  int getMaxLoadedRepositories() {
+    return maxLoadedRepositories;
+  }
+
   @NotNull
   @Override
   public RepositoryMapping create(@NotNull SharedContext context, boolean canUseParallelIndexing) throws IOException {
@@ -79,6 +95,9 @@ public final class GitLabMappingConfig implements RepositoryMappingConfig {
     for (GitlabProject project : api.getProjects())
       mapping.updateRepository(project);
 
+    if (lazyLoad)
+      return mapping;
+
     final Consumer<GitLabProject> init = repository -> {
       try {
         repository.initRevisions();
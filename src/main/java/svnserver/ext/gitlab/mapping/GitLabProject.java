@@ -8,17 +8,14 @@
 package svnserver.ext.gitlab.mapping;
 
 import org.jetbrains.annotations.NotNull;
-import org.slf4j.Logger;
 import org.tmatesoft.svn.core.SVNException;
-import svnserver.Loggers;
-import svnserver.context.LocalContext;
 import svnserver.repository.git.BranchProvider;
 import svnserver.repository.git.GitBranch;
-import svnserver.repository.git.GitRepository;
+import svnserver.repository.git.GitRepositoryHolder;
 
 import java.io.IOException;
-import java.util.Collections;
 import java.util.NavigableMap;
+import java.util.Set;
 
 /**
  * GitLab project information.
@@ -27,58 +24,61 @@ import java.util.NavigableMap;
  */
 public final class GitLabProject implements AutoCloseable, BranchProvider {
   @NotNull
-  private static final Logger log = Loggers.gitlab;
+  private final GitRepositoryHolder repository;
   @NotNull
-  private final GitRepository repository;
-  @NotNull
-  private final LocalContext context;
+  private final Set<String> branchNames;
   private final int projectId;
 
-  private volatile boolean ready = false;
-
-  GitLabProject(@NotNull LocalContext context, @NotNull GitRepository repository, int projectId) {
-    this.context = context;
+  GitLabProject(@NotNull GitRepositoryHolder repository, @NotNull Set<String> branchNames, int projectId) {
     this.repository = repository;
+    this.branchNames = branchNames;
     this.projectId = projectId;
   }
 
   void initRevisions() throws IOException, SVNException {
-    if (!ready) {
-      log.info("[{}]: initing...", context.getName());
-
-      for (GitBranch branch : repository.getBranches().values())
-        branch.updateRevisions();
-
-      ready = true;
-    }
+    repository.initRevisions();
   }
 
-  @NotNull
-  public LocalContext getContext() {
-    return context;
+  boolean isLazy() {
+    return repository.isLazy();
   }
 
   int getProjectId() {
     return projectId;
   }
 
+  /**
+   * Exposed branch names (known without opening repository).
+   */
+  @NotNull
+  Set<String> getBranchNames() {
+    return branchNames;
+  }
+
   @NotNull
-  public GitRepository getRepository() {
+  public GitRepositoryHolder getRepository() {
     return repository;
   }
 
   @Override
   public void close() {
-    try {
-      context.close();
-    } catch (Exception e) {
-      log.error("Can't close context for repository: " + context.getName(), e);
-    }
+    repository.close();
   }
 
   @NotNull
   @Override
   public NavigableMap<String, GitBranch> getBranches() {
-    return ready ? repository.getBranches() : Collections.emptyNavigableMap();
+    return repository.getBranches();
+  }
+
+  @NotNull
+  @Override
+  public Pin pin() {
+    return repository.pin();
+  }
+
+  @Override
+  public String toString() {
+    return repository.toString();
   }
 }
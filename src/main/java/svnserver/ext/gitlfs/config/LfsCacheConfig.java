@@ -0,0 +1,38 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.ext.gitlfs.config;
+
+import org.jetbrains.annotations.NotNull;
+import svnserver.config.ConfigHelper;
+import svnserver.config.SharedConfig;
+import svnserver.config.serializer.ConfigType;
+import svnserver.context.SharedContext;
+import svnserver.ext.gitlfs.storage.local.LfsCache;
+
+import java.io.IOException;
+
+/**
+ * Local disk cache for remote LFS storage.
+ */
+@ConfigType("lfsCache")
+public final class LfsCacheConfig implements SharedConfig {
+  /**
+   * Cache directory.
+   */
+  @NotNull
+  private String path = "lfs-cache";
+  /**
+   * Maximum cache size in megabytes.
+   */
+  private long maxSizeMb = 10 * 1024;
+
+  @Override
+  public void create(@NotNull SharedContext context) throws IOException {
+    context.add(LfsCache.class, new LfsCache(ConfigHelper.joinPath(context.getBasePath(), path), maxSizeMb * 1024 * 1024, context.getThreadPoolExecutor()));
+  }
+}
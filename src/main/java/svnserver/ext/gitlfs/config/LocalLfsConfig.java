@@ -16,9 +16,12 @@ import svnserver.context.SharedContext;
 import svnserver.ext.gitlfs.server.LfsServer;
 import svnserver.ext.gitlfs.storage.LfsStorage;
 import svnserver.ext.gitlfs.storage.LfsStorageFactory;
+import svnserver.ext.gitlfs.storage.chunked.LfsChunkStorage;
+import svnserver.ext.gitlfs.storage.chunked.LfsChunkStore;
 import svnserver.ext.gitlfs.storage.local.LfsLocalStorage;
 import svnserver.repository.locks.LocalLockManager;
 
+import java.io.IOException;
 import java.nio.file.Path;
 
 /**
@@ -43,6 +46,11 @@ public final class LocalLfsConfig implements SharedConfig, LfsStorageFactory {
   private String secretToken = "";
   @NotNull
   private LfsLayout layout = LfsLayout.OneLevel;
+  /**
+   * Store objects as deduplicated content-defined chunks instead of whole files.
+   * {@link #layout}, {@link #compress} and {@link #saveMeta} are ignored in this mode.
+   */
+  private boolean dedup = false;
 
   public LocalLfsConfig() {
     this("lfs", true);
@@ -54,13 +62,19 @@ public final class LocalLfsConfig implements SharedConfig, LfsStorageFactory {
   }
 
   @Override
-  public void create(@NotNull SharedContext context) {
+  public void create(@NotNull SharedContext context) throws IOException {
+    if (dedup)
+      context.add(LfsChunkStore.class, new LfsChunkStore(ConfigHelper.joinPath(context.getBasePath(), path)));
+
     context.add(LfsStorageFactory.class, this);
     context.add(LfsServer.class, new LfsServer(secretToken, tokenExpireSec, tokenEnsureTime));
   }
 
   @NotNull
   public LfsStorage createStorage(@NotNull LocalContext context) {
+    if (dedup)
+      return new LfsChunkStorage(LocalLockManager.getPersistentStorage(context), context.getShared().sure(LfsChunkStore.class), LfsChunkStorage.getManifestRoot(context));
+
     final Path dataRoot = ConfigHelper.joinPath(context.getShared().getBasePath(), path);
 
     return new LfsLocalStorage(
@@ -68,7 +82,8 @@ public final class LocalLfsConfig implements SharedConfig, LfsStorageFactory {
         layout,
         dataRoot,
         saveMeta ? LfsLocalStorage.getMetaRoot(context) : null,
-        compress
+        compress,
+        context.getShared().getThreadPoolExecutor()
     );
   }
 
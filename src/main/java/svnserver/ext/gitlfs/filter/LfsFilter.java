@@ -7,10 +7,8 @@
  */
 package svnserver.ext.gitlfs.filter;
 
-import org.apache.commons.io.IOUtils;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ObjectLoader;
-import org.eclipse.jgit.lib.ObjectStream;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import ru.bozaro.gitlfs.common.data.Meta;
@@ -26,11 +24,15 @@ import svnserver.ext.gitlfs.storage.LfsWriter;
 import svnserver.repository.SvnForbiddenException;
 import svnserver.repository.git.GitObject;
 import svnserver.repository.git.filter.GitFilter;
+import svnserver.repository.git.filter.GitFilterCache;
 import svnserver.repository.git.filter.GitFilterHelper;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -46,11 +48,17 @@ public final class LfsFilter implements GitFilter {
   @Nullable
   private final LfsStorage storage;
   @NotNull
-  private final Map<String, String> cacheMd5;
+  private final GitFilterCache cache;
+  /**
+   * Blob id -> "size" for plain blobs or "size oid" for LFS pointers.
+   */
+  @NotNull
+  private final Map<String, String> cacheBlobMeta;
 
   public LfsFilter(@NotNull LocalContext context, @Nullable LfsStorage lfsStorage) {
     this.storage = lfsStorage;
-    this.cacheMd5 = GitFilterHelper.getCacheMd5(this, context.getShared().getCacheDB());
+    this.cache = GitFilterHelper.getCache(this, context.getShared().getCacheStore());
+    this.cacheBlobMeta = GitFilterHelper.getCacheBlobMeta(this, context.getShared().getCacheStore());
     final LfsServer lfsServer = context.getShared().get(LfsServer.class);
     if (storage != null && lfsServer != null) {
       context.add(LfsServerEntry.class, new LfsServerEntry(lfsServer, context, storage));
@@ -66,49 +74,73 @@ public final class LfsFilter implements GitFilter {
   @NotNull
   @Override
   public String getMd5(@NotNull GitObject<? extends ObjectId> objectId) throws IOException {
-    final ObjectLoader loader = objectId.openObject();
-
-    try (ObjectStream stream = loader.openStream()) {
-      final Meta meta = parseMeta(stream);
-      if (meta != null) {
-        final String md5 = getReader(meta).getMd5();
-        if (md5 != null)
-          return md5;
-      }
+    final BlobMeta blob = getBlobMeta(objectId);
+    if (blob.pointer != null) {
+      final String md5 = getReader(blob.pointer).getMd5();
+      if (md5 != null)
+        return md5;
     }
 
-    return GitFilterHelper.getMd5(this, cacheMd5, null, objectId);
+    return GitFilterHelper.getMd5(this, cache, objectId);
   }
 
   @Override
   public long getSize(@NotNull GitObject<? extends ObjectId> objectId) throws IOException {
-    final ObjectLoader loader = objectId.openObject();
+    return getBlobMeta(objectId).size;
+  }
+
+  @NotNull
+  @Override
+  public InputStream inputStream(@NotNull GitObject<? extends ObjectId> objectId) throws IOException {
+    final BlobMeta blob = getBlobMeta(objectId);
+    if (blob.pointer != null)
+      return getReader(blob.pointer).openStream();
+
+    return objectId.openObject().openStream();
+  }
 
-    try (ObjectStream stream = loader.openStream()) {
-      final Meta meta = parseMeta(stream);
+  @Override
+  public void prefetch(@NotNull Collection<GitObject<? extends ObjectId>> objectIds) throws IOException {
+    if (storage == null)
+      return;
+
+    final List<Meta> metas = new ArrayList<>();
+    for (GitObject<? extends ObjectId> objectId : objectIds) {
+      final Meta meta = getBlobMeta(objectId).pointer;
       if (meta != null)
-        return meta.getSize();
+        metas.add(meta);
     }
 
-    return loader.getSize();
+    if (!metas.isEmpty())
+      storage.prefetch(metas);
   }
 
+  /**
+   * Get blob metadata. Pointer-ness depends only on blob id, so every blob is parsed once.
+   */
   @NotNull
-  @Override
-  public InputStream inputStream(@NotNull GitObject<? extends ObjectId> objectId) throws IOException {
-    final ObjectLoader loader = objectId.openObject();
-    try (ObjectStream stream = loader.openStream()) {
-      final byte[] header = new byte[Constants.POINTER_MAX_SIZE];
-      int length = IOUtils.read(stream, header, 0, header.length);
-      if (length < header.length) {
-        final Meta meta = parseMeta(header, length);
-        if (meta != null)
-          return getReader(meta).openStream();
-      }
+  private BlobMeta getBlobMeta(@NotNull GitObject<? extends ObjectId> objectId) throws IOException {
+    final String key = objectId.getObject().name();
+    final String cached = cacheBlobMeta.get(key);
+    if (cached != null) {
+      final int separator = cached.indexOf(' ');
+      if (separator < 0)
+        return new BlobMeta(Long.parseLong(cached), null);
+
+      final long size = Long.parseLong(cached.substring(0, separator));
+      return new BlobMeta(size, new Meta(cached.substring(separator + 1), size));
+    }
 
-      // We need to re-open stream
-      return loader.openStream();
+    final ObjectLoader loader = objectId.openObject();
+    final long blobSize = loader.getSize();
+    final Meta meta = blobSize < Constants.POINTER_MAX_SIZE ? parseMeta(loader.getCachedBytes(), (int) blobSize) : null;
+    if (meta == null) {
+      cacheBlobMeta.putIfAbsent(key, Long.toString(blobSize));
+      return new BlobMeta(blobSize, null);
     }
+
+    cacheBlobMeta.putIfAbsent(key, meta.getSize() + " " + meta.getOid());
+    return new BlobMeta(meta.getSize(), meta);
   }
 
   @NotNull
@@ -117,16 +149,6 @@ public final class LfsFilter implements GitFilter {
     return new TemporaryOutputStream(getStorage().getWriter(user), stream);
   }
 
-  @Nullable
-  private static Meta parseMeta(@NotNull InputStream stream) throws IOException {
-    final byte[] header = new byte[Constants.POINTER_MAX_SIZE];
-    int length = IOUtils.read(stream, header, 0, header.length);
-    if (length >= header.length)
-      return null;
-
-    return parseMeta(header, length);
-  }
-
   @NotNull
   private LfsReader getReader(@NotNull Meta meta) throws IOException {
     final LfsReader reader = getStorage().getReader(meta.getOid(), meta.getSize());
@@ -155,6 +177,17 @@ public final class LfsFilter implements GitFilter {
     return storage;
   }
 
+  private static final class BlobMeta {
+    private final long size;
+    @Nullable
+    private final Meta pointer;
+
+    private BlobMeta(long size, @Nullable Meta pointer) {
+      this.size = size;
+      this.pointer = pointer;
+    }
+  }
+
   private static class TemporaryOutputStream extends OutputStream {
     @NotNull
     private final LfsWriter dataStream;
@@ -0,0 +1,189 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.ext.gitlfs.server;
+
+import org.eclipse.jetty.server.HttpOutput;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import ru.bozaro.gitlfs.common.Constants;
+import ru.bozaro.gitlfs.server.ContentServlet;
+import ru.bozaro.gitlfs.server.ForbiddenError;
+import ru.bozaro.gitlfs.server.UnauthorizedError;
+import svnserver.ext.gitlfs.storage.LfsReader;
+import svnserver.ext.gitlfs.storage.LfsStorage;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * LFS content servlet with fast path for objects stored as uncompressed local files (local storage or cache).
+ * <p>
+ * Such objects are sent directly from {@link LfsReader#openChannel()} with HTTP Range and ETag support.
+ * All other requests are processed by generic {@link ContentServlet}.
+ */
+final class LfsContentServlet extends HttpServlet {
+  @NotNull
+  static final long[] RANGE_NOT_SATISFIABLE = new long[0];
+  @NotNull
+  private static final Pattern PATTERN_OID = Pattern.compile("^/([0-9a-f]{64})$");
+  @NotNull
+  private static final Pattern PATTERN_RANGE = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
+
+  @NotNull
+  private final LfsContentManager manager;
+  @NotNull
+  private final ContentServlet fallback;
+
+  LfsContentServlet(@NotNull LfsContentManager manager) {
+    this.manager = manager;
+    this.fallback = new ContentServlet(manager);
+  }
+
+  @Override
+  public void init(@NotNull ServletConfig config) throws ServletException {
+    super.init(config);
+    fallback.init(config);
+  }
+
+  @Override
+  public void destroy() {
+    fallback.destroy();
+    super.destroy();
+  }
+
+  @Override
+  protected void service(@NotNull HttpServletRequest req, @NotNull HttpServletResponse resp) throws ServletException, IOException {
+    if (!"GET".equals(req.getMethod()) || !sendLocal(req, resp))
+      fallback.service((ServletRequest) req, (ServletResponse) resp);
+  }
+
+  private boolean sendLocal(@NotNull HttpServletRequest req, @NotNull HttpServletResponse resp) throws IOException {
+    final String pathInfo = req.getPathInfo();
+    final Matcher matcher = pathInfo == null ? null : PATTERN_OID.matcher(pathInfo);
+    if (matcher == null || !matcher.matches())
+      return false;
+
+    try {
+      manager.checkDownload(req);
+    } catch (UnauthorizedError | ForbiddenError e) {
+      return false;
+    }
+
+    final String hash = matcher.group(1);
+    final LfsReader reader = manager.getStorage().getReader(LfsStorage.OID_PREFIX + hash, -1);
+    final FileChannel file = reader == null ? null : reader.openChannel();
+    if (file == null)
+      return false;
+
+    try (FileChannel channel = file) {
+      final String etag = '"' + hash + '"';
+      resp.setHeader("ETag", etag);
+      resp.setHeader("Accept-Ranges", "bytes");
+      if (etag.equals(req.getHeader("If-None-Match"))) {
+        resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        return true;
+      }
+
+      final long size = channel.size();
+      final String ifRange = req.getHeader("If-Range");
+      final long[] range = ifRange == null || ifRange.equals(etag) ? parseRange(req.getHeader("Range"), size) : null;
+      if (range == RANGE_NOT_SATISFIABLE) {
+        resp.setHeader("Content-Range", "bytes */" + size);
+        resp.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        return true;
+      }
+
+      final long offset = range == null ? 0 : range[0];
+      final long length = range == null ? size : range[1] - range[0] + 1;
+      if (range != null) {
+        resp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        resp.setHeader("Content-Range", "bytes " + range[0] + "-" + range[1] + "/" + size);
+      } else {
+        resp.setStatus(HttpServletResponse.SC_OK);
+      }
+      resp.setContentType(Constants.MIME_BINARY);
+      resp.setContentLengthLong(length);
+
+      final ServletOutputStream output = resp.getOutputStream();
+      if (output instanceof HttpOutput && length <= Integer.MAX_VALUE) {
+        // Memory mapped buffer is written to socket without copying to heap.
+        ((HttpOutput) output).sendContent(channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+      } else {
+        final WritableByteChannel target = Channels.newChannel(output);
+        long position = offset;
+        final long end = offset + length;
+        while (position < end) {
+          final long sent = channel.transferTo(position, end - position, target);
+          if (sent <= 0)
+            break;
+          position += sent;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Parse HTTP Range header. Only single byte range is supported.
+   *
+   * @param header Range header value.
+   * @param size   Content size.
+   * @return Range bounds (inclusive), null for full content or {@link #RANGE_NOT_SATISFIABLE}.
+   */
+  @Nullable
+  static long[] parseRange(@Nullable String header, long size) {
+    if (header == null)
+      return null;
+
+    final Matcher matcher = PATTERN_RANGE.matcher(header.trim());
+    if (!matcher.matches())
+      return null;
+
+    final String first = matcher.group(1);
+    final String last = matcher.group(2);
+    try {
+      final long start;
+      final long end;
+      if (first.isEmpty()) {
+        if (last.isEmpty())
+          return null;
+
+        // Suffix range: last N bytes
+        final long suffix = Long.parseLong(last);
+        if (suffix == 0)
+          return RANGE_NOT_SATISFIABLE;
+        start = Math.max(0, size - suffix);
+        end = size - 1;
+      } else {
+        start = Long.parseLong(first);
+        end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+        if (!last.isEmpty() && Long.parseLong(last) < start)
+          return null;
+      }
+
+      if (start >= size)
+        return RANGE_NOT_SATISFIABLE;
+
+      return new long[]{start, end};
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+}
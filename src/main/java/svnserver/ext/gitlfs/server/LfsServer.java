@@ -10,7 +10,6 @@ package svnserver.ext.gitlfs.server;
 import com.google.common.collect.ImmutableMap;
 import org.jetbrains.annotations.NotNull;
 import ru.bozaro.gitlfs.server.ContentManager;
-import ru.bozaro.gitlfs.server.ContentServlet;
 import ru.bozaro.gitlfs.server.LocksServlet;
 import ru.bozaro.gitlfs.server.PointerServlet;
 import svnserver.context.Local;
@@ -59,7 +58,7 @@ public final class LfsServer implements Shared {
         ImmutableMap.<String, Servlet>builder()
             .put(pathSpec + SERVLET_AUTH, new LfsAuthServlet(localContext, pathSpec + SERVLET_BASE, secretToken, tokenExpireSec, tokenEnsureTime))
             .put(pathSpec + SERVLET_POINTER + "/*", new PointerServlet(pointerManager, pathSpec + SERVLET_CONTENT))
-            .put(pathSpec + SERVLET_CONTENT + "/*", new ContentServlet(contentManager))
+            .put(pathSpec + SERVLET_CONTENT + "/*", new LfsContentServlet(contentManager))
             .put(pathSpec + SERVLET_BASE + "locks/*", new LocksServlet(new LfsLockManager(contentManager)))
             .build()
     );
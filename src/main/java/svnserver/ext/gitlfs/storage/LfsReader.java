@@ -12,6 +12,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 
 /**
  * Interface for reading LFS file.
@@ -33,6 +34,18 @@ public interface LfsReader {
   @Nullable
   InputStream openGzipStream() throws IOException;
 
+  /**
+   * Open uncompressed object file for zero-copy sending.
+   * <p>
+   * Object file is kept until returned channel is closed.
+   *
+   * @return Can return null if object is not stored as uncompressed local file.
+   */
+  @Nullable
+  default FileChannel openChannel() throws IOException {
+    return null;
+  }
+
   /**
    * Object size.
    */
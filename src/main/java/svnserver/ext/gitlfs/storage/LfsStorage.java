@@ -9,11 +9,13 @@ package svnserver.ext.gitlfs.storage;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import ru.bozaro.gitlfs.common.data.Meta;
 import svnserver.auth.User;
 import svnserver.context.Local;
 import svnserver.repository.locks.LockStorage;
 
 import java.io.IOException;
+import java.util.Collection;
 
 /**
  * GIT LFS storage interface.
@@ -34,6 +36,17 @@ public interface LfsStorage extends Local, LockStorage {
   @Nullable
   LfsReader getReader(@NotNull String oid, long size) throws IOException;
 
+  /**
+   * Hint that objects will be read soon.
+   * <p>
+   * Storage can resolve all objects at once instead of doing it in {@link #getReader(String, long)} one by one.
+   *
+   * @param objects Objects with full oid and size.
+   * @throws IOException .
+   */
+  default void prefetch(@NotNull Collection<Meta> objects) throws IOException {
+  }
+
   /**
    * Create writer for object.
    *
@@ -11,6 +11,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import svnserver.context.LocalContext;
 import svnserver.context.Shared;
+import svnserver.ext.gitlfs.storage.local.LfsCache;
 
 /**
  * GIT LFS storage factory for Local context.
@@ -22,7 +23,12 @@ public interface LfsStorageFactory extends Shared {
   @Nullable
   static LfsStorage tryCreateStorage(@NotNull LocalContext context) {
     final LfsStorageFactory storageFactory = context.getShared().get(LfsStorageFactory.class);
-    return storageFactory == null ? null : storageFactory.createStorage(context);
+    if (storageFactory == null)
+      return null;
+
+    final LfsStorage storage = storageFactory.createStorage(context);
+    final LfsCache cache = context.getShared().get(LfsCache.class);
+    return cache == null ? storage : cache.wrap(storage);
   }
 
   @NotNull
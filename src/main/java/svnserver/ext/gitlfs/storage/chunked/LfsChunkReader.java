@@ -0,0 +1,111 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.ext.gitlfs.storage.chunked;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import svnserver.ext.gitlfs.storage.LfsReader;
+import svnserver.ext.gitlfs.storage.LfsStorage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Chunk storage reader. Object content is assembled from chunks on the fly.
+ */
+final class LfsChunkReader implements LfsReader {
+  @NotNull
+  private final LfsChunkStore store;
+  @NotNull
+  private final LfsChunkStore.Manifest manifest;
+
+  LfsChunkReader(@NotNull LfsChunkStore store, @NotNull LfsChunkStore.Manifest manifest) {
+    this.store = store;
+    this.manifest = manifest;
+  }
+
+  @NotNull
+  @Override
+  public InputStream openStream() {
+    return new ChunkInputStream(manifest.chunks.iterator());
+  }
+
+  @Nullable
+  @Override
+  public InputStream openGzipStream() {
+    return null;
+  }
+
+  @Override
+  public long getSize() {
+    return manifest.size;
+  }
+
+  @NotNull
+  @Override
+  public String getMd5() {
+    return manifest.md5;
+  }
+
+  @NotNull
+  @Override
+  public String getOid(boolean hashOnly) {
+    return hashOnly ? manifest.oid.substring(LfsStorage.OID_PREFIX.length()) : manifest.oid;
+  }
+
+  private final class ChunkInputStream extends InputStream {
+    @NotNull
+    private final Iterator<LfsChunkStore.ChunkId> chunks;
+    @NotNull
+    private byte[] chunk = new byte[0];
+    private int offset;
+
+    private ChunkInputStream(@NotNull Iterator<LfsChunkStore.ChunkId> chunks) {
+      this.chunks = chunks;
+    }
+
+    private boolean fill() throws IOException {
+      while (offset >= chunk.length) {
+        if (!chunks.hasNext())
+          return false;
+
+        chunk = store.readChunk(chunks.next());
+        offset = 0;
+      }
+      return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (!fill())
+        return -1;
+
+      return chunk[offset++] & 0xFF;
+    }
+
+    @Override
+    public int read(@NotNull byte[] b, int off, int len) throws IOException {
+      if (len == 0)
+        return 0;
+
+      if (!fill())
+        return -1;
+
+      final int count = Math.min(len, chunk.length - offset);
+      System.arraycopy(chunk, offset, b, off, count);
+      offset += count;
+      return count;
+    }
+
+    @Override
+    public int available() {
+      return chunk.length - offset;
+    }
+  }
+}
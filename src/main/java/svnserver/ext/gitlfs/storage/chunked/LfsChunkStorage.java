@@ -0,0 +1,60 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.ext.gitlfs.storage.chunked;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import svnserver.auth.User;
+import svnserver.context.LocalContext;
+import svnserver.ext.gitlfs.storage.local.LfsLocalStorage;
+import svnserver.ext.gitlfs.storage.LfsReader;
+import svnserver.ext.gitlfs.storage.LfsStorage;
+import svnserver.ext.gitlfs.storage.LfsWriter;
+import svnserver.repository.locks.LocalLockManager;
+import svnserver.repository.locks.LockDesc;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SortedMap;
+
+/**
+ * Local LFS storage with content-defined chunk deduplication.
+ * <p>
+ * Chunks are deduplicated across repositories, but object manifests are kept in repository directory,
+ * so repository can't read objects uploaded to other repositories.
+ */
+public final class LfsChunkStorage extends LocalLockManager implements LfsStorage {
+  @NotNull
+  private final LfsChunkStore store;
+  @NotNull
+  private final Path manifestRoot;
+
+  public LfsChunkStorage(@NotNull SortedMap<String, LockDesc> locks, @NotNull LfsChunkStore store, @NotNull Path manifestRoot) {
+    super(locks);
+    this.store = store;
+    this.manifestRoot = manifestRoot;
+  }
+
+  @NotNull
+  public static Path getManifestRoot(@NotNull LocalContext context) {
+    return LfsLocalStorage.getMetaRoot(context).resolveSibling("chunks");
+  }
+
+  @Nullable
+  @Override
+  public LfsReader getReader(@NotNull String oid, long size) throws IOException {
+    final LfsChunkStore.Manifest manifest = store.readManifest(manifestRoot, oid);
+    return manifest == null ? null : new LfsChunkReader(store, manifest);
+  }
+
+  @NotNull
+  @Override
+  public LfsWriter getWriter(@NotNull User user) {
+    return new LfsChunkWriter(store, manifestRoot);
+  }
+}
@@ -0,0 +1,358 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.ext.gitlfs.storage.chunked;
+
+import org.apache.commons.codec.binary.Hex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import svnserver.HashHelper;
+import svnserver.Loggers;
+import svnserver.context.Shared;
+import svnserver.ext.gitlfs.config.LocalLfsConfig;
+import svnserver.ext.gitlfs.storage.LfsStorage;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deduplicating storage of LFS object chunks.
+ * <p>
+ * Unique chunks are appended to pack files. Chunk locations are written to append-only index file,
+ * which is loaded to memory on startup. Every object is stored as manifest with its size, md5 and list of chunks.
+ * <p>
+ * Chunks are shared by all repositories, while manifests are stored per repository: object is visible only
+ * in repositories where it was uploaded.
+ * <p>
+ * Pack data is forced to disk before index record and index is forced before manifest is published,
+ * so after crash manifest never refers to lost chunk. Chunk hash is also checked on every read.
+ */
+public final class LfsChunkStore implements Shared {
+  static final int HASH_SIZE = 32;
+
+  @NotNull
+  private static final Logger log = Loggers.lfs;
+  private static final int MANIFEST_MAGIC = 0x4C434D31; // LCM1
+  private static final int INDEX_RECORD_SIZE = HASH_SIZE + 4 + 8 + 4;
+  private static final long MAX_PACK_SIZE = 1024L * 1024 * 1024;
+  @NotNull
+  private static final LocalLfsConfig.LfsLayout layout = LocalLfsConfig.LfsLayout.TwoLevels;
+
+  @NotNull
+  private final Path packRoot;
+  @NotNull
+  private final Map<ChunkId, ChunkLocation> index = new ConcurrentHashMap<>();
+  @NotNull
+  private final Map<Integer, FileChannel> readChannels = new ConcurrentHashMap<>();
+  @NotNull
+  private final FileChannel indexChannel;
+  @NotNull
+  private FileChannel packChannel;
+  private int packId;
+
+  public LfsChunkStore(@NotNull Path root) throws IOException {
+    this.packRoot = Files.createDirectories(root.resolve("packs"));
+
+    indexChannel = FileChannel.open(root.resolve("index"), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    loadIndex();
+
+    packChannel = openPack(packId);
+  }
+
+  private void loadIndex() throws IOException {
+    final ByteBuffer record = ByteBuffer.allocate(INDEX_RECORD_SIZE);
+    long position = 0;
+    while (true) {
+      record.clear();
+      while (record.hasRemaining() && indexChannel.read(record, position + record.position()) > 0) {
+        // Read whole record
+      }
+      if (record.hasRemaining())
+        break;
+
+      record.flip();
+      final byte[] hash = new byte[HASH_SIZE];
+      record.get(hash);
+      final ChunkLocation location = new ChunkLocation(record.getInt(), record.getLong(), record.getInt());
+      final Path pack = getPackPath(location.pack);
+      if (!Files.exists(pack) || Files.size(pack) < location.offset + location.length)
+        break;
+
+      index.put(new ChunkId(hash), location);
+      packId = Math.max(packId, location.pack);
+      position += INDEX_RECORD_SIZE;
+    }
+
+    if (indexChannel.size() != position) {
+      log.warn("LFS chunk index is truncated to last valid record: {} -> {} bytes", indexChannel.size(), position);
+      indexChannel.truncate(position);
+    }
+    indexChannel.position(position);
+    log.info("LFS chunk store: {} chunks", index.size());
+  }
+
+  @NotNull
+  private FileChannel openPack(int id) throws IOException {
+    final FileChannel channel = FileChannel.open(getPackPath(id), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    channel.position(channel.size());
+    return channel;
+  }
+
+  @NotNull
+  private Path getPackPath(int id) {
+    return packRoot.resolve(String.format("%08d.pack", id));
+  }
+
+  /**
+   * Store chunk if it is not stored yet.
+   *
+   * @return Chunk id.
+   */
+  @NotNull
+  ChunkId putChunk(@NotNull byte[] data, int length) throws IOException {
+    final ChunkId id = new ChunkId(sha256(data, length));
+    if (index.containsKey(id))
+      return id;
+
+    synchronized (this) {
+      if (index.containsKey(id))
+        return id;
+
+      if (packChannel.position() > 0 && packChannel.position() + length > MAX_PACK_SIZE) {
+        packChannel.close();
+        packId++;
+        packChannel = openPack(packId);
+      }
+
+      final ChunkLocation location = new ChunkLocation(packId, packChannel.position(), length);
+      writeFully(packChannel, ByteBuffer.wrap(data, 0, length));
+
+      // Index record is written only after chunk data is on disk.
+      packChannel.force(false);
+      final ByteBuffer record = ByteBuffer.allocate(INDEX_RECORD_SIZE);
+      record.put(id.hash).putInt(location.pack).putLong(location.offset).putInt(location.length);
+      record.flip();
+      writeFully(indexChannel, record);
+
+      index.put(id, location);
+    }
+    return id;
+  }
+
+  /**
+   * Read chunk content.
+   */
+  @NotNull
+  byte[] readChunk(@NotNull ChunkId id) throws IOException {
+    final ChunkLocation location = index.get(id);
+    if (location == null)
+      throw new FileNotFoundException("LFS chunk not found: " + id);
+
+    FileChannel channel = readChannels.get(location.pack);
+    if (channel == null) {
+      final FileChannel newChannel = FileChannel.open(getPackPath(location.pack), StandardOpenOption.READ);
+      channel = readChannels.putIfAbsent(location.pack, newChannel);
+      if (channel == null) {
+        channel = newChannel;
+      } else {
+        newChannel.close();
+      }
+    }
+
+    final ByteBuffer buffer = ByteBuffer.allocate(location.length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, location.offset + buffer.position()) < 0)
+        throw new EOFException("Unexpected end of LFS pack file: " + getPackPath(location.pack));
+    }
+    if (!Arrays.equals(sha256(buffer.array(), location.length), id.hash))
+      throw new IOException("Corrupt LFS chunk " + id + " in pack file: " + getPackPath(location.pack));
+
+    return buffer.array();
+  }
+
+  @NotNull
+  private static byte[] sha256(@NotNull byte[] data, int length) {
+    final MessageDigest digest = HashHelper.sha256();
+    digest.update(data, 0, length);
+    return digest.digest();
+  }
+
+  /**
+   * Read object manifest.
+   *
+   * @param manifestRoot Repository manifest directory.
+   * @return Manifest or null if object is not stored in repository.
+   */
+  @Nullable
+  Manifest readManifest(@NotNull Path manifestRoot, @NotNull String oid) throws IOException {
+    final Path path = getManifestPath(manifestRoot, oid);
+    if (path == null)
+      return null;
+
+    try (DataInputStream stream = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      if (stream.readInt() != MANIFEST_MAGIC)
+        throw new IOException("Corrupt LFS manifest file: " + path);
+
+      final long size = stream.readLong();
+      final String md5 = stream.readUTF();
+      final int count = stream.readInt();
+      final List<ChunkId> chunks = new ArrayList<>(count);
+      for (int i = 0; i < count; ++i) {
+        final byte[] hash = new byte[HASH_SIZE];
+        stream.readFully(hash);
+        chunks.add(new ChunkId(hash));
+      }
+      return new Manifest(oid, size, md5, chunks);
+    } catch (NoSuchFileException ignored) {
+      return null;
+    }
+  }
+
+  /**
+   * Publish object manifest in repository.
+   *
+   * @param manifestRoot Repository manifest directory.
+   */
+  void writeManifest(@NotNull Path manifestRoot, @NotNull Manifest manifest) throws IOException {
+    final Path path = getManifestPath(manifestRoot, manifest.oid);
+    if (path == null)
+      throw new IllegalStateException();
+
+    if (Files.exists(path))
+      return;
+
+    // Index records of manifest chunks must be on disk before manifest
+    synchronized (this) {
+      indexChannel.force(false);
+    }
+
+    Files.createDirectories(path.getParent());
+    final Path temp = path.resolveSibling(UUID.randomUUID().toString() + ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+        final DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+        stream.writeInt(MANIFEST_MAGIC);
+        stream.writeLong(manifest.size);
+        stream.writeUTF(manifest.md5);
+        stream.writeInt(manifest.chunks.size());
+        for (ChunkId chunk : manifest.chunks)
+          stream.write(chunk.hash);
+        stream.flush();
+        channel.force(false);
+      }
+
+      try {
+        Files.move(temp, path);
+      } catch (IOException e) {
+        if (!Files.isRegularFile(path))
+          throw e;
+      }
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  @Nullable
+  private static Path getManifestPath(@NotNull Path manifestRoot, @NotNull String oid) {
+    if (!oid.startsWith(LfsStorage.OID_PREFIX))
+      return null;
+
+    return manifestRoot.resolve(layout.getPath(oid.substring(LfsStorage.OID_PREFIX.length())));
+  }
+
+  /**
+   * Total size of stored chunks.
+   */
+  public long getStoredSize() {
+    long result = 0;
+    for (ChunkLocation location : index.values())
+      result += location.length;
+    return result;
+  }
+
+  private static void writeFully(@NotNull FileChannel channel, @NotNull ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining())
+      channel.write(buffer);
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    for (FileChannel channel : readChannels.values())
+      channel.close();
+    readChannels.clear();
+    packChannel.close();
+    indexChannel.close();
+  }
+
+  private static final class ChunkLocation {
+    private final int pack;
+    private final long offset;
+    private final int length;
+
+    private ChunkLocation(int pack, long offset, int length) {
+      this.pack = pack;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+
+  static final class ChunkId {
+    @NotNull
+    private final byte[] hash;
+    private final int hashCode;
+
+    private ChunkId(@NotNull byte[] hash) {
+      this.hash = hash;
+      this.hashCode = Arrays.hashCode(hash);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      return Arrays.equals(hash, ((ChunkId) o).hash);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public String toString() {
+      return Hex.encodeHexString(hash);
+    }
+  }
+
+  static final class Manifest {
+    @NotNull
+    final String oid;
+    final long size;
+    @NotNull
+    final String md5;
+    @NotNull
+    final List<ChunkId> chunks;
+
+    Manifest(@NotNull String oid, long size, @NotNull String md5, @NotNull List<ChunkId> chunks) {
+      this.oid = oid;
+      this.size = size;
+      this.md5 = md5;
+      this.chunks = chunks;
+    }
+  }
+}
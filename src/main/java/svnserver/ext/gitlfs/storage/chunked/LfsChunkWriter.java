@@ -0,0 +1,133 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.ext.gitlfs.storage.chunked;
+
+import org.apache.commons.codec.binary.Hex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import svnserver.HashHelper;
+import svnserver.ext.gitlfs.storage.LfsStorage;
+import svnserver.ext.gitlfs.storage.LfsWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Chunk storage writer.
+ * <p>
+ * Chunk boundaries are found by gear rolling hash, so they depend only on content near boundary and
+ * insertions or deletions in one part of file don't change chunks in other parts.
+ */
+final class LfsChunkWriter extends LfsWriter {
+  static final int MIN_CHUNK_SIZE = 256 * 1024;
+  static final int MAX_CHUNK_SIZE = 4 * 1024 * 1024;
+  // Average chunk size is about MIN_CHUNK_SIZE + 2^20
+  private static final long BOUNDARY_MASK = -1L << (64 - 20);
+  @NotNull
+  private static final long[] GEAR = createGear();
+
+  @NotNull
+  private final LfsChunkStore store;
+  @NotNull
+  private final Path manifestRoot;
+  @NotNull
+  private final MessageDigest digestMd5 = HashHelper.md5();
+  @NotNull
+  private final MessageDigest digestSha = HashHelper.sha256();
+  @NotNull
+  private final List<LfsChunkStore.ChunkId> chunks = new ArrayList<>();
+  @NotNull
+  private byte[] buffer = new byte[64 * 1024];
+  private int bufferSize;
+  private long hash;
+  private long size;
+  private boolean finished;
+
+  LfsChunkWriter(@NotNull LfsChunkStore store, @NotNull Path manifestRoot) {
+    this.store = store;
+    this.manifestRoot = manifestRoot;
+  }
+
+  @NotNull
+  private static long[] createGear() {
+    // Fixed seed: chunk boundaries must be stable between runs.
+    final Random random = new Random(0x6C66734368756E6BL);
+    final long[] result = new long[256];
+    for (int i = 0; i < result.length; ++i)
+      result[i] = random.nextLong();
+    return result;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    write(new byte[]{(byte) b}, 0, 1);
+  }
+
+  @Override
+  public void write(@NotNull byte[] b, int off, int len) throws IOException {
+    if (finished)
+      throw new IllegalStateException();
+
+    digestMd5.update(b, off, len);
+    digestSha.update(b, off, len);
+    size += len;
+
+    final int end = off + len;
+    int start = off;
+    for (int i = off; i < end; ++i) {
+      hash = (hash << 1) + GEAR[b[i] & 0xFF];
+      final int chunkSize = bufferSize + (i - start) + 1;
+      if (chunkSize >= MAX_CHUNK_SIZE || (chunkSize >= MIN_CHUNK_SIZE && (hash & BOUNDARY_MASK) == 0)) {
+        append(b, start, i - start + 1);
+        start = i + 1;
+        flushChunk();
+      }
+    }
+    append(b, start, end - start);
+  }
+
+  private void append(@NotNull byte[] b, int off, int len) {
+    if (bufferSize + len > buffer.length)
+      buffer = Arrays.copyOf(buffer, Math.min(Math.max(buffer.length * 2, bufferSize + len), MAX_CHUNK_SIZE));
+
+    System.arraycopy(b, off, buffer, bufferSize, len);
+    bufferSize += len;
+  }
+
+  private void flushChunk() throws IOException {
+    if (bufferSize == 0)
+      return;
+
+    chunks.add(store.putChunk(buffer, bufferSize));
+    bufferSize = 0;
+    hash = 0;
+  }
+
+  @NotNull
+  @Override
+  public String finish(@Nullable String expectedOid) throws IOException {
+    if (finished)
+      throw new IllegalStateException();
+
+    flushChunk();
+    finished = true;
+
+    final String oid = LfsStorage.OID_PREFIX + Hex.encodeHexString(digestSha.digest());
+    if (expectedOid != null && !expectedOid.equals(oid)) {
+      throw new IOException("Invalid stream checksum: expected " + expectedOid + ", but actual " + oid);
+    }
+
+    store.writeManifest(manifestRoot, new LfsChunkStore.Manifest(oid, size, Hex.encodeHexString(digestMd5.digest()), chunks));
+    return oid;
+  }
+}
@@ -0,0 +1,495 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.ext.gitlfs.storage.local;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import svnserver.Loggers;
+import svnserver.context.Shared;
+import svnserver.ext.gitlfs.config.LocalLfsConfig;
+import svnserver.ext.gitlfs.storage.LfsReader;
+import svnserver.ext.gitlfs.storage.LfsStorage;
+import svnserver.ext.gitlfs.storage.LfsWriter;
+import svnserver.ext.gitlfs.storage.chunked.LfsChunkStorage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.*;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Local disk cache for LFS objects of remote storages.
+ * <p>
+ * Objects are stored by SHA-256 hash together with metadata (size and md5) and least recently used ones
+ * are removed when cache size exceeds limit. Objects with open streams are not removed. Objects larger than
+ * the limit are not cached at all.
+ */
+public final class LfsCache implements Shared {
+  @NotNull
+  private static final Logger log = Loggers.lfs;
+  @NotNull
+  private static final LocalLfsConfig.LfsLayout layout = LocalLfsConfig.LfsLayout.TwoLevels;
+
+  @NotNull
+  private final Path dataRoot;
+  @NotNull
+  private final Path metaRoot;
+  private final long maxSize;
+  @NotNull
+  private final Executor executor;
+  @NotNull
+  private final ConcurrentHashMap<String, CompletableFuture<Void>> filling = new ConcurrentHashMap<>();
+  // oid -> size, in access order
+  @NotNull
+  private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+  // oid -> open streams, guarded by entries
+  @NotNull
+  private final Map<String, Integer> inUse = new HashMap<>();
+  private long totalSize;
+
+  /**
+   * @param root     Cache directory.
+   * @param maxSize  Maximum cache size in bytes.
+   * @param executor Executor for parallel hashing and writing of cached data.
+   */
+  public LfsCache(@NotNull Path root, long maxSize, @NotNull Executor executor) throws IOException {
+    this.dataRoot = root.resolve("data");
+    this.metaRoot = root.resolve("meta");
+    this.maxSize = maxSize;
+    this.executor = executor;
+    load();
+  }
+
+  private void load() throws IOException {
+    if (!Files.isDirectory(dataRoot))
+      return;
+
+    final Path tempRoot = dataRoot.resolve("tmp");
+    final List<Path> files;
+    try (Stream<Path> stream = Files.walk(dataRoot)) {
+      files = stream
+          .filter(path -> !path.startsWith(tempRoot))
+          .filter(Files::isRegularFile)
+          .collect(Collectors.toList());
+    }
+
+    final Map<Path, Long> modified = new HashMap<>();
+    for (Path file : files)
+      modified.put(file, Files.getLastModifiedTime(file).toMillis());
+    files.sort(Comparator.comparing(modified::get));
+
+    synchronized (entries) {
+      for (Path file : files) {
+        final long size = Files.size(file);
+        entries.put(LfsStorage.OID_PREFIX + file.getFileName().toString(), size);
+        totalSize += size;
+      }
+    }
+    log.info("LFS cache: {} objects, {} bytes", files.size(), totalSize);
+    evict();
+  }
+
+  /**
+   * Wrap storage with this cache.
+   */
+  @NotNull
+  public LfsStorage wrap(@NotNull LfsStorage storage) {
+    if (storage instanceof LfsLocalStorage || storage instanceof LfsChunkStorage || storage instanceof LfsCacheStorage)
+      return storage;
+
+    return new LfsCacheStorage(this, storage);
+  }
+
+  /**
+   * Get cached object or copy it to cache from backend reader.
+   *
+   * @param oid     Object id.
+   * @param backend Backend reader.
+   * @return Reader for cached object. If object can't be cached, backend reader is returned.
+   */
+  @NotNull
+  LfsReader getReader(@NotNull String oid, @NotNull LfsReader backend) throws IOException {
+    // Object larger than cache would be evicted right after download.
+    if (backend.getSize() > maxSize)
+      return backend;
+
+    final LfsReader cached = getCached(oid, backend);
+    if (cached != null)
+      return cached;
+
+    final CompletableFuture<Void> fill = new CompletableFuture<>();
+    final CompletableFuture<Void> concurrent = filling.putIfAbsent(oid, fill);
+    if (concurrent != null) {
+      // Same object is downloading right now. Wait for it.
+      try {
+        concurrent.join();
+      } catch (RuntimeException e) {
+        return backend;
+      }
+    } else {
+      try {
+        if (getCached(oid, backend) == null)
+          store(oid, backend);
+        fill.complete(null);
+      } catch (IOException | RuntimeException e) {
+        fill.completeExceptionally(e);
+        log.warn("Failed to store LFS object in cache: " + oid, e);
+        return backend;
+      } finally {
+        filling.remove(oid, fill);
+      }
+    }
+
+    // Object could be evicted already by concurrent downloads: don't retry, read it from backend.
+    final LfsReader result = getCached(oid, backend);
+    return result != null ? result : backend;
+  }
+
+  @Nullable
+  private LfsReader getCached(@NotNull String oid, @NotNull LfsReader backend) throws IOException {
+    synchronized (entries) {
+      if (entries.get(oid) == null)
+        return null;
+    }
+    final LfsReader reader = LfsLocalReader.create(layout, dataRoot, metaRoot, oid);
+    return reader == null ? null : new CachedReader(oid, reader, backend);
+  }
+
+  private void store(@NotNull String oid, @NotNull LfsReader backend) throws IOException {
+    final long size;
+    try (LfsWriter writer = new LfsLocalWriter(layout, dataRoot, metaRoot, false, null, executor);
+         InputStream stream = backend.openStream()) {
+      size = copy(stream, writer);
+      writer.finish(oid);
+    }
+
+    if (size > maxSize) {
+      remove(oid);
+      return;
+    }
+
+    synchronized (entries) {
+      final Long prev = entries.put(oid, size);
+      totalSize += size - (prev == null ? 0 : prev);
+    }
+    evict();
+  }
+
+  private static long copy(@NotNull InputStream stream, @NotNull LfsWriter writer) throws IOException {
+    final byte[] buffer = new byte[32 * 1024];
+    long size = 0;
+    while (true) {
+      final int read = stream.read(buffer);
+      if (read < 0)
+        return size;
+
+      writer.write(buffer, 0, read);
+      size += read;
+    }
+  }
+
+  /**
+   * Protect cached object from removal while its stream is open.
+   *
+   * @return False if object is already evicted.
+   */
+  private boolean acquire(@NotNull String oid) {
+    synchronized (entries) {
+      if (!entries.containsKey(oid))
+        return false;
+      inUse.merge(oid, 1, Integer::sum);
+      return true;
+    }
+  }
+
+  private void release(@NotNull String oid) {
+    synchronized (entries) {
+      inUse.computeIfPresent(oid, (key, count) -> count > 1 ? count - 1 : null);
+    }
+    // Object could be skipped by eviction while it was in use.
+    evict();
+  }
+
+  private void evict() {
+    final List<String> evicted = new ArrayList<>();
+    synchronized (entries) {
+      final Iterator<Map.Entry<String, Long>> iter = entries.entrySet().iterator();
+      while (totalSize > maxSize && iter.hasNext()) {
+        final Map.Entry<String, Long> entry = iter.next();
+        if (inUse.containsKey(entry.getKey()))
+          continue;
+
+        totalSize -= entry.getValue();
+        evicted.add(entry.getKey());
+        iter.remove();
+      }
+    }
+
+    for (String oid : evicted)
+      remove(oid);
+  }
+
+  private void remove(@NotNull String oid) {
+    try {
+      // Remove metadata first: object without metadata is not visible for readers.
+      final Path metaPath = LfsLocalStorage.getPath(layout, metaRoot, oid, ".meta");
+      if (metaPath != null)
+        Files.deleteIfExists(metaPath);
+
+      final Path dataPath = LfsLocalStorage.getPath(layout, dataRoot, oid, "");
+      if (dataPath != null)
+        Files.deleteIfExists(dataPath);
+    } catch (IOException e) {
+      log.warn("Failed to remove LFS object from cache: " + oid, e);
+    }
+  }
+
+  /**
+   * Reader of cached object.
+   * <p>
+   * Object is pinned in cache while its stream is open. If object was evicted before stream is opened,
+   * stream is read from backend.
+   */
+  private final class CachedReader implements LfsReader {
+    @NotNull
+    private final String oid;
+    @NotNull
+    private final LfsReader cached;
+    @NotNull
+    private final LfsReader backend;
+
+    private CachedReader(@NotNull String oid, @NotNull LfsReader cached, @NotNull LfsReader backend) {
+      this.oid = oid;
+      this.cached = cached;
+      this.backend = backend;
+    }
+
+    @NotNull
+    @Override
+    public InputStream openStream() throws IOException {
+      if (!acquire(oid))
+        return backend.openStream();
+
+      final InputStream stream;
+      try {
+        stream = cached.openStream();
+      } catch (NoSuchFileException ignored) {
+        release(oid);
+        return backend.openStream();
+      } catch (IOException | RuntimeException e) {
+        release(oid);
+        throw e;
+      }
+      return new PinnedStream(oid, stream);
+    }
+
+    @Nullable
+    @Override
+    public InputStream openGzipStream() throws IOException {
+      if (!acquire(oid))
+        return backend.openGzipStream();
+
+      final InputStream stream;
+      try {
+        stream = cached.openGzipStream();
+      } catch (NoSuchFileException ignored) {
+        release(oid);
+        return backend.openGzipStream();
+      } catch (IOException | RuntimeException e) {
+        release(oid);
+        throw e;
+      }
+      if (stream == null) {
+        release(oid);
+        return null;
+      }
+      return new PinnedStream(oid, stream);
+    }
+
+    @Nullable
+    @Override
+    public FileChannel openChannel() throws IOException {
+      if (!acquire(oid))
+        return backend.openChannel();
+
+      final FileChannel channel;
+      try {
+        channel = cached.openChannel();
+      } catch (NoSuchFileException ignored) {
+        release(oid);
+        return backend.openChannel();
+      } catch (IOException | RuntimeException e) {
+        release(oid);
+        throw e;
+      }
+      if (channel == null) {
+        release(oid);
+        return null;
+      }
+      return new PinnedChannel(oid, channel);
+    }
+
+    @Override
+    public long getSize() {
+      return cached.getSize();
+    }
+
+    @Nullable
+    @Override
+    public String getMd5() {
+      return cached.getMd5();
+    }
+
+    @NotNull
+    @Override
+    public String getOid(boolean hashOnly) {
+      return cached.getOid(hashOnly);
+    }
+  }
+
+  /**
+   * Read-only channel of cached object, object is pinned in cache until channel is closed.
+   */
+  private final class PinnedChannel extends FileChannel {
+    @NotNull
+    private final String oid;
+    @NotNull
+    private final FileChannel channel;
+
+    private PinnedChannel(@NotNull String oid, @NotNull FileChannel channel) {
+      this.oid = oid;
+      this.channel = channel;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      return channel.read(dst);
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+      return channel.read(dsts, offset, length);
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+      return channel.read(dst, position);
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+      throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) {
+      throw new NonWritableChannelException();
+    }
+
+    @Override
+    public int write(ByteBuffer src, long position) {
+      throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+      return channel.position();
+    }
+
+    @Override
+    public FileChannel position(long newPosition) throws IOException {
+      channel.position(newPosition);
+      return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+      return channel.size();
+    }
+
+    @Override
+    public FileChannel truncate(long size) {
+      throw new NonWritableChannelException();
+    }
+
+    @Override
+    public void force(boolean metaData) throws IOException {
+      channel.force(metaData);
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+      return channel.transferTo(position, count, target);
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel src, long position, long count) {
+      throw new NonWritableChannelException();
+    }
+
+    @Override
+    public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+      return channel.map(mode, position, size);
+    }
+
+    @Override
+    public FileLock lock(long position, long size, boolean shared) throws IOException {
+      return channel.lock(position, size, shared);
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+      return channel.tryLock(position, size, shared);
+    }
+
+    @Override
+    protected void implCloseChannel() throws IOException {
+      try {
+        channel.close();
+      } finally {
+        release(oid);
+      }
+    }
+  }
+
+  private final class PinnedStream extends FilterInputStream {
+    @NotNull
+    private final String oid;
+    private boolean closed = false;
+
+    private PinnedStream(@NotNull String oid, @NotNull InputStream stream) {
+      super(stream);
+      this.oid = oid;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed)
+        return;
+
+      closed = true;
+      try {
+        super.close();
+      } finally {
+        release(oid);
+      }
+    }
+  }
+}
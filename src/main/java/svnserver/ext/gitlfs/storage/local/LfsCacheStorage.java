@@ -0,0 +1,123 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.ext.gitlfs.storage.local;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tmatesoft.svn.core.SVNException;
+import ru.bozaro.gitlfs.common.LockConflictException;
+import ru.bozaro.gitlfs.common.VerifyLocksResult;
+import ru.bozaro.gitlfs.common.data.Meta;
+import svnserver.auth.User;
+import svnserver.ext.gitlfs.storage.LfsReader;
+import svnserver.ext.gitlfs.storage.LfsStorage;
+import svnserver.ext.gitlfs.storage.LfsWriter;
+import svnserver.repository.Depth;
+import svnserver.repository.git.GitBranch;
+import svnserver.repository.locks.LockDesc;
+import svnserver.repository.locks.LockTarget;
+import svnserver.repository.locks.UnlockTarget;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * LFS storage with local read-through cache.
+ * <p>
+ * Object existence and access is always checked by backend storage, but content is read from local cache.
+ */
+final class LfsCacheStorage implements LfsStorage {
+  @NotNull
+  private final LfsCache cache;
+  @NotNull
+  private final LfsStorage backend;
+
+  LfsCacheStorage(@NotNull LfsCache cache, @NotNull LfsStorage backend) {
+    this.cache = cache;
+    this.backend = backend;
+  }
+
+  @Nullable
+  @Override
+  public LfsReader getReader(@NotNull String oid, long size) throws IOException {
+    final LfsReader reader = backend.getReader(oid, size);
+    if (reader == null)
+      return null;
+
+    return cache.getReader(oid, reader);
+  }
+
+  @Override
+  public void prefetch(@NotNull Collection<Meta> objects) throws IOException {
+    backend.prefetch(objects);
+  }
+
+  @NotNull
+  @Override
+  public LfsWriter getWriter(@NotNull User user) throws IOException {
+    return backend.getWriter(user);
+  }
+
+  @NotNull
+  @Override
+  public LockDesc lock(@NotNull User user, @Nullable GitBranch branch, @NotNull String path) throws LockConflictException, IOException, SVNException {
+    return backend.lock(user, branch, path);
+  }
+
+  @Nullable
+  @Override
+  public LockDesc unlock(@NotNull User user, @Nullable GitBranch branch, boolean breakLock, @NotNull String lockId) throws LockConflictException, IOException, SVNException {
+    return backend.unlock(user, branch, breakLock, lockId);
+  }
+
+  @NotNull
+  @Override
+  public LockDesc[] getLocks(@NotNull User user, @Nullable GitBranch branch, @Nullable String path, @Nullable String lockId) throws IOException {
+    return backend.getLocks(user, branch, path, lockId);
+  }
+
+  @NotNull
+  @Override
+  public VerifyLocksResult verifyLocks(@NotNull User user, @Nullable GitBranch branch) throws IOException {
+    return backend.verifyLocks(user, branch);
+  }
+
+  @NotNull
+  @Override
+  public LockDesc[] unlock(@NotNull User user, @Nullable GitBranch branch, boolean breakLock, @NotNull UnlockTarget[] targets) throws LockConflictException, IOException, SVNException {
+    return backend.unlock(user, branch, breakLock, targets);
+  }
+
+  @NotNull
+  @Override
+  public LockDesc[] lock(@NotNull User user, @Nullable GitBranch branch, @Nullable String comment, boolean stealLock, @NotNull LockTarget[] targets) throws LockConflictException, IOException, SVNException {
+    return backend.lock(user, branch, comment, stealLock, targets);
+  }
+
+  @Override
+  public boolean cleanupInvalidLocks(@NotNull GitBranch branch) throws IOException {
+    return backend.cleanupInvalidLocks(branch);
+  }
+
+  @Override
+  public void renewLocks(@NotNull GitBranch branch, @NotNull LockDesc[] lockDescs) throws IOException {
+    backend.renewLocks(branch, lockDescs);
+  }
+
+  @NotNull
+  @Override
+  public Iterator<LockDesc> getLocks(@NotNull User user, @NotNull GitBranch branch, @NotNull String path, @NotNull Depth depth) throws IOException, SVNException {
+    return backend.getLocks(user, branch, path, depth);
+  }
+
+  @Override
+  public void close() throws Exception {
+    backend.close();
+  }
+}
@@ -18,9 +18,11 @@ import svnserver.ext.gitlfs.storage.LfsStorage;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.zip.GZIPInputStream;
@@ -103,6 +105,12 @@ public final class LfsLocalReader implements LfsReader {
     return Files.newInputStream(file);
   }
 
+  @Nullable
+  @Override
+  public FileChannel openChannel() throws IOException {
+    return compressed ? null : FileChannel.open(file, StandardOpenOption.READ);
+  }
+
   @Override
   public long getSize() {
     return Long.parseLong(meta.get(Constants.SIZE));
@@ -7,6 +7,7 @@
  */
 package svnserver.ext.gitlfs.storage.local;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
@@ -24,6 +25,7 @@ import svnserver.repository.locks.LockDesc;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.SortedMap;
+import java.util.concurrent.Executor;
 
 /**
  * Local directory storage for LFS files.
@@ -51,10 +53,20 @@ public final class LfsLocalStorage extends LocalLockManager implements LfsStorag
   @Nullable
   private final Path metaRoot;
   private final boolean compress;
+  @NotNull
+  private final Executor executor;
 
   public LfsLocalStorage(@NotNull SortedMap<String, LockDesc> locks, @NotNull LocalLfsConfig.LfsLayout layout, @NotNull Path dataRoot, @Nullable Path metaRoot, boolean compress) {
+    this(locks, layout, dataRoot, metaRoot, compress, MoreExecutors.directExecutor());
+  }
+
+  /**
+   * @param executor Executor for parallel hashing and writing of uploaded data.
+   */
+  public LfsLocalStorage(@NotNull SortedMap<String, LockDesc> locks, @NotNull LocalLfsConfig.LfsLayout layout, @NotNull Path dataRoot, @Nullable Path metaRoot, boolean compress, @NotNull Executor executor) {
     super(locks);
     this.layout = layout;
+    this.executor = executor;
     this.dataRoot = dataRoot;
     this.metaRoot = metaRoot;
     this.compress = compress && (metaRoot != null);
@@ -84,6 +96,6 @@ public final class LfsLocalStorage extends LocalLockManager implements LfsStorag
   @NotNull
   @Override
   public LfsWriter getWriter(@NotNull User user) throws IOException {
-    return new LfsLocalWriter(layout, dataRoot, metaRoot, compress, user);
+    return new LfsLocalWriter(layout, dataRoot, metaRoot, compress, user, executor);
   }
 }
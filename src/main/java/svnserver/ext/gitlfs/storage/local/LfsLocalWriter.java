@@ -19,23 +19,34 @@ import svnserver.ext.gitlfs.config.LocalLfsConfig;
 import svnserver.ext.gitlfs.storage.LfsWriter;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.MessageDigest;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.GZIPOutputStream;
 
 /**
  * Local storage writer.
+ * <p>
+ * Data is split into chunks. MD5 hashing, SHA-256 hashing and compression with disk write
+ * of every chunk are executed in parallel, each of them in own ordered pipeline.
  *
  * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
  * @author Marat Radchenko <marat@slonopotamus.org>
  */
 public final class LfsLocalWriter extends LfsWriter {
+  private static final int CHUNK_SIZE = 1024 * 1024;
+  private static final int CHUNKS_IN_FLIGHT = 4;
+
   private final LocalLfsConfig.LfsLayout layout;
   @NotNull
   private final Path dataRoot;
@@ -56,8 +67,26 @@ public final class LfsLocalWriter extends LfsWriter {
   private OutputStream dataStream;
   private long size;
 
-  LfsLocalWriter(@NotNull LocalLfsConfig.LfsLayout layout, @NotNull Path dataRoot, @Nullable Path metaRoot, boolean compress, @Nullable User user) throws IOException {
+  @NotNull
+  private final Executor executor;
+  @NotNull
+  private final Semaphore inFlight = new Semaphore(CHUNKS_IN_FLIGHT);
+  @NotNull
+  private final Queue<byte[]> freeChunks = new ConcurrentLinkedQueue<>();
+  @NotNull
+  private CompletableFuture<Void> md5Pipeline = CompletableFuture.completedFuture(null);
+  @NotNull
+  private CompletableFuture<Void> shaPipeline = CompletableFuture.completedFuture(null);
+  @NotNull
+  private CompletableFuture<Void> dataPipeline = CompletableFuture.completedFuture(null);
+  @NotNull
+  private byte[] chunk = new byte[CHUNK_SIZE];
+  private int chunkSize;
+  private boolean pipelined;
+
+  LfsLocalWriter(@NotNull LocalLfsConfig.LfsLayout layout, @NotNull Path dataRoot, @Nullable Path metaRoot, boolean compress, @Nullable User user, @NotNull Executor executor) throws IOException {
     this.layout = layout;
+    this.executor = executor;
     this.dataRoot = dataRoot;
     this.metaRoot = metaRoot;
     this.compress = compress;
@@ -83,10 +112,10 @@ public final class LfsLocalWriter extends LfsWriter {
     if (dataStream == null) {
       throw new IllegalStateException();
     }
-    dataStream.write(b);
-    digestMd5.update((byte) b);
-    digestSha.update((byte) b);
+    chunk[chunkSize++] = (byte) b;
     size += 1;
+    if (chunkSize == chunk.length)
+      flushChunk();
   }
 
   @Override
@@ -94,18 +123,86 @@ public final class LfsLocalWriter extends LfsWriter {
     if (dataStream == null) {
       throw new IllegalStateException();
     }
-    dataStream.write(b, off, len);
-    digestMd5.update(b, off, len);
-    digestSha.update(b, off, len);
     size += len;
+    while (len > 0) {
+      final int count = Math.min(len, chunk.length - chunkSize);
+      System.arraycopy(b, off, chunk, chunkSize, count);
+      chunkSize += count;
+      off += count;
+      len -= count;
+      if (chunkSize == chunk.length)
+        flushChunk();
+    }
+  }
+
+  private void flushChunk() throws IOException {
+    final OutputStream stream = dataStream;
+    if (stream == null || chunkSize == 0)
+      return;
+
+    final byte[] data = chunk;
+    final int length = chunkSize;
+    chunkSize = 0;
+    pipelined = true;
+
+    // Fail fast on write error.
+    if (dataPipeline.isCompletedExceptionally())
+      awaitPipelines();
+
+    try {
+      inFlight.acquire();
+    } catch (InterruptedException e) {
+      throw new InterruptedIOException();
+    }
+    final byte[] free = freeChunks.poll();
+    chunk = free != null ? free : new byte[CHUNK_SIZE];
+
+    final AtomicInteger pending = new AtomicInteger(3);
+    final Runnable release = () -> {
+      if (pending.decrementAndGet() == 0) {
+        freeChunks.add(data);
+        inFlight.release();
+      }
+    };
+    md5Pipeline = md5Pipeline
+        .thenRunAsync(() -> digestMd5.update(data, 0, length), executor)
+        .whenComplete((r, e) -> release.run());
+    shaPipeline = shaPipeline
+        .thenRunAsync(() -> digestSha.update(data, 0, length), executor)
+        .whenComplete((r, e) -> release.run());
+    dataPipeline = dataPipeline
+        .thenRunAsync(() -> {
+          try {
+            stream.write(data, 0, length);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }, executor)
+        .whenComplete((r, e) -> release.run());
+  }
+
+  private void awaitPipelines() throws IOException {
+    try {
+      CompletableFuture.allOf(md5Pipeline, shaPipeline, dataPipeline).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof UncheckedIOException)
+        throw ((UncheckedIOException) e.getCause()).getCause();
+      throw new IOException(e.getCause());
+    }
   }
 
   @Override
   public void close() throws IOException {
     try {
       if (dataStream != null) {
-        dataStream.close();
-        dataStream = null;
+        try {
+          awaitPipelines();
+        } catch (IOException ignored) {
+          // Data is discarded anyway.
+        } finally {
+          dataStream.close();
+          dataStream = null;
+        }
       }
     } finally {
       Files.deleteIfExists(dataTemp);
@@ -120,6 +217,16 @@ public final class LfsLocalWriter extends LfsWriter {
     }
 
     try {
+      if (pipelined) {
+        flushChunk();
+        awaitPipelines();
+      } else {
+        // Small object: no need to pass it to other threads.
+        dataStream.write(chunk, 0, chunkSize);
+        digestMd5.update(chunk, 0, chunkSize);
+        digestSha.update(chunk, 0, chunkSize);
+        chunkSize = 0;
+      }
       dataStream.close();
       dataStream = null;
 
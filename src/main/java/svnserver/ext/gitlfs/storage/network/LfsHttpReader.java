@@ -50,6 +50,7 @@ final class LfsHttpReader implements LfsReader {
       } catch (UnauthorizedException e) {
         if (pass != 0) throw e;
         owner.invalidate(User.getAnonymous());
+        owner.invalidateDownload(meta.getOid());
         final ObjectRes newMeta = getMeta(meta.getOid());
         if (newMeta != null) {
           this.links = newMeta;
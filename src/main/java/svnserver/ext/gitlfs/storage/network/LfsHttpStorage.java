@@ -7,6 +7,9 @@
  */
 package svnserver.ext.gitlfs.storage.network;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
 import org.apache.http.client.config.CookieSpecs;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.impl.client.CloseableHttpClient;
@@ -32,10 +35,8 @@ import svnserver.repository.locks.LockTarget;
 import svnserver.repository.locks.UnlockTarget;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static svnserver.repository.locks.LockDesc.toLfsPath;
@@ -49,6 +50,24 @@ public abstract class LfsHttpStorage implements LfsStorage {
 
   @NotNull
   private static final Logger log = Loggers.lfs;
+  /**
+   * Maximum objects count in single batch request.
+   */
+  private static final int BATCH_SIZE = 100;
+  /**
+   * Download links are reused for this time unless server reports earlier expiration.
+   */
+  private static final long DOWNLOAD_CACHE_TIME_MS = TimeUnit.MINUTES.toMillis(5);
+  /**
+   * Links, which expire sooner than this, are not reused.
+   */
+  private static final long DOWNLOAD_EXPIRE_MARGIN_MS = TimeUnit.SECONDS.toMillis(30);
+
+  @NotNull
+  private final Cache<String, BatchItem> downloads = CacheBuilder.newBuilder()
+      .maximumSize(100000)
+      .expireAfterWrite(DOWNLOAD_CACHE_TIME_MS, TimeUnit.MILLISECONDS)
+      .build();
 
   @NotNull
   public static CloseableHttpClient createHttpClient() {
@@ -67,27 +86,76 @@ public abstract class LfsHttpStorage implements LfsStorage {
   @Override
   @Nullable
   public LfsReader getReader(@NotNull String oid, long size) throws IOException {
-    try {
-      if (!oid.startsWith(OID_PREFIX))
-        return null;
+    if (!oid.startsWith(OID_PREFIX))
+      return null;
+
+    final String hash = oid.substring(OID_PREFIX.length());
+    BatchItem item = getCachedDownload(hash);
+    if (item == null) {
+      resolveDownloads(Collections.singletonList(new Meta(hash, size)));
+      item = getCachedDownload(hash);
+    }
 
-      final String hash = oid.substring(OID_PREFIX.length());
-      final Client lfsClient = lfsClient(User.getAnonymous());
-      final BatchRes res = lfsClient.postBatch(new BatchReq(Operation.Download, Collections.singletonList(new Meta(hash, size))));
-      if (res.getObjects().isEmpty())
-        return null;
+    return item == null ? null : new LfsHttpReader(this, item, item);
+  }
+
+  @Override
+  public void prefetch(@NotNull Collection<Meta> objects) throws IOException {
+    final Map<String, Meta> missing = new LinkedHashMap<>();
+    for (Meta meta : objects) {
+      if (!meta.getOid().startsWith(OID_PREFIX))
+        continue;
+
+      final String hash = meta.getOid().substring(OID_PREFIX.length());
+      if (getCachedDownload(hash) == null)
+        missing.putIfAbsent(hash, new Meta(hash, meta.getSize()));
+    }
+
+    for (List<Meta> batch : Lists.partition(new ArrayList<>(missing.values()), BATCH_SIZE))
+      resolveDownloads(batch);
+  }
 
-      final BatchItem item = res.getObjects().get(0);
-      if (item.getError() != null)
-        return null;
+  private void resolveDownloads(@NotNull List<Meta> batch) throws IOException {
+    if (batch.isEmpty())
+      return;
 
-      return new LfsHttpReader(this, item, item);
+    try {
+      final Client lfsClient = lfsClient(User.getAnonymous());
+      final BatchRes res = lfsClient.postBatch(new BatchReq(Operation.Download, batch));
+      for (BatchItem item : res.getObjects()) {
+        if (item.getError() == null)
+          downloads.put(item.getOid(), item);
+      }
     } catch (RequestException e) {
       log.error("HTTP request error:" + e.getMessage(), e);
       throw e;
     }
   }
 
+  @Nullable
+  private BatchItem getCachedDownload(@NotNull String hash) {
+    final BatchItem item = downloads.getIfPresent(hash);
+    if (item == null)
+      return null;
+
+    final Link link = item.getLinks().get(LinkType.Download);
+    final Date expiresAt = link == null ? null : link.getExpiresAt();
+    if (expiresAt != null && expiresAt.getTime() - System.currentTimeMillis() < DOWNLOAD_EXPIRE_MARGIN_MS) {
+      downloads.invalidate(hash);
+      return null;
+    }
+    return item;
+  }
+
+  /**
+   * Forget cached download links for object (for example, when they are rejected by server).
+   *
+   * @param hash Object hash without prefix.
+   */
+  void invalidateDownload(@NotNull String hash) {
+    downloads.invalidate(hash);
+  }
+
   @NotNull
   protected abstract Client lfsClient(@NotNull User user);
 
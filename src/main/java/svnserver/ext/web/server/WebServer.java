@@ -30,7 +30,7 @@ import svnserver.auth.UserDB;
 import svnserver.context.Shared;
 import svnserver.context.SharedContext;
 import svnserver.ext.web.token.EncryptionFactory;
-import svnserver.ext.web.token.TokenHelper;
+import svnserver.ext.web.token.TokenCache;
 
 import javax.servlet.Servlet;
 import javax.servlet.http.HttpServletRequest;
@@ -69,6 +69,8 @@ public final class WebServer implements Shared {
   @NotNull
   private final EncryptionFactory tokenFactory;
   @NotNull
+  private final TokenCache tokenCache;
+  @NotNull
   private final List<Holder> servlets = new CopyOnWriteArrayList<>();
   @Nullable
   private URI baseUrl;
@@ -78,6 +80,7 @@ public final class WebServer implements Shared {
     this.server = server;
     this.baseUrl = baseUrl == null ? null : baseUrl.toURI();
     this.tokenFactory = tokenFactory;
+    this.tokenCache = new TokenCache(tokenFactory);
     final ServletContextHandler contextHandler = new ServletContextHandler();
     contextHandler.setContextPath("/");
     handler = contextHandler.getServletHandler();
@@ -213,7 +216,7 @@ public final class WebServer implements Shared {
       return null;
     }
     if (authorization.startsWith(AUTH_TOKEN)) {
-      return TokenHelper.parseToken(createEncryption(), authorization.substring(AUTH_TOKEN.length()).trim(), tokenEnsureTime);
+      return tokenCache.parseToken(authorization.substring(AUTH_TOKEN.length()).trim(), tokenEnsureTime);
     }
     return null;
   }
@@ -0,0 +1,67 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.ext.web.token;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.commons.codec.binary.Hex;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jose4j.jwe.JsonWebEncryption;
+import svnserver.HashHelper;
+import svnserver.auth.User;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache for decrypted authentication tokens.
+ * <p>
+ * Token decryption is done once per token (per cache lifetime), token time bounds are checked on every request.
+ */
+public final class TokenCache {
+  private static final int MAXIMUM_SIZE = 10000;
+  private static final int EXPIRE_AFTER_ACCESS_MIN = 10;
+
+  @NotNull
+  private final ThreadLocal<JsonWebEncryption> encryption;
+  @NotNull
+  private final Cache<String, TokenHelper.DecodedToken> cache = CacheBuilder.newBuilder()
+      .maximumSize(MAXIMUM_SIZE)
+      .expireAfterAccess(EXPIRE_AFTER_ACCESS_MIN, TimeUnit.MINUTES)
+      .build();
+
+  public TokenCache(@NotNull EncryptionFactory tokenFactory) {
+    this.encryption = ThreadLocal.withInitial(tokenFactory::create);
+  }
+
+  @Nullable
+  public User parseToken(@NotNull String token, int tokenEnsureTime) {
+    final String key = Hex.encodeHexString(HashHelper.sha256().digest(token.getBytes(StandardCharsets.UTF_8)));
+    TokenHelper.DecodedToken decoded = cache.getIfPresent(key);
+    if (decoded == null) {
+      decoded = TokenHelper.decodeToken(encryption.get(), token);
+      if (decoded == null || decoded.isExpired()) {
+        return null;
+      }
+      cache.put(key, decoded);
+    } else if (decoded.isExpired()) {
+      cache.invalidate(key);
+      return null;
+    }
+    return decoded.getUser(tokenEnsureTime);
+  }
+
+  /**
+   * Cached tokens count.
+   */
+  long size() {
+    cache.cleanUp();
+    return cache.size();
+  }
+}
@@ -68,30 +68,37 @@ public class TokenHelper {
 
   @Nullable
   public static User parseToken(@NotNull JsonWebEncryption jwe, @NotNull String token, int tokenEnsureTime) {
+    final DecodedToken decoded = decodeToken(jwe, token);
+    return decoded == null ? null : decoded.getUser(tokenEnsureTime);
+  }
+
+  /**
+   * Decrypt token and parse its claims without checking token time bounds.
+   *
+   * @return Decoded token or null, if token is malformed.
+   */
+  @Nullable
+  static DecodedToken decodeToken(@NotNull JsonWebEncryption jwe, @NotNull String token) {
     try {
+      jwe.setPlaintext((byte[]) null);
       jwe.setCompactSerialization(token);
       final JwtClaims claims = JwtClaims.parse(jwe.getPayload());
-      final NumericDate now = NumericDate.now();
-      final NumericDate expire = NumericDate.fromMilliseconds(now.getValueInMillis());
-      if (tokenEnsureTime > 0) {
-        expire.addSeconds(tokenEnsureTime);
-      }
-      if (claims.getExpirationTime() == null || claims.getExpirationTime().isBefore(expire)) {
-        return null;
-      }
-      if (claims.getNotBefore() == null || claims.getNotBefore().isAfter(now)) {
+      if (claims.getExpirationTime() == null || claims.getNotBefore() == null) {
         return null;
       }
+      final User user;
       if (claims.getSubject() == null) {
-        return User.getAnonymous();
+        user = User.getAnonymous();
+      } else {
+        user = User.create(
+            claims.getSubject(),
+            claims.getClaimValue("name", String.class),
+            claims.getClaimValue("email", String.class),
+            claims.getClaimValue("external", String.class),
+            UserType.valueOf(claims.getClaimValue("type", String.class))
+        );
       }
-      return User.create(
-          claims.getSubject(),
-          claims.getClaimValue("name", String.class),
-          claims.getClaimValue("email", String.class),
-          claims.getClaimValue("external", String.class),
-          UserType.valueOf(claims.getClaimValue("type", String.class))
-      );
+      return new DecodedToken(user, claims.getExpirationTime(), claims.getNotBefore());
     } catch (JoseException | MalformedClaimException | InvalidJwtException e) {
       log.warn("Token parsing error: " + e.getMessage());
       return null;
@@ -110,4 +117,39 @@ public class TokenHelper {
       throw new IllegalStateException(e);
     }
   }
+
+  static final class DecodedToken {
+    @NotNull
+    private final User user;
+    @NotNull
+    private final NumericDate expirationTime;
+    @NotNull
+    private final NumericDate notBefore;
+
+    private DecodedToken(@NotNull User user, @NotNull NumericDate expirationTime, @NotNull NumericDate notBefore) {
+      this.user = user;
+      this.expirationTime = expirationTime;
+      this.notBefore = notBefore;
+    }
+
+    boolean isExpired() {
+      return expirationTime.isBefore(NumericDate.now());
+    }
+
+    @Nullable
+    User getUser(int tokenEnsureTime) {
+      final NumericDate now = NumericDate.now();
+      final NumericDate expire = NumericDate.fromMilliseconds(now.getValueInMillis());
+      if (tokenEnsureTime > 0) {
+        expire.addSeconds(tokenEnsureTime);
+      }
+      if (expirationTime.isBefore(expire)) {
+        return null;
+      }
+      if (notBefore.isAfter(now)) {
+        return null;
+      }
+      return user;
+    }
+  }
 }
@@ -7,6 +7,7 @@
  */
 package svnserver.parser;
 
+import com.google.common.io.ByteStreams;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import svnserver.parser.token.*;
@@ -14,6 +15,7 @@ import svnserver.parser.token.*;
 import java.io.BufferedOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
@@ -117,6 +119,19 @@ public final class SvnServerWriter implements Closeable {
     return this;
   }
 
+  /**
+   * Write data already serialized by another writer.
+   */
+  @NotNull
+  public SvnServerWriter raw(@NotNull InputStream data) throws IOException {
+    if (depth != 0)
+      throw new IllegalStateException("Serialized data can be written only outside of lists.");
+
+    ByteStreams.copy(data, stream);
+    stream.flush();
+    return this;
+  }
+
   @NotNull
   public SvnServerWriter writeMap(@Nullable Map<String, String> properties) throws IOException {
     return writeMap(properties, false);
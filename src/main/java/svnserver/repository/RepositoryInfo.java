@@ -9,6 +9,7 @@ package svnserver.repository;
 
 import org.jetbrains.annotations.NotNull;
 import org.tmatesoft.svn.core.SVNURL;
+import svnserver.repository.git.BranchProvider;
 import svnserver.repository.git.GitBranch;
 
 /**
@@ -16,15 +17,18 @@ import svnserver.repository.git.GitBranch;
  *
  * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
  */
-public final class RepositoryInfo {
+public final class RepositoryInfo implements AutoCloseable {
   @NotNull
   private final SVNURL baseUrl;
   @NotNull
   private final GitBranch branch;
+  @NotNull
+  private final BranchProvider.Pin pin;
 
-  public RepositoryInfo(@NotNull SVNURL baseUrl, @NotNull GitBranch branch) {
+  public RepositoryInfo(@NotNull SVNURL baseUrl, @NotNull GitBranch branch, @NotNull BranchProvider.Pin pin) {
     this.baseUrl = baseUrl;
     this.branch = branch;
+    this.pin = pin;
   }
 
   @NotNull
@@ -36,4 +40,12 @@ public final class RepositoryInfo {
   public GitBranch getBranch() {
     return branch;
   }
+
+  /**
+   * Release repository, so it can be unloaded.
+   */
+  @Override
+  public void close() {
+    pin.close();
+  }
 }
@@ -21,6 +21,7 @@ import svnserver.repository.git.GitBranch;
 import svnserver.server.command.BaseCmd;
 
 import java.io.IOException;
+import java.util.AbstractMap;
 import java.util.Map;
 import java.util.NavigableMap;
 
@@ -30,6 +31,11 @@ import java.util.NavigableMap;
  * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
  */
 public interface RepositoryMapping<T extends BranchProvider> extends Shared {
+  /**
+   * Resolve repository branch by URL.
+   * <p>
+   * Repository is pinned until returned info is closed.
+   */
   @Nullable
   static <T extends BranchProvider> RepositoryInfo findRepositoryInfo(@NotNull RepositoryMapping<T> mapping, @NotNull SVNURL url, @NotNull SvnServerWriter writer) throws SVNException, IOException {
     final String path = StringHelper.normalizeDir(url.getPath());
@@ -39,53 +45,83 @@ public interface RepositoryMapping<T extends BranchProvider> extends Shared {
       return null;
     }
 
-    final String branchPath = repo.getKey().isEmpty() ? path : path.substring(repo.getKey().length() - 1);
-    final NavigableMap<String, GitBranch> branches = repo.getValue().getBranches();
+    final BranchProvider.Pin pin = repo.getValue().pin();
+    boolean success = false;
+    try {
+      final String branchPath = repo.getKey().isEmpty() ? path : path.substring(repo.getKey().length() - 1);
+      final NavigableMap<String, GitBranch> branches = repo.getValue().getBranches();
 
-    if (branchPath.length() <= 1) {
-      final String branchName = repo.getValue().getBranches().size() == 1
-          ? repo.getValue().getBranches().values().iterator().next().getShortBranchName()
-          : "<branchname>";
-      final String msg = String.format("Repository branch not found. Use `svn relocate %s/%s` to fix your working copy", url, branchName);
-      BaseCmd.sendError(writer, SVNErrorMessage.create(SVNErrorCode.RA_SVN_REPOS_NOT_FOUND, msg));
-      return null;
-    }
+      if (branchPath.length() <= 1) {
+        final String branchName = branches.size() == 1
+            ? branches.values().iterator().next().getShortBranchName()
+            : "<branchname>";
+        final String msg = String.format("Repository branch not found. Use `svn relocate %s/%s` to fix your working copy", url, branchName);
+        BaseCmd.sendError(writer, SVNErrorMessage.create(SVNErrorCode.RA_SVN_REPOS_NOT_FOUND, msg));
+        return null;
+      }
 
-    final Map.Entry<String, GitBranch> branch = getMapped(branches, branchPath);
+      final Map.Entry<String, GitBranch> branch = getMapped(branches, branchPath);
 
-    if (branch == null) {
-      BaseCmd.sendError(writer, SVNErrorMessage.create(SVNErrorCode.RA_SVN_REPOS_NOT_FOUND, "Repository branch not found: " + url));
-      return null;
-    }
+      if (branch == null) {
+        BaseCmd.sendError(writer, SVNErrorMessage.create(SVNErrorCode.RA_SVN_REPOS_NOT_FOUND, "Repository branch not found: " + url));
+        return null;
+      }
 
-    return new RepositoryInfo(
-        SVNURL.create(
-            url.getProtocol(),
-            url.getUserInfo(),
-            url.getHost(),
-            url.getPort() == SVNURL.getDefaultPortNumber(url.getProtocol()) ? -1 : url.getPort(),
-            repo.getKey() + branch.getKey().substring(1),
-            true
-        ),
-        branch.getValue()
-    );
+      final RepositoryInfo result = new RepositoryInfo(
+          SVNURL.create(
+              url.getProtocol(),
+              url.getUserInfo(),
+              url.getHost(),
+              url.getPort() == SVNURL.getDefaultPortNumber(url.getProtocol()) ? -1 : url.getPort(),
+              repo.getKey() + branch.getKey().substring(1),
+              true
+          ),
+          branch.getValue(),
+          pin
+      );
+      success = true;
+      return result;
+    } finally {
+      if (!success)
+        pin.close();
+    }
   }
 
+  /**
+   * Find longest mapping entry, which is parent path for given path.
+   * <p>
+   * Only parent directories of the path are probed (from the deepest one), so lookup costs O(depth * log(N))
+   * instead of scanning all entries before the path. Works with any concurrent map without extra locking.
+   *
+   * @param mapping Mapping.
+   * @param prefix  Path.
+   * @return Longest mapped parent entry or null.
+   */
   @Nullable
   static <T> Map.Entry<String, T> getMapped(@NotNull NavigableMap<String, T> mapping, @NotNull String prefix) {
     final String path = StringHelper.normalizeDir(prefix);
 
-    // TODO: this could be must faster if we find an appropriate trie implementation.
-    Map.Entry<String, T> result = null;
-    for (Map.Entry<String, T> entry : mapping.headMap(path, true).entrySet()) {
-      if (!StringHelper.isParentPath(entry.getKey(), path))
-        continue;
+    int end = path.length();
+    while (end > 1) {
+      Map.Entry<String, T> result = getEntry(mapping, path.substring(0, end));
+      if (result != null)
+        return result;
 
-      if (result == null || entry.getKey().length() > result.getKey().length())
-        result = entry;
+      result = getEntry(mapping, path.substring(0, end - 1));
+      if (result != null)
+        return result;
+
+      end = path.lastIndexOf('/', end - 2) + 1;
     }
 
-    return result;
+    final Map.Entry<String, T> result = getEntry(mapping, "/");
+    return result != null ? result : getEntry(mapping, "");
+  }
+
+  @Nullable
+  static <T> Map.Entry<String, T> getEntry(@NotNull Map<String, T> mapping, @NotNull String key) {
+    final T value = mapping.get(key);
+    return value == null ? null : new AbstractMap.SimpleImmutableEntry<>(key, value);
   }
 
   @NotNull
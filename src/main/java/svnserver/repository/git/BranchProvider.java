@@ -15,4 +15,18 @@ import java.util.NavigableMap;
 public interface BranchProvider {
   @NotNull
   NavigableMap<String, GitBranch> getBranches();
+
+  /**
+   * Keep branches loaded until returned pin is closed.
+   */
+  @NotNull
+  default Pin pin() {
+    return () -> {
+    };
+  }
+
+  interface Pin extends AutoCloseable {
+    @Override
+    void close();
+  }
 }
@@ -9,67 +9,70 @@ package svnserver.repository.git;
 
 import org.eclipse.jgit.lib.ObjectId;
 import org.jetbrains.annotations.NotNull;
-import org.mapdb.DataInput2;
-import org.mapdb.DataOutput2;
-import org.mapdb.Serializer;
-import org.mapdb.serializer.GroupSerializerObjectArray;
+import svnserver.cache.CacheCodec;
 import svnserver.repository.git.cache.CacheChange;
 import svnserver.repository.git.cache.CacheRevision;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.util.Map;
 import java.util.TreeMap;
 
-final class CacheRevisionSerializer extends GroupSerializerObjectArray<CacheRevision> {
+final class CacheRevisionCodec implements CacheCodec<CacheRevision> {
 
   @NotNull
-  static final CacheRevisionSerializer instance = new CacheRevisionSerializer();
+  static final CacheRevisionCodec instance = new CacheRevisionCodec();
+
+  private CacheRevisionCodec() {
+  }
 
   @Override
-  public void serialize(@NotNull DataOutput2 out, @NotNull CacheRevision value) throws IOException {
+  public void write(@NotNull DataOutput out, @NotNull CacheRevision value) throws IOException {
     final ObjectId objectId = value.getGitCommitId();
     out.writeBoolean(objectId != null);
     if (objectId != null)
-      ObjectIdSerializer.instance.serialize(out, objectId);
+      ObjectIdCodec.instance.write(out, objectId);
 
     out.writeInt(value.getRenames().size());
     for (Map.Entry<String, String> en : value.getRenames().entrySet()) {
-      Serializer.STRING.serialize(out, en.getKey());
-      Serializer.STRING.serialize(out, en.getValue());
+      CacheCodec.STRING.write(out, en.getKey());
+      CacheCodec.STRING.write(out, en.getValue());
     }
 
     out.writeInt(value.getFileChange().size());
     for (Map.Entry<String, CacheChange> en : value.getFileChange().entrySet()) {
-      Serializer.STRING.serialize(out, en.getKey());
+      CacheCodec.STRING.write(out, en.getKey());
 
       final ObjectId oldFile = en.getValue().getOldFile();
       out.writeBoolean(oldFile != null);
       if (oldFile != null)
-        ObjectIdSerializer.instance.serialize(out, oldFile);
+        ObjectIdCodec.instance.write(out, oldFile);
 
       final ObjectId newFile = en.getValue().getNewFile();
       out.writeBoolean(newFile != null);
       if (newFile != null)
-        ObjectIdSerializer.instance.serialize(out, newFile);
+        ObjectIdCodec.instance.write(out, newFile);
     }
   }
 
+  @NotNull
   @Override
-  public CacheRevision deserialize(@NotNull DataInput2 input, int available) throws IOException {
-    final ObjectId objectId = input.readBoolean() ? ObjectIdSerializer.instance.deserialize(input, available) : null;
+  public CacheRevision read(@NotNull DataInput input) throws IOException {
+    final ObjectId objectId = input.readBoolean() ? ObjectIdCodec.instance.read(input) : null;
 
     final Map<String, String> renames = new TreeMap<>();
     final int renamesCount = input.readInt();
     for (int i = 0; i < renamesCount; ++i) {
-      renames.put(Serializer.STRING.deserialize(input, available), Serializer.STRING.deserialize(input, available));
+      renames.put(CacheCodec.STRING.read(input), CacheCodec.STRING.read(input));
     }
 
     final Map<String, CacheChange> fileChange = new TreeMap<>();
     final int fileChangeCount = input.readInt();
     for (int i = 0; i < fileChangeCount; ++i) {
-      final String name = Serializer.STRING.deserialize(input, available);
-      final ObjectId oldFile = input.readBoolean() ? ObjectIdSerializer.instance.deserialize(input, available) : null;
-      final ObjectId newFile = input.readBoolean() ? ObjectIdSerializer.instance.deserialize(input, available) : null;
+      final String name = CacheCodec.STRING.read(input);
+      final ObjectId oldFile = input.readBoolean() ? ObjectIdCodec.instance.read(input) : null;
+      final ObjectId newFile = input.readBoolean() ? ObjectIdCodec.instance.read(input) : null;
       fileChange.put(name, new CacheChange(oldFile, newFile));
     }
 
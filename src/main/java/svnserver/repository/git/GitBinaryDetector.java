@@ -0,0 +1,133 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.jetbrains.annotations.NotNull;
+import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
+import svnserver.cache.CacheCodec;
+import svnserver.cache.CacheStore;
+import svnserver.repository.git.filter.GitFilter;
+import svnserver.repository.git.filter.GitFilterCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Detects binary content of filtered objects.
+ * <p>
+ * Only first {@link #PREFIX_SIZE} bytes of content are read. Results are stored in {@link GitFilterCache} of filter.
+ */
+final class GitBinaryDetector {
+  /**
+   * Prefix size used by Subversion binary detection.
+   */
+  static final int PREFIX_SIZE = 1024;
+
+  private static final byte CLEAN = 0;
+  private static final byte SUSPICIOUS = 1;
+  private static final byte ZERO = 2;
+  @NotNull
+  private static final byte[] byteClass = createByteClasses();
+
+  @NotNull
+  private final CacheStore cacheStore;
+  @NotNull
+  private final Map<String, GitFilterCache> caches = new ConcurrentHashMap<>();
+
+  GitBinaryDetector(@NotNull CacheStore cacheStore) {
+    this.cacheStore = cacheStore;
+    migrate();
+  }
+
+  /**
+   * Move entries of string-keyed cache from previous versions to filter caches.
+   */
+  private void migrate() {
+    synchronized (cacheStore) {
+      if (!cacheStore.exists("cache.binary"))
+        return;
+
+      final Map<String, Boolean> oldCache = cacheStore.getHashMap("cache.binary", CacheCodec.STRING, CacheCodec.BOOLEAN);
+      for (Map.Entry<String, Boolean> entry : oldCache.entrySet()) {
+        final String key = entry.getKey();
+        final int separator = key.lastIndexOf(' ');
+        if (separator < 0 || !ObjectId.isId(key.substring(separator + 1)))
+          continue;
+
+        getCache(key.substring(0, separator)).putBinary(ObjectId.fromString(key.substring(separator + 1)), entry.getValue());
+      }
+      oldCache.clear();
+    }
+  }
+
+  @NotNull
+  private GitFilterCache getCache(@NotNull String filterName) {
+    return caches.computeIfAbsent(filterName, name -> GitFilterCache.open(name, cacheStore));
+  }
+
+  @NotNull
+  private static byte[] createByteClasses() {
+    final byte[] result = new byte[256];
+    for (int i = 0; i < result.length; ++i) {
+      // Tab, line feeds and printable ASCII characters are text for any detection rule.
+      result[i] = (i >= 0x07 && i <= 0x0D) || (i >= 0x20 && i < 0x7F) ? CLEAN : SUSPICIOUS;
+    }
+    result[0] = ZERO;
+    return result;
+  }
+
+  boolean isBinary(@NotNull GitFilter filter, @NotNull GitObject<? extends ObjectId> objectId) throws IOException {
+    final GitFilterCache cache = getCache(filter.getName());
+    Boolean result = cache.isBinary(objectId.getObject());
+    if (result == null) {
+      final byte[] buffer = new byte[PREFIX_SIZE];
+      final int length;
+      try (InputStream stream = filter.inputStream(objectId)) {
+        length = readPrefix(stream, buffer);
+      }
+      result = isBinary(buffer, length);
+      cache.putBinary(objectId.getObject(), result);
+    }
+    return result;
+  }
+
+  private static int readPrefix(@NotNull InputStream stream, @NotNull byte[] buffer) throws IOException {
+    int length = 0;
+    while (length < buffer.length) {
+      final int read = stream.read(buffer, length, buffer.length - length);
+      if (read < 0)
+        break;
+      length += read;
+    }
+    return length;
+  }
+
+  /**
+   * Check content prefix for binary data.
+   * <p>
+   * Most content is either plain text or contains zero bytes, which is decided by single pass over byte classes.
+   * Only remaining mixed content is checked by Subversion rules.
+   */
+  static boolean isBinary(@NotNull byte[] buffer, int length) throws IOException {
+    int flags = 0;
+    for (int i = 0; i < length; ++i)
+      flags |= byteClass[buffer[i] & 0xFF];
+
+    if ((flags & ZERO) != 0)
+      return true;
+
+    if (flags == CLEAN)
+      return false;
+
+    return SVNFileUtil.detectMimeType(new ByteArrayInputStream(buffer, 0, length)) != null;
+  }
+}
@@ -16,7 +16,6 @@ import org.eclipse.jgit.treewalk.TreeWalk;
 import org.eclipse.jgit.treewalk.filter.TreeFilter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.mapdb.HTreeMap;
 import org.slf4j.Logger;
 import org.tmatesoft.svn.core.SVNErrorCode;
 import org.tmatesoft.svn.core.SVNErrorMessage;
@@ -51,10 +50,10 @@ public final class GitBranch {
   @NotNull
   private final String shortBranchName;
   /**
-   * Lock for prevent concurrent pushes.
+   * Queue for prevent concurrent pushes.
    */
   @NotNull
-  private final Object pushLock = new Object();
+  private final GitCommitQueue commitQueue;
   @NotNull
   private final List<GitRevision> revisions = new ArrayList<>();
   @NotNull
@@ -62,7 +61,7 @@ public final class GitBranch {
   @NotNull
   private final Map<ObjectId, GitRevision> revisionByHash = new HashMap<>();
   @NotNull
-  private final HTreeMap<ObjectId, CacheRevision> revisionCache;
+  private final Map<ObjectId, CacheRevision> revisionCache;
   @NotNull
   private final ReadWriteLock lastUpdatesLock = new ReentrantReadWriteLock();
   @NotNull
@@ -77,17 +76,18 @@ public final class GitBranch {
     final Ref svnBranchRef = LayoutHelper.initRepository(repository.getGit(), branch);
     this.svnBranch = svnBranchRef.getName();
     this.gitBranch = Constants.R_HEADS + branch;
+    this.commitQueue = new GitCommitQueue(repository.getContext().getName() + ":" + branch);
     final String repositoryId = loadRepositoryId(repository.getGit(), svnBranchRef);
     this.uuid = UUID.nameUUIDFromBytes((repositoryId + "\0" + gitBranch).getBytes(StandardCharsets.UTF_8)).toString();
 
     final String revisionCacheName = String.format(
         "cache-revision.%s.%s.%s.v%s", repository.getContext().getName(), gitBranch, repository.hasRenameDetection() ? 1 : 0, revisionCacheVersion
     );
-    this.revisionCache = repository.getContext().getShared().getCacheDB().hashMap(
+    this.revisionCache = repository.getContext().getShared().getCacheStore().getHashMap(
         revisionCacheName,
-        ObjectIdSerializer.instance,
-        CacheRevisionSerializer.instance
-    ).createOrOpen();
+        ObjectIdCodec.instance,
+        CacheRevisionCodec.instance
+    );
   }
 
   @NotNull
@@ -156,9 +156,9 @@ public final class GitBranch {
     }
 
     if (gotNewRevisions) {
-      final boolean locksChanged = repository.wrapLockWrite(lockStorage -> lockStorage.cleanupInvalidLocks(this));
-      if (locksChanged)
-        repository.getContext().getShared().getCacheDB().commit();
+      // Also persists caches without own commit points, like filter caches
+      repository.getContext().getShared().getCacheStore().commit();
+      repository.wrapLockWrite(lockStorage -> lockStorage.cleanupInvalidLocks(this));
     }
   }
 
@@ -439,28 +439,102 @@ public final class GitBranch {
   public int getLastChange(@NotNull String nodePath, int beforeRevision) {
     if (nodePath.isEmpty()) return beforeRevision;
 
+    final int[] revs = getUpdates(nodePath);
+    if (revs != null) {
+      final int index = findUpdate(revs, beforeRevision);
+      if (index >= 0) {
+        // Deleted node is marked by MARK_NO_FILE after its last revision
+        return revs[index];
+      }
+    }
+    return MARK_NO_FILE;
+  }
+
+  /**
+   * Get node history, from newest to oldest segment.
+   *
+   * @param nodePath       Node path.
+   * @param beforeRevision Newest revision.
+   * @param stopRevision   Copy sources older than this revision are not followed.
+   * @param strictNode     Don't follow copy sources.
+   * @param filter         Filter for followed copy sources.
+   * @return History segments. Empty list if node doesn't exist in beforeRevision.
+   */
+  @NotNull
+  public List<GitHistorySegment> getHistory(@NotNull String nodePath, int beforeRevision, int stopRevision, boolean strictNode, @NotNull PathFilter filter) throws IOException, SVNException {
+    final List<GitHistorySegment> result = new ArrayList<>();
+    String path = nodePath;
+    int revision = beforeRevision;
+    while (true) {
+      final GitHistorySegment segment = getHistorySegment(path, revision);
+      if (segment == null)
+        break;
+
+      result.add(segment);
+      if (strictNode || segment.getFirstRevision() <= stopRevision)
+        break;
+
+      final VcsCopyFrom copyFrom = getRevisionInfo(segment.getFirstRevision()).getCopyFrom(path);
+      if (copyFrom == null || copyFrom.getRevision() < stopRevision || !filter.accept(copyFrom.getPath()))
+        break;
+
+      path = copyFrom.getPath();
+      revision = copyFrom.getRevision();
+    }
+    return result;
+  }
+
+  @Nullable
+  private GitHistorySegment getHistorySegment(@NotNull String nodePath, int beforeRevision) {
+    if (nodePath.isEmpty())
+      return beforeRevision < 0 ? null : new GitHistorySegment(nodePath, beforeRevision, null, 0, beforeRevision);
+
+    final int[] revs = getUpdates(nodePath);
+    if (revs == null)
+      return null;
+
+    final int to = findUpdate(revs, beforeRevision);
+    if (to < 0 || revs[to] == MARK_NO_FILE)
+      return null;
+
+    int from = to;
+    while (from > 0 && revs[from - 1] != MARK_NO_FILE)
+      from--;
+
+    return new GitHistorySegment(nodePath, beforeRevision, revs, from, to);
+  }
+
+  @Nullable
+  private int[] getUpdates(@NotNull String nodePath) {
+    // Arrays are never modified after publishing
     try {
       lastUpdatesLock.readLock().lock();
-
-      final int[] revs = this.lastUpdates.get(nodePath);
-      if (revs != null) {
-        int prev = 0;
-        for (int i = revs.length - 1; i >= 0; --i) {
-          final int rev = revs[i];
-          if ((rev >= 0) && (rev <= beforeRevision)) {
-            if (prev == MARK_NO_FILE) {
-              return MARK_NO_FILE;
-            }
-            return rev;
-          }
-          prev = rev;
-        }
-      }
+      return lastUpdates.get(nodePath);
     } finally {
       lastUpdatesLock.readLock().unlock();
     }
+  }
 
-    return MARK_NO_FILE;
+  /**
+   * Find index of last update not newer than given revision.
+   * <p>
+   * Update revisions are sorted, MARK_NO_FILE is always placed after revision of node removal.
+   */
+  private static int findUpdate(@NotNull int[] revs, int revision) {
+    int low = 0;
+    int high = revs.length - 1;
+    int result = -1;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      final int rev = revs[mid] == MARK_NO_FILE ? revs[mid - 1] : revs[mid];
+      if (rev <= revision) {
+        result = mid;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return result;
   }
 
   @NotNull
@@ -473,7 +547,12 @@ public final class GitBranch {
     if (user.getEmail() == null || user.getEmail().isEmpty()) {
       throw new SVNException(SVNErrorMessage.create(SVNErrorCode.RA_NOT_AUTHORIZED, "Users with undefined email can't create commits"));
     }
-    return new GitWriter(this, repository.getPusher(), pushLock, user);
+    return new GitWriter(this, repository.getPusher(), commitQueue, user);
+  }
+
+  @NotNull
+  public GitCommitQueue getCommitQueue() {
+    return commitQueue;
   }
 
   @NotNull
@@ -485,4 +564,9 @@ public final class GitBranch {
   public String toString() {
     return repository.getContext().getName() + "@" + shortBranchName;
   }
+
+  @FunctionalInterface
+  public interface PathFilter {
+    boolean accept(@NotNull String path) throws IOException;
+  }
 }
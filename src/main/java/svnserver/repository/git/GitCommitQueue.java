@@ -0,0 +1,100 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.tmatesoft.svn.core.SVNException;
+import svnserver.Loggers;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-branch commit queue.
+ * <p>
+ * Pushes to branch are executed one by one in arrival order. Queue depth and wait time are collected as statistics.
+ */
+public final class GitCommitQueue {
+  @NotNull
+  private static final Logger log = Loggers.git;
+
+  @NotNull
+  private final String name;
+  @NotNull
+  private final ReentrantLock lock = new ReentrantLock(true);
+  @NotNull
+  private final AtomicInteger depth = new AtomicInteger();
+  @NotNull
+  private final AtomicLong commitCount = new AtomicLong();
+  @NotNull
+  private final AtomicLong rebaseCount = new AtomicLong();
+  @NotNull
+  private final AtomicLong totalWaitMs = new AtomicLong();
+  @NotNull
+  private final AtomicLong maxWaitMs = new AtomicLong();
+
+  GitCommitQueue(@NotNull String name) {
+    this.name = name;
+  }
+
+  <T> T execute(@NotNull Task<T> task) throws IOException, SVNException {
+    final long startTime = System.nanoTime();
+    final int queued = depth.incrementAndGet();
+    lock.lock();
+    try {
+      depth.decrementAndGet();
+      final long waitMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+      commitCount.incrementAndGet();
+      totalWaitMs.addAndGet(waitMs);
+      maxWaitMs.accumulateAndGet(waitMs, Math::max);
+      log.info("Commit queue for branch {}: waited {}ms, queue depth {}", name, waitMs, queued - 1);
+      return task.exec();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  void rebased() {
+    rebaseCount.incrementAndGet();
+  }
+
+  /**
+   * Count of commits waiting in queue right now.
+   */
+  public int getDepth() {
+    return depth.get();
+  }
+
+  public long getCommitCount() {
+    return commitCount.get();
+  }
+
+  /**
+   * Count of commits applied on top of concurrently updated branch without recreating it.
+   */
+  public long getRebaseCount() {
+    return rebaseCount.get();
+  }
+
+  public long getTotalWaitMs() {
+    return totalWaitMs.get();
+  }
+
+  public long getMaxWaitMs() {
+    return maxWaitMs.get();
+  }
+
+  @FunctionalInterface
+  interface Task<T> {
+    T exec() throws IOException, SVNException;
+  }
+}
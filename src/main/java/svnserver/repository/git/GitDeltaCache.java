@@ -0,0 +1,165 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.eclipse.jgit.lib.ObjectId;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.internal.delta.SVNDeltaCompression;
+import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
+import org.tmatesoft.svn.core.io.ISVNDeltaConsumer;
+import org.tmatesoft.svn.core.io.diff.SVNDeltaGenerator;
+import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
+import svnserver.context.Shared;
+import svnserver.repository.git.filter.GitFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cache of encoded svndiff deltas between file versions.
+ * <p>
+ * Deltas are keyed by filtered blob ids of both versions and compression, so they are shared between
+ * clients, branches and repositories.
+ */
+public final class GitDeltaCache implements Shared {
+  @NotNull
+  private final Cache<String, byte[][]> cache;
+  private final long maxEntrySize;
+
+  /**
+   * @param maxSize      Maximum total size of cached deltas in bytes.
+   * @param maxEntrySize Maximum size of single delta in bytes. Larger deltas are not cached.
+   */
+  public GitDeltaCache(long maxSize, long maxEntrySize) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumWeight(maxSize)
+        .weigher((String key, byte[][] value) -> getSize(value))
+        .build();
+    this.maxEntrySize = maxEntrySize;
+  }
+
+  /**
+   * Get cached delta or compute it.
+   *
+   * @return svndiff windows or null if delta is too large for caching.
+   */
+  @Nullable
+  public byte[][] getDelta(@Nullable GitFile oldFile, @NotNull GitFile newFile, @NotNull SVNDeltaCompression compression) throws IOException, SVNException {
+    final String key = getKey(oldFile, newFile, compression);
+    if (key == null)
+      return null;
+
+    final byte[][] cached = cache.getIfPresent(key);
+    if (cached != null)
+      return cached;
+
+    final List<byte[]> windows = new ArrayList<>();
+    final long[] size = {0};
+    try {
+      sendDelta(oldFile, newFile, compression, window -> {
+        size[0] += window.length;
+        if (size[0] > maxEntrySize)
+          throw new SVNException(SVNErrorMessage.create(SVNErrorCode.CANCELLED, "Delta is too large for cache"));
+        windows.add(window);
+      });
+    } catch (SVNException e) {
+      if (size[0] > maxEntrySize)
+        return null;
+      throw e;
+    }
+
+    final byte[][] result = windows.toArray(new byte[0][]);
+    cache.put(key, result);
+    return result;
+  }
+
+  /**
+   * Generate delta between file versions.
+   *
+   * @param oldFile Old file version. If null, delta is generated against empty content.
+   */
+  public static void sendDelta(@Nullable GitFile oldFile, @NotNull GitFile newFile, @NotNull SVNDeltaCompression compression, @NotNull WindowConsumer consumer) throws IOException, SVNException {
+    try (InputStream prevStream = oldFile == null ? SVNFileUtil.DUMMY_IN : oldFile.openStream();
+         InputStream newStream = newFile.openStream()) {
+      new SVNDeltaGenerator().sendDelta(newFile.getFullPath(), prevStream, 0, newStream, new ISVNDeltaConsumer() {
+        private boolean writeHeader = true;
+
+        @Override
+        public void applyTextDelta(String path, String baseChecksum) {
+        }
+
+        @Override
+        public OutputStream textDeltaChunk(String path, SVNDiffWindow diffWindow) throws SVNException {
+          final byte[] window;
+          try (ByteArrayOutputStream stream = new ByteArrayOutputStream()) {
+            diffWindow.writeTo(stream, writeHeader, compression);
+            writeHeader = false;
+            window = stream.toByteArray();
+          } catch (IOException e) {
+            throw new SVNException(SVNErrorMessage.create(SVNErrorCode.IO_ERROR));
+          }
+          consumer.accept(window);
+
+          return null;
+        }
+
+        @Override
+        public void textDeltaEnd(String path) {
+        }
+      }, false);
+    }
+  }
+
+  @Nullable
+  private static String getKey(@Nullable GitFile oldFile, @NotNull GitFile newFile, @NotNull SVNDeltaCompression compression) {
+    final String newKey = getKey(newFile);
+    if (newKey == null)
+      return null;
+
+    if (oldFile == null)
+      return newKey + " " + compression.name();
+
+    final String oldKey = getKey(oldFile);
+    if (oldKey == null)
+      return null;
+
+    return oldKey + " " + newKey + " " + compression.name();
+  }
+
+  @Nullable
+  private static String getKey(@NotNull GitFile file) {
+    final GitFilter filter = file.getFilter();
+    final GitObject<ObjectId> objectId = file.getObjectId();
+    if (filter == null || objectId == null)
+      return null;
+
+    return filter.getName() + ":" + objectId.getObject().name();
+  }
+
+  private static int getSize(@NotNull byte[][] windows) {
+    int size = 0;
+    for (byte[] window : windows)
+      size += window.length;
+    return size;
+  }
+
+  @FunctionalInterface
+  public interface WindowConsumer {
+    void accept(@NotNull byte[] window) throws SVNException;
+  }
+}
@@ -20,8 +20,7 @@ import svnserver.repository.git.prop.GitProperty;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 /**
  * Git file.
@@ -103,6 +102,24 @@ public interface GitFile extends GitEntry {
   @NotNull
   GitBranch getBranch();
 
+  /**
+   * Notify filters that content of given files will be requested soon.
+   */
+  static void prefetch(@NotNull Iterable<GitFile> files) throws IOException {
+    final Map<GitFilter, List<GitObject<? extends ObjectId>>> byFilter = new HashMap<>();
+    for (GitFile file : files) {
+      final GitFilter filter = file.getFilter();
+      final GitObject<ObjectId> objectId = file.getObjectId();
+      if (filter == null || objectId == null || file.isDirectory())
+        continue;
+
+      byFilter.computeIfAbsent(filter, f -> new ArrayList<>()).add(objectId);
+    }
+
+    for (Map.Entry<GitFilter, List<GitObject<? extends ObjectId>>> entry : byFilter.entrySet())
+      entry.getKey().prefetch(entry.getValue());
+  }
+
   static void putProperty(@NotNull Map<String, String> props, @NotNull String name, @Nullable String value) {
     if (value != null) {
       props.put(name, value);
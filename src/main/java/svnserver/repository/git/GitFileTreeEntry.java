@@ -46,6 +46,8 @@ final class GitFileTreeEntry extends GitEntryImpl implements GitFile {
   private final EntriesCache entriesCache;
   @Nullable
   private Iterable<GitFile> treeEntriesCache;
+  @Nullable
+  private Map<String, String> propertiesCache;
 
   private GitFileTreeEntry(@NotNull GitBranch branch, @NotNull GitProperty[] parentProps, @NotNull String parentPath, @NotNull GitTreeEntry treeEntry, int revision, @NotNull EntriesCache entriesCache) throws IOException {
     super(parentProps, parentPath, branch.getRepository().collectProperties(treeEntry, entriesCache), treeEntry.getFileName(), treeEntry.getFileMode());
@@ -113,6 +115,13 @@ final class GitFileTreeEntry extends GitEntryImpl implements GitFile {
   @NotNull
   @Override
   public Map<String, String> getProperties() throws IOException {
+    if (propertiesCache == null)
+      propertiesCache = branch.getRepository().getProperties(treeEntry.getObjectId().getObject(), getFileMode(), getRawProperties(), this::loadProperties);
+    return propertiesCache;
+  }
+
+  @NotNull
+  private Map<String, String> loadProperties() throws IOException {
     final Map<String, String> props = getUpstreamProperties();
     final FileMode fileMode = getFileMode();
     if (fileMode.equals(FileMode.SYMLINK)) {
@@ -123,7 +132,7 @@ final class GitFileTreeEntry extends GitEntryImpl implements GitFile {
       if (fileMode.equals(FileMode.EXECUTABLE_FILE)) {
         props.put(SVNProperty.EXECUTABLE, "*");
       }
-      if (fileMode.getObjectType() == Constants.OBJ_BLOB && branch.getRepository().isObjectBinary(filter, getObjectId())) {
+      if (fileMode.getObjectType() == Constants.OBJ_BLOB && !isBinaryByAttributes(props) && branch.getRepository().isObjectBinary(filter, getObjectId())) {
         props.remove(SVNProperty.EOL_STYLE);
         props.put(SVNProperty.MIME_TYPE, MIME_BINARY);
       }
@@ -131,6 +140,13 @@ final class GitFileTreeEntry extends GitEntryImpl implements GitFile {
     return props;
   }
 
+  /**
+   * Content detection can't change properties of files, which are already marked as binary by .gitattributes.
+   */
+  private static boolean isBinaryByAttributes(@NotNull Map<String, String> props) {
+    return MIME_BINARY.equals(props.get(SVNProperty.MIME_TYPE)) && !props.containsKey(SVNProperty.EOL_STYLE);
+  }
+
   @NotNull
   @Override
   public GitBranch getBranch() {
@@ -0,0 +1,97 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Part of node history with same path: all changes from node creation (or copy) up to some revision.
+ */
+public final class GitHistorySegment {
+  @NotNull
+  private final String path;
+  private final int pegRevision;
+  // Change revisions in ascending order (null - every revision is change)
+  @Nullable
+  private final int[] revisions;
+  private final int from;
+  private final int to;
+
+  GitHistorySegment(@NotNull String path, int pegRevision, @Nullable int[] revisions, int from, int to) {
+    this.path = path;
+    this.pegRevision = pegRevision;
+    this.revisions = revisions;
+    this.from = from;
+    this.to = to;
+  }
+
+  @NotNull
+  public String getPath() {
+    return path;
+  }
+
+  /**
+   * Revision in which segment was looked up: requested revision or copy source revision.
+   */
+  public int getPegRevision() {
+    return pegRevision;
+  }
+
+  /**
+   * Change count.
+   */
+  public int size() {
+    return to - from + 1;
+  }
+
+  /**
+   * Get change revision.
+   *
+   * @param index Change index, from oldest (0) to newest.
+   */
+  public int getRevision(int index) {
+    if (index < 0 || index >= size())
+      throw new IndexOutOfBoundsException();
+
+    return revisions == null ? from + index : revisions[from + index];
+  }
+
+  /**
+   * Revision of node creation or copy.
+   */
+  public int getFirstRevision() {
+    return getRevision(0);
+  }
+
+  public int getLastRevision() {
+    return getRevision(size() - 1);
+  }
+
+  /**
+   * Find last change not newer than given revision.
+   *
+   * @return Change revision or -1 if node didn't exist in given revision.
+   */
+  public int findLastChange(int revision) {
+    int low = 0;
+    int high = size() - 1;
+    int result = -1;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      final int change = getRevision(mid);
+      if (change <= revision) {
+        result = change;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return result;
+  }
+}
@@ -7,18 +7,20 @@
  */
 package svnserver.repository.git;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.sun.nio.sctp.InvalidStreamException;
 import org.eclipse.jgit.lib.*;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.treewalk.CanonicalTreeParser;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.mapdb.DB;
-import org.mapdb.HTreeMap;
-import org.mapdb.Serializer;
 import org.tmatesoft.svn.core.SVNException;
-import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
 import svnserver.StringHelper;
+import svnserver.cache.CacheStore;
 import svnserver.context.LocalContext;
 import svnserver.context.SharedContext;
 import svnserver.repository.SvnForbiddenException;
@@ -30,11 +32,11 @@ import svnserver.repository.git.prop.GitProperty;
 import svnserver.repository.git.prop.GitPropertyFactory;
 import svnserver.repository.git.prop.PropertyMapping;
 import svnserver.repository.git.push.GitPusher;
+import svnserver.repository.locks.LocalLockManager;
 import svnserver.repository.locks.LockStorage;
 import svnserver.repository.locks.LockWorker;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -50,6 +52,7 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 public final class GitRepository implements AutoCloseable, BranchProvider {
   @NotNull
   public static final byte[] emptyBytes = {};
+  private static final int PROPERTIES_CACHE_SIZE = 100000;
 
   @NotNull
   private final Repository git;
@@ -58,20 +61,28 @@ public final class GitRepository implements AutoCloseable, BranchProvider {
   @NotNull
   private final LocalContext context;
   @NotNull
-  private final HTreeMap<String, Boolean> binaryCache;
+  private final GitBinaryDetector binaryDetector;
   @NotNull
   private final Map<String, GitFilter> gitFilters;
   @NotNull
   private final Map<ObjectId, GitProperty[]> directoryPropertyCache = new ConcurrentHashMap<>();
   @NotNull
   private final Map<ObjectId, GitProperty[]> filePropertyCache = new ConcurrentHashMap<>();
+  // Computed entry properties by object id, file mode and raw properties
+  @NotNull
+  private final Cache<PropertiesKey, Map<String, String>> propertiesCache = CacheBuilder.newBuilder()
+      .maximumSize(PROPERTIES_CACHE_SIZE)
+      .build();
+  // Most entries have one of few distinct property maps
+  @NotNull
+  private final Interner<Map<String, String>> propertiesInterner = Interners.newWeakInterner();
   private final boolean renameDetection;
   @NotNull
   private final ReadWriteLock lockManagerRwLock = new ReentrantReadWriteLock();
   @NotNull
   private final LockStorage lockStorage;
   @NotNull
-  private final DB db;
+  private final CacheStore cacheStore;
   @NotNull
   private final NavigableMap<String, GitBranch> branches = new TreeMap<>();
 
@@ -86,8 +97,8 @@ public final class GitRepository implements AutoCloseable, BranchProvider {
     final SharedContext shared = context.getShared();
     shared.getOrCreate(GitSubmodules.class, GitSubmodules::new).register(git);
     this.git = git;
-    db = shared.getCacheDB();
-    this.binaryCache = db.hashMap("cache.binary", Serializer.STRING, Serializer.BOOLEAN).createOrOpen();
+    cacheStore = shared.getCacheStore();
+    this.binaryDetector = new GitBinaryDetector(cacheStore);
 
     this.pusher = pusher;
     this.renameDetection = renameDetection;
@@ -120,7 +131,7 @@ public final class GitRepository implements AutoCloseable, BranchProvider {
   @NotNull
   public <T> T wrapLockWrite(@NotNull LockWorker<T> work) throws SVNException, IOException {
     final T result = wrapLock(lockManagerRwLock.writeLock(), work);
-    db.commit();
+    cacheStore.commit(LocalLockManager.getPersistentStorageName(context));
     return result;
   }
 
@@ -157,6 +168,26 @@ public final class GitRepository implements AutoCloseable, BranchProvider {
     return props;
   }
 
+  /**
+   * Get computed entry properties.
+   *
+   * @param objectId Entry blob or tree id.
+   * @param fileMode Entry file mode.
+   * @param props    Entry raw properties (inherited and own).
+   * @param loader   Properties calculation.
+   * @return Immutable properties map.
+   */
+  @NotNull
+  Map<String, String> getProperties(@NotNull ObjectId objectId, @NotNull FileMode fileMode, @NotNull GitProperty[] props, @NotNull VcsSupplier<Map<String, String>> loader) throws IOException {
+    final PropertiesKey key = new PropertiesKey(objectId, fileMode, props);
+    Map<String, String> result = propertiesCache.getIfPresent(key);
+    if (result == null) {
+      result = propertiesInterner.intern(ImmutableMap.copyOf(loader.get()));
+      propertiesCache.put(key, result);
+    }
+    return result;
+  }
+
   @NotNull
   private GitProperty[] parseGitProperty(@NotNull String fileName, @NotNull GitObject<ObjectId> objectId) throws IOException {
     final GitPropertyFactory factory = PropertyMapping.getFactory(fileName);
@@ -213,15 +244,7 @@ public final class GitRepository implements AutoCloseable, BranchProvider {
 
   boolean isObjectBinary(@Nullable GitFilter filter, @Nullable GitObject<? extends ObjectId> objectId) throws IOException {
     if (objectId == null || filter == null) return false;
-    final String key = filter.getName() + " " + objectId.getObject().name();
-    Boolean result = binaryCache.get(key);
-    if (result == null) {
-      try (InputStream stream = filter.inputStream(objectId)) {
-        result = SVNFileUtil.detectMimeType(stream) != null;
-      }
-      binaryCache.putIfAbsent(key, result);
-    }
-    return result;
+    return binaryDetector.isBinary(filter, objectId);
   }
 
   @NotNull
@@ -278,4 +301,37 @@ public final class GitRepository implements AutoCloseable, BranchProvider {
   @NotNull GitPusher getPusher() {
     return pusher;
   }
+
+  private static final class PropertiesKey {
+    @NotNull
+    private final ObjectId objectId;
+    @NotNull
+    private final FileMode fileMode;
+    @NotNull
+    private final GitProperty[] props;
+    private final int hashCode;
+
+    private PropertiesKey(@NotNull ObjectId objectId, @NotNull FileMode fileMode, @NotNull GitProperty[] props) {
+      this.objectId = objectId.copy();
+      this.fileMode = fileMode;
+      this.props = props;
+      this.hashCode = (objectId.hashCode() * 31 + fileMode.getBits()) * 31 + Arrays.hashCode(props);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      final PropertiesKey that = (PropertiesKey) o;
+      return hashCode == that.hashCode
+          && objectId.equals(that.objectId)
+          && fileMode.getBits() == that.fileMode.getBits()
+          && Arrays.equals(props, that.props);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
 }
@@ -0,0 +1,258 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.tmatesoft.svn.core.SVNException;
+import svnserver.Loggers;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Git repository holder.
+ * <p>
+ * In lazy mode repository is opened and indexed on first access and can be closed
+ * when it is least recently used one. Repository is never closed while it is pinned:
+ * sessions pin it for the whole connection, so all of them share single instance
+ * (and its commit queue).
+ */
+public final class GitRepositoryHolder implements AutoCloseable, BranchProvider {
+  @NotNull
+  private static final Logger log = Loggers.git;
+  @NotNull
+  private final String name;
+  @NotNull
+  private final Factory factory;
+  @Nullable
+  private final Lru lru;
+  @Nullable
+  private volatile GitRepository repository;
+  private volatile boolean ready = false;
+  private volatile int pins = 0;
+  private boolean closed = false;
+
+  /**
+   * @param name    Repository name for logging.
+   * @param factory Repository factory.
+   * @param lru     Loaded repositories tracker for lazy mode or null for eager mode.
+   */
+  public GitRepositoryHolder(@NotNull String name, @NotNull Factory factory, @Nullable Lru lru) {
+    this.name = name;
+    this.factory = factory;
+    this.lru = lru;
+  }
+
+  public boolean isLazy() {
+    return lru != null;
+  }
+
+  /**
+   * Open repository without indexing revisions.
+   */
+  @NotNull
+  public synchronized GitRepository open() throws IOException {
+    if (closed)
+      throw new IllegalStateException("Repository is already closed: " + name);
+
+    GitRepository result = repository;
+    if (result == null) {
+      result = factory.create();
+      repository = result;
+    }
+    return result;
+  }
+
+  /**
+   * Open repository and index all its branches.
+   */
+  @NotNull
+  public GitRepository initRevisions() throws IOException, SVNException {
+    final GitRepository current = repository;
+    if (ready && current != null)
+      return current;
+
+    synchronized (this) {
+      final GitRepository result = open();
+      if (!ready) {
+        log.info("[{}]: initing...", name);
+
+        for (GitBranch branch : result.getBranches().values())
+          branch.updateRevisions();
+
+        ready = true;
+      }
+      return result;
+    }
+  }
+
+  @NotNull
+  @Override
+  public NavigableMap<String, GitBranch> getBranches() {
+    if (lru == null) {
+      final GitRepository current = repository;
+      return ready && current != null ? current.getBranches() : Collections.emptyNavigableMap();
+    }
+
+    // Pin repository to prevent unloading by other threads between initialization and access.
+    try (Pin ignored = pin()) {
+      return initRevisions().getBranches();
+    } catch (IOException | SVNException | IllegalStateException e) {
+      log.error(String.format("[%s]: failed to initialize", name), e);
+      return Collections.emptyNavigableMap();
+    }
+  }
+
+  @NotNull
+  @Override
+  public Pin pin() {
+    synchronized (this) {
+      if (closed)
+        throw new IllegalStateException("Repository is already closed: " + name);
+      pins++;
+    }
+    if (lru != null)
+      lru.touch(this);
+    return new Pin() {
+      private boolean released = false;
+
+      @Override
+      public void close() {
+        if (released)
+          return;
+        released = true;
+        release();
+      }
+    };
+  }
+
+  private void release() {
+    final boolean idle;
+    synchronized (this) {
+      pins--;
+      idle = pins == 0;
+    }
+    // Repository may be over the limit when it was pinned during eviction.
+    if (idle && lru != null)
+      lru.trim();
+  }
+
+  boolean isPinned() {
+    return pins > 0;
+  }
+
+  boolean isLoaded() {
+    return repository != null;
+  }
+
+  /**
+   * Close repository and free indexed revisions. Repository will be reopened on next access.
+   * <p>
+   * Pinned repository is kept opened.
+   */
+  synchronized void unload() {
+    final GitRepository current = repository;
+    if (current == null || pins > 0)
+      return;
+
+    log.info("[{}]: unloading...", name);
+    repository = null;
+    ready = false;
+    closeRepository(current);
+  }
+
+  @Override
+  public void close() {
+    synchronized (this) {
+      closed = true;
+      final GitRepository current = repository;
+      repository = null;
+      ready = false;
+      if (current != null)
+        closeRepository(current);
+    }
+    if (lru != null)
+      lru.remove(this);
+  }
+
+  private void closeRepository(@NotNull GitRepository current) {
+    current.close();
+    current.getGit().close();
+    try {
+      current.getContext().close();
+    } catch (Exception e) {
+      log.error("Can't close context for repository: " + name, e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+
+  @FunctionalInterface
+  public interface Factory {
+    @NotNull
+    GitRepository create() throws IOException;
+  }
+
+  /**
+   * Tracker of loaded repositories, which unloads least recently used ones.
+   */
+  public static final class Lru {
+    private final int maxLoaded;
+    @NotNull
+    private final LinkedHashMap<GitRepositoryHolder, Boolean> loaded = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @param maxLoaded Maximum loaded repositories (0 - unlimited).
+     */
+    public Lru(int maxLoaded) {
+      this.maxLoaded = maxLoaded;
+    }
+
+    void touch(@NotNull GitRepositoryHolder holder) {
+      synchronized (loaded) {
+        loaded.put(holder, Boolean.TRUE);
+      }
+      trim();
+    }
+
+    /**
+     * Unload least recently used repositories over the limit. Pinned repositories are skipped.
+     * <p>
+     * Holder is pinned before it is touched, so pin check under this lock can't miss concurrent pin.
+     */
+    void trim() {
+      final List<GitRepositoryHolder> evicted = new ArrayList<>();
+      synchronized (loaded) {
+        if (maxLoaded > 0) {
+          final Iterator<GitRepositoryHolder> iter = loaded.keySet().iterator();
+          while (loaded.size() > maxLoaded && iter.hasNext()) {
+            final GitRepositoryHolder item = iter.next();
+            if (!item.isPinned()) {
+              iter.remove();
+              evicted.add(item);
+            }
+          }
+        }
+      }
+      // Unload outside of lock: repository can be busy with indexing right now.
+      for (GitRepositoryHolder item : evicted)
+        item.unload();
+    }
+
+    void remove(@NotNull GitRepositoryHolder holder) {
+      synchronized (loaded) {
+        loaded.remove(holder);
+      }
+    }
+  }
+}
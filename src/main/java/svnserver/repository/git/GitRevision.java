@@ -18,8 +18,10 @@ import svnserver.SvnConstants;
 import svnserver.repository.VcsCopyFrom;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -112,21 +114,36 @@ public final class GitRevision {
 
   @Nullable
   public GitFile getFile(@NotNull String fullPath) throws IOException {
+    final List<GitFile> chain = getFileChain(fullPath);
+    return chain == null ? null : chain.get(chain.size() - 1);
+  }
+
+  /**
+   * Resolve file with all its parent directories in single tree walk.
+   *
+   * @param fullPath File path.
+   * @return Files from root directory to requested file or null if file is not found.
+   */
+  @Nullable
+  public List<GitFile> getFileChain(@NotNull String fullPath) throws IOException {
     if (gitNewCommit == null) {
       if (fullPath.isEmpty())
-        return new GitFileEmptyTree(branch, "", revision);
+        return Collections.singletonList(new GitFileEmptyTree(branch, "", revision));
       else
         return null;
     }
-    GitFile result = GitFileTreeEntry.create(branch, gitNewCommit.getTree(), revision);
+    final List<GitFile> result = new ArrayList<>();
+    GitFile file = GitFileTreeEntry.create(branch, gitNewCommit.getTree(), revision);
+    result.add(file);
     for (String pathItem : fullPath.split("/")) {
       if (pathItem.isEmpty()) {
         continue;
       }
-      result = result.getEntry(pathItem);
-      if (result == null) {
+      file = file.getEntry(pathItem);
+      if (file == null) {
         return null;
       }
+      result.add(file);
     }
     return result;
   }
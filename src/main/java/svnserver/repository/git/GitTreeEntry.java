@@ -58,22 +58,29 @@ final class GitTreeEntry implements Comparable<GitTreeEntry> {
 
   @Override
   public int compareTo(@NotNull GitTreeEntry peer) {
-    int length1 = this.fileName.length();
-    int length2 = peer.fileName.length();
+    return compare(this.fileName, this.getFileMode() == FileMode.TREE, peer.fileName, peer.getFileMode() == FileMode.TREE);
+  }
+
+  /**
+   * Compare entries in git tree order.
+   */
+  static int compare(@NotNull String fileName1, boolean tree1, @NotNull String fileName2, boolean tree2) {
+    int length1 = fileName1.length();
+    int length2 = fileName2.length();
     final int length = Math.min(length1, length2) + 1;
     for (int i = 0; i < length; i++) {
       final char c1;
       if (i < length1) {
-        c1 = this.fileName.charAt(i);
-      } else if ((i == length1) && (this.getFileMode() == FileMode.TREE)) {
+        c1 = fileName1.charAt(i);
+      } else if ((i == length1) && tree1) {
         c1 = '/';
       } else {
         c1 = 0;
       }
       final char c2;
       if (i < length2) {
-        c2 = peer.fileName.charAt(i);
-      } else if ((i == length2) && (peer.getFileMode() == FileMode.TREE)) {
+        c2 = fileName2.charAt(i);
+      } else if ((i == length2) && tree2) {
         c2 = '/';
       } else {
         c2 = 0;
@@ -0,0 +1,169 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import svnserver.repository.git.prop.PropertyMapping;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Three-way merge of git trees by paths.
+ * <p>
+ * Trees are merged only when both sides change different paths. File content is never merged.
+ * <p>
+ * Merge is refused when one side adds or removes entries in a directory changed by other side (for example,
+ * concurrent creation of the same directory) or when one side changes Git config files (like .gitattributes),
+ * which define properties of paths changed by other side. These cases require out-of-date checks, which are
+ * performed only by full commit replay.
+ */
+final class GitTreeMerge {
+  @NotNull
+  private final GitRepository repository;
+  @NotNull
+  private final ObjectInserter inserter;
+
+  GitTreeMerge(@NotNull GitRepository repository, @NotNull ObjectInserter inserter) {
+    this.repository = repository;
+    this.inserter = inserter;
+  }
+
+  /**
+   * @param base   Common base tree.
+   * @param ours   Our tree.
+   * @param theirs Their tree.
+   * @return Merged tree id or null if changes overlap.
+   */
+  @Nullable
+  ObjectId merge(@Nullable GitTreeEntry base, @NotNull GitTreeEntry ours, @NotNull GitTreeEntry theirs) throws IOException {
+    final Changes ourChanges = new Changes();
+    ourChanges.collect("", base, ours);
+    final Changes theirChanges = new Changes();
+    theirChanges.collect("", base, theirs);
+    if (ourChanges.conflicts(theirChanges) || theirChanges.conflicts(ourChanges))
+      return null;
+
+    return mergeTree(base, ours, theirs);
+  }
+
+  @Nullable
+  private ObjectId mergeTree(@Nullable GitTreeEntry base, @NotNull GitTreeEntry ours, @NotNull GitTreeEntry theirs) throws IOException {
+    final Map<String, GitTreeEntry> baseEntries = loadTree(base);
+    final Map<String, GitTreeEntry> ourEntries = loadTree(ours);
+    final Map<String, GitTreeEntry> theirEntries = loadTree(theirs);
+
+    final Set<String> names = new TreeSet<>(baseEntries.keySet());
+    names.addAll(ourEntries.keySet());
+    names.addAll(theirEntries.keySet());
+
+    final GitTreeUpdate result = new GitTreeUpdate(ours.getFileName());
+    for (String name : names) {
+      final GitTreeEntry baseEntry = baseEntries.get(name);
+      final GitTreeEntry ourEntry = ourEntries.get(name);
+      final GitTreeEntry theirEntry = theirEntries.get(name);
+
+      final GitTreeEntry merged;
+      if (Objects.equals(ourEntry, theirEntry) || Objects.equals(baseEntry, theirEntry)) {
+        merged = ourEntry;
+      } else if (Objects.equals(baseEntry, ourEntry)) {
+        merged = theirEntry;
+      } else if (isTree(ourEntry) && isTree(theirEntry)) {
+        // Both sides changed directory: merge its content
+        final ObjectId treeId = mergeTree(isTree(baseEntry) ? baseEntry : null, ourEntry, theirEntry);
+        if (treeId == null)
+          return null;
+        merged = new GitTreeEntry(FileMode.TREE, new GitObject<>(repository.getGit(), treeId), name);
+      } else {
+        return null;
+      }
+
+      if (merged != null)
+        result.put(merged);
+    }
+
+    // Empty directories is not supported
+    if (result.isEmpty())
+      return null;
+
+    return result.buildTree(inserter);
+  }
+
+  @NotNull
+  private Map<String, GitTreeEntry> loadTree(@Nullable GitTreeEntry tree) throws IOException {
+    final Map<String, GitTreeEntry> result = new HashMap<>();
+    for (GitTreeEntry entry : repository.loadTree(tree))
+      result.put(entry.getFileName(), entry);
+    return result;
+  }
+
+  private static boolean isTree(@Nullable GitTreeEntry entry) {
+    return entry != null && entry.getFileMode().equals(FileMode.TREE);
+  }
+
+  private static boolean isParent(@NotNull String dir, @NotNull String path) {
+    return dir.isEmpty() || path.equals(dir) || path.startsWith(dir + "/");
+  }
+
+  /**
+   * Directories changed by one side of merge.
+   */
+  private final class Changes {
+    // Directories with changed entries (file content, mode, added or removed entries)
+    @NotNull
+    private final Set<String> changed = new HashSet<>();
+    // Directories with added or removed entries
+    @NotNull
+    private final Set<String> entries = new HashSet<>();
+    // Directories with changed Git config files
+    @NotNull
+    private final Set<String> props = new HashSet<>();
+
+    void collect(@NotNull String path, @Nullable GitTreeEntry base, @NotNull GitTreeEntry side) throws IOException {
+      final Map<String, GitTreeEntry> baseEntries = loadTree(base);
+      final Map<String, GitTreeEntry> sideEntries = loadTree(side);
+
+      final Set<String> names = new HashSet<>(baseEntries.keySet());
+      names.addAll(sideEntries.keySet());
+      for (String name : names) {
+        final GitTreeEntry baseEntry = baseEntries.get(name);
+        final GitTreeEntry sideEntry = sideEntries.get(name);
+        if (Objects.equals(baseEntry, sideEntry))
+          continue;
+
+        if (isTree(baseEntry) && isTree(sideEntry)) {
+          collect(path.isEmpty() ? name : path + "/" + name, baseEntry, sideEntry);
+          continue;
+        }
+
+        changed.add(path);
+        if (baseEntry == null || sideEntry == null || isTree(baseEntry) != isTree(sideEntry))
+          entries.add(path);
+        if (PropertyMapping.getFactory(name) != null)
+          props.add(path);
+      }
+    }
+
+    boolean conflicts(@NotNull Changes other) {
+      for (String dir : entries)
+        if (other.changed.contains(dir))
+          return true;
+
+      for (String dir : props)
+        for (String path : other.changed)
+          if (isParent(dir, path))
+            return true;
+
+      return false;
+    }
+  }
+}
@@ -7,32 +7,53 @@
  */
 package svnserver.repository.git;
 
+import org.eclipse.jgit.errors.CorruptObjectException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
 import org.eclipse.jgit.lib.ObjectChecker;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ObjectInserter;
 import org.eclipse.jgit.lib.TreeFormatter;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.util.*;
 
 /**
  * Git tree updater.
+ * <p>
+ * Original tree entries are shared and never modified: changes are stored separately and merged
+ * with original entries in git order on tree build. Unchanged tree is not serialized at all.
  *
  * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
  */
 final class GitTreeUpdate {
   @NotNull
   private final String name;
+  @Nullable
+  private final ObjectId originalId;
+  // Sorted in git order
   @NotNull
-  private final Map<String, GitTreeEntry> entries;
+  private final List<GitTreeEntry> original;
+  // Changed entries by name, null value for removed entry
+  @NotNull
+  private final Map<String, GitTreeEntry> changes = new HashMap<>();
+  private int size;
+
+  GitTreeUpdate(@NotNull String name) {
+    this(name, null, Collections.emptyList());
+  }
 
-  GitTreeUpdate(@NotNull String name, @NotNull Iterable<GitTreeEntry> entries) {
+  /**
+   * @param originalId Original tree id.
+   * @param original   Original tree entries in git order.
+   */
+  GitTreeUpdate(@NotNull String name, @Nullable ObjectId originalId, @NotNull List<GitTreeEntry> original) {
     this.name = name;
-    this.entries = new HashMap<>();
-    for (GitTreeEntry entry : entries) {
-      this.entries.put(entry.getFileName(), entry);
-    }
+    this.originalId = originalId;
+    this.original = original;
+    this.size = original.size();
   }
 
   @NotNull
@@ -40,18 +61,122 @@ final class GitTreeUpdate {
     return name;
   }
 
-  @NotNull Map<String, GitTreeEntry> getEntries() {
-    return entries;
+  @Nullable
+  GitTreeEntry get(@NotNull String entryName) {
+    if (changes.containsKey(entryName))
+      return changes.get(entryName);
+
+    return findOriginal(entryName);
+  }
+
+  boolean contains(@NotNull String entryName) {
+    return get(entryName) != null;
+  }
+
+  /**
+   * @return Previous entry with same name.
+   */
+  @Nullable
+  GitTreeEntry put(@NotNull GitTreeEntry entry) {
+    final String entryName = entry.getFileName();
+    final GitTreeEntry prev = get(entryName);
+    if (entry.equals(findOriginal(entryName))) {
+      changes.remove(entryName);
+    } else {
+      changes.put(entryName, entry);
+    }
+    if (prev == null)
+      size++;
+    return prev;
+  }
+
+  /**
+   * @return Removed entry.
+   */
+  @Nullable
+  GitTreeEntry remove(@NotNull String entryName) {
+    final GitTreeEntry prev = get(entryName);
+    if (prev == null)
+      return null;
+
+    if (findOriginal(entryName) == null) {
+      changes.remove(entryName);
+    } else {
+      changes.put(entryName, null);
+    }
+    size--;
+    return prev;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Nullable
+  private GitTreeEntry findOriginal(@NotNull String entryName) {
+    // Sort position of entry depends on its type: directory names are compared with trailing slash.
+    final GitTreeEntry file = findOriginal(entryName, false);
+    return file != null ? file : findOriginal(entryName, true);
+  }
+
+  @Nullable
+  private GitTreeEntry findOriginal(@NotNull String entryName, boolean tree) {
+    int low = 0;
+    int high = original.size() - 1;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      final GitTreeEntry entry = original.get(mid);
+      final int cmp = GitTreeEntry.compare(entry.getFileName(), entry.getFileMode() == FileMode.TREE, entryName, tree);
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return entry;
+      }
+    }
+    return null;
   }
 
   @NotNull ObjectId buildTree(@NotNull ObjectInserter inserter) throws IOException {
+    if (originalId != null && changes.isEmpty())
+      return originalId;
+
+    final List<GitTreeEntry> added = new ArrayList<>();
+    for (GitTreeEntry entry : changes.values()) {
+      if (entry != null) {
+        checkName(entry.getFileName());
+        added.add(entry);
+      }
+    }
+    Collections.sort(added);
+
     final TreeFormatter treeBuilder = new TreeFormatter();
-    final List<GitTreeEntry> sortedEntries = new ArrayList<>(entries.values());
-    Collections.sort(sortedEntries);
-    for (GitTreeEntry entry : sortedEntries) {
-      treeBuilder.append(entry.getFileName(), entry.getFileMode(), entry.getObjectId().getObject());
+    final Iterator<GitTreeEntry> addedIter = added.iterator();
+    GitTreeEntry next = addedIter.hasNext() ? addedIter.next() : null;
+    for (GitTreeEntry entry : original) {
+      if (changes.containsKey(entry.getFileName()))
+        continue;
+
+      while (next != null && next.compareTo(entry) < 0) {
+        append(treeBuilder, next);
+        next = addedIter.hasNext() ? addedIter.next() : null;
+      }
+      append(treeBuilder, entry);
+    }
+    while (next != null) {
+      append(treeBuilder, next);
+      next = addedIter.hasNext() ? addedIter.next() : null;
     }
-    new ObjectChecker().checkTree(treeBuilder.toByteArray());
     return inserter.insert(treeBuilder);
   }
+
+  private static void append(@NotNull TreeFormatter treeBuilder, @NotNull GitTreeEntry entry) {
+    treeBuilder.append(entry.getFileName(), entry.getFileMode(), entry.getObjectId().getObject());
+  }
+
+  private static void checkName(@NotNull String entryName) throws CorruptObjectException {
+    final byte[] raw = Constants.encode(entryName);
+    new ObjectChecker().checkPathSegment(raw, 0, raw.length);
+  }
 }
@@ -39,6 +39,7 @@ import java.util.*;
  */
 public final class GitWriter {
   private static final int MAX_PROPERTY_ERRROS = 50;
+  private static final int MAX_REBASE_COUNT = 3;
 
   @NotNull
   private static final Logger log = Loggers.git;
@@ -50,14 +51,17 @@ public final class GitWriter {
   @NotNull
   private final GitPusher pusher;
   @NotNull
-  private final Object pushLock;
+  private final GitCommitQueue commitQueue;
   @NotNull
   private final User user;
+  // Parsed tree entries by tree id: reused by all commit passes
+  @NotNull
+  private final Map<ObjectId, List<GitTreeEntry>> treeCache = new HashMap<>();
 
-  GitWriter(@NotNull GitBranch branch, @NotNull GitPusher pusher, @NotNull Object pushLock, @NotNull User user) {
+  GitWriter(@NotNull GitBranch branch, @NotNull GitPusher pusher, @NotNull GitCommitQueue commitQueue, @NotNull User user) {
     this.branch = branch;
     this.pusher = pusher;
-    this.pushLock = pushLock;
+    this.commitQueue = commitQueue;
     this.inserter = branch.getRepository().getGit().newObjectInserter();
     this.user = user;
   }
@@ -86,6 +90,26 @@ public final class GitWriter {
     return inserter;
   }
 
+  @NotNull
+  private GitTreeUpdate loadTree(@NotNull String name, @Nullable GitTreeEntry tree) throws IOException {
+    if (tree == null || !tree.getFileMode().equals(FileMode.TREE)) {
+      final List<GitTreeEntry> entries = new ArrayList<>();
+      for (GitTreeEntry entry : branch.getRepository().loadTree(tree))
+        entries.add(entry);
+      return new GitTreeUpdate(name, null, entries);
+    }
+
+    final ObjectId treeId = tree.getObjectId().getObject();
+    List<GitTreeEntry> entries = treeCache.get(treeId);
+    if (entries == null) {
+      entries = new ArrayList<>();
+      for (GitTreeEntry entry : branch.getRepository().loadTree(tree))
+        entries.add(entry);
+      treeCache.put(treeId, entries);
+    }
+    return new GitTreeUpdate(name, treeId, entries);
+  }
+
   public class GitCommitBuilder {
     @NotNull
     private final Deque<GitTreeUpdate> treeStack;
@@ -103,24 +127,25 @@ public final class GitWriter {
       this.locks = locks;
       this.revision = branch.getLatestRevision();
       this.treeStack = new ArrayDeque<>();
-      this.treeStack.push(new GitTreeUpdate("", getOriginalTree()));
+      this.treeStack.push(getOriginalTree());
     }
 
-    private Iterable<GitTreeEntry> getOriginalTree() throws IOException {
+    @NotNull
+    private GitTreeUpdate getOriginalTree() throws IOException {
       final RevCommit commit = revision.getGitNewCommit();
       if (commit == null) {
-        return Collections.emptyList();
+        return new GitTreeUpdate("");
       }
-      return branch.getRepository().loadTree(new GitTreeEntry(branch.getRepository().getGit(), FileMode.TREE, commit.getTree(), ""));
+      return loadTree("", new GitTreeEntry(branch.getRepository().getGit(), FileMode.TREE, commit.getTree(), ""));
     }
 
     public void addDir(@NotNull String name, @Nullable GitFile sourceDir) throws SVNException, IOException {
       final GitTreeUpdate current = treeStack.element();
-      if (current.getEntries().containsKey(name)) {
+      if (current.contains(name)) {
         throw new SVNException(SVNErrorMessage.create(SVNErrorCode.FS_ALREADY_EXISTS, getFullPath(name)));
       }
       commitActions.add(action -> action.openDir(name));
-      treeStack.push(new GitTreeUpdate(name, branch.getRepository().loadTree(sourceDir == null ? null : sourceDir.getTreeEntry())));
+      treeStack.push(loadTree(name, sourceDir == null ? null : sourceDir.getTreeEntry()));
     }
 
     @NotNull
@@ -136,12 +161,12 @@ public final class GitWriter {
 
     public void openDir(@NotNull String name) throws SVNException, IOException {
       final GitTreeUpdate current = treeStack.element();
-      final GitTreeEntry originalDir = current.getEntries().remove(name);
+      final GitTreeEntry originalDir = current.remove(name);
       if ((originalDir == null) || (!originalDir.getFileMode().equals(FileMode.TREE))) {
         throw new SVNException(SVNErrorMessage.create(SVNErrorCode.ENTRY_NOT_FOUND, getFullPath(name)));
       }
       commitActions.add(action -> action.openDir(name));
-      treeStack.push(new GitTreeUpdate(name, branch.getRepository().loadTree(originalDir)));
+      treeStack.push(loadTree(name, originalDir));
     }
 
     public void checkDirProperties(@NotNull Map<String, String> props) {
@@ -152,12 +177,12 @@ public final class GitWriter {
       final GitTreeUpdate last = treeStack.pop();
       final GitTreeUpdate current = treeStack.element();
       final String fullPath = getFullPath(last.getName());
-      if (last.getEntries().isEmpty()) {
+      if (last.isEmpty()) {
         throw new SVNException(SVNErrorMessage.create(SVNErrorCode.CANCELLED, "Empty directories is not supported: " + fullPath));
       }
       final ObjectId subtreeId = last.buildTree(inserter);
       log.debug("Create tree {} for dir: {}", subtreeId.name(), fullPath);
-      if (current.getEntries().put(last.getName(), new GitTreeEntry(FileMode.TREE, new GitObject<>(branch.getRepository().getGit(), subtreeId), last.getName())) != null) {
+      if (current.put(new GitTreeEntry(FileMode.TREE, new GitObject<>(branch.getRepository().getGit(), subtreeId), last.getName())) != null) {
         throw new SVNException(SVNErrorMessage.create(SVNErrorCode.FS_ALREADY_EXISTS, fullPath));
       }
       commitActions.add(CommitAction::closeDir);
@@ -166,7 +191,7 @@ public final class GitWriter {
     public void saveFile(@NotNull String name, @NotNull GitDeltaConsumer deltaConsumer, boolean modify) throws SVNException, IOException {
       final GitDeltaConsumer gitDeltaConsumer = deltaConsumer;
       final GitTreeUpdate current = treeStack.element();
-      final GitTreeEntry entry = current.getEntries().get(name);
+      final GitTreeEntry entry = current.get(name);
       final GitObject<ObjectId> originalId = gitDeltaConsumer.getOriginalId();
       if (modify ^ (entry != null)) {
         throw new SVNException(SVNErrorMessage.create(SVNErrorCode.WC_NOT_UP_TO_DATE, "Working copy is not up-to-date: " + getFullPath(name)));
@@ -179,7 +204,7 @@ public final class GitWriter {
         }
         return;
       }
-      current.getEntries().put(name, new GitTreeEntry(getFileMode(gitDeltaConsumer.getProperties()), objectId, name));
+      current.put(new GitTreeEntry(getFileMode(gitDeltaConsumer.getProperties()), objectId, name));
       commitActions.add(action -> action.checkProperties(name, gitDeltaConsumer.getProperties(), gitDeltaConsumer));
     }
 
@@ -191,7 +216,7 @@ public final class GitWriter {
 
     public void delete(@NotNull String name) throws SVNException {
       final GitTreeUpdate current = treeStack.element();
-      final GitTreeEntry entry = current.getEntries().remove(name);
+      final GitTreeEntry entry = current.remove(name);
       if (entry == null) {
         throw new SVNException(SVNErrorMessage.create(SVNErrorCode.ENTRY_NOT_FOUND, getFullPath(name)));
       }
@@ -203,18 +228,8 @@ public final class GitWriter {
       ObjectId treeId = root.buildTree(inserter);
       log.debug("Create tree {} for commit.", treeId.name());
 
-      final CommitBuilder commitBuilder = new CommitBuilder();
-      final PersonIdent ident = createIdent(userInfo);
-      commitBuilder.setAuthor(ident);
-      commitBuilder.setCommitter(ident);
-      commitBuilder.setMessage(message);
       final RevCommit parentCommit = revision.getGitNewCommit();
-      if (parentCommit != null) {
-        commitBuilder.setParentId(parentCommit.getId());
-      }
-      commitBuilder.setTreeId(treeId);
-      final ObjectId commitId = inserter.insert(commitBuilder);
-      inserter.flush();
+      final ObjectId commitId = createCommit(userInfo, message, parentCommit, treeId);
       log.info("Create commit {}: {}", commitId.name(), StringHelper.getFirstLine(message));
 
       if (filterMigration(new RevWalk(branch.getRepository().getGit()).parseTree(treeId)) != 0) {
@@ -222,19 +237,70 @@ public final class GitWriter {
         return null;
       }
 
-      synchronized (pushLock) {
+      return commitQueue.execute(() -> push(userInfo, message, parentCommit, treeId, commitId));
+    }
+
+    @Nullable
+    private GitRevision push(@NotNull User userInfo, @NotNull String message, @Nullable RevCommit parentCommit, @NotNull ObjectId treeId, @NotNull ObjectId commitId) throws SVNException, IOException {
+      final Repository git = branch.getRepository().getGit();
+      ObjectId pushTreeId = treeId;
+      ObjectId pushCommitId = commitId;
+      for (int pass = 0; ; ++pass) {
         log.info("Validate properties");
-        validateProperties(new RevWalk(branch.getRepository().getGit()).parseTree(treeId));
+        validateProperties(new RevWalk(git).parseTree(pushTreeId));
 
         log.info("Try to push commit in branch: {}", branch);
-        if (!pusher.push(branch.getRepository().getGit(), commitId, branch.getGitBranch(), userInfo)) {
-          log.info("Non fast forward push rejected");
-          return null;
+        if (pusher.push(git, pushCommitId, branch.getGitBranch(), userInfo)) {
+          log.info("Commit is pushed");
+          branch.updateRevisions();
+          return branch.getRevision(pushCommitId);
         }
-        log.info("Commit is pushed");
+        log.info("Non fast forward push rejected");
+        // Commit replay must see new branch head
         branch.updateRevisions();
-        return branch.getRevision(commitId);
+        if (pass >= MAX_REBASE_COUNT)
+          return null;
+
+        // Try to apply our changes on top of new branch head without recreating whole commit.
+        final Ref head = git.exactRef(branch.getGitBranch());
+        if (head == null)
+          return null;
+
+        final RevCommit headCommit = new RevWalk(git).parseCommit(head.getObjectId());
+        final ObjectId mergedTreeId = new GitTreeMerge(branch.getRepository(), inserter).merge(
+            parentCommit == null ? null : new GitTreeEntry(git, FileMode.TREE, parentCommit.getTree(), ""),
+            new GitTreeEntry(git, FileMode.TREE, treeId, ""),
+            new GitTreeEntry(git, FileMode.TREE, headCommit.getTree(), "")
+        );
+        if (mergedTreeId == null) {
+          log.info("Changes overlap with commit {}, need recreate commit", headCommit.name());
+          return null;
+        }
+        if (filterMigration(new RevWalk(git).parseTree(mergedTreeId)) != 0) {
+          log.info("Need recreate tree after filter migration.");
+          return null;
+        }
+        pushTreeId = mergedTreeId;
+        pushCommitId = createCommit(userInfo, message, headCommit, pushTreeId);
+        commitQueue.rebased();
+        log.info("Rebase commit on top of {}: {}", headCommit.name(), pushCommitId.name());
+      }
+    }
+
+    @NotNull
+    private ObjectId createCommit(@NotNull User userInfo, @NotNull String message, @Nullable RevCommit parentCommit, @NotNull ObjectId treeId) throws IOException {
+      final CommitBuilder commitBuilder = new CommitBuilder();
+      final PersonIdent ident = createIdent(userInfo);
+      commitBuilder.setAuthor(ident);
+      commitBuilder.setCommitter(ident);
+      commitBuilder.setMessage(message);
+      if (parentCommit != null) {
+        commitBuilder.setParentId(parentCommit.getId());
       }
+      commitBuilder.setTreeId(treeId);
+      final ObjectId commitId = inserter.insert(commitBuilder);
+      inserter.flush();
+      return commitId;
     }
 
     private PersonIdent createIdent(User userInfo) {
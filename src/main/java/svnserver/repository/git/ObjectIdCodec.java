@@ -10,23 +10,29 @@ package svnserver.repository.git;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
 import org.jetbrains.annotations.NotNull;
-import org.mapdb.DataInput2;
-import org.mapdb.DataOutput2;
-import org.mapdb.serializer.GroupSerializerObjectArray;
+import svnserver.cache.CacheCodec;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 
-final class ObjectIdSerializer extends GroupSerializerObjectArray<ObjectId> {
+public final class ObjectIdCodec implements CacheCodec<ObjectId> {
   @NotNull
-  static final ObjectIdSerializer instance = new ObjectIdSerializer();
+  public static final ObjectIdCodec instance = new ObjectIdCodec();
+
+  private ObjectIdCodec() {
+  }
 
   @Override
-  public void serialize(@NotNull DataOutput2 out, @NotNull ObjectId value) throws IOException {
-    value.copyRawTo(out);
+  public void write(@NotNull DataOutput out, @NotNull ObjectId value) throws IOException {
+    final byte[] raw = new byte[fixedSize()];
+    value.copyRawTo(raw, 0);
+    out.write(raw);
   }
 
+  @NotNull
   @Override
-  public ObjectId deserialize(@NotNull DataInput2 input, int available) throws IOException {
+  public ObjectId read(@NotNull DataInput input) throws IOException {
     final byte[] raw = new byte[fixedSize()];
     input.readFully(raw);
     return ObjectId.fromRaw(raw);
@@ -36,9 +42,4 @@ final class ObjectIdSerializer extends GroupSerializerObjectArray<ObjectId> {
   public int fixedSize() {
     return Constants.OBJECT_ID_LENGTH;
   }
-
-  @Override
-  public boolean isTrusted() {
-    return true;
-  }
 }
@@ -16,6 +16,7 @@ import svnserver.repository.git.GitObject;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Collection;
 
 /**
  * File fiter interface.
@@ -70,6 +71,14 @@ public interface GitFilter {
   @NotNull
   InputStream inputStream(@NotNull GitObject<? extends ObjectId> objectId) throws IOException;
 
+  /**
+   * Hint that objects content will be requested soon.
+   *
+   * @param objectIds Object references.
+   */
+  default void prefetch(@NotNull Collection<GitObject<? extends ObjectId>> objectIds) throws IOException {
+  }
+
   /**
    * Create stream wrapper for object.
    *
@@ -0,0 +1,240 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git.filter;
+
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+import org.eclipse.jgit.lib.ObjectId;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import svnserver.Loggers;
+import svnserver.cache.CacheCodec;
+import svnserver.cache.CacheStore;
+import svnserver.repository.git.ObjectIdCodec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Filtered content metadata cache.
+ * <p>
+ * Entries are keyed by raw object id and store md5, size and binary flag of filtered content in fixed-width binary form.
+ */
+public final class GitFilterCache {
+  @NotNull
+  private static final Logger log = Loggers.git;
+  private static final int MD5_LENGTH = 16;
+
+  @NotNull
+  private final Map<ObjectId, Entry> entries;
+
+  private GitFilterCache(@NotNull Map<ObjectId, Entry> entries) {
+    this.entries = entries;
+  }
+
+  /**
+   * Open metadata cache of filter.
+   * <p>
+   * Entries of string-keyed caches from previous versions are moved to this cache on first open.
+   */
+  @NotNull
+  public static GitFilterCache open(@NotNull String filterName, @NotNull CacheStore cacheStore) {
+    final String prefix = "cache.filter." + filterName;
+    synchronized (cacheStore) {
+      final Map<ObjectId, Entry> entries = cacheStore.getHashMap(prefix + ".meta", ObjectIdCodec.instance, EntryCodec.instance);
+      migrate(cacheStore, prefix, entries);
+      return new GitFilterCache(entries);
+    }
+  }
+
+  @Nullable
+  public String getMd5(@NotNull ObjectId objectId) {
+    final Entry entry = entries.get(objectId);
+    return entry == null || entry.md5 == null ? null : Hex.encodeHexString(entry.md5);
+  }
+
+  @Nullable
+  public Long getSize(@NotNull ObjectId objectId) {
+    final Entry entry = entries.get(objectId);
+    return entry == null || (entry.flags & Entry.HAS_SIZE) == 0 ? null : entry.size;
+  }
+
+  @Nullable
+  public Boolean isBinary(@NotNull ObjectId objectId) {
+    final Entry entry = entries.get(objectId);
+    return entry == null || (entry.flags & Entry.HAS_BINARY) == 0 ? null : (entry.flags & Entry.BINARY) != 0;
+  }
+
+  public void putMetadata(@NotNull ObjectId objectId, @NotNull byte[] md5, long size) {
+    if (md5.length != MD5_LENGTH)
+      throw new IllegalArgumentException("Unexpected md5 length: " + md5.length);
+
+    update(objectId, new Entry(Entry.HAS_SIZE, md5, size));
+  }
+
+  public void putBinary(@NotNull ObjectId objectId, boolean binary) {
+    update(objectId, new Entry(binary ? Entry.HAS_BINARY | Entry.BINARY : Entry.HAS_BINARY, null, 0));
+  }
+
+  private void update(@NotNull ObjectId objectId, @NotNull Entry value) {
+    entries.merge(objectId.copy(), value, Entry::merge);
+  }
+
+  private static void migrate(@NotNull CacheStore cacheStore, @NotNull String prefix, @NotNull Map<ObjectId, Entry> entries) {
+    final Map<String, String> oldMd5 = openOld(cacheStore, prefix + ".md5", CacheCodec.STRING);
+    final Map<String, Long> oldSize = openOld(cacheStore, prefix + ".size", CacheCodec.LONG);
+
+    int migrated = 0;
+    if (oldMd5 != null) {
+      for (Map.Entry<String, String> item : oldMd5.entrySet()) {
+        final Long size = oldSize == null ? null : oldSize.remove(item.getKey());
+        final ObjectId objectId = parseObjectId(item.getKey());
+        final byte[] md5 = parseMd5(item.getValue());
+        if (objectId == null || md5 == null)
+          continue;
+
+        entries.merge(objectId, new Entry(size == null ? 0 : Entry.HAS_SIZE, md5, size == null ? 0 : size), Entry::merge);
+        migrated++;
+      }
+      oldMd5.clear();
+    }
+    if (oldSize != null) {
+      for (Map.Entry<String, Long> item : oldSize.entrySet()) {
+        final ObjectId objectId = parseObjectId(item.getKey());
+        if (objectId == null)
+          continue;
+
+        entries.merge(objectId, new Entry(Entry.HAS_SIZE, null, item.getValue()), Entry::merge);
+        migrated++;
+      }
+      oldSize.clear();
+    }
+    // Old collections can't be removed from cache store, so they stay empty after first migration
+    if (migrated > 0)
+      log.info("Migrated {} entries to {}.meta cache", migrated, prefix);
+  }
+
+  @Nullable
+  private static <V> Map<String, V> openOld(@NotNull CacheStore cacheStore, @NotNull String name, @NotNull CacheCodec<V> valueCodec) {
+    if (!cacheStore.exists(name))
+      return null;
+
+    return cacheStore.getHashMap(name, CacheCodec.STRING, valueCodec);
+  }
+
+  @Nullable
+  private static ObjectId parseObjectId(@NotNull String value) {
+    return ObjectId.isId(value) ? ObjectId.fromString(value) : null;
+  }
+
+  @Nullable
+  private static byte[] parseMd5(@NotNull String value) {
+    try {
+      final byte[] result = Hex.decodeHex(value.toCharArray());
+      return result.length == MD5_LENGTH ? result : null;
+    } catch (DecoderException e) {
+      return null;
+    }
+  }
+
+  private static final class Entry {
+    private static final int HAS_SIZE = 0x01;
+    private static final int HAS_MD5 = 0x02;
+    private static final int HAS_BINARY = 0x04;
+    private static final int BINARY = 0x08;
+
+    private final int flags;
+    @Nullable
+    private final byte[] md5;
+    private final long size;
+
+    private Entry(int flags, @Nullable byte[] md5, long size) {
+      this.flags = md5 == null ? flags & ~HAS_MD5 : flags | HAS_MD5;
+      this.md5 = md5;
+      this.size = size;
+    }
+
+    @NotNull
+    private static Entry merge(@NotNull Entry oldValue, @NotNull Entry newValue) {
+      final byte[] md5 = newValue.md5 != null ? newValue.md5 : oldValue.md5;
+      final long size = (newValue.flags & HAS_SIZE) != 0 ? newValue.size : oldValue.size;
+      final int binary = (newValue.flags & HAS_BINARY) != 0 ? newValue.flags : oldValue.flags;
+      return new Entry((oldValue.flags | newValue.flags) & (HAS_SIZE | HAS_BINARY) | binary & BINARY, md5, size);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      final Entry other = (Entry) o;
+      return flags == other.flags
+          && size == other.size
+          && Arrays.equals(md5, other.md5);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * flags + Arrays.hashCode(md5)) + Long.hashCode(size);
+    }
+  }
+
+  private static final class EntryCodec implements CacheCodec<Entry> {
+    @NotNull
+    private static final EntryCodec instance = new EntryCodec();
+
+    @Override
+    public void write(@NotNull DataOutput out, @NotNull Entry value) throws IOException {
+      out.writeByte(value.flags);
+      if (value.md5 != null)
+        out.write(value.md5);
+      if ((value.flags & Entry.HAS_SIZE) != 0)
+        writePacked(out, value.size);
+    }
+
+    @NotNull
+    @Override
+    public Entry read(@NotNull DataInput input) throws IOException {
+      final int flags = input.readUnsignedByte();
+      final byte[] md5;
+      if ((flags & Entry.HAS_MD5) != 0) {
+        md5 = new byte[MD5_LENGTH];
+        input.readFully(md5);
+      } else {
+        md5 = null;
+      }
+      final long size = (flags & Entry.HAS_SIZE) != 0 ? readPacked(input) : 0;
+      return new Entry(flags, md5, size);
+    }
+
+    /**
+     * Write non-negative value by 7 bits per byte, high bit marks continuation.
+     */
+    private static void writePacked(@NotNull DataOutput out, long value) throws IOException {
+      while ((value & ~0x7FL) != 0) {
+        out.writeByte((int) (value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      out.writeByte((int) value);
+    }
+
+    private static long readPacked(@NotNull DataInput input) throws IOException {
+      long result = 0;
+      for (int shift = 0; ; shift += 7) {
+        final int b = input.readUnsignedByte();
+        result |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0)
+          return result;
+      }
+    }
+  }
+}
@@ -16,7 +16,6 @@ import svnserver.repository.git.GitObject;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Map;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -30,13 +29,10 @@ public class GitFilterGzip implements GitFilter {
   public static final String NAME = "gzip";
 
   @NotNull
-  private final Map<String, String> cacheMd5;
-  @NotNull
-  private final Map<String, Long> cacheSize;
+  private final GitFilterCache cache;
 
   public GitFilterGzip(@NotNull LocalContext context) {
-    this.cacheMd5 = GitFilterHelper.getCacheMd5(this, context.getShared().getCacheDB());
-    this.cacheSize = GitFilterHelper.getCacheSize(this, context.getShared().getCacheDB());
+    this.cache = GitFilterHelper.getCache(this, context.getShared().getCacheStore());
   }
 
   @NotNull
@@ -48,12 +44,12 @@ public class GitFilterGzip implements GitFilter {
   @NotNull
   @Override
   public String getMd5(@NotNull GitObject<? extends ObjectId> objectId) throws IOException {
-    return GitFilterHelper.getMd5(this, cacheMd5, cacheSize, objectId);
+    return GitFilterHelper.getMd5(this, cache, objectId);
   }
 
   @Override
   public long getSize(@NotNull GitObject<? extends ObjectId> objectId) throws IOException {
-    return GitFilterHelper.getSize(this, cacheMd5, cacheSize, objectId);
+    return GitFilterHelper.getSize(this, cache, objectId);
   }
 
   @NotNull
@@ -9,12 +9,10 @@ package svnserver.repository.git.filter;
 
 import org.eclipse.jgit.lib.ObjectId;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
-import org.mapdb.DB;
-import org.mapdb.HTreeMap;
-import org.mapdb.Serializer;
 import svnserver.HashHelper;
 import svnserver.StringHelper;
+import svnserver.cache.CacheCodec;
+import svnserver.cache.CacheStore;
 import svnserver.repository.git.GitObject;
 
 import java.io.IOException;
@@ -33,68 +31,60 @@ public final class GitFilterHelper {
   private GitFilterHelper() {
   }
 
-  public static long getSize(@NotNull GitFilter filter, @Nullable Map<String, String> cacheMd5, @NotNull Map<String, Long> cacheSize, @NotNull GitObject<? extends ObjectId> objectId) throws IOException {
-    final Long size = cacheSize.get(objectId.getObject().name());
+  public static long getSize(@NotNull GitFilter filter, @NotNull GitFilterCache cache, @NotNull GitObject<? extends ObjectId> objectId) throws IOException {
+    final Long size = cache.getSize(objectId.getObject());
     if (size != null) {
       return size;
     }
-    return createMetadata(objectId, filter, cacheMd5, cacheSize).size;
+    return createMetadata(objectId, filter, cache).size;
   }
 
   @NotNull
-  private static Metadata createMetadata(@NotNull GitObject<? extends ObjectId> objectId, @NotNull GitFilter filter, @Nullable Map<String, String> cacheMd5, @Nullable Map<String, Long> cacheSize) throws IOException {
+  private static Metadata createMetadata(@NotNull GitObject<? extends ObjectId> objectId, @NotNull GitFilter filter, @NotNull GitFilterCache cache) throws IOException {
     final byte[] buffer = new byte[BUFFER_SIZE];
     try (final InputStream stream = filter.inputStream(objectId)) {
-      final MessageDigest digest = cacheMd5 != null ? HashHelper.md5() : null;
+      final MessageDigest digest = HashHelper.md5();
       long totalSize = 0;
       while (true) {
         int bytes = stream.read(buffer);
         if (bytes <= 0) break;
-        if (digest != null) {
-          digest.update(buffer, 0, bytes);
-        }
+        digest.update(buffer, 0, bytes);
         totalSize += bytes;
       }
-      final String md5;
-      if ((cacheMd5 != null) && (digest != null)) {
-        md5 = StringHelper.toHex(digest.digest());
-        cacheMd5.putIfAbsent(objectId.getObject().name(), md5);
-      } else {
-        md5 = null;
-      }
-      if (cacheSize != null) {
-        cacheSize.putIfAbsent(objectId.getObject().name(), totalSize);
-      }
-      return new Metadata(totalSize, md5);
+      final byte[] md5 = digest.digest();
+      cache.putMetadata(objectId.getObject(), md5, totalSize);
+      return new Metadata(totalSize, StringHelper.toHex(md5));
     }
   }
 
   @NotNull
-  public static String getMd5(@NotNull GitFilter filter, @NotNull Map<String, String> cacheMd5, @Nullable Map<String, Long> cacheSize, @NotNull GitObject<? extends ObjectId> objectId) throws IOException {
-    final String md5 = cacheMd5.get(objectId.getObject().name());
+  public static String getMd5(@NotNull GitFilter filter, @NotNull GitFilterCache cache, @NotNull GitObject<? extends ObjectId> objectId) throws IOException {
+    final String md5 = cache.getMd5(objectId.getObject());
     if (md5 != null) {
       return md5;
     }
-    //noinspection ConstantConditions
-    return createMetadata(objectId, filter, cacheMd5, cacheSize).md5;
+    return createMetadata(objectId, filter, cache).md5;
   }
 
   @NotNull
-  public static HTreeMap<String, String> getCacheMd5(@NotNull GitFilter filter, @NotNull DB cacheDb) {
-    return cacheDb.hashMap("cache.filter." + filter.getName() + ".md5", Serializer.STRING, Serializer.STRING).createOrOpen();
+  public static GitFilterCache getCache(@NotNull GitFilter filter, @NotNull CacheStore cacheStore) {
+    return GitFilterCache.open(filter.getName(), cacheStore);
   }
 
+  /**
+   * Cache for filters, which content metadata can be extracted from blob itself.
+   */
   @NotNull
-  public static HTreeMap<String, Long> getCacheSize(@NotNull GitFilter filter, @NotNull DB cacheDb) {
-    return cacheDb.hashMap("cache.filter." + filter.getName() + ".size", Serializer.STRING, Serializer.LONG).createOrOpen();
+  public static Map<String, String> getCacheBlobMeta(@NotNull GitFilter filter, @NotNull CacheStore cacheStore) {
+    return cacheStore.getHashMap("cache.filter." + filter.getName() + ".blob", CacheCodec.STRING, CacheCodec.STRING);
   }
 
   private static class Metadata {
     private final long size;
-    @Nullable
+    @NotNull
     private final String md5;
 
-    private Metadata(long size, @Nullable String md5) {
+    private Metadata(long size, @NotNull String md5) {
       this.size = size;
       this.md5 = md5;
     }
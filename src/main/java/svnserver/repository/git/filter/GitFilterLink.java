@@ -20,7 +20,6 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.StreamCorruptedException;
 import java.nio.charset.StandardCharsets;
-import java.util.Map;
 
 /**
  * Get object for symbolic link.
@@ -33,10 +32,10 @@ public class GitFilterLink implements GitFilter {
   @NotNull
   private static final byte[] LINK_PREFIX = "link ".getBytes(StandardCharsets.ISO_8859_1);
   @NotNull
-  private final Map<String, String> cacheMd5;
+  private final GitFilterCache cache;
 
   public GitFilterLink(@NotNull LocalContext context) {
-    this.cacheMd5 = GitFilterHelper.getCacheMd5(this, context.getShared().getCacheDB());
+    this.cache = GitFilterHelper.getCache(this, context.getShared().getCacheStore());
   }
 
   @NotNull
@@ -48,7 +47,7 @@ public class GitFilterLink implements GitFilter {
   @NotNull
   @Override
   public String getMd5(@NotNull GitObject<? extends ObjectId> objectId) throws IOException {
-    return GitFilterHelper.getMd5(this, cacheMd5, null, objectId);
+    return GitFilterHelper.getMd5(this, cache, objectId);
   }
 
   @Override
@@ -19,7 +19,6 @@ import svnserver.repository.git.GitObject;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Map;
 
 /**
  * Get object as is.
@@ -30,10 +29,10 @@ public final class GitFilterRaw implements GitFilter {
   @NotNull
   public static final String NAME = "raw";
   @NotNull
-  private final Map<String, String> cacheMd5;
+  private final GitFilterCache cache;
 
   public GitFilterRaw(@NotNull LocalContext context) {
-    this.cacheMd5 = GitFilterHelper.getCacheMd5(this, context.getShared().getCacheDB());
+    this.cache = GitFilterHelper.getCache(this, context.getShared().getCacheStore());
   }
 
   @NotNull
@@ -45,7 +44,7 @@ public final class GitFilterRaw implements GitFilter {
   @NotNull
   @Override
   public String getMd5(@NotNull GitObject<? extends ObjectId> objectId) throws IOException {
-    return GitFilterHelper.getMd5(this, cacheMd5, null, objectId);
+    return GitFilterHelper.getMd5(this, cache, objectId);
   }
 
   @Override
@@ -21,6 +21,19 @@ public interface PathMatcher {
 
   boolean isMatch();
 
+  /**
+   * Name mask of matched child entries.
+   * <p>
+   * If mask is defined, {@link #createChild} returns this matcher for directories and null for files, which are not
+   * matched by mask.
+   *
+   * @return Child name mask or null if every child must be checked by {@link #createChild}.
+   */
+  @Nullable
+  default NameMatcher getChildMask() {
+    return null;
+  }
+
   @Nullable
   default String getSvnMaskLocal() {
     return null;
@@ -26,6 +26,11 @@ public final class EqualsMatcher implements NameMatcher {
     this.dirOnly = dirOnly;
   }
 
+  @NotNull
+  public String getName() {
+    return name;
+  }
+
   @Override
   public boolean isMatch(@NotNull String name, boolean isDir) {
     return (!dirOnly || isDir) && this.name.equals(name);
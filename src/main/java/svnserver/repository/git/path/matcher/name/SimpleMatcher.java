@@ -29,6 +29,16 @@ public final class SimpleMatcher implements NameMatcher {
     this.dirOnly = dirOnly;
   }
 
+  @NotNull
+  public String getPrefix() {
+    return prefix;
+  }
+
+  @NotNull
+  public String getSuffix() {
+    return suffix;
+  }
+
   @Override
   public boolean isMatch(@NotNull String name, boolean isDir) {
     return (!dirOnly || isDir) && (name.length() >= prefix.length() + suffix.length()) && name.startsWith(prefix) && name.endsWith(suffix);
@@ -42,6 +42,12 @@ public final class FileMaskMatcher implements PathMatcher {
     return false;
   }
 
+  @NotNull
+  @Override
+  public NameMatcher getChildMask() {
+    return matcher;
+  }
+
   @Override
   @Nullable
   public String getSvnMaskGlobal() {
@@ -11,6 +11,7 @@ import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.FileMode;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import svnserver.repository.git.path.NameMatcher;
 import svnserver.repository.git.path.PathMatcher;
 
 import java.util.Map;
@@ -59,35 +60,20 @@ final class GitFileProperty implements GitProperty {
     final PathMatcher matcherChild = matcher.createChild(name, isDir);
     if (matcherChild != null) {
       if (isDir) {
-        return new GitFileProperty(matcherChild, property, value);
+        return matcherChild == matcher ? this : new GitFileProperty(matcherChild, property, value);
       } else if (matcherChild.isMatch()) {
-        return new GitProperty() {
-          @Override
-          public void apply(@NotNull Map<String, String> props) {
-            if (value != null) {
-              props.put(property, value);
-            } else {
-              props.remove(property);
-            }
-          }
-
-          @Nullable
-          @Override
-          public String getFilterName() {
-            return null;
-          }
-
-          @Nullable
-          @Override
-          public GitProperty createForChild(@NotNull String name, @NotNull FileMode mode) {
-            return null;
-          }
-        };
+        return new FileValue(property, value);
       }
     }
     return null;
   }
 
+  @Nullable
+  @Override
+  public NameMatcher getChildMask() {
+    return matcher.getChildMask();
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -109,4 +95,56 @@ final class GitFileProperty implements GitProperty {
     }
     return result;
   }
+
+  /**
+   * Property value for matched file.
+   */
+  private static final class FileValue implements GitProperty {
+    @NotNull
+    private final String property;
+    @Nullable
+    private final String value;
+
+    private FileValue(@NotNull String property, @Nullable String value) {
+      this.property = property;
+      this.value = value;
+    }
+
+    @Override
+    public void apply(@NotNull Map<String, String> props) {
+      if (value != null) {
+        props.put(property, value);
+      } else {
+        props.remove(property);
+      }
+    }
+
+    @Nullable
+    @Override
+    public String getFilterName() {
+      return null;
+    }
+
+    @Nullable
+    @Override
+    public GitProperty createForChild(@NotNull String name, @NotNull FileMode mode) {
+      return null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+
+      FileValue that = (FileValue) o;
+
+      return property.equals(that.property)
+          && Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * property.hashCode() + Objects.hashCode(value);
+    }
+  }
 }
@@ -11,6 +11,7 @@ import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.FileMode;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import svnserver.repository.git.path.NameMatcher;
 import svnserver.repository.git.path.PathMatcher;
 
 import java.util.Map;
@@ -53,11 +54,17 @@ final class GitFilterProperty implements GitProperty {
     final boolean isDir = fileMode.getObjectType() != Constants.OBJ_BLOB;
     final PathMatcher matcherChild = matcher.createChild(name, isDir);
     if ((matcherChild != null) && (isDir || matcherChild.isMatch())) {
-      return new GitFilterProperty(matcherChild, filterName);
+      return matcherChild == matcher ? this : new GitFilterProperty(matcherChild, filterName);
     }
     return null;
   }
 
+  @Nullable
+  @Override
+  public NameMatcher getChildMask() {
+    return matcher.getChildMask();
+  }
+
   @Override
   public boolean equals(@Nullable Object o) {
     if (this == o) return true;
@@ -10,6 +10,7 @@ package svnserver.repository.git.prop;
 import org.eclipse.jgit.lib.FileMode;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import svnserver.repository.git.path.NameMatcher;
 
 import java.util.Arrays;
 import java.util.Map;
@@ -45,6 +46,19 @@ public interface GitProperty {
    */
   @Nullable String getFilterName();
 
+  /**
+   * Name mask of child entries affected by this property.
+   * <p>
+   * If mask is defined, {@link #createForChild} returns this property for directories and null for files, which are not
+   * matched by mask. It allows to skip such children without calling {@link #createForChild}.
+   *
+   * @return Child name mask or null if every child must be checked by {@link #createForChild}.
+   */
+  @Nullable
+  default NameMatcher getChildMask() {
+    return null;
+  }
+
   @NotNull
   static GitProperty[] joinProperties(@NotNull GitProperty[] before, @NotNull GitProperty[] after) {
     if (before.length == 0) {
@@ -64,6 +78,10 @@ public interface GitProperty {
     if (parentProps.length == 0) {
       return entryProps;
     }
+    final GitPropertyIndex index = GitPropertyIndex.get(parentProps);
+    if (index != null) {
+      return index.createForChild(entryName, fileMode, entryProps);
+    }
     final GitProperty[] joined = new GitProperty[parentProps.length + entryProps.length];
     int index = 0;
     for (GitProperty parentProp : parentProps) {
@@ -0,0 +1,208 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git.prop;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import svnserver.repository.git.path.NameMatcher;
+import svnserver.repository.git.path.matcher.name.EqualsMatcher;
+import svnserver.repository.git.path.matcher.name.SimpleMatcher;
+
+import java.util.*;
+
+/**
+ * Compiled set of inherited properties.
+ * <p>
+ * Most .gitattributes and .gitignore patterns are file name masks like {@code *.png}. Properties with such masks are
+ * indexed by exact name and name suffix, so child entry is checked only against properties that can match it.
+ * Other properties are checked for every child as usual.
+ * <p>
+ * Index is built once per properties array: all children of directory share array of directory properties.
+ */
+final class GitPropertyIndex {
+  /**
+   * Smaller property sets are processed without index.
+   */
+  private static final int MIN_INDEXED_PROPERTIES = 8;
+  @NotNull
+  private static final int[] emptyIndexes = {};
+  // Weak keys are compared by identity
+  @NotNull
+  private static final Cache<GitProperty[], Holder> cache = CacheBuilder.newBuilder()
+      .weakKeys()
+      .build();
+
+  @NotNull
+  private final GitProperty[] props;
+  // Property indexes, which should be checked for every child
+  @NotNull
+  private final int[] generic;
+  @NotNull
+  private final boolean[] indexed;
+  @NotNull
+  private final Map<String, int[]> byName;
+  @NotNull
+  private final Map<String, int[]> bySuffix;
+  @NotNull
+  private final int[] suffixLengths;
+
+  private GitPropertyIndex(@NotNull GitProperty[] props) {
+    // Copy: original array is weak cache key
+    this.props = props.clone();
+    this.indexed = new boolean[props.length];
+    final List<Integer> genericList = new ArrayList<>();
+    final Map<String, List<Integer>> byNameList = new HashMap<>();
+    final Map<String, List<Integer>> bySuffixList = new HashMap<>();
+    for (int i = 0; i < props.length; ++i) {
+      final NameMatcher mask = props[i].getChildMask();
+      if (mask instanceof EqualsMatcher) {
+        byNameList.computeIfAbsent(((EqualsMatcher) mask).getName(), key -> new ArrayList<>()).add(i);
+        indexed[i] = true;
+      } else if (mask instanceof SimpleMatcher && ((SimpleMatcher) mask).getPrefix().isEmpty()) {
+        bySuffixList.computeIfAbsent(((SimpleMatcher) mask).getSuffix(), key -> new ArrayList<>()).add(i);
+        indexed[i] = true;
+      } else {
+        genericList.add(i);
+      }
+    }
+    this.generic = toArray(genericList);
+    this.byName = toArrays(byNameList);
+    this.bySuffix = toArrays(bySuffixList);
+    this.suffixLengths = bySuffix.keySet().stream().mapToInt(String::length).distinct().sorted().toArray();
+  }
+
+  /**
+   * Get index for properties array.
+   *
+   * @return Index or null if properties should be processed without index.
+   */
+  @Nullable
+  static GitPropertyIndex get(@NotNull GitProperty[] props) {
+    if (props.length < MIN_INDEXED_PROPERTIES)
+      return null;
+
+    return cache.asMap().computeIfAbsent(props, key -> new Holder()).get(props);
+  }
+
+  /**
+   * Same as {@link GitProperty#joinProperties(GitProperty[], String, FileMode, GitProperty[])}.
+   */
+  @NotNull
+  GitProperty[] createForChild(@NotNull String name, @NotNull FileMode fileMode, @NotNull GitProperty[] entryProps) {
+    final boolean isDir = fileMode.getObjectType() != Constants.OBJ_BLOB;
+    final int[] matched = getCandidates(name);
+    final GitProperty[] joined = new GitProperty[(isDir ? props.length : generic.length + matched.length) + entryProps.length];
+    int count = 0;
+    if (isDir) {
+      // Directory keeps all masked properties, only matched ones are changed
+      int next = 0;
+      for (int i = 0; i < props.length; ++i) {
+        final GitProperty prop;
+        if (next < matched.length && matched[next] == i) {
+          next++;
+          prop = props[i].createForChild(name, fileMode);
+        } else if (indexed[i]) {
+          prop = props[i];
+        } else {
+          prop = props[i].createForChild(name, fileMode);
+        }
+        if (prop != null)
+          joined[count++] = prop;
+      }
+    } else {
+      int genericPos = 0;
+      int matchedPos = 0;
+      while (genericPos < generic.length || matchedPos < matched.length) {
+        final int i;
+        if (matchedPos == matched.length || (genericPos < generic.length && generic[genericPos] < matched[matchedPos])) {
+          i = generic[genericPos++];
+        } else {
+          i = matched[matchedPos++];
+        }
+        final GitProperty prop = props[i].createForChild(name, fileMode);
+        if (prop != null)
+          joined[count++] = prop;
+      }
+    }
+    System.arraycopy(entryProps, 0, joined, count, entryProps.length);
+    return count + entryProps.length == joined.length ? joined : Arrays.copyOf(joined, count + entryProps.length);
+  }
+
+  /**
+   * Indexes of masked properties, which can match given name, in ascending order.
+   */
+  @NotNull
+  private int[] getCandidates(@NotNull String name) {
+    int[] result = byName.getOrDefault(name, emptyIndexes);
+    for (int length : suffixLengths) {
+      if (length > name.length())
+        break;
+
+      final int[] found = bySuffix.get(name.substring(name.length() - length));
+      if (found != null)
+        result = merge(result, found);
+    }
+    return result;
+  }
+
+  @NotNull
+  private static int[] merge(@NotNull int[] a, @NotNull int[] b) {
+    if (a.length == 0)
+      return b;
+
+    final int[] result = new int[a.length + b.length];
+    int i = 0;
+    int j = 0;
+    int k = 0;
+    while (i < a.length || j < b.length) {
+      if (j == b.length || (i < a.length && a[i] < b[j])) {
+        result[k++] = a[i++];
+      } else {
+        result[k++] = b[j++];
+      }
+    }
+    return result;
+  }
+
+  @NotNull
+  private static int[] toArray(@NotNull List<Integer> list) {
+    return list.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  @NotNull
+  private static Map<String, int[]> toArrays(@NotNull Map<String, List<Integer>> map) {
+    final Map<String, int[]> result = new HashMap<>();
+    for (Map.Entry<String, List<Integer>> entry : map.entrySet())
+      result.put(entry.getKey(), toArray(entry.getValue()));
+    return result;
+  }
+
+  private static final class Holder {
+    private int uses;
+    @Nullable
+    private GitPropertyIndex index;
+
+    /**
+     * Index is built on second use: single child lookup (like path resolving) is cheaper without index.
+     */
+    @Nullable
+    private synchronized GitPropertyIndex get(@NotNull GitProperty[] props) {
+      if (++uses == 2) {
+        final GitPropertyIndex created = new GitPropertyIndex(props);
+        // Index is useless if most properties are checked anyway
+        if (created.generic.length * 2 <= props.length)
+          index = created;
+      }
+      return index;
+    }
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git.push;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import svnserver.Loggers;
+import svnserver.context.Local;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Repository hook execution support: background queue for post-receive hooks and hook latency statistics.
+ */
+public final class GitHookExecutor implements Local {
+  @NotNull
+  private static final Logger log = Loggers.git;
+  private static final long RETRY_DELAY_MS = 1000;
+  private static final long SHUTDOWN_TIMEOUT_SEC = 30;
+
+  @NotNull
+  private final String name;
+  @Nullable
+  private final ThreadPoolExecutor executor;
+  private final int retries;
+  @NotNull
+  private final Map<String, LatencyHistogram> latency = new ConcurrentHashMap<>();
+  @NotNull
+  private final AtomicLong dropped = new AtomicLong();
+
+  /**
+   * @param name      Repository name.
+   * @param queueSize Maximum queued post-receive hooks (0 - run post-receive hooks synchronously).
+   * @param retries   Retry count for failed background hooks.
+   */
+  public GitHookExecutor(@NotNull String name, int queueSize, int retries) {
+    this.name = name;
+    this.retries = retries;
+    if (queueSize > 0) {
+      // Single thread: hooks are executed in the same order as pushes.
+      // When queue is full, hook is dropped: commit is already done and committing thread must not wait for hooks.
+      this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize), runnable -> {
+        final Thread thread = new Thread(runnable, "hook-" + name);
+        thread.setDaemon(true);
+        return thread;
+      }, (runnable, pool) -> {
+        dropped.incrementAndGet();
+        log.error("[{}]: post-receive hook queue is full, hook is dropped", name);
+      });
+    } else {
+      this.executor = null;
+    }
+  }
+
+  public boolean isAsync() {
+    return executor != null;
+  }
+
+  /**
+   * Execute hook in background with retries.
+   */
+  void submit(@NotNull String hook, @NotNull HookTask task) {
+    if (executor == null)
+      throw new IllegalStateException();
+
+    executor.execute(() -> {
+      for (int pass = 0; ; ++pass) {
+        try {
+          task.run();
+          return;
+        } catch (Exception e) {
+          if (pass >= retries) {
+            log.error(String.format("[%s]: %s hook failed", name, hook), e);
+            return;
+          }
+          log.warn("[{}]: {} hook failed, retry {} of {}: {}", name, hook, pass + 1, retries, e.getMessage());
+          try {
+            Thread.sleep(RETRY_DELAY_MS * (pass + 1));
+          } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+        }
+      }
+    });
+  }
+
+  void record(@NotNull String hook, long durationMs) {
+    latency.computeIfAbsent(hook, h -> new LatencyHistogram()).add(durationMs);
+  }
+
+  /**
+   * Hook execution time histogram.
+   */
+  @Nullable
+  public LatencyHistogram getLatency(@NotNull String hook) {
+    return latency.get(hook);
+  }
+
+  /**
+   * Count of post-receive hooks dropped because queue was full.
+   */
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+
+  /**
+   * Count of post-receive hooks waiting in queue.
+   */
+  public int getQueueSize() {
+    return executor == null ? 0 : executor.getQueue().size();
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    if (executor != null) {
+      executor.shutdown();
+      if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SEC, TimeUnit.SECONDS))
+        log.warn("[{}]: {} post-receive hooks are dropped on shutdown", name, executor.shutdownNow().size());
+    }
+    for (Map.Entry<String, LatencyHistogram> entry : latency.entrySet())
+      log.info("[{}]: {} hook latency: {}", name, entry.getKey(), entry.getValue());
+  }
+
+  @FunctionalInterface
+  interface HookTask {
+    void run() throws Exception;
+  }
+
+  /**
+   * Histogram with fixed buckets.
+   */
+  public static final class LatencyHistogram {
+    @NotNull
+    private static final long[] BOUNDS_MS = {10, 50, 100, 500, 1000, 5000, 10000, 60000};
+    @NotNull
+    private final AtomicLongArray counts = new AtomicLongArray(BOUNDS_MS.length + 1);
+
+    void add(long durationMs) {
+      int bucket = 0;
+      while (bucket < BOUNDS_MS.length && durationMs > BOUNDS_MS[bucket])
+        bucket++;
+      counts.incrementAndGet(bucket);
+    }
+
+    /**
+     * Count of executions with duration up to given bucket bound (last bucket is unbounded).
+     */
+    public long getCount(int bucket) {
+      return counts.get(bucket);
+    }
+
+    public long getTotalCount() {
+      long result = 0;
+      for (int i = 0; i < counts.length(); ++i)
+        result += counts.get(i);
+      return result;
+    }
+
+    @Override
+    public String toString() {
+      final StringBuilder result = new StringBuilder();
+      for (int i = 0; i < counts.length(); ++i) {
+        if (result.length() > 0)
+          result.append(", ");
+        result.append(i < BOUNDS_MS.length ? "<=" + BOUNDS_MS[i] + "ms" : ">" + BOUNDS_MS[BOUNDS_MS.length - 1] + "ms")
+            .append(": ")
+            .append(counts.get(i));
+      }
+      return result.toString();
+    }
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git.push;
+
+import com.google.common.io.CharStreams;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Waits for repository hook process and collects its output.
+ */
+final class GitHookRunner {
+  private GitHookRunner() {
+  }
+
+  /**
+   * Wait for hook completion.
+   * <p>
+   * Hook input must be already written: stdin is closed to prevent hanging if hook tries to read from it.
+   *
+   * @param process   Hook process.
+   * @param timeoutMs Hook execution timeout in milliseconds (0 - no timeout).
+   * @return Hook exit code and output.
+   * @throws TimeoutException If hook or its background children holding stdout did not finish in time. Hook process is killed.
+   */
+  @NotNull
+  static Result waitFor(@NotNull Process process, long timeoutMs) throws IOException, InterruptedException, TimeoutException {
+    process.getOutputStream().close();
+
+    final InputStream stdout = process.getInputStream();
+    if (timeoutMs <= 0) {
+      final String output = readOutput(stdout);
+      return new Result(process.waitFor(), output);
+    }
+
+    // Output is read by separate thread, so hanging hook can be detected even if it doesn't write anything
+    final FutureTask<String> output = new FutureTask<>(() -> readOutput(stdout));
+    final Thread reader = new Thread(output, "hook-output");
+    reader.setDaemon(true);
+    reader.start();
+
+    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    try {
+      if (!process.waitFor(timeoutMs, TimeUnit.MILLISECONDS))
+        throw new TimeoutException();
+
+      // Background child of hook may keep stdout open after hook exit
+      final String message = output.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+      return new Result(process.exitValue(), message);
+    } catch (TimeoutException e) {
+      process.destroyForcibly();
+      stdout.close();
+      throw e;
+    } catch (ExecutionException e) {
+      throw new IOException(e.getCause());
+    }
+  }
+
+  @NotNull
+  private static String readOutput(@NotNull InputStream stdout) throws IOException {
+    try (Reader reader = new InputStreamReader(stdout, StandardCharsets.UTF_8)) {
+      return CharStreams.toString(reader);
+    }
+  }
+
+  static final class Result {
+    private final int exitCode;
+    @NotNull
+    private final String output;
+
+    Result(int exitCode, @NotNull String output) {
+      this.exitCode = exitCode;
+      this.output = output;
+    }
+
+    int getExitCode() {
+      return exitCode;
+    }
+
+    @NotNull
+    String getOutput() {
+      return output;
+    }
+  }
+}
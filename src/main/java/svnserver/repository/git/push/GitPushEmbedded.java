@@ -8,7 +8,6 @@
 package svnserver.repository.git.push;
 
 import com.google.common.base.Strings;
-import com.google.common.io.CharStreams;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.RefUpdate;
 import org.eclipse.jgit.lib.Repository;
@@ -30,6 +29,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.concurrent.TimeoutException;
 
 import static org.eclipse.jgit.lib.ConfigConstants.CONFIG_CORE_SECTION;
 
@@ -46,10 +46,23 @@ public final class GitPushEmbedded implements GitPusher {
   private final LocalContext context;
   @Nullable
   private final String hooksPathOverride;
+  @NotNull
+  private final GitHookExecutor hookExecutor;
+  private final long hookTimeoutMs;
 
   public GitPushEmbedded(@NotNull LocalContext context, @Nullable String hooksPathOverride) {
+    this(context, hooksPathOverride, context.getOrCreate(GitHookExecutor.class, () -> new GitHookExecutor(context.getName(), 0, 0)), 0);
+  }
+
+  /**
+   * @param hookExecutor  Hook executor.
+   * @param hookTimeoutMs Hook execution timeout in milliseconds (0 - no timeout).
+   */
+  public GitPushEmbedded(@NotNull LocalContext context, @Nullable String hooksPathOverride, @NotNull GitHookExecutor hookExecutor, long hookTimeoutMs) {
     this.context = context;
     this.hooksPathOverride = hooksPathOverride;
+    this.hookExecutor = hookExecutor;
+    this.hookTimeoutMs = hookTimeoutMs;
   }
 
   @NotNull
@@ -62,7 +75,7 @@ public final class GitPushEmbedded implements GitPusher {
     final RefUpdate refUpdate = repository.updateRef(branch);
     refUpdate.getOldObjectId();
     refUpdate.setNewObjectId(ReceiveId);
-    runReceiveHook(repository, refUpdate, SVNErrorCode.REPOS_HOOK_FAILURE, "pre-receive", userInfo);
+    runReceiveHook(repository, refUpdate, SVNErrorCode.REPOS_HOOK_FAILURE, "pre-receive", userInfo, false);
     runUpdateHook(repository, refUpdate, "update", userInfo);
     final RefUpdate.Result result = refUpdate.update();
     switch (result) {
@@ -71,7 +84,8 @@ public final class GitPushEmbedded implements GitPusher {
         return false;
       case NEW:
       case FAST_FORWARD:
-        runReceiveHook(repository, refUpdate, SVNErrorCode.REPOS_POST_COMMIT_HOOK_FAILED, "post-receive", userInfo);
+        // Commit is already done, so post-receive hook may be executed in background.
+        runReceiveHook(repository, refUpdate, SVNErrorCode.REPOS_POST_COMMIT_HOOK_FAILED, "post-receive", userInfo, hookExecutor.isAsync());
         return true;
       default:
         log.error("Unexpected push error: {}", result);
@@ -79,8 +93,8 @@ public final class GitPushEmbedded implements GitPusher {
     }
   }
 
-  private void runReceiveHook(@NotNull Repository repository, @NotNull RefUpdate refUpdate, @NotNull SVNErrorCode svnErrorCode, @NotNull String hook, @NotNull User userInfo) throws SVNException {
-    runHook(repository, svnErrorCode, hook, userInfo, processBuilder -> {
+  private void runReceiveHook(@NotNull Repository repository, @NotNull RefUpdate refUpdate, @NotNull SVNErrorCode svnErrorCode, @NotNull String hook, @NotNull User userInfo, boolean async) throws SVNException {
+    runHook(repository, svnErrorCode, hook, userInfo, async, processBuilder -> {
       final Process process = processBuilder.start();
       try (Writer stdin = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8)) {
         stdin.write(getObjectId(refUpdate.getOldObjectId()));
@@ -95,7 +109,7 @@ public final class GitPushEmbedded implements GitPusher {
   }
 
   private void runUpdateHook(@NotNull Repository repository, @NotNull RefUpdate refUpdate, @NotNull String hook, @NotNull User userInfo) throws SVNException {
-    runHook(repository, SVNErrorCode.REPOS_HOOK_FAILURE, hook, userInfo, processBuilder -> {
+    runHook(repository, SVNErrorCode.REPOS_HOOK_FAILURE, hook, userInfo, false, processBuilder -> {
       processBuilder.command().addAll(Arrays.asList(
           refUpdate.getName(),
           getObjectId(refUpdate.getOldObjectId()),
@@ -105,7 +119,7 @@ public final class GitPushEmbedded implements GitPusher {
     });
   }
 
-  private void runHook(@NotNull Repository repository, @NotNull SVNErrorCode hookErrorCode, @NotNull String hook, @NotNull User userInfo, @NotNull HookRunner runner) throws SVNException {
+  private void runHook(@NotNull Repository repository, @NotNull SVNErrorCode hookErrorCode, @NotNull String hook, @NotNull User userInfo, boolean async, @NotNull HookRunner runner) throws SVNException {
     final Path repositoryDir = repository.getDirectory() == null ? null : repository.getDirectory().toPath();
     if (repositoryDir == null)
       // We don't have a dir where to run the hook :(
@@ -115,7 +129,6 @@ public final class GitPushEmbedded implements GitPusher {
     final Path hooksDir = ConfigHelper.joinPath(repositoryDir, hooksPath);
     final Path script = ConfigHelper.joinPath(hooksDir, hook);
 
-    final long startTime = System.currentTimeMillis();
     if (!Files.exists(script))
       return;
 
@@ -128,28 +141,36 @@ public final class GitPushEmbedded implements GitPusher {
     context.getShared().sure(UserDB.class).updateEnvironment(processBuilder.environment(), userInfo);
     context.sure(VcsAccess.class).updateEnvironment(processBuilder.environment());
 
+    if (async) {
+      hookExecutor.submit(hook, () -> execHook(repository, hookErrorCode, hook, script, processBuilder, runner));
+    } else {
+      execHook(repository, hookErrorCode, hook, script, processBuilder, runner);
+    }
+  }
+
+  private void execHook(@NotNull Repository repository, @NotNull SVNErrorCode hookErrorCode, @NotNull String hook, @NotNull Path script, @NotNull ProcessBuilder processBuilder, @NotNull HookRunner runner) throws SVNException {
+    final long startTime = System.currentTimeMillis();
     Process process = null;
     try {
       process = runner.exec(processBuilder);
 
-      // Prevent hanging if hook tries to read from stdin
-      process.getOutputStream().close();
-
-      final String hookMessage;
-      try (Reader stdout = new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8)) {
-        hookMessage = CharStreams.toString(stdout);
+      final GitHookRunner.Result result;
+      try {
+        result = GitHookRunner.waitFor(process, hookTimeoutMs);
+      } catch (TimeoutException e) {
+        throw new SVNException(SVNErrorMessage.create(hookErrorCode, String.format("Hook %s timed out after %dms", script, hookTimeoutMs)));
       }
 
-      final int exitCode = process.waitFor();
-      if (exitCode != 0) {
-        throw new SVNException(SVNErrorMessage.create(hookErrorCode, String.format("Hook %s failed with output:\n%s", script, hookMessage)));
+      if (result.getExitCode() != 0) {
+        throw new SVNException(SVNErrorMessage.create(hookErrorCode, String.format("Hook %s failed with output:\n%s", script, result.getOutput())));
       }
     } catch (InterruptedException | IOException e) {
       log.error("Hook failed: " + script, e);
       throw new SVNException(SVNErrorMessage.create(SVNErrorCode.IO_WRITE_ERROR, e));
     } finally {
-      final long endTime = System.currentTimeMillis();
-      log.info("{} hook for repository {} took {}ms", hook, repository.toString(), (endTime - startTime));
+      final long duration = System.currentTimeMillis() - startTime;
+      hookExecutor.record(hook, duration);
+      log.info("{} hook for repository {} took {}ms", hook, repository.toString(), duration);
 
       if (process != null)
         process.destroyForcibly();
@@ -25,10 +25,28 @@ public class GitPushEmbeddedConfig implements GitPusherConfig {
 
   @Nullable
   private String hooksPath;
+  /**
+   * Hook execution timeout in milliseconds (0 - no timeout).
+   */
+  private long hookTimeoutMs = 0;
+  /**
+   * Execute post-receive hook in background after commit.
+   */
+  private boolean asyncPostReceive = false;
+  /**
+   * Maximum count of queued background post-receive hooks. When queue is full, hook is dropped and logged.
+   */
+  private int postReceiveQueueSize = 100;
+  /**
+   * Retry count for failed background post-receive hooks.
+   */
+  private int postReceiveRetries = 0;
 
   @NotNull
   @Override
   public GitPusher create(@NotNull LocalContext context) {
-    return new GitPushEmbedded(context, hooksPath);
+    final GitHookExecutor hookExecutor = context.getOrCreate(GitHookExecutor.class,
+        () -> new GitHookExecutor(context.getName(), asyncPostReceive ? Math.max(postReceiveQueueSize, 1) : 0, postReceiveRetries));
+    return new GitPushEmbedded(context, hooksPath, hookExecutor, hookTimeoutMs);
   }
 }
@@ -7,9 +7,16 @@
  */
 package svnserver.repository.git.push;
 
+import com.google.common.base.Strings;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.transport.*;
+import org.eclipse.jgit.util.NB;
+import org.eclipse.jgit.util.io.NullOutputStream;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.tmatesoft.svn.core.SVNErrorCode;
 import org.tmatesoft.svn.core.SVNErrorMessage;
@@ -17,13 +24,19 @@ import org.tmatesoft.svn.core.SVNException;
 import svnserver.Loggers;
 import svnserver.auth.User;
 import svnserver.auth.UserDB;
+import svnserver.config.ConfigHelper;
 import svnserver.context.LocalContext;
 import svnserver.repository.VcsAccess;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.TimeoutException;
+
+import static org.eclipse.jgit.lib.ConfigConstants.CONFIG_CORE_SECTION;
 
 /**
  * Git push by native git client.
@@ -40,23 +53,31 @@ final class GitPushNative implements GitPusher {
 
   @NotNull
   private final LocalContext context;
+  private final boolean inProcess;
+  private final long hookTimeoutMs;
 
-  GitPushNative(@NotNull LocalContext context) {
+  /**
+   * @param inProcess     Use in-process receive-pack instead of running `git push`.
+   * @param hookTimeoutMs Hook execution timeout in milliseconds for in-process mode (0 - no timeout).
+   */
+  GitPushNative(@NotNull LocalContext context, boolean inProcess, long hookTimeoutMs) {
     this.context = context;
+    this.inProcess = inProcess;
+    this.hookTimeoutMs = hookTimeoutMs;
   }
 
   @Override
   public boolean push(@NotNull Repository repository, @NotNull ObjectId commitId, @NotNull String branch, @NotNull User userInfo) throws SVNException, IOException {
+    if (inProcess && repository.getDirectory() != null)
+      return pushInProcess(repository, commitId, branch, userInfo);
+
     try {
       repository.getDirectory();
       final ProcessBuilder processBuilder = new ProcessBuilder("git", "push", "--porcelain", "--quiet", ".", commitId.name() + ":" + branch)
           .directory(repository.getDirectory())
           .redirectErrorStream(true);
 
-      processBuilder.environment().put("LANG", "en_US.utf8");
-      userInfo.updateEnvironment(processBuilder.environment());
-      context.getShared().sure(UserDB.class).updateEnvironment(processBuilder.environment(), userInfo);
-      context.sure(VcsAccess.class).updateEnvironment(processBuilder.environment());
+      updateEnvironment(processBuilder.environment(), userInfo);
 
       final Process process = processBuilder.start();
       final StringBuilder resultBuilder = new StringBuilder();
@@ -104,4 +125,189 @@ final class GitPushNative implements GitPusher {
       throw new SVNException(SVNErrorMessage.create(SVNErrorCode.IO_WRITE_ERROR, e));
     }
   }
+
+  /**
+   * Push by JGit receive-pack working in the same process.
+   * <p>
+   * All objects are already in repository, so client request consists of single ref update command and empty pack.
+   * Repository hooks are executed in the same way as by native git receive-pack.
+   */
+  private boolean pushInProcess(@NotNull Repository repository, @NotNull ObjectId commitId, @NotNull String branch, @NotNull User userInfo) throws SVNException, IOException {
+    final Ref ref = repository.exactRef(branch);
+    final ObjectId oldId = ref == null ? ObjectId.zeroId() : ref.getObjectId();
+
+    final Map<String, String> environment = new HashMap<>();
+    updateEnvironment(environment, userInfo);
+    final NativeHooks hooks = new NativeHooks(repository, environment, hookTimeoutMs);
+
+    final ReceivePack receivePack = new ReceivePack(repository);
+    receivePack.setAllowNonFastForwards(false);
+    receivePack.setPreReceiveHook(hooks);
+    receivePack.setPostReceiveHook(hooks);
+
+    final ByteArrayOutputStream request = new ByteArrayOutputStream();
+    final PacketLineOut packetLineOut = new PacketLineOut(request);
+    packetLineOut.writeString(oldId.name() + ' ' + commitId.name() + ' ' + branch + '\n');
+    packetLineOut.end();
+    writeEmptyPack(request);
+
+    receivePack.receive(new ByteArrayInputStream(request.toByteArray()), NullOutputStream.INSTANCE, null);
+
+    // Commands rejected by receive-pack itself (like non-fast-forward) never reach pre-receive hook
+    final ReceiveCommand command = getCommand(receivePack.getAllCommands(), branch);
+    final ReceiveCommand.Result result = command == null ? ReceiveCommand.Result.NOT_ATTEMPTED : command.getResult();
+    switch (result) {
+      case OK:
+        return true;
+      case REJECTED_NONFASTFORWARD:
+      case LOCK_FAILURE:
+        return false;
+      default:
+        if (hooks.rejectMessage != null) {
+          log.warn("Push rejected by hook:\n{}", hooks.rejectMessage);
+          throw new SVNException(SVNErrorMessage.create(SVNErrorCode.REPOS_HOOK_FAILURE, "Commit blocked by hook with output:\n" + hooks.rejectMessage));
+        }
+        final Ref newRef = repository.exactRef(branch);
+        if (!oldId.equals(newRef == null ? ObjectId.zeroId() : newRef.getObjectId()))
+          // Branch was updated concurrently, command is rejected on validation
+          return false;
+
+        final String message = result + (command == null || command.getMessage() == null ? "" : " (" + command.getMessage() + ")");
+        log.error("Unknown git push result: {}", message);
+        throw new SVNException(SVNErrorMessage.create(SVNErrorCode.IO_WRITE_ERROR, message));
+    }
+  }
+
+  @Nullable
+  private static ReceiveCommand getCommand(@NotNull Collection<ReceiveCommand> commands, @NotNull String refName) {
+    for (ReceiveCommand command : commands)
+      if (command.getRefName().equals(refName))
+        return command;
+    return null;
+  }
+
+  private static void writeEmptyPack(@NotNull OutputStream stream) throws IOException {
+    final byte[] header = new byte[12];
+    System.arraycopy(Constants.PACK_SIGNATURE, 0, header, 0, 4);
+    NB.encodeInt32(header, 4, 2);
+    NB.encodeInt32(header, 8, 0);
+
+    final MessageDigest digest = Constants.newMessageDigest();
+    digest.update(header);
+    stream.write(header);
+    stream.write(digest.digest());
+  }
+
+  private void updateEnvironment(@NotNull Map<String, String> environment, @NotNull User userInfo) {
+    environment.put("LANG", "en_US.utf8");
+    userInfo.updateEnvironment(environment);
+    context.getShared().sure(UserDB.class).updateEnvironment(environment, userInfo);
+    context.sure(VcsAccess.class).updateEnvironment(environment);
+  }
+
+  /**
+   * Native repository hooks for JGit receive-pack.
+   */
+  private static final class NativeHooks implements PreReceiveHook, PostReceiveHook {
+    @NotNull
+    private final Repository repository;
+    @NotNull
+    private final Path repositoryDir;
+    @NotNull
+    private final Map<String, String> environment;
+    private final long hookTimeoutMs;
+    @Nullable
+    private String rejectMessage;
+
+    private NativeHooks(@NotNull Repository repository, @NotNull Map<String, String> environment, long hookTimeoutMs) {
+      this.repository = repository;
+      this.repositoryDir = repository.getDirectory().toPath();
+      this.environment = environment;
+      this.hookTimeoutMs = hookTimeoutMs;
+    }
+
+    @Override
+    public void onPreReceive(@NotNull ReceivePack rp, @NotNull Collection<ReceiveCommand> commands) {
+      final GitHookRunner.Result preReceive = runHook("pre-receive", formatCommands(commands), Collections.emptyList());
+      if (preReceive != null && preReceive.getExitCode() != 0) {
+        reject(commands, "pre-receive hook declined", preReceive.getOutput());
+        return;
+      }
+
+      for (ReceiveCommand command : commands) {
+        if (command.getResult() != ReceiveCommand.Result.NOT_ATTEMPTED)
+          continue;
+
+        final GitHookRunner.Result update = runHook("update", "", Arrays.asList(command.getRefName(), command.getOldId().name(), command.getNewId().name()));
+        if (update != null && update.getExitCode() != 0)
+          reject(Collections.singletonList(command), "hook declined", update.getOutput());
+      }
+    }
+
+    @Override
+    public void onPostReceive(@NotNull ReceivePack rp, @NotNull Collection<ReceiveCommand> commands) {
+      if (commands.isEmpty())
+        return;
+
+      // Native git ignores exit code of these hooks.
+      runHook("post-receive", formatCommands(commands), Collections.emptyList());
+
+      final List<String> refNames = new ArrayList<>();
+      for (ReceiveCommand command : commands)
+        refNames.add(command.getRefName());
+      runHook("post-update", "", refNames);
+    }
+
+    private void reject(@NotNull Collection<ReceiveCommand> commands, @NotNull String reason, @NotNull String output) {
+      for (ReceiveCommand command : commands)
+        command.setResult(ReceiveCommand.Result.REJECTED_OTHER_REASON, reason);
+      rejectMessage = output;
+    }
+
+    @NotNull
+    private static String formatCommands(@NotNull Collection<ReceiveCommand> commands) {
+      final StringBuilder result = new StringBuilder();
+      for (ReceiveCommand command : commands)
+        result.append(command.getOldId().name()).append(' ').append(command.getNewId().name()).append(' ').append(command.getRefName()).append('\n');
+      return result.toString();
+    }
+
+    @Nullable
+    private GitHookRunner.Result runHook(@NotNull String hook, @NotNull String input, @NotNull List<String> args) {
+      final String hooksPath = repository.getConfig().getString(CONFIG_CORE_SECTION, null, "hooksPath");
+      final Path script = ConfigHelper.joinPath(ConfigHelper.joinPath(repositoryDir, Strings.isNullOrEmpty(hooksPath) ? "hooks" : hooksPath), hook);
+      if (!Files.isExecutable(script))
+        return null;
+
+      final List<String> command = new ArrayList<>();
+      command.add(script.toString());
+      command.addAll(args);
+      final ProcessBuilder processBuilder = new ProcessBuilder(command)
+          .directory(repositoryDir.toFile())
+          .redirectErrorStream(true);
+      processBuilder.environment().putAll(environment);
+      processBuilder.environment().put("GIT_DIR", ".");
+
+      final long startTime = System.currentTimeMillis();
+      Process process = null;
+      try {
+        process = processBuilder.start();
+        try (Writer stdin = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8)) {
+          stdin.write(input);
+        }
+
+        return GitHookRunner.waitFor(process, hookTimeoutMs);
+      } catch (TimeoutException e) {
+        log.error("Hook {} timed out after {}ms", script, hookTimeoutMs);
+        return new GitHookRunner.Result(-1, String.format("Hook %s timed out after %dms", script, hookTimeoutMs));
+      } catch (IOException | InterruptedException e) {
+        log.error("Hook failed: " + script, e);
+        return new GitHookRunner.Result(-1, e.getMessage() == null ? e.toString() : e.getMessage());
+      } finally {
+        log.info("{} hook for repository {} took {}ms", hook, repository.toString(), System.currentTimeMillis() - startTime);
+        if (process != null)
+          process.destroyForcibly();
+      }
+    }
+  }
 }
@@ -22,9 +22,19 @@ public class GitPushNativeConfig implements GitPusherConfig {
   @NotNull
   public static final GitPushNativeConfig instance = new GitPushNativeConfig();
 
+  /**
+   * Use receive-pack working inside git-as-svn process instead of running `git push`.
+   * Repository hooks are executed in both modes.
+   */
+  private boolean inProcess = false;
+  /**
+   * Hook execution timeout in milliseconds for in-process mode (0 - no timeout).
+   */
+  private long hookTimeoutMs = 0;
+
   @NotNull
   @Override
   public GitPusher create(@NotNull LocalContext context) {
-    return new GitPushNative(context);
+    return new GitPushNative(context, inProcess, hookTimeoutMs);
   }
 }
@@ -10,7 +10,6 @@ package svnserver.repository.locks;
 import com.google.common.base.Strings;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.mapdb.Serializer;
 import org.tmatesoft.svn.core.SVNErrorCode;
 import org.tmatesoft.svn.core.SVNErrorMessage;
 import org.tmatesoft.svn.core.SVNException;
@@ -19,6 +18,7 @@ import ru.bozaro.gitlfs.common.VerifyLocksResult;
 import ru.bozaro.gitlfs.common.data.Lock;
 import svnserver.StringHelper;
 import svnserver.auth.User;
+import svnserver.cache.CacheCodec;
 import svnserver.context.LocalContext;
 import svnserver.repository.Depth;
 import svnserver.repository.git.GitBranch;
@@ -49,10 +49,14 @@ public class LocalLockManager implements LockStorage {
 
   @NotNull
   public static SortedMap<String, LockDesc> getPersistentStorage(@NotNull LocalContext context) {
-    final String lockCacheName = String.format("locks.%s.%s", context.getName(), lockDescCacheVersion);
-    return context.getShared().getCacheDB().treeMap(
-        lockCacheName, Serializer.STRING, LockDescSerializer.instance
-    ).createOrOpen();
+    return context.getShared().getCacheStore().getTreeMap(
+        getPersistentStorageName(context), CacheCodec.STRING, LockDescCodec.instance
+    );
+  }
+
+  @NotNull
+  public static String getPersistentStorageName(@NotNull LocalContext context) {
+    return String.format("locks.%s.%s", context.getName(), lockDescCacheVersion);
   }
 
   @NotNull
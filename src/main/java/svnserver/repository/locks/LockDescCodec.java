@@ -8,19 +8,22 @@
 package svnserver.repository.locks;
 
 import org.jetbrains.annotations.NotNull;
-import org.mapdb.DataInput2;
-import org.mapdb.DataOutput2;
-import org.mapdb.serializer.GroupSerializerObjectArray;
+import svnserver.cache.CacheCodec;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 
-public final class LockDescSerializer extends GroupSerializerObjectArray<LockDesc> {
+public final class LockDescCodec implements CacheCodec<LockDesc> {
 
   @NotNull
-  public static final LockDescSerializer instance = new LockDescSerializer();
+  public static final LockDescCodec instance = new LockDescCodec();
+
+  private LockDescCodec() {
+  }
 
   @Override
-  public void serialize(@NotNull DataOutput2 out, @NotNull LockDesc value) throws IOException {
+  public void write(@NotNull DataOutput out, @NotNull LockDesc value) throws IOException {
     out.writeUTF(value.getPath());
 
     if (value.getBranch() != null) {
@@ -56,8 +59,9 @@ public final class LockDescSerializer extends GroupSerializerObjectArray<LockDes
     out.writeLong(value.getCreated());
   }
 
+  @NotNull
   @Override
-  public LockDesc deserialize(@NotNull DataInput2 input, int available) throws IOException {
+  public LockDesc read(@NotNull DataInput input) throws IOException {
     final String path = input.readUTF();
     final String branch = input.readBoolean() ? input.readUTF() : null;
     final String hash = input.readBoolean() ? input.readUTF() : null;
@@ -67,9 +71,4 @@ public final class LockDescSerializer extends GroupSerializerObjectArray<LockDes
     final long created = input.readLong();
     return new LockDesc(path, branch, hash, token, owner, comment, created);
   }
-
-  @Override
-  public int fixedSize() {
-    return -1;
-  }
 }
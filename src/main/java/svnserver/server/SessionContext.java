@@ -76,6 +76,27 @@ public final class SessionContext {
     this.capabilities = new HashSet<>(Arrays.asList(clientInfo.getCapabilities()));
   }
 
+  private SessionContext(@NotNull SessionContext context, @NotNull SvnServerWriter writer) {
+    this.parser = context.parser;
+    this.writer = writer;
+    this.server = context.server;
+    this.user = context.user;
+    this.repositoryInfo = context.repositoryInfo;
+    this.acl = context.acl;
+    this.parent = context.parent;
+    this.capabilities = context.capabilities;
+  }
+
+  /**
+   * Create copy of session, that sends data to another writer.
+   * <p>
+   * Used for preparing command output in background: such copy must not read client commands.
+   */
+  @NotNull
+  public SessionContext withWriter(@NotNull SvnServerWriter writer) {
+    return new SessionContext(this, writer);
+  }
+
   @NotNull
   public GitBranch getBranch() {
     return repositoryInfo.getBranch();
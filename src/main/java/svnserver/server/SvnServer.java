@@ -144,7 +144,7 @@ public final class SvnServer extends Thread {
     commands.put("replay-range", new ReplayRangeCmd());
     // get-deleted-rev
     commands.put("get-iprops", new GetIPropsCmd());
-    // TODO: list (#162)
+    commands.put("list", new ListCmd());
 
     repositoryMapping = config.getRepositoryMapping().create(sharedContext, config.canUseParallelIndexing());
 
@@ -213,41 +213,42 @@ public final class SvnServer extends Thread {
 
     final ClientInfo clientInfo = exchangeCapabilities(parser, writer);
 
-    final RepositoryInfo repositoryInfo = RepositoryMapping.findRepositoryInfo(repositoryMapping, clientInfo.getUrl(), writer);
-    if (repositoryInfo == null)
-      return;
-
-    final SessionContext context = new SessionContext(parser, writer, this, repositoryInfo, clientInfo);
-    context.authenticate(true);
-    final GitBranch branch = context.getBranch();
-    branch.updateRevisions();
-    sendAnnounce(writer, repositoryInfo);
-
-    while (!isInterrupted()) {
-      try {
-        Step step = context.poll();
-        if (step != null) {
-          step.process(context);
-          continue;
-        }
-
-        parser.readToken(ListBeginToken.class);
-
-        final String cmd = parser.readText();
-        final BaseCmd<?> command = commands.get(cmd);
-        if (command != null) {
-          log.debug("Receive command: {}", cmd);
-          processCommand(context, command, parser);
-        } else {
-          context.skipUnsupportedCommand(cmd);
-        }
-      } catch (SVNException e) {
-        if (WARNING_CODES.contains(e.getErrorMessage().getErrorCode())) {
-          log.warn("Command execution error: {}", e.getMessage());
-        } else {
-          log.error("Command execution error", e);
+    try (RepositoryInfo repositoryInfo = RepositoryMapping.findRepositoryInfo(repositoryMapping, clientInfo.getUrl(), writer)) {
+      if (repositoryInfo == null)
+        return;
+
+      final SessionContext context = new SessionContext(parser, writer, this, repositoryInfo, clientInfo);
+      context.authenticate(true);
+      final GitBranch branch = context.getBranch();
+      branch.updateRevisions();
+      sendAnnounce(writer, repositoryInfo);
+
+      while (!isInterrupted()) {
+        try {
+          Step step = context.poll();
+          if (step != null) {
+            step.process(context);
+            continue;
+          }
+
+          parser.readToken(ListBeginToken.class);
+
+          final String cmd = parser.readText();
+          final BaseCmd<?> command = commands.get(cmd);
+          if (command != null) {
+            log.debug("Receive command: {}", cmd);
+            processCommand(context, command, parser);
+          } else {
+            context.skipUnsupportedCommand(cmd);
+          }
+        } catch (SVNException e) {
+          if (WARNING_CODES.contains(e.getErrorMessage().getErrorCode())) {
+            log.warn("Command execution error: {}", e.getMessage());
+          } else {
+            log.error("Command execution error", e);
+          }
+          BaseCmd.sendError(writer, e.getErrorMessage());
         }
-        BaseCmd.sendError(writer, e.getErrorMessage());
       }
     }
   }
@@ -285,7 +286,7 @@ public final class SvnServer extends Thread {
         .word(fileRevsReverseCapability)
         .word("absent-entries")
         .word(SVNCapability.INHERITED_PROPS.toString())
-    //.word("list") TODO: issue #162
+        .word("list")
     //.word(SVNCapability.ATOMIC_REVPROPS.toString())
     ;
 
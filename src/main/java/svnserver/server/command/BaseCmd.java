@@ -8,6 +8,7 @@
 package svnserver.server.command;
 
 import org.jetbrains.annotations.NotNull;
+import org.tmatesoft.svn.core.SVNErrorCode;
 import org.tmatesoft.svn.core.SVNErrorMessage;
 import org.tmatesoft.svn.core.SVNException;
 import svnserver.parser.SvnServerWriter;
@@ -15,6 +16,8 @@ import svnserver.server.SessionContext;
 import svnserver.server.step.CheckPermissionStep;
 
 import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * SVN client command base class.
@@ -80,6 +83,29 @@ public abstract class BaseCmd<T> {
     return defaultRevision;
   }
 
+  /**
+   * Wait for result of background task, rethrowing its failure as is.
+   */
+  static <R> R getResult(@NotNull Future<R> future) throws IOException, SVNException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SVNException(SVNErrorMessage.create(SVNErrorCode.CANCELLED, e));
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException)
+        throw (IOException) cause;
+      if (cause instanceof SVNException)
+        throw (SVNException) cause;
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+      if (cause instanceof Error)
+        throw (Error) cause;
+      throw new SVNException(SVNErrorMessage.create(SVNErrorCode.UNKNOWN, cause));
+    }
+  }
+
   int getRevisionOrLatest(@NotNull int[] rev, @NotNull SessionContext context) {
     if (rev.length > 0) {
       final int revNum = rev[0];
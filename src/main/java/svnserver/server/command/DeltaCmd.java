@@ -476,6 +476,9 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
         removeEntry(context, entryPath, newFile.getLastChange().getId(), tokenId);
       }
 
+      if (fileAction != Depth.Action.Skip)
+        prefetchFiles(newEntries.values(), oldEntries);
+
       for (GitFile newEntry : newFile.getEntries()) {
         final String entryPath = joinPath(wcPath, newEntry.getFileName());
         final GitFile oldEntry = getPrevFile(context, entryPath, oldEntries.get(newEntry.getFileName()));
@@ -494,6 +497,23 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
       }
     }
 
+    /**
+     * Resolve content of modified files in directory at once instead of one by one.
+     */
+    private void prefetchFiles(@NotNull Collection<GitFile> newEntries, @NotNull Map<String, GitFile> oldEntries) {
+      final List<GitFile> changed = new ArrayList<>();
+      for (GitFile newEntry : newEntries) {
+        if (!newEntry.isDirectory() && !newEntry.equals(oldEntries.get(newEntry.getFileName())))
+          changed.add(newEntry);
+      }
+
+      try {
+        GitFile.prefetch(changed);
+      } catch (IOException e) {
+        log.warn("Failed to prefetch files content", e);
+      }
+    }
+
     private void updateProps(@NotNull SessionContext context, @NotNull String type, @NotNull String tokenId, @Nullable GitFile oldFile, @NotNull GitFile newFile) throws IOException, SVNException {
       final Map<String, String> propsDiff = getPropertiesDiff(oldFile, newFile);
       if (oldFile == null)
@@ -13,26 +13,18 @@ import org.tmatesoft.svn.core.SVNErrorCode;
 import org.tmatesoft.svn.core.SVNErrorMessage;
 import org.tmatesoft.svn.core.SVNException;
 import org.tmatesoft.svn.core.internal.delta.SVNDeltaCompression;
-import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
-import org.tmatesoft.svn.core.io.ISVNDeltaConsumer;
-import org.tmatesoft.svn.core.io.diff.SVNDeltaGenerator;
-import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
 import svnserver.parser.SvnServerWriter;
-import svnserver.repository.VcsCopyFrom;
 import svnserver.repository.git.GitBranch;
+import svnserver.repository.git.GitDeltaCache;
 import svnserver.repository.git.GitFile;
+import svnserver.repository.git.GitHistorySegment;
 import svnserver.repository.git.GitRepository;
-import svnserver.repository.git.GitRevision;
 import svnserver.server.SessionContext;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * <pre>
@@ -48,10 +40,17 @@ import java.util.Map;
  *     the terminator.
  *     response: ( )
  * </pre>
+ * <p>
+ * If delta cache is configured, deltas are computed by worker threads ahead of writer and reused between clients.
  *
  * @author Marat Radchenko <marat@slonopotamus.org>
  */
 public final class GetFileRevsCmd extends BaseCmd<GetFileRevsCmd.Params> {
+  /**
+   * Maximum count of deltas computed ahead.
+   */
+  private static final int PIPELINE_SIZE = 8;
+
   @NotNull
   @Override
   public Class<Params> getArguments() {
@@ -75,70 +74,74 @@ public final class GetFileRevsCmd extends BaseCmd<GetFileRevsCmd.Params> {
 
       final String fullPath = context.getRepositoryPath(args.path);
       final GitBranch branch = context.getBranch();
-      int rev = branch.getLastChange(fullPath, endRev);
-      if (rev < 0) {
+      final List<GitHistorySegment> segments = branch.getHistory(fullPath, endRev, startRev, false, context::canRead);
+      if (segments.isEmpty()) {
         throw new SVNException(SVNErrorMessage.create(SVNErrorCode.FS_NOT_FILE, fullPath + " not found in revision " + endRev));
       }
 
-      final GitFile head = branch.getRevisionInfo(rev).getFile(fullPath);
-      if (head == null)
-        throw new IllegalStateException();
-
       final List<GitFile> history = new ArrayList<>();
-      walkFileHistory(context, head, startRev, history::add);
+      for (GitHistorySegment segment : segments) {
+        for (int i = segment.size() - 1; i >= 0; --i) {
+          final int rev = segment.getRevision(i);
+          // Newest change of copy source is included even if it is older than start revision
+          if (i < segment.size() - 1 && rev < startRev)
+            break;
+
+          final GitFile file = branch.getRevisionInfo(rev).getFile(segment.getPath());
+          if (file == null)
+            throw new IllegalStateException();
+          history.add(file);
+        }
+      }
       if (reverse)
         Collections.reverse(history);
 
       final SVNDeltaCompression compression = context.getCompression();
-
-      for (int index = history.size() - 1; index >= 0; --index) {
-        final GitFile oldFile = index <= history.size() - 2 ? history.get(index + 1) : null;
-        final GitFile newFile = history.get(index);
-
-        final Map<String, String> propsDiff = DeltaCmd.getPropertiesDiff(oldFile, newFile);
-
-        writer
-            .listBegin()
-            .string(newFile.getFullPath())
-            .number(newFile.getRevision())
-            .writeMap(newFile.getLastChange().getProperties(true))
-            .writeMap(propsDiff, true)
-            .bool(false) // TODO: issue #26. merged-revision
-            .listEnd();
-
-        try (InputStream prevStream = oldFile == null ? SVNFileUtil.DUMMY_IN : oldFile.openStream();
-             InputStream newStream = newFile.openStream()) {
-          new SVNDeltaGenerator().sendDelta(fullPath, prevStream, 0, newStream, new ISVNDeltaConsumer() {
-            private boolean writeHeader = true;
-
-            @Override
-            public void applyTextDelta(String path, String baseChecksum) {
-            }
-
-            @Override
-            public OutputStream textDeltaChunk(String path, SVNDiffWindow diffWindow) throws SVNException {
-              try (ByteArrayOutputStream stream = new ByteArrayOutputStream()) {
-                diffWindow.writeTo(stream, writeHeader, compression);
-                writeHeader = false;
-                writer.binary(stream.toByteArray());
-              } catch (IOException e) {
-                throw new SVNException(SVNErrorMessage.create(SVNErrorCode.IO_ERROR));
-              }
-
-              return null;
-            }
-
-            @Override
-            public void textDeltaEnd(String path) throws SVNException {
+      final GitDeltaCache deltaCache = branch.getRepository().getContext().getShared().get(GitDeltaCache.class);
+      final ExecutorService executor = branch.getRepository().getContext().getShared().getThreadPoolExecutor();
+      final Deque<Future<byte[][]>> pipeline = new ArrayDeque<>();
+      try {
+        int nextIndex = history.size() - 1;
+        for (int index = history.size() - 1; index >= 0; --index) {
+          // Deltas are computed ahead of writer by worker threads
+          while (deltaCache != null && nextIndex >= 0 && nextIndex > index - PIPELINE_SIZE) {
+            final GitFile oldDelta = getPrevious(history, nextIndex);
+            final GitFile newDelta = history.get(nextIndex--);
+            pipeline.add(executor.submit(() -> deltaCache.getDelta(oldDelta, newDelta, compression)));
+          }
+
+          final GitFile oldFile = getPrevious(history, index);
+          final GitFile newFile = history.get(index);
+
+          final Map<String, String> propsDiff = DeltaCmd.getPropertiesDiff(oldFile, newFile);
+
+          writer
+              .listBegin()
+              .string(newFile.getFullPath())
+              .number(newFile.getRevision())
+              .writeMap(newFile.getLastChange().getProperties(true))
+              .writeMap(propsDiff, true)
+              .bool(false) // TODO: issue #26. merged-revision
+              .listEnd();
+
+          final byte[][] delta = pipeline.isEmpty() ? null : getResult(pipeline.remove());
+          if (delta != null) {
+            for (byte[] window : delta)
+              writer.binary(window);
+          } else {
+            GitDeltaCache.sendDelta(oldFile, newFile, compression, window -> {
               try {
-                writer.binary(GitRepository.emptyBytes);
+                writer.binary(window);
               } catch (IOException e) {
                 throw new SVNException(SVNErrorMessage.create(SVNErrorCode.IO_ERROR));
               }
-
-            }
-          }, false);
+            });
+          }
+          writer.binary(GitRepository.emptyBytes);
         }
+      } finally {
+        for (Future<byte[][]> future : pipeline)
+          future.cancel(false);
       }
     } finally {
       // Yes, this is ugly. But otherwise, client hangs waiting forever.
@@ -154,39 +157,9 @@ public final class GetFileRevsCmd extends BaseCmd<GetFileRevsCmd.Params> {
         .listEnd();
   }
 
-  /**
-   * TODO: This method is very similar to LogCmd#getLog. Maybe they can be combined?
-   */
-  private void walkFileHistory(@NotNull SessionContext context, @NotNull GitFile start, int stopRev, @NotNull FileHistoryWalker walker) throws SVNException, IOException {
-    @Nullable
-    GitFile head = start;
-
-    while (true) {
-      walker.handle(head);
-
-      VcsCopyFrom copyFrom = head.getCopyFrom();
-      if (copyFrom == null) {
-        final int prevRev = context.getBranch().getLastChange(head.getFullPath(), head.getRevision() - 1);
-        if (prevRev >= 0) {
-          // Same path, earlier commit
-          copyFrom = new VcsCopyFrom(prevRev, head.getFullPath());
-        }
-      }
-
-      // If null, it is the first revision where file was created
-      if (copyFrom == null)
-        break;
-
-      if (copyFrom.getRevision() < stopRev || !context.canRead(copyFrom.getPath()))
-        break;
-
-      final GitRevision prevRevision = context.getBranch().getRevisionInfo(copyFrom.getRevision());
-      final GitFile file = prevRevision.getFile(copyFrom.getPath());
-
-      if (file == null)
-        throw new IllegalStateException();
-      head = file;
-    }
+  @Nullable
+  private static GitFile getPrevious(@NotNull List<GitFile> history, int index) {
+    return index <= history.size() - 2 ? history.get(index + 1) : null;
   }
 
   @Override
@@ -194,10 +167,6 @@ public final class GetFileRevsCmd extends BaseCmd<GetFileRevsCmd.Params> {
     context.checkRead(context.getRepositoryPath(args.path));
   }
 
-  interface FileHistoryWalker {
-    void handle(@NotNull GitFile file) throws SVNException, IOException;
-  }
-
   public static class Params {
     @NotNull
     private final String path;
@@ -11,6 +11,7 @@ import org.jetbrains.annotations.NotNull;
 import org.tmatesoft.svn.core.SVNErrorCode;
 import org.tmatesoft.svn.core.SVNErrorMessage;
 import org.tmatesoft.svn.core.SVNException;
+import svnserver.StringHelper;
 import svnserver.parser.SvnServerWriter;
 import svnserver.repository.git.GitBranch;
 import svnserver.repository.git.GitFile;
@@ -18,7 +19,7 @@ import svnserver.repository.git.GitRevision;
 import svnserver.server.SessionContext;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -46,19 +47,15 @@ public final class GetIPropsCmd extends BaseCmd<GetIPropsCmd.Params> {
 
     final GitBranch branch = context.getBranch();
     final GitRevision info = branch.getRevisionInfo(getRevisionOrLatest(args.rev, context));
-    final List<GitFile> files = new ArrayList<>();
-    int index = -1;
-    while (true) {
-      index = fullPath.indexOf('/', index + 1);
-      if (index < 0) {
-        break;
+    final List<GitFile> files;
+    if (fullPath.isEmpty()) {
+      files = Collections.emptyList();
+    } else {
+      final String parentPath = StringHelper.parentDir(fullPath);
+      files = info.getFileChain(parentPath);
+      if (files == null) {
+        throw new SVNException(SVNErrorMessage.create(SVNErrorCode.ENTRY_NOT_FOUND, parentPath));
       }
-      final String subPath = fullPath.substring(0, index);
-      final GitFile fileInfo = info.getFile(subPath);
-      if (fileInfo == null) {
-        throw new SVNException(SVNErrorMessage.create(SVNErrorCode.ENTRY_NOT_FOUND, subPath));
-      }
-      files.add(fileInfo);
     }
     writer
         .listBegin()
@@ -12,10 +12,11 @@ import org.tmatesoft.svn.core.SVNErrorCode;
 import org.tmatesoft.svn.core.SVNErrorMessage;
 import org.tmatesoft.svn.core.SVNException;
 import svnserver.parser.SvnServerWriter;
-import svnserver.repository.VcsCopyFrom;
+import svnserver.repository.git.GitHistorySegment;
 import svnserver.server.SessionContext;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * <pre>
@@ -45,37 +46,23 @@ public final class GetLocationSegmentsCmd extends BaseCmd<GetLocationSegmentsCmd
       writer.word("done");
       throw new SVNException(SVNErrorMessage.create(SVNErrorCode.UNKNOWN, "Invalid revision range: peg: " + pegRev + ", start: " + startRev + ", end " + endRev));
     }
-    String fullPath = context.getRepositoryPath(args.path);
-    final int lastChange = context.getBranch().getLastChange(fullPath, pegRev);
-    if (lastChange < 0) {
+    final String fullPath = context.getRepositoryPath(args.path);
+    final List<GitHistorySegment> segments = context.getBranch().getHistory(fullPath, pegRev, endRev, false, context::canRead);
+    if (segments.isEmpty()) {
       writer.word("done");
       throw new SVNException(SVNErrorMessage.create(SVNErrorCode.FS_NOT_FOUND, "File not found: " + fullPath + "@" + pegRev));
     }
-    int maxRev = pegRev;
-    while (maxRev >= endRev) {
-      int minRev = maxRev;
-      while (true) {
-        int change = context.getBranch().getLastChange(fullPath, minRev - 1);
-        if (change >= 0) {
-          minRev = change;
-        } else {
-          break;
-        }
-      }
+    for (GitHistorySegment segment : segments) {
+      final int minRev = segment.getFirstRevision();
+      final int maxRev = segment.getPegRevision();
       if (minRev <= startRev) {
         writer
             .listBegin()
             .number(Math.max(minRev, endRev))
             .number(Math.min(maxRev, startRev))
-            .listBegin().string(fullPath).listEnd()
+            .listBegin().string(segment.getPath()).listEnd()
             .listEnd();
       }
-      final VcsCopyFrom copyFrom = context.getBranch().getRevisionInfo(minRev).getCopyFrom(fullPath);
-      if (copyFrom == null || !context.canRead(copyFrom.getPath()))
-        break;
-
-      maxRev = copyFrom.getRevision();
-      fullPath = copyFrom.getPath();
     }
     writer
         .word("done");
@@ -12,11 +12,12 @@ import org.tmatesoft.svn.core.SVNErrorCode;
 import org.tmatesoft.svn.core.SVNErrorMessage;
 import org.tmatesoft.svn.core.SVNException;
 import svnserver.parser.SvnServerWriter;
-import svnserver.repository.VcsCopyFrom;
+import svnserver.repository.git.GitHistorySegment;
 import svnserver.server.SessionContext;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * <pre>
@@ -42,44 +43,31 @@ public final class GetLocationsCmd extends BaseCmd<GetLocationsCmd.Params> {
 
     final int[] sortedRevs = Arrays.copyOf(args.revs, args.revs.length);
     Arrays.sort(sortedRevs);
-    String fullPath = context.getRepositoryPath(args.path);
-    int lastChange = context.getBranch().getLastChange(fullPath, args.pegRev);
-    if (lastChange < 0) {
+    final String fullPath = context.getRepositoryPath(args.path);
+    final int minRev = sortedRevs.length == 0 ? args.pegRev : sortedRevs[0];
+    final List<GitHistorySegment> segments = context.getBranch().getHistory(fullPath, args.pegRev, minRev, false, context::canRead);
+    if (segments.isEmpty()) {
       writer.word("done");
       throw new SVNException(SVNErrorMessage.create(SVNErrorCode.FS_NOT_FOUND, "File not found: " + fullPath + "@" + args.pegRev));
     }
+    int segment = 0;
     for (int i = sortedRevs.length - 1; i >= 0; --i) {
       int revision = sortedRevs[i];
       if (revision > args.pegRev) {
         writer.word("done");
         throw new SVNException(SVNErrorMessage.create(SVNErrorCode.FS_NOT_FOUND, "File not found: " + fullPath + "@" + args.pegRev + " at revision " + revision));
       }
-      while ((revision < lastChange) && (lastChange >= 0)) {
-        int change = context.getBranch().getLastChange(fullPath, lastChange - 1);
-        if (change >= 0) {
-          lastChange = change;
-          continue;
-        }
-        final VcsCopyFrom copyFrom = context.getBranch().getRevisionInfo(lastChange).getCopyFrom(fullPath);
-        if (copyFrom == null || !context.canRead(copyFrom.getPath())) {
-          lastChange = -1;
-          break;
-        }
+      while (segment < segments.size() && revision < segments.get(segment).getFirstRevision())
+        segment++;
 
-        lastChange = copyFrom.getRevision();
-        fullPath = copyFrom.getPath();
-      }
-
-      if (lastChange < 0)
+      if (segment == segments.size())
         break;
 
-      if (revision >= lastChange) {
-        writer
-            .listBegin()
-            .number(revision)
-            .string(fullPath)
-            .listEnd();
-      }
+      writer
+          .listBegin()
+          .number(revision)
+          .string(segments.get(segment).getPath())
+          .listEnd();
     }
     writer
         .word("done");
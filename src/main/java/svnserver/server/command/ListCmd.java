@@ -0,0 +1,205 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.command;
+
+import org.eclipse.jgit.errors.InvalidPatternException;
+import org.eclipse.jgit.fnmatch.FileNameMatcher;
+import org.jetbrains.annotations.NotNull;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import svnserver.StringHelper;
+import svnserver.parser.SvnServerWriter;
+import svnserver.repository.Depth;
+import svnserver.repository.git.GitFile;
+import svnserver.repository.git.GitRevision;
+import svnserver.server.SessionContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * List directory entries.
+ * <p><pre>
+ *   list
+ *     params:   ( path:string [ rev:number ] depth:word
+ *                 ( field:dirent-field ... ) ? ( pattern:string ... ) )
+ *     Before sending response, server sends dirents, ending with "done".
+ *     dirent:   ( rel-path:string kind:node-kind
+ *                 ? [ size:number ] [ has-props:bool ] [ created-rev:number ]
+ *                   [ created-date:string ] [ last-author:string ] )
+ *               | done
+ *     dirent-field: kind | size | has-props | created-rev | time | last-author
+ *                   | word
+ *     response: ( )
+ *     New in svn 1.10.
+ * </pre>
+ * <p>
+ * Tree is walked in single pass and entries are sent as soon as they are found.
+ */
+public final class ListCmd extends BaseCmd<ListCmd.Params> {
+  @NotNull
+  @Override
+  public Class<Params> getArguments() {
+    return Params.class;
+  }
+
+  @Override
+  protected void processCommand(@NotNull SessionContext context, @NotNull Params args) throws IOException, SVNException {
+    final SvnServerWriter writer = context.getWriter();
+    final GitRevision revision = context.getBranch().getRevisionInfo(getRevisionOrLatest(args.rev, context));
+    final String fullPath = context.getRepositoryPath(args.path);
+    final GitFile file = revision.getFile(fullPath);
+    if (file == null) {
+      writer.word("done");
+      throw new SVNException(SVNErrorMessage.create(SVNErrorCode.ENTRY_NOT_FOUND, fullPath + " not found in revision " + revision.getId()));
+    }
+
+    final Depth depth = Depth.parse(args.depth);
+    final Walker walker = new Walker(context, args);
+    if (walker.matches(StringHelper.baseName(fullPath)))
+      walker.sendEntry("", file);
+
+    if (file.isDirectory() && depth != Depth.Empty)
+      walker.walk("", file, depth);
+
+    writer
+        .word("done");
+    writer
+        .listBegin()
+        .word("success")
+        .listBegin()
+        .listEnd()
+        .listEnd();
+  }
+
+  @Override
+  protected void permissionCheck(@NotNull SessionContext context, @NotNull Params args) throws IOException, SVNException {
+    context.checkRead(context.getRepositoryPath(args.path));
+  }
+
+  private static final class Walker {
+    @NotNull
+    private final SessionContext context;
+    @NotNull
+    private final List<FileNameMatcher> patterns;
+    private final boolean wantSize;
+    private final boolean wantHasProps;
+    private final boolean wantCreatedRev;
+    private final boolean wantTime;
+    private final boolean wantLastAuthor;
+
+    private Walker(@NotNull SessionContext context, @NotNull Params args) throws SVNException {
+      this.context = context;
+      this.patterns = new ArrayList<>();
+      for (String pattern : args.patterns) {
+        try {
+          patterns.add(new FileNameMatcher(pattern, null));
+        } catch (InvalidPatternException e) {
+          throw new SVNException(SVNErrorMessage.create(SVNErrorCode.BAD_FILENAME, "Invalid pattern: " + pattern), e);
+        }
+      }
+
+      final List<String> fields = Arrays.asList(args.fields);
+      this.wantSize = fields.contains("size");
+      this.wantHasProps = fields.contains("has-props");
+      this.wantCreatedRev = fields.contains("created-rev");
+      this.wantTime = fields.contains("time");
+      this.wantLastAuthor = fields.contains("last-author");
+    }
+
+    private boolean matches(@NotNull String name) {
+      if (patterns.isEmpty())
+        return true;
+
+      for (FileNameMatcher pattern : patterns) {
+        pattern.reset();
+        pattern.append(name);
+        if (pattern.isMatch())
+          return true;
+      }
+      return false;
+    }
+
+    private void walk(@NotNull String relPath, @NotNull GitFile dir, @NotNull Depth depth) throws IOException, SVNException {
+      for (GitFile entry : dir.getEntries()) {
+        final boolean directory = entry.isDirectory();
+        if (directory && depth == Depth.Files)
+          continue;
+
+        if (!context.canRead(entry.getFullPath()))
+          continue;
+
+        final String entryPath = relPath.isEmpty() ? entry.getFileName() : relPath + '/' + entry.getFileName();
+        if (matches(entry.getFileName()))
+          sendEntry(entryPath, entry);
+
+        if (directory && depth == Depth.Infinity)
+          walk(entryPath, entry, depth);
+      }
+    }
+
+    private void sendEntry(@NotNull String relPath, @NotNull GitFile file) throws IOException, SVNException {
+      final SvnServerWriter writer = context.getWriter();
+      writer
+          .listBegin()
+          .string(relPath) // rel-path
+          .word(file.getKind().toString()); // node-kind
+
+      // Every optional field is sent as its own tuple: empty tuple if field was not requested.
+      if (wantSize || wantHasProps || wantCreatedRev || wantTime || wantLastAuthor) {
+        writer.listBegin();
+        if (wantSize)
+          writer.number(file.getSize()); // size
+        writer.listEnd();
+
+        writer.listBegin();
+        if (wantHasProps)
+          writer.bool(!file.getProperties().isEmpty()); // has-props
+        writer.listEnd();
+
+        final GitRevision lastChange = wantCreatedRev || wantTime || wantLastAuthor ? file.getLastChange() : null;
+        writer.listBegin();
+        if (wantCreatedRev)
+          writer.number(lastChange.getId()); // created-rev
+        writer.listEnd();
+
+        writer
+            .stringNullable(wantTime ? lastChange.getDateString() : null) // created-date
+            .stringNullable(wantLastAuthor ? lastChange.getAuthor() : null); // last-author
+      }
+
+      writer
+          .listEnd()
+          .separator();
+    }
+  }
+
+  public static class Params {
+    @NotNull
+    private final String path;
+    @NotNull
+    private final int[] rev;
+    @NotNull
+    private final String depth;
+    @NotNull
+    private final String[] fields;
+    @NotNull
+    private final String[] patterns;
+
+    public Params(@NotNull String path, @NotNull int[] rev, @NotNull String depth, @NotNull String[] fields, @NotNull String[] patterns) {
+      this.path = path;
+      this.rev = rev;
+      this.depth = depth;
+      this.fields = fields;
+      this.patterns = patterns;
+    }
+  }
+}
@@ -13,6 +13,8 @@ import org.tmatesoft.svn.core.SVNErrorMessage;
 import org.tmatesoft.svn.core.SVNException;
 import svnserver.parser.SvnServerWriter;
 import svnserver.repository.VcsCopyFrom;
+import svnserver.repository.git.GitBranch;
+import svnserver.repository.git.GitHistorySegment;
 import svnserver.repository.git.GitLogEntry;
 import svnserver.repository.git.GitRevision;
 import svnserver.server.SessionContext;
@@ -20,7 +22,6 @@ import svnserver.server.SessionContext;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 
 /**
@@ -141,60 +142,63 @@ public final class LogCmd extends BaseCmd<LogCmd.Params> {
       context.checkRead(context.getRepositoryPath(path));
   }
 
-  /**
-   * TODO: This method is very similar to GetFileRevsCmd#walkFileHistory. Maybe they can be combined?
-   */
   @NotNull
-  private List<GitRevision> getLog(@NotNull SessionContext context, @NotNull Params args, int endRev, int startRev, int limit) throws SVNException {
-    final List<VcsCopyFrom> targetPaths = new ArrayList<>();
-    int revision = -1;
+  private List<GitRevision> getLog(@NotNull SessionContext context, @NotNull Params args, int endRev, int startRev, int limit) throws SVNException, IOException {
+    final GitBranch branch = context.getBranch();
+    final List<HistoryIterator> targets = new ArrayList<>();
     for (String target : args.targetPath) {
       final String fullTargetPath = context.getRepositoryPath(target);
-      final int lastChange = context.getBranch().getLastChange(fullTargetPath, endRev);
-      if (lastChange >= startRev) {
-        targetPaths.add(new VcsCopyFrom(lastChange, fullTargetPath));
-        revision = Math.max(revision, lastChange);
-      }
+      final List<GitHistorySegment> segments = branch.getHistory(fullTargetPath, endRev, startRev, args.strictNode, path -> true);
+      if (!segments.isEmpty())
+        targets.add(new HistoryIterator(segments));
     }
     final List<GitRevision> result = new ArrayList<>();
     int logLimit = limit;
-    while (revision >= startRev) {
-      final GitRevision revisionInfo = context.getBranch().getRevisionInfo(revision);
-      result.add(revisionInfo);
+    while (true) {
+      int revision = -1;
+      for (HistoryIterator target : targets)
+        revision = Math.max(revision, target.getRevision());
+
+      if (revision < startRev)
+        break;
+
+      result.add(branch.getRevisionInfo(revision));
       if (--logLimit == 0) break;
 
-      int nextRevision = -1;
-      final ListIterator<VcsCopyFrom> iter = targetPaths.listIterator();
-      while (iter.hasNext()) {
-        final VcsCopyFrom entry = iter.next();
-        if (revision == entry.getRevision()) {
-          final int lastChange = context.getBranch().getLastChange(entry.getPath(), revision - 1);
-          if (lastChange >= revision) {
-            throw new IllegalStateException();
-          }
-          if (lastChange < 0) {
-            if (args.strictNode) {
-              iter.remove();
-              continue;
-            }
-            final VcsCopyFrom copyFrom = revisionInfo.getCopyFrom(entry.getPath());
-            if (copyFrom != null) {
-              iter.set(copyFrom);
-              nextRevision = Math.max(nextRevision, copyFrom.getRevision());
-            } else {
-              iter.remove();
-            }
-          } else {
-            iter.set(new VcsCopyFrom(lastChange, entry.getPath()));
-            nextRevision = Math.max(nextRevision, lastChange);
-          }
-        }
-      }
-      revision = nextRevision;
+      for (HistoryIterator target : targets)
+        if (target.getRevision() == revision)
+          target.next();
     }
     return result;
   }
 
+  /**
+   * Iterator over node changes, from newest to oldest.
+   */
+  private static final class HistoryIterator {
+    @NotNull
+    private final List<GitHistorySegment> segments;
+    private int segment;
+    private int index;
+
+    private HistoryIterator(@NotNull List<GitHistorySegment> segments) {
+      this.segments = segments;
+      this.index = segments.get(0).size() - 1;
+    }
+
+    /**
+     * @return Current change revision or -1 if there is no more changes.
+     */
+    private int getRevision() {
+      return segment < segments.size() ? segments.get(segment).getRevision(index) : -1;
+    }
+
+    private void next() {
+      if (--index < 0 && ++segment < segments.size())
+        index = segments.get(segment).size() - 1;
+    }
+  }
+
   public static class Params {
     @NotNull
     private final String[] targetPath;
@@ -11,11 +11,16 @@ import org.jetbrains.annotations.NotNull;
 import org.tmatesoft.svn.core.SVNErrorCode;
 import org.tmatesoft.svn.core.SVNErrorMessage;
 import org.tmatesoft.svn.core.SVNException;
+import svnserver.TemporaryOutputStream;
 import svnserver.parser.SvnServerWriter;
 import svnserver.repository.git.GitRevision;
 import svnserver.server.SessionContext;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.*;
 
 /**
  * Send revisions as is.
@@ -32,10 +37,19 @@ import java.io.IOException;
  *      (revprops here is the literal word "revprops".)
  *    response   ( )
  * </pre>
+ * <p>
+ * Next revisions are prepared by worker threads while current revision is sent to client.
+ * Prepared revision data is kept in memory up to a limit and then spilled to temporary file.
  *
  * @author a.navrotskiy
  */
 public final class ReplayRangeCmd extends BaseCmd<ReplayRangeCmd.Params> {
+  /**
+   * Maximum count of revisions prepared ahead.
+   */
+  private static final int PIPELINE_SIZE = 8;
+  private static final int MAX_MEMORY_SIZE = 1024 * 1024;
+
   @NotNull
   @Override
   public Class<Params> getArguments() {
@@ -48,20 +62,56 @@ public final class ReplayRangeCmd extends BaseCmd<ReplayRangeCmd.Params> {
       throw new SVNException(SVNErrorMessage.create(SVNErrorCode.UNKNOWN, "Invalid revision range: start: " + args.startRev + ", end " + args.endRev));
     }
     final SvnServerWriter writer = context.getWriter();
-    for (int revision = args.startRev; revision <= args.endRev; revision++) {
+    final ExecutorService executor = context.getBranch().getRepository().getContext().getShared().getThreadPoolExecutor();
+    final Deque<Future<TemporaryOutputStream>> pipeline = new ArrayDeque<>();
+    try {
+      int nextRevision = args.startRev;
+      while (nextRevision <= args.endRev || !pipeline.isEmpty()) {
+        while (nextRevision <= args.endRev && pipeline.size() < PIPELINE_SIZE) {
+          final int revision = nextRevision++;
+          pipeline.add(executor.submit(() -> prepareRevision(context, revision, args)));
+        }
+        try (InputStream data = getResult(pipeline.remove()).toInputStream()) {
+          writer.raw(data);
+        }
+      }
+    } finally {
+      // Release already prepared revisions on failure
+      for (Future<TemporaryOutputStream> future : pipeline) {
+        try {
+          getResult(future).close();
+        } catch (IOException | SVNException | RuntimeException ignored) {
+          // Failed revision has no data to release
+        }
+      }
+    }
+    writer
+        .listBegin()
+        .word("success")
+        .listBegin().listEnd()
+        .listEnd();
+  }
+
+  @NotNull
+  private static TemporaryOutputStream prepareRevision(@NotNull SessionContext context, int revision, @NotNull Params args) throws IOException, SVNException {
+    final TemporaryOutputStream buffer = new TemporaryOutputStream(MAX_MEMORY_SIZE);
+    boolean success = false;
+    try {
+      // Writer flushes data to buffer after every top-level item, so it doesn't need to be closed.
+      final SvnServerWriter writer = new SvnServerWriter(buffer);
       final GitRevision revisionInfo = context.getBranch().getRevisionInfo(revision);
       writer
           .listBegin()
           .word("revprops")
           .writeMap(revisionInfo.getProperties(true))
           .listEnd();
-      ReplayCmd.replayRevision(context, revision, args.lowRevision, args.sendDeltas);
+      ReplayCmd.replayRevision(context.withWriter(writer), revision, args.lowRevision, args.sendDeltas);
+      success = true;
+      return buffer;
+    } finally {
+      if (!success)
+        buffer.close();
     }
-    writer
-        .listBegin()
-        .word("success")
-        .listBegin().listEnd()
-        .listEnd();
   }
 
   @Override
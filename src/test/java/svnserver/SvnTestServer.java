@@ -230,6 +230,11 @@ public final class SvnTestServer implements SvnTester {
     return repository;
   }
 
+  @NotNull
+  public String getTestBranch() {
+    return testBranch;
+  }
+
   @Override
   public void close() throws Exception {
     shutdown(0);
@@ -7,13 +7,18 @@
  */
 package svnserver.auth.cache;
 
+import com.google.common.base.Ticker;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 import org.tmatesoft.svn.core.SVNException;
 import svnserver.UserType;
 import svnserver.auth.User;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Test for ReferenceHelper.
  *
@@ -55,4 +60,39 @@ public class CacheUserDBTest {
         "lookupByExternal: foo\n" +
         "check: foo, bar2");
   }
+
+  @Test
+  public void testNegativeExpireAndRefresh() throws SVNException {
+    User user = User.create("foo", "Foo", "foo@bar", "f01", UserType.Local);
+    TestUserDB db = new TestUserDB(user);
+    final AtomicLong time = new AtomicLong();
+    final Ticker ticker = new Ticker() {
+      @Override
+      public long read() {
+        return time.get();
+      }
+    };
+    CacheUserDB cache = new CacheUserDB(db, CacheBuilder.newBuilder().ticker(ticker).expireAfterWrite(30, TimeUnit.SECONDS).build(),
+        TimeUnit.SECONDS.toNanos(5), TimeUnit.SECONDS.toNanos(10), MoreExecutors.directExecutor(), ticker);
+
+    Assert.assertNull(cache.lookupByUserName("foo1"));
+    Assert.assertEquals(cache.lookupByUserName("foo"), user);
+
+    time.addAndGet(TimeUnit.SECONDS.toNanos(6));
+    // Negative entry expired, positive entry still fresh
+    Assert.assertNull(cache.lookupByUserName("foo1"));
+    Assert.assertEquals(cache.lookupByUserName("foo"), user);
+
+    time.addAndGet(TimeUnit.SECONDS.toNanos(6));
+    // Positive entry is returned and refreshed
+    Assert.assertEquals(cache.lookupByUserName("foo"), user);
+    Assert.assertEquals(cache.lookupByUserName("foo"), user);
+
+    Assert.assertEquals(db.report(), "lookupByUserName: foo1\n" +
+        "lookupByUserName: foo\n" +
+        "lookupByUserName: foo1\n" +
+        "lookupByUserName: foo");
+    Assert.assertEquals(cache.getStats().hitCount(), 3);
+    Assert.assertEquals(cache.getStats().missCount(), 3);
+  }
 }
@@ -0,0 +1,101 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.auth.ldap;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test for LDAP circuit breaker state transitions.
+ */
+public final class LdapCircuitBreakerTest {
+  private static final long OPEN_TIME_MS = 1000;
+
+  @Test
+  public void opensAfterThreshold() {
+    final AtomicLong clock = new AtomicLong();
+    final LdapCircuitBreaker breaker = new LdapCircuitBreaker(3, OPEN_TIME_MS, clock::get);
+
+    Assert.assertTrue(breaker.tryAcquire());
+    breaker.onFailure();
+    breaker.onFailure();
+    // Below threshold breaker is still closed
+    Assert.assertTrue(breaker.tryAcquire());
+    breaker.onFailure();
+    Assert.assertFalse(breaker.tryAcquire());
+
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_TIME_MS) - 1);
+    Assert.assertFalse(breaker.tryAcquire());
+  }
+
+  @Test
+  public void successResetsFailures() {
+    final AtomicLong clock = new AtomicLong();
+    final LdapCircuitBreaker breaker = new LdapCircuitBreaker(2, OPEN_TIME_MS, clock::get);
+
+    breaker.onFailure();
+    breaker.onSuccess();
+    breaker.onFailure();
+    Assert.assertTrue(breaker.tryAcquire());
+  }
+
+  @Test
+  public void halfOpenAllowsSingleProbe() {
+    final AtomicLong clock = new AtomicLong();
+    final LdapCircuitBreaker breaker = new LdapCircuitBreaker(1, OPEN_TIME_MS, clock::get);
+
+    breaker.onFailure();
+    Assert.assertFalse(breaker.tryAcquire());
+
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_TIME_MS));
+    Assert.assertTrue(breaker.tryAcquire());
+    // Concurrent requests are rejected while probe is running
+    Assert.assertFalse(breaker.tryAcquire());
+  }
+
+  @Test
+  public void halfOpenProbeSuccessCloses() {
+    final AtomicLong clock = new AtomicLong();
+    final LdapCircuitBreaker breaker = new LdapCircuitBreaker(1, OPEN_TIME_MS, clock::get);
+
+    breaker.onFailure();
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_TIME_MS));
+    Assert.assertTrue(breaker.tryAcquire());
+    breaker.onSuccess();
+
+    Assert.assertTrue(breaker.tryAcquire());
+    Assert.assertTrue(breaker.tryAcquire());
+  }
+
+  @Test
+  public void halfOpenProbeFailureReopens() {
+    final AtomicLong clock = new AtomicLong();
+    final LdapCircuitBreaker breaker = new LdapCircuitBreaker(1, OPEN_TIME_MS, clock::get);
+
+    breaker.onFailure();
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_TIME_MS));
+    Assert.assertTrue(breaker.tryAcquire());
+    breaker.onFailure();
+
+    clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_TIME_MS) - 1);
+    Assert.assertFalse(breaker.tryAcquire());
+    clock.addAndGet(1);
+    Assert.assertTrue(breaker.tryAcquire());
+  }
+
+  @Test
+  public void disabled() {
+    final LdapCircuitBreaker breaker = new LdapCircuitBreaker(0, OPEN_TIME_MS, () -> 0);
+    for (int i = 0; i < 10; ++i)
+      breaker.onFailure();
+    Assert.assertTrue(breaker.tryAcquire());
+  }
+}
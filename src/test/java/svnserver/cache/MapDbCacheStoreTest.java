@@ -0,0 +1,249 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import svnserver.TestHelper;
+import svnserver.config.CacheNamespaceConfig;
+import svnserver.config.PersistentCacheConfig;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Test for MapDB cache storage.
+ */
+public final class MapDbCacheStoreTest {
+  @Test
+  public void namespaces() {
+    final DB defaultDb = DBMaker.memoryDB().make();
+    final DB revisionDb = DBMaker.memoryDB().make();
+    try (CacheStore store = new MapDbCacheStore(defaultDb, Collections.singletonList(new MapDbCacheStore.Namespace("cache-revision.", revisionDb, 4, 0)))) {
+      store.getHashMap("cache-revision.example", CacheCodec.STRING, CacheCodec.STRING).put("foo", "bar");
+      store.getTreeMap("locks.example", CacheCodec.STRING, CacheCodec.STRING).put("/foo", "bar");
+
+      Assert.assertTrue(revisionDb.exists("cache-revision.example"));
+      Assert.assertFalse(defaultDb.exists("cache-revision.example"));
+      Assert.assertTrue(defaultDb.exists("locks.example"));
+
+      Assert.assertTrue(store.exists("cache-revision.example"));
+      Assert.assertFalse(store.exists("cache-revision.other"));
+      Assert.assertEquals(store.getHashMap("cache-revision.example", CacheCodec.STRING, CacheCodec.STRING).get("foo"), "bar");
+
+      store.commit("cache-revision.example");
+    }
+    Assert.assertTrue(defaultDb.isClosed());
+    Assert.assertTrue(revisionDb.isClosed());
+  }
+
+  @Test
+  public void namespaceCommit() {
+    final DB defaultDb = DBMaker.memoryDB().transactionEnable().make();
+    final DB revisionDb = DBMaker.memoryDB().transactionEnable().make();
+    try (CacheStore store = new MapDbCacheStore(defaultDb, Collections.singletonList(new MapDbCacheStore.Namespace("cache-revision.", revisionDb, 0, 0)))) {
+      final Map<String, String> revisions = store.getHashMap("cache-revision.example", CacheCodec.STRING, CacheCodec.STRING);
+      final Map<String, String> locks = store.getTreeMap("locks.example", CacheCodec.STRING, CacheCodec.STRING);
+      store.commit("locks.example");
+
+      revisions.put("foo", "bar");
+      locks.put("/foo", "bar");
+      store.commit("cache-revision.example");
+
+      defaultDb.rollback();
+      revisionDb.rollback();
+      Assert.assertEquals(revisions.get("foo"), "bar");
+      Assert.assertNull(locks.get("/foo"));
+    }
+  }
+
+  @Test
+  public void commitAll() throws Exception {
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try {
+      final Path filterPath = tempDir.resolve("filter.mapdb");
+      try (CacheStore store = new MapDbCacheStore(openDB(tempDir.resolve("default.mapdb")), Collections.singletonList(new MapDbCacheStore.Namespace("cache.filter.", openDB(filterPath), 0, 0)))) {
+        store.getHashMap("cache.filter.example", CacheCodec.STRING, CacheCodec.STRING).put("foo", "bar");
+        store.commit();
+        store.getHashMap("cache.filter.example", CacheCodec.STRING, CacheCodec.STRING).put("bar", "foo");
+      }
+
+      // Changes without explicit commit are persisted on close
+      final DB filterDb = openDB(filterPath);
+      try (CacheStore store = new MapDbCacheStore(filterDb)) {
+        final Map<String, String> map = store.getHashMap("cache.filter.example", CacheCodec.STRING, CacheCodec.STRING);
+        Assert.assertEquals(map.get("foo"), "bar");
+        Assert.assertEquals(map.get("bar"), "foo");
+      }
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @Test
+  public void customCodec() {
+    try (CacheStore store = new MapDbCacheStore(DBMaker.memoryDB().make())) {
+      final Map<Point, Point> map = store.getHashMap("cache.points", PointCodec.instance, PointCodec.instance);
+      map.put(new Point(1, 2), new Point(3, 4));
+      Assert.assertEquals(map.get(new Point(1, 2)), new Point(3, 4));
+
+      final NavigableMap<String, Point> tree = store.getTreeMap("locks.points", CacheCodec.STRING, PointCodec.instance);
+      tree.put("b", new Point(5, 6));
+      tree.put("a", new Point(7, 8));
+      Assert.assertEquals(tree.firstEntry().getValue(), new Point(7, 8));
+    }
+  }
+
+  @DataProvider
+  public static Object[][] invalidNamespaces() {
+    return new Object[][]{
+        {Collections.singletonMap("locks.", new CacheNamespaceConfig("locks.mapdb"))},
+        {Collections.singletonMap("locks.example.", new CacheNamespaceConfig("locks.mapdb"))},
+        {Collections.singletonMap("", new CacheNamespaceConfig("all.mapdb"))},
+        {Collections.singletonMap("cache.", new CacheNamespaceConfig("git-as-svn.mapdb"))},
+        {namespaces("cache.", "cache.mapdb", "cache-revision.", "./cache.mapdb")},
+    };
+  }
+
+  @NotNull
+  private static Map<String, CacheNamespaceConfig> namespaces(@NotNull String... prefixAndPath) {
+    final Map<String, CacheNamespaceConfig> result = new TreeMap<>();
+    for (int i = 0; i < prefixAndPath.length; i += 2)
+      result.put(prefixAndPath[i], new CacheNamespaceConfig(prefixAndPath[i + 1]));
+
+    return result;
+  }
+
+  @Test(dataProvider = "invalidNamespaces", expectedExceptions = IllegalStateException.class)
+  public void invalidNamespaces(@NotNull Map<String, CacheNamespaceConfig> namespaces) throws Exception {
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try {
+      new PersistentCacheConfig("git-as-svn.mapdb", namespaces).createCache(tempDir).close();
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @DataProvider
+  public static Object[][] layouts() {
+    return new Object[][]{
+        {false},
+        {true},
+    };
+  }
+
+  /**
+   * Concurrent writers to different namespaces with frequent commits, similar to parallel repository indexing.
+   */
+  @Test(dataProvider = "layouts", groups = "benchmark")
+  public void benchmark(boolean separate) throws Exception {
+    final int size = Integer.parseInt(System.getProperty("cache.benchmark.entries", "20000"));
+    final String[] prefixes = {"cache-revision.", "cache.filter.", "locks."};
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    final ExecutorService executor = Executors.newFixedThreadPool(prefixes.length);
+    try {
+      final DB defaultDb = openDB(tempDir.resolve("default.mapdb"));
+      final List<MapDbCacheStore.Namespace> namespaces = new ArrayList<>();
+      if (separate) {
+        for (String prefix : prefixes)
+          namespaces.add(new MapDbCacheStore.Namespace(prefix, openDB(tempDir.resolve(prefix + "mapdb")), 0, 0));
+      }
+
+      try (CacheStore store = new MapDbCacheStore(defaultDb, namespaces)) {
+        final long startTime = System.nanoTime();
+        final List<Future<?>> futures = new ArrayList<>();
+        for (String prefix : prefixes) {
+          futures.add(executor.submit(() -> {
+            final Map<Long, String> map = store.getHashMap(prefix + "benchmark", CacheCodec.LONG, CacheCodec.STRING);
+            for (long i = 0; i < size; ++i) {
+              map.put(i, prefix + i);
+              if (i % 100 == 0)
+                store.commit(prefix + "benchmark");
+            }
+            return null;
+          }));
+        }
+        for (Future<?> future : futures)
+          future.get();
+        for (String prefix : prefixes)
+          store.commit(prefix + "benchmark");
+        final long duration = System.nanoTime() - startTime;
+
+        System.out.printf("Cache store (separate namespaces: %s): %d writes in %.2fms (%.1f writes/ms)%n", separate, size * prefixes.length, duration / 1000000.0, size * prefixes.length * 1000000.0 / duration);
+        for (String prefix : prefixes)
+          Assert.assertEquals(store.getHashMap(prefix + "benchmark", CacheCodec.LONG, CacheCodec.STRING).size(), size);
+      }
+    } finally {
+      executor.shutdown();
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @NotNull
+  private static DB openDB(@NotNull Path path) {
+    return DBMaker.fileDB(path.toFile())
+        .fileMmapEnableIfSupported()
+        .transactionEnable()
+        .make();
+  }
+
+  private static final class Point {
+    private final int x;
+    private final int y;
+
+    private Point(int x, int y) {
+      this.x = x;
+      this.y = y;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      final Point point = (Point) o;
+      return x == point.x && y == point.y;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * x + y;
+    }
+  }
+
+  private static final class PointCodec implements CacheCodec<Point> {
+    @NotNull
+    private static final PointCodec instance = new PointCodec();
+
+    @Override
+    public void write(@NotNull DataOutput out, @NotNull Point value) throws IOException {
+      out.writeInt(value.x);
+      out.writeInt(value.y);
+    }
+
+    @NotNull
+    @Override
+    public Point read(@NotNull DataInput input) throws IOException {
+      return new Point(input.readInt(), input.readInt());
+    }
+
+    @Override
+    public int fixedSize() {
+      return 8;
+    }
+  }
+}
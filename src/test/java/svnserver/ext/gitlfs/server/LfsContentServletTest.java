@@ -0,0 +1,121 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.ext.gitlfs.server;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.apache.commons.io.IOUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mapdb.DBMaker;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import svnserver.TestHelper;
+import svnserver.VcsAccessEveryone;
+import svnserver.auth.LocalUserDB;
+import svnserver.auth.User;
+import svnserver.auth.UserDB;
+import svnserver.cache.MapDbCacheStore;
+import svnserver.context.LocalContext;
+import svnserver.context.SharedContext;
+import svnserver.ext.gitlfs.storage.LfsStorage;
+import svnserver.ext.gitlfs.storage.LfsWriter;
+import svnserver.ext.gitlfs.storage.local.LfsCache;
+import svnserver.ext.gitlfs.storage.memory.LfsMemoryStorage;
+import svnserver.ext.web.config.WebServerConfig;
+import svnserver.ext.web.server.WebServer;
+import svnserver.repository.VcsAccess;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * LFS content servlet test.
+ */
+public final class LfsContentServletTest {
+  @DataProvider
+  public static Object[][] rangeData() {
+    return new Object[][]{
+        {null, null},
+        {"bytes=0-99", new long[]{0, 99}},
+        {"bytes=100-", new long[]{100, 999}},
+        {"bytes=900-2000", new long[]{900, 999}},
+        {"bytes=-100", new long[]{900, 999}},
+        {"bytes=-2000", new long[]{0, 999}},
+        {"bytes=1000-", LfsContentServlet.RANGE_NOT_SATISFIABLE},
+        {"bytes=-0", LfsContentServlet.RANGE_NOT_SATISFIABLE},
+        {"bytes=10-5", null},
+        {"bytes=0-10,20-30", null},
+        {"items=0-10", null},
+    };
+  }
+
+  @Test(dataProvider = "rangeData")
+  public void parseRange(@Nullable String header, @Nullable long[] expected) {
+    Assert.assertEquals(LfsContentServlet.parseRange(header, 1000), expected);
+  }
+
+  /**
+   * Objects of remote storage are served from local cache by file channel fast path.
+   */
+  @Test
+  public void cachedObject() throws Exception {
+    final byte[] data = new byte[1000];
+    for (int i = 0; i < data.length; ++i)
+      data[i] = (byte) i;
+
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try (SharedContext shared = SharedContext.create(tempDir, "realm", new MapDbCacheStore(DBMaker.memoryDB().make()), Thread::new, Collections.singletonList(new WebServerConfig(0)))) {
+      shared.add(LfsServer.class, new LfsServer("t0ken", 0, 0));
+      shared.add(UserDB.class, new LocalUserDB());
+      shared.ready();
+
+      final LocalContext local = new LocalContext(shared, "example");
+      local.add(VcsAccess.class, new VcsAccessEveryone());
+      final LfsStorage storage = new LfsCache(tempDir.resolve("cache"), 1024 * 1024, MoreExecutors.directExecutor()).wrap(new LfsMemoryStorage());
+      shared.sure(LfsServer.class).register(local, storage);
+
+      final String oid;
+      try (LfsWriter writer = storage.getWriter(User.getAnonymous())) {
+        writer.write(data);
+        oid = writer.finish(null);
+      }
+      final URL url = shared.sure(WebServer.class).getBaseUrl().resolve("example.git/info/lfs/storage/" + oid.substring(LfsStorage.OID_PREFIX.length())).toURL();
+      final String etag = '"' + oid.substring(LfsStorage.OID_PREFIX.length()) + '"';
+
+      HttpURLConnection connection = open(url, "Range", "bytes=100-199");
+      Assert.assertEquals(connection.getResponseCode(), HttpURLConnection.HTTP_PARTIAL);
+      Assert.assertEquals(connection.getHeaderField("Content-Range"), "bytes 100-199/1000");
+      Assert.assertEquals(connection.getHeaderField("ETag"), etag);
+      try (InputStream stream = connection.getInputStream()) {
+        Assert.assertEquals(IOUtils.toByteArray(stream), Arrays.copyOfRange(data, 100, 200));
+      }
+
+      connection = open(url, "If-None-Match", etag);
+      Assert.assertEquals(connection.getResponseCode(), HttpURLConnection.HTTP_NOT_MODIFIED);
+
+      connection = open(url, "Range", "bytes=1000-");
+      Assert.assertEquals(connection.getResponseCode(), 416);
+      Assert.assertEquals(connection.getHeaderField("Content-Range"), "bytes */1000");
+      connection.disconnect();
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @NotNull
+  private static HttpURLConnection open(@NotNull URL url, @NotNull String header, @NotNull String value) throws Exception {
+    final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setRequestProperty(header, value);
+    return connection;
+  }
+}
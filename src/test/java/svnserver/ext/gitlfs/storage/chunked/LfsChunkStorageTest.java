@@ -0,0 +1,193 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.ext.gitlfs.storage.chunked;
+
+import org.apache.commons.io.IOUtils;
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import svnserver.TestHelper;
+import svnserver.auth.User;
+import svnserver.ext.gitlfs.storage.LfsReader;
+import svnserver.ext.gitlfs.storage.LfsWriter;
+import svnserver.ext.gitlfs.storage.local.LfsLocalStorageTest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Test for deduplicating chunk storage.
+ */
+public final class LfsChunkStorageTest {
+  @Test
+  public void simple() throws Exception {
+    final User user = User.getAnonymous();
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try (LfsChunkStore store = new LfsChunkStore(tempDir)) {
+      final LfsChunkStorage storage = new LfsChunkStorage(new ConcurrentSkipListMap<>(), store, tempDir.resolve("repo"));
+      Assert.assertNull(storage.getReader("sha256:61f27ddd5b4e533246eb76c45ed4bf4504daabce12589f97b3285e9d3cd54308", -1));
+
+      final String oid = write(storage, "Hello, world!!!".getBytes(StandardCharsets.UTF_8));
+      Assert.assertEquals(oid, "sha256:61f27ddd5b4e533246eb76c45ed4bf4504daabce12589f97b3285e9d3cd54308");
+
+      final LfsReader reader = storage.getReader(oid, -1);
+      Assert.assertNotNull(reader);
+      Assert.assertEquals(reader.getMd5(), "9fe77772b085e3533101d59d33a51f19");
+      Assert.assertEquals(reader.getSize(), 15);
+
+      LfsLocalStorageTest.checkLfs(storage, user);
+      LfsLocalStorageTest.checkLfs(storage, user);
+      LfsLocalStorageTest.checkLocks(storage, user);
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @Test
+  public void repositoryIsolation() throws Exception {
+    final byte[] data = "Hello, world!!!".getBytes(StandardCharsets.UTF_8);
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try (LfsChunkStore store = new LfsChunkStore(tempDir.resolve("store"))) {
+      final LfsChunkStorage first = new LfsChunkStorage(new ConcurrentSkipListMap<>(), store, tempDir.resolve("first"));
+      final LfsChunkStorage second = new LfsChunkStorage(new ConcurrentSkipListMap<>(), store, tempDir.resolve("second"));
+
+      final String oid = write(first, data);
+      Assert.assertNull(second.getReader(oid, -1));
+
+      // Chunks are still deduplicated between repositories
+      final long storedSize = store.getStoredSize();
+      Assert.assertEquals(write(second, data), oid);
+      Assert.assertEquals(store.getStoredSize(), storedSize);
+      Assert.assertTrue(Arrays.equals(read(second, oid), data));
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @Test
+  public void corruptChunk() throws Exception {
+    final byte[] data = "Hello, world!!!".getBytes(StandardCharsets.UTF_8);
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try {
+      final String oid;
+      try (LfsChunkStore store = new LfsChunkStore(tempDir)) {
+        oid = write(new LfsChunkStorage(new ConcurrentSkipListMap<>(), store, tempDir.resolve("repo")), data);
+      }
+
+      final Path pack = tempDir.resolve("packs").resolve("00000000.pack");
+      final byte[] packData = Files.readAllBytes(pack);
+      packData[0] ^= 1;
+      Files.write(pack, packData);
+
+      try (LfsChunkStore store = new LfsChunkStore(tempDir)) {
+        read(new LfsChunkStorage(new ConcurrentSkipListMap<>(), store, tempDir.resolve("repo")), oid);
+        Assert.fail();
+      } catch (IOException e) {
+        Assert.assertTrue(e.getMessage().contains("Corrupt LFS chunk"), e.getMessage());
+      }
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @Test
+  public void dedup() throws Exception {
+    final byte[] original = createOriginal();
+    final byte[] modified = createModified(original);
+
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try {
+      final String oidOriginal;
+      final String oidModified;
+      try (LfsChunkStore store = new LfsChunkStore(tempDir)) {
+        final LfsChunkStorage storage = new LfsChunkStorage(new ConcurrentSkipListMap<>(), store, tempDir.resolve("repo"));
+        oidOriginal = write(storage, original);
+        oidModified = write(storage, modified);
+        Assert.assertTrue(store.getStoredSize() < original.length + LfsChunkWriter.MAX_CHUNK_SIZE * 2);
+      }
+
+      // Reopen store to check index loading
+      try (LfsChunkStore store = new LfsChunkStore(tempDir)) {
+        final LfsChunkStorage storage = new LfsChunkStorage(new ConcurrentSkipListMap<>(), store, tempDir.resolve("repo"));
+        Assert.assertTrue(Arrays.equals(read(storage, oidOriginal), original));
+        Assert.assertTrue(Arrays.equals(read(storage, oidModified), modified));
+      }
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  /**
+   * Deduplication ratio and read throughput benchmark.
+   */
+  @Test(groups = "benchmark")
+  public void dedupBenchmark() throws Exception {
+    final byte[] original = createOriginal();
+    final byte[] modified = createModified(original);
+
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try (LfsChunkStore store = new LfsChunkStore(tempDir)) {
+      final LfsChunkStorage storage = new LfsChunkStorage(new ConcurrentSkipListMap<>(), store, tempDir.resolve("repo"));
+      final String oidOriginal = write(storage, original);
+      final String oidModified = write(storage, modified);
+
+      final long logical = original.length + modified.length;
+      final long stored = store.getStoredSize();
+      System.out.printf("LFS chunk storage: %d bytes stored for %d bytes of objects (dedup ratio %.2f)%n", stored, logical, (double) logical / stored);
+
+      final long start = System.nanoTime();
+      read(storage, oidOriginal);
+      read(storage, oidModified);
+      final double seconds = (System.nanoTime() - start) / 1e9;
+      System.out.printf("LFS chunk storage read: %.1f MB/s%n", logical / seconds / 1024 / 1024);
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @NotNull
+  private static byte[] createOriginal() {
+    final byte[] result = new byte[32 * 1024 * 1024];
+    new Random(42).nextBytes(result);
+    return result;
+  }
+
+  /**
+   * Same content with small insertion in the middle.
+   */
+  @NotNull
+  private static byte[] createModified(@NotNull byte[] original) {
+    final byte[] result = new byte[original.length + 100];
+    System.arraycopy(original, 0, result, 0, original.length / 2);
+    System.arraycopy(original, original.length / 2, result, original.length / 2 + 100, original.length / 2);
+    return result;
+  }
+
+  @NotNull
+  private static String write(@NotNull LfsChunkStorage storage, @NotNull byte[] data) throws Exception {
+    try (LfsWriter writer = storage.getWriter(User.getAnonymous())) {
+      writer.write(data);
+      return writer.finish(null);
+    }
+  }
+
+  @NotNull
+  private static byte[] read(@NotNull LfsChunkStorage storage, @NotNull String oid) throws Exception {
+    final LfsReader reader = storage.getReader(oid, -1);
+    Assert.assertNotNull(reader);
+    try (InputStream stream = reader.openStream()) {
+      return IOUtils.toByteArray(stream);
+    }
+  }
+}
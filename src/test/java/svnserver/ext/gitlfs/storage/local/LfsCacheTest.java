@@ -0,0 +1,173 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.ext.gitlfs.storage.local;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.apache.commons.io.IOUtils;
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import svnserver.TestHelper;
+import svnserver.auth.User;
+import svnserver.ext.gitlfs.storage.LfsReader;
+import svnserver.ext.gitlfs.storage.LfsStorage;
+import svnserver.ext.gitlfs.storage.LfsWriter;
+import svnserver.ext.gitlfs.storage.memory.LfsMemoryStorage;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Test for local LFS cache.
+ */
+public final class LfsCacheTest {
+  @Test
+  public void readThrough() throws Exception {
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try {
+      final LfsMemoryStorage backend = new LfsMemoryStorage();
+      final LfsStorage storage = new LfsCache(tempDir, 1024 * 1024, MoreExecutors.directExecutor()).wrap(backend);
+      Assert.assertNull(storage.getReader("sha256:61f27ddd5b4e533246eb76c45ed4bf4504daabce12589f97b3285e9d3cd54308", -1));
+
+      final String oid;
+      try (LfsWriter writer = storage.getWriter(User.getAnonymous())) {
+        writer.write("Hello, world!!!".getBytes(StandardCharsets.UTF_8));
+        oid = writer.finish(null);
+      }
+      Assert.assertEquals(backend.getFiles().size(), 1);
+
+      for (int pass = 0; pass < 2; ++pass) {
+        final LfsReader reader = storage.getReader(oid, -1);
+        Assert.assertNotNull(reader);
+        Assert.assertTrue(Files.exists(dataPath(tempDir, oid)));
+        Assert.assertEquals(reader.getMd5(), "9fe77772b085e3533101d59d33a51f19");
+        Assert.assertEquals(reader.getSize(), 15);
+        try (InputStream stream = reader.openStream()) {
+          Assert.assertEquals(new String(IOUtils.toByteArray(stream), StandardCharsets.UTF_8), "Hello, world!!!");
+        }
+      }
+
+      // Object is not readable without backend access.
+      backend.getFiles().clear();
+      Assert.assertNull(storage.getReader(oid, -1));
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @Test
+  public void evict() throws Exception {
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try {
+      final LfsStorage storage = new LfsCache(tempDir, 20, MoreExecutors.directExecutor()).wrap(new LfsMemoryStorage());
+      final String oid1 = write(storage, "Hello, world!!!");
+      final String oid2 = write(storage, "Bye, world!!!");
+
+      Assert.assertNotNull(storage.getReader(oid1, -1));
+      Assert.assertTrue(Files.exists(dataPath(tempDir, oid1)));
+
+      Assert.assertNotNull(storage.getReader(oid2, -1));
+      Assert.assertFalse(Files.exists(dataPath(tempDir, oid1)));
+      Assert.assertTrue(Files.exists(dataPath(tempDir, oid2)));
+
+      // Cache state is restored on restart
+      new LfsCache(tempDir, 20, MoreExecutors.directExecutor());
+      Assert.assertTrue(Files.exists(dataPath(tempDir, oid2)));
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @Test(timeOut = 60_000)
+  public void largerThanCache() throws Exception {
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try {
+      final LfsStorage storage = new LfsCache(tempDir, 10, MoreExecutors.directExecutor()).wrap(new LfsMemoryStorage());
+      final String oid = write(storage, "Hello, world!!!");
+
+      // Object is read from backend without caching it
+      final LfsReader reader = storage.getReader(oid, -1);
+      Assert.assertNotNull(reader);
+      Assert.assertEquals(read(reader), "Hello, world!!!");
+      Assert.assertFalse(Files.exists(dataPath(tempDir, oid)));
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @Test
+  public void evictInUse() throws Exception {
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try {
+      final LfsStorage storage = new LfsCache(tempDir, 20, MoreExecutors.directExecutor()).wrap(new LfsMemoryStorage());
+      final String oid1 = write(storage, "Hello, world!!!");
+      final String oid2 = write(storage, "Bye, world!!!");
+
+      final LfsReader reader1 = storage.getReader(oid1, -1);
+      Assert.assertNotNull(reader1);
+      try (InputStream stream = reader1.openStream()) {
+        // Object with open stream is not removed
+        Assert.assertNotNull(storage.getReader(oid2, -1));
+        Assert.assertTrue(Files.exists(dataPath(tempDir, oid1)));
+        Assert.assertEquals(new String(IOUtils.toByteArray(stream), StandardCharsets.UTF_8), "Hello, world!!!");
+      }
+      // Newer object was removed instead of the one in use
+      Assert.assertTrue(Files.exists(dataPath(tempDir, oid1)));
+      Assert.assertFalse(Files.exists(dataPath(tempDir, oid2)));
+
+      Assert.assertNotNull(storage.getReader(oid2, -1));
+      Assert.assertFalse(Files.exists(dataPath(tempDir, oid1)));
+      Assert.assertTrue(Files.exists(dataPath(tempDir, oid2)));
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @Test
+  public void evictBeforeOpen() throws Exception {
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try {
+      final LfsStorage storage = new LfsCache(tempDir, 20, MoreExecutors.directExecutor()).wrap(new LfsMemoryStorage());
+      final String oid1 = write(storage, "Hello, world!!!");
+      final String oid2 = write(storage, "Bye, world!!!");
+
+      final LfsReader reader1 = storage.getReader(oid1, -1);
+      Assert.assertNotNull(reader1);
+      Assert.assertNotNull(storage.getReader(oid2, -1));
+      Assert.assertFalse(Files.exists(dataPath(tempDir, oid1)));
+
+      // Evicted object is read from backend
+      Assert.assertEquals(read(reader1), "Hello, world!!!");
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @NotNull
+  private static String read(@NotNull LfsReader reader) throws Exception {
+    try (InputStream stream = reader.openStream()) {
+      return new String(IOUtils.toByteArray(stream), StandardCharsets.UTF_8);
+    }
+  }
+
+  @NotNull
+  private static String write(@NotNull LfsStorage storage, @NotNull String content) throws Exception {
+    try (LfsWriter writer = storage.getWriter(User.getAnonymous())) {
+      writer.write(content.getBytes(StandardCharsets.UTF_8));
+      return writer.finish(null);
+    }
+  }
+
+  @NotNull
+  private static Path dataPath(@NotNull Path root, @NotNull String oid) {
+    final String hash = oid.substring(LfsStorage.OID_PREFIX.length());
+    return root.resolve("data").resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+  }
+}
@@ -9,6 +9,7 @@ package svnserver.ext.gitlfs.storage.local;
 
 import com.google.common.hash.Hashing;
 import com.google.common.io.CharStreams;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.apache.commons.io.IOUtils;
 import org.eclipse.jgit.util.Holder;
 import org.jetbrains.annotations.NotNull;
@@ -43,7 +44,10 @@ import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.Collections;
+import java.util.Random;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static svnserver.server.SvnFilePropertyTest.propsBinary;
 
@@ -199,6 +203,74 @@ public final class LfsLocalStorageTest {
     Assert.assertEquals(reader.getSize(), expected.length);
   }
 
+  /**
+   * Parallel writer must produce the same object as sequential one. Data spans several chunks and ends with partial one.
+   */
+  @Test(dataProvider = "compressProvider")
+  public void parallelWrite(boolean compress) throws Exception {
+    final byte[] expected = new byte[5 * 1024 * 1024 + 12345];
+    new Random(42).nextBytes(expected);
+    final String expectedOid = "sha256:" + Hashing.sha256().hashBytes(expected).toString();
+    final String expectedMd5 = Hashing.md5().hashBytes(expected).toString();
+
+    final ExecutorService executor = Executors.newCachedThreadPool();
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try {
+      final LfsLocalStorage storage = new LfsLocalStorage(new ConcurrentSkipListMap<>(), LocalLfsConfig.LfsLayout.TwoLevels, tempDir.resolve("data"), tempDir.resolve("meta"), compress, executor);
+      final Random random = new Random(0);
+      try (LfsWriter writer = storage.getWriter(User.getAnonymous())) {
+        // Blocks of random size to cross chunk boundaries at different offsets
+        int offset = 0;
+        while (offset < expected.length) {
+          final int length = Math.min(expected.length - offset, 1 + random.nextInt(300 * 1024));
+          writer.write(expected, offset, length);
+          offset += length;
+        }
+        Assert.assertEquals(writer.finish(null), expectedOid);
+      }
+
+      final LfsReader reader = storage.getReader(expectedOid, expected.length);
+      Assert.assertNotNull(reader);
+      Assert.assertEquals(reader.getSize(), expected.length);
+      Assert.assertEquals(reader.getMd5(), expectedMd5);
+      try (InputStream stream = reader.openStream()) {
+        Assert.assertEquals(IOUtils.toByteArray(stream), expected);
+      }
+    } finally {
+      executor.shutdown();
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  /**
+   * Upload throughput benchmark. Data size can be changed by "lfs.benchmark.mb" system property.
+   */
+  @Test(dataProvider = "compressProvider", groups = "benchmark")
+  public void uploadThroughput(boolean compress) throws Exception {
+    final long totalSize = Long.getLong("lfs.benchmark.mb", 128L) * 1024 * 1024;
+    final byte[] block = new byte[64 * 1024];
+    new Random(42).nextBytes(block);
+
+    final ExecutorService executor = Executors.newCachedThreadPool();
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try {
+      for (boolean parallel : new boolean[]{false, true}) {
+        final LfsLocalStorage storage = new LfsLocalStorage(new ConcurrentSkipListMap<>(), LocalLfsConfig.LfsLayout.TwoLevels, tempDir.resolve("data-" + parallel), tempDir.resolve("meta-" + parallel), compress, parallel ? executor : MoreExecutors.directExecutor());
+        final long start = System.nanoTime();
+        try (LfsWriter writer = storage.getWriter(User.getAnonymous())) {
+          for (long written = 0; written < totalSize; written += block.length)
+            writer.write(block);
+          writer.finish(null);
+        }
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("LFS upload (compress: %s, parallel: %s): %d MB in %.2f s (%.1f MB/s)%n", compress, parallel, totalSize >> 20, seconds, (totalSize >> 20) / seconds);
+      }
+    } finally {
+      executor.shutdown();
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
   @Test(dataProvider = "compressProvider")
   public void nometa(boolean compress) throws IOException {
     final Path tempDir = TestHelper.createTempDir("git-as-svn");
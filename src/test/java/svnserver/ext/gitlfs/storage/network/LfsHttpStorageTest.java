@@ -9,12 +9,16 @@ package svnserver.ext.gitlfs.storage.network;
 
 import com.google.common.hash.Hashing;
 import com.google.common.io.ByteStreams;
+import org.apache.http.HttpRequestInterceptor;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.NameValuePair;
+import org.apache.http.client.config.CookieSpecs;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.message.BasicNameValuePair;
 import org.eclipse.jgit.util.Holder;
 import org.jetbrains.annotations.NotNull;
@@ -31,6 +35,7 @@ import ru.bozaro.gitlfs.client.auth.CachedAuthProvider;
 import ru.bozaro.gitlfs.client.exceptions.RequestException;
 import ru.bozaro.gitlfs.common.JsonHelper;
 import ru.bozaro.gitlfs.common.data.Link;
+import ru.bozaro.gitlfs.common.data.Meta;
 import ru.bozaro.gitlfs.common.data.Operation;
 import svnserver.SvnTestHelper;
 import svnserver.SvnTestServer;
@@ -39,6 +44,7 @@ import svnserver.VcsAccessNoAnonymous;
 import svnserver.auth.LocalUserDB;
 import svnserver.auth.User;
 import svnserver.auth.UserDB;
+import svnserver.cache.MapDbCacheStore;
 import svnserver.config.SharedConfig;
 import svnserver.context.LocalContext;
 import svnserver.context.SharedContext;
@@ -56,10 +62,12 @@ import svnserver.repository.VcsAccess;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static svnserver.server.SvnFilePropertyTest.propsBinary;
 
@@ -78,7 +86,7 @@ public final class LfsHttpStorageTest {
     final User user = users.add(SvnTestServer.USER_NAME, "test", "Test User", "test@example.com");
     Assert.assertNotNull(user);
     // Create shared context
-    try (SharedContext sharedContext = SharedContext.create(Paths.get("/nonexistent"), "realm", DBMaker.memoryDB().make(), Thread::new, Collections.singletonList(new WebServerConfig(0)))) {
+    try (SharedContext sharedContext = SharedContext.create(Paths.get("/nonexistent"), "realm", new MapDbCacheStore(DBMaker.memoryDB().make()), Thread::new, Collections.singletonList(new WebServerConfig(0)))) {
       final WebServer webServer = sharedContext.sure(WebServer.class);
       sharedContext.add(LfsServer.class, new LfsServer("t0ken", 0, 0));
       sharedContext.add(UserDB.class, users);
@@ -138,7 +146,7 @@ public final class LfsHttpStorageTest {
     final User user = users.add("test", "test", "Test User", "test@example.com");
     Assert.assertNotNull(user);
     // Create shared context
-    try (SharedContext sharedContext = SharedContext.create(Paths.get("/nonexistent"), "realm", DBMaker.memoryDB().make(), Thread::new, Collections.singletonList(new WebServerConfig(0)))) {
+    try (SharedContext sharedContext = SharedContext.create(Paths.get("/nonexistent"), "realm", new MapDbCacheStore(DBMaker.memoryDB().make()), Thread::new, Collections.singletonList(new WebServerConfig(0)))) {
       final WebServer webServer = sharedContext.sure(WebServer.class);
       sharedContext.add(LfsServer.class, new LfsServer("t0ken", 0, 0));
       sharedContext.add(UserDB.class, users);
@@ -190,17 +198,82 @@ public final class LfsHttpStorageTest {
     }
   }
 
+  @Test
+  public void prefetch() throws Exception {
+    final LocalUserDB users = new LocalUserDB();
+    final User user = users.add("test", "test", "Test User", "test@example.com");
+    Assert.assertNotNull(user);
+    try (SharedContext sharedContext = SharedContext.create(Paths.get("/nonexistent"), "realm", new MapDbCacheStore(DBMaker.memoryDB().make()), Thread::new, Collections.singletonList(new WebServerConfig(0)))) {
+      final WebServer webServer = sharedContext.sure(WebServer.class);
+      sharedContext.add(LfsServer.class, new LfsServer("t0ken", 0, 0));
+      sharedContext.add(UserDB.class, users);
+      sharedContext.ready();
+      final LocalContext localContext = new LocalContext(sharedContext, "example");
+      localContext.add(VcsAccess.class, new VcsAccessNoAnonymous());
+      final LfsMemoryStorage backendStorage = new LfsMemoryStorage();
+      localContext.add(LfsStorage.class, backendStorage);
+      sharedContext.sure(LfsServer.class).register(localContext, backendStorage);
+
+      final List<Meta> objects = new ArrayList<>();
+      final List<byte[]> contents = new ArrayList<>();
+      for (int i = 0; i < 5; ++i) {
+        final byte[] data = ("Object " + i).getBytes(StandardCharsets.UTF_8);
+        final String oid;
+        try (LfsWriter writer = backendStorage.getWriter(user)) {
+          writer.write(data);
+          oid = writer.finish(null);
+        }
+        objects.add(new Meta(oid, data.length));
+        contents.add(data);
+      }
+
+      final URI url = webServer.getBaseUrl().resolve("example.git/").resolve(LfsServer.SERVLET_AUTH);
+      final GitAsSvnLfsHttpStorage storage = new GitAsSvnLfsHttpStorage(url, user);
+
+      // All objects are resolved by single batch request
+      storage.prefetch(objects);
+      Assert.assertEquals(storage.getRequests().stream().filter(request -> request.endsWith("/objects/batch")).count(), 1);
+
+      // Readers reuse prefetched download links without any request
+      storage.getRequests().clear();
+      final List<LfsReader> readers = new ArrayList<>();
+      for (Meta meta : objects) {
+        final LfsReader reader = storage.getReader(meta.getOid(), meta.getSize());
+        Assert.assertNotNull(reader);
+        Assert.assertEquals(reader.getSize(), meta.getSize());
+        readers.add(reader);
+      }
+      Assert.assertEquals(storage.getRequests(), Collections.emptyList());
+
+      for (int i = 0; i < readers.size(); ++i) {
+        try (InputStream stream = readers.get(i).openStream()) {
+          Assert.assertEquals(ByteStreams.toByteArray(stream), contents.get(i));
+        }
+      }
+    }
+  }
+
   private static final class GitAsSvnLfsHttpStorage extends LfsHttpStorage implements LfsStorageFactory, SharedConfig {
     @NotNull
     private final URI authUrl;
     @NotNull
     private final User user;
+    @NotNull
+    private final List<String> requests = new CopyOnWriteArrayList<>();
 
     private GitAsSvnLfsHttpStorage(@NotNull URI authUrl, @NotNull User user) {
       this.authUrl = authUrl;
       this.user = user;
     }
 
+    /**
+     * Paths of all HTTP requests made by this storage.
+     */
+    @NotNull
+    List<String> getRequests() {
+      return requests;
+    }
+
     @Override
     public @NotNull LfsStorage createStorage(@NotNull LocalContext context) {
       return this;
@@ -213,7 +286,10 @@ public final class LfsHttpStorageTest {
 
     @Override
     protected @NotNull Client lfsClient(@NotNull User unused) {
-      final CloseableHttpClient httpClient = LfsHttpStorage.createHttpClient();
+      final CloseableHttpClient httpClient = HttpClientBuilder.create()
+          .setDefaultRequestConfig(RequestConfig.custom().setCookieSpec(CookieSpecs.STANDARD).build())
+          .addInterceptorFirst((HttpRequestInterceptor) (request, context) -> requests.add(URI.create(request.getRequestLine().getUri()).getPath()))
+          .build();
 
       final CachedAuthProvider authProvider = new CachedAuthProvider() {
         @Override
@@ -0,0 +1,116 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.ext.web.token;
+
+import org.jose4j.jwt.NumericDate;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import svnserver.UserType;
+import svnserver.auth.User;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for TokenCache.
+ */
+public class TokenCacheTest {
+  @Test
+  public void cachedToken() {
+    final EncryptionFactory factory = new EncryptionFactoryAes("secret");
+    final TokenCache cache = new TokenCache(factory);
+    final User expected = User.create("foo", "bar", "foo@example.com", null, UserType.Local);
+    final String token = TokenHelper.createToken(factory.create(), expected, NumericDate.fromMilliseconds(System.currentTimeMillis() + 60000));
+
+    for (int pass = 0; pass < 3; ++pass) {
+      Assert.assertEquals(cache.parseToken(token, 0), expected);
+      // Token expires earlier than ensure time
+      Assert.assertNull(cache.parseToken(token, 120));
+    }
+  }
+
+  @Test
+  public void invalidToken() {
+    final User expected = User.create("foo", "bar", "foo@example.com", null, UserType.Local);
+    final TokenCache cache = new TokenCache(new EncryptionFactoryAes("small secret"));
+    final String token = TokenHelper.createToken(new EncryptionFactoryAes("big secret").create(), expected, NumericDate.fromMilliseconds(System.currentTimeMillis() + 60000));
+    Assert.assertNull(cache.parseToken(token, 0));
+    Assert.assertNull(cache.parseToken("foo", 0));
+    Assert.assertEquals(cache.size(), 0);
+  }
+
+  @Test
+  public void expiredToken() {
+    final EncryptionFactory factory = new EncryptionFactoryAes("secret");
+    final User expected = User.create("foo", "bar", "foo@example.com", null, UserType.Local);
+    final String token = TokenHelper.createToken(factory.create(), expected, NumericDate.fromMilliseconds(System.currentTimeMillis() - 2000));
+    final TokenCache cache = new TokenCache(factory);
+    Assert.assertNull(cache.parseToken(token, 0));
+    Assert.assertEquals(cache.size(), 0);
+  }
+
+  @Test
+  public void cachedTokenExpires() throws InterruptedException {
+    final EncryptionFactory factory = new EncryptionFactoryAes("secret");
+    final User expected = User.create("foo", "bar", "foo@example.com", null, UserType.Local);
+    final NumericDate expireAt = NumericDate.fromMilliseconds(System.currentTimeMillis() + 1000);
+    final String token = TokenHelper.createToken(factory.create(), expected, expireAt);
+    final TokenCache cache = new TokenCache(factory);
+
+    Assert.assertEquals(cache.parseToken(token, 0), expected);
+    Assert.assertEquals(cache.size(), 1);
+
+    // NumericDate has second precision
+    while (!expireAt.isBefore(NumericDate.now()))
+      Thread.sleep(100);
+
+    Assert.assertNull(cache.parseToken(token, 0));
+    Assert.assertEquals(cache.size(), 0);
+  }
+
+  @Test
+  public void tokensCachedSeparately() {
+    final EncryptionFactory factory = new EncryptionFactoryAes("secret");
+    final User foo = User.create("foo", "Foo", "foo@example.com", null, UserType.Local);
+    final User bar = User.create("bar", "Bar", "bar@example.com", null, UserType.Local);
+    final NumericDate expireAt = NumericDate.fromMilliseconds(System.currentTimeMillis() + 60000);
+    final String fooToken = TokenHelper.createToken(factory.create(), foo, expireAt);
+    final String barToken = TokenHelper.createToken(factory.create(), bar, expireAt);
+    final TokenCache cache = new TokenCache(factory);
+
+    for (int pass = 0; pass < 2; ++pass) {
+      Assert.assertEquals(cache.parseToken(fooToken, 0), foo);
+      Assert.assertEquals(cache.parseToken(barToken, 0), bar);
+    }
+    Assert.assertEquals(cache.size(), 2);
+  }
+
+  /**
+   * Per-request token validation overhead with and without cache.
+   */
+  @Test(groups = "benchmark")
+  public void parseOverhead() {
+    final EncryptionFactory factory = new EncryptionFactoryAes("secret");
+    final User expected = User.create("foo", "bar", "foo@example.com", null, UserType.Local);
+    final String token = TokenHelper.createToken(factory.create(), expected, NumericDate.fromMilliseconds(System.currentTimeMillis() + 60000));
+    final int count = 10000;
+
+    long start = System.nanoTime();
+    for (int i = 0; i < count; ++i)
+      Assert.assertEquals(TokenHelper.parseToken(factory.create(), token, 0), expected);
+    final long uncached = System.nanoTime() - start;
+
+    final TokenCache cache = new TokenCache(factory);
+    start = System.nanoTime();
+    for (int i = 0; i < count; ++i)
+      Assert.assertEquals(cache.parseToken(token, 0), expected);
+    final long cached = System.nanoTime() - start;
+
+    System.out.printf("Token validation: %d ns/request uncached, %d ns/request cached (%d ms total)%n",
+        uncached / count, cached / count, TimeUnit.NANOSECONDS.toMillis(uncached + cached));
+  }
+}
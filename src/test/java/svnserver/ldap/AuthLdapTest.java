@@ -18,6 +18,7 @@ import svnserver.SvnTestHelper;
 import svnserver.SvnTestServer;
 import svnserver.auth.User;
 import svnserver.auth.UserDB;
+import svnserver.auth.ldap.config.LdapUserDBConfig;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -109,6 +110,82 @@ public final class AuthLdapTest {
     }
   }
 
+  @DataProvider
+  public static Object[][] serverSetModes() {
+    final LdapUserDBConfig.ServerSetMode[] modes = LdapUserDBConfig.ServerSetMode.values();
+    final Object[][] result = new Object[modes.length][];
+    for (int i = 0; i < modes.length; ++i)
+      result[i] = new Object[]{modes[i]};
+
+    return result;
+  }
+
+  @Test(dataProvider = "serverSetModes")
+  public void failoverServer(@NotNull LdapUserDBConfig.ServerSetMode mode) throws Throwable {
+    try (
+        EmbeddedDirectoryServer ldap = EmbeddedDirectoryServer.create(RawDirectoryServerNet.instance);
+        EmbeddedDirectoryServer replica = EmbeddedDirectoryServer.create(RawDirectoryServerNet.instance);
+        SvnTestServer server = SvnTestServer.createEmpty(ldap.createUserConfig(mode, replica), false)
+    ) {
+      final UserDB userDB = server.getContext().sure(UserDB.class);
+      Assert.assertNotNull(userDB.check(EmbeddedDirectoryServer.ADMIN_USERNAME, EmbeddedDirectoryServer.ADMIN_PASSWORD));
+
+      ldap.close();
+      // Every request must succeed: pooled connections to stopped server are replaced by connections to replica
+      for (int i = 0; i < 10; ++i) {
+        Assert.assertNotNull(userDB.check("simple", "simple"));
+        Assert.assertNull(userDB.check("simple", "hacker"));
+      }
+    }
+  }
+
+  @Test
+  public void failoverToFirstServer() throws Throwable {
+    try (
+        EmbeddedDirectoryServer ldap = EmbeddedDirectoryServer.create(RawDirectoryServerNet.instance);
+        EmbeddedDirectoryServer replica = EmbeddedDirectoryServer.create(RawDirectoryServerNet.instance);
+        SvnTestServer server = SvnTestServer.createEmpty(ldap.createUserConfig(LdapUserDBConfig.ServerSetMode.Failover, replica), false)
+    ) {
+      final UserDB userDB = server.getContext().sure(UserDB.class);
+      replica.close();
+      for (int i = 0; i < 10; ++i)
+        Assert.assertNotNull(userDB.check("simple", "simple"));
+    }
+  }
+
+  /**
+   * Authentication throughput with round-robin connections to two servers.
+   */
+  @Test(groups = "benchmark")
+  public void authThroughput() throws Throwable {
+    try (
+        EmbeddedDirectoryServer ldap = EmbeddedDirectoryServer.create(RawDirectoryServerNet.instance);
+        EmbeddedDirectoryServer replica = EmbeddedDirectoryServer.create(RawDirectoryServerNet.instance);
+        SvnTestServer server = SvnTestServer.createEmpty(ldap.createUserConfig(LdapUserDBConfig.ServerSetMode.RoundRobin, replica), false)
+    ) {
+      final UserDB userDB = server.getContext().sure(UserDB.class);
+      final ExecutorService pool = Executors.newFixedThreadPool(10);
+      final AtomicBoolean done = new AtomicBoolean(false);
+
+      final List<Callable<Void>> tasks = new ArrayList<>();
+      for (int i = 0; i < 2000; ++i)
+        tasks.add(new SuccessAuth(userDB, done, "simple", "simple"));
+
+      try {
+        final long start = System.nanoTime();
+        for (Future<?> future : pool.invokeAll(tasks))
+          future.get(300, TimeUnit.SECONDS);
+
+        final long elapsed = System.nanoTime() - start;
+        System.out.printf("LDAP authentication: %d requests in %d ms (%.1f req/s)%n",
+            tasks.size(), TimeUnit.NANOSECONDS.toMillis(elapsed), tasks.size() * 1e9 / elapsed);
+      } finally {
+        done.set(true);
+        pool.shutdown();
+      }
+    }
+  }
+
   @Test(dataProvider = "sslModes")
   public void invalidPassword(@NotNull DirectoryServerNet serverNet) {
     Assert.expectThrows(SVNAuthenticationException.class, () -> checkUser(EmbeddedDirectoryServer.ADMIN_USERNAME, "wrongpassword", serverNet));
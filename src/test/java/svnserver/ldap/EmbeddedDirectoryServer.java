@@ -15,10 +15,11 @@ import org.jetbrains.annotations.NotNull;
 import svnserver.auth.ldap.config.LdapBind;
 import svnserver.auth.ldap.config.LdapBindPLAIN;
 import svnserver.auth.ldap.config.LdapUserDBConfig;
-import svnserver.config.UserDBConfig;
 
 import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Embedded LDAP server.
@@ -65,8 +66,24 @@ public final class EmbeddedDirectoryServer implements AutoCloseable {
     server.shutDown(true);
   }
 
-  @NotNull UserDBConfig createUserConfig() {
-    final String connectionUrl = String.format("%s://localhost:%s/%s", serverNet.getUrlSchema(), server.getListenPort(), baseDn);
+  @NotNull
+  private String getConnectionUrl() {
+    return String.format("%s://localhost:%s/%s", serverNet.getUrlSchema(), server.getListenPort(), baseDn);
+  }
+
+  @NotNull LdapUserDBConfig createUserConfig(@NotNull LdapUserDBConfig.ServerSetMode mode, @NotNull EmbeddedDirectoryServer... replicas) {
+    final LdapUserDBConfig config = createUserConfig();
+    final List<String> urls = new ArrayList<>();
+    for (EmbeddedDirectoryServer replica : replicas)
+      urls.add(replica.getConnectionUrl());
+
+    config.setAdditionalConnectionUrls(urls);
+    config.setServerSetMode(mode);
+    return config;
+  }
+
+  @NotNull LdapUserDBConfig createUserConfig() {
+    final String connectionUrl = getConnectionUrl();
     final LdapBind ldapBind = new LdapBindPLAIN("u:" + ADMIN_USERNAME, ADMIN_PASSWORD);
 
     return new LdapUserDBConfig(
@@ -0,0 +1,54 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Test for binary content detection.
+ */
+public final class GitBinaryDetectorTest {
+  @Test
+  public void simple() throws IOException {
+    check("", false);
+    check("Hello, world!\r\n\tIndented line\n", false);
+    check("Hello\0world", true);
+    check("Привет, мир!\n", false);
+  }
+
+  @Test
+  public void sameAsSubversion() throws IOException {
+    final Random random = new Random(0);
+    final byte[] buffer = new byte[GitBinaryDetector.PREFIX_SIZE];
+    for (int pass = 0; pass < 10000; ++pass) {
+      final int length = random.nextInt(buffer.length + 1);
+      // Vary share of non-text bytes to hit both sides of Subversion threshold
+      final int threshold = random.nextInt(256);
+      for (int i = 0; i < length; ++i) {
+        buffer[i] = random.nextInt(256) < threshold ? (byte) (1 + random.nextInt(255)) : (byte) ('a' + random.nextInt(26));
+      }
+      if (length > 0 && random.nextInt(4) == 0)
+        buffer[random.nextInt(length)] = 0;
+
+      final boolean expected = SVNFileUtil.detectMimeType(new ByteArrayInputStream(buffer, 0, length)) != null;
+      Assert.assertEquals(GitBinaryDetector.isBinary(buffer, length), expected);
+    }
+  }
+
+  private static void check(String content, boolean binary) throws IOException {
+    final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    Assert.assertEquals(GitBinaryDetector.isBinary(bytes, bytes.length), binary);
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheBuilder;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.internal.storage.dfs.DfsRepositoryDescription;
+import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.lib.*;
+import org.jetbrains.annotations.NotNull;
+import org.mapdb.DBMaker;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNProperty;
+import svnserver.TestHelper;
+import svnserver.cache.MapDbCacheStore;
+import svnserver.config.GitRepositoryConfig;
+import svnserver.context.LocalContext;
+import svnserver.context.SharedContext;
+import svnserver.repository.git.push.GitPushEmbedded;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Computed entry properties cache tests.
+ */
+public final class GitPropertiesCacheTest {
+  @NotNull
+  private static final String[] paths = {"", "/.gitattributes", "/a.txt", "/b.bin", "/run.sh", "/link", "/dir", "/dir/c.txt", "/dir/d.txt"};
+
+  /**
+   * Cached properties must be equal to properties computed from scratch.
+   */
+  @Test
+  public void cachedProperties() throws Exception {
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try (Repository git = new InMemoryRepository(new DfsRepositoryDescription(null))) {
+      git.create();
+      createCommit(git);
+
+      try (SharedContext warmContext = createContext(tempDir);
+           SharedContext coldContext = createContext(tempDir);
+           GitRepository warm = createRepository(warmContext, git);
+           GitRepository cold = createRepository(coldContext, git)) {
+        final GitRevision warmRevision = getLatestRevision(warm);
+        for (String path : paths) {
+          final Map<String, String> props = getProperties(warmRevision, path);
+          // New entry gets properties from repository cache
+          Assert.assertSame(getProperties(getLatestRevision(warm), path), props, path);
+          // Repository without cached properties computes the same map
+          Assert.assertEquals(getProperties(getLatestRevision(cold), path), props, path);
+          try {
+            props.put("test", "value");
+            Assert.fail(path);
+          } catch (UnsupportedOperationException ignored) {
+          }
+        }
+
+        Assert.assertEquals(getProperties(warmRevision, "/a.txt").get(SVNProperty.EOL_STYLE), SVNProperty.EOL_STYLE_LF);
+        Assert.assertEquals(getProperties(warmRevision, "/run.sh").get(SVNProperty.EXECUTABLE), "*");
+        Assert.assertEquals(getProperties(warmRevision, "/link").get(SVNProperty.SPECIAL), "*");
+        Assert.assertNotNull(getProperties(warmRevision, "/dir").get(SVNProperty.IGNORE));
+        // Same blob with different inherited properties
+        Assert.assertNull(getProperties(warmRevision, "/dir/c.txt").get(SVNProperty.EOL_STYLE));
+        Assert.assertEquals(getProperties(warmRevision, "/dir/d.txt").get(SVNProperty.EOL_STYLE), SVNProperty.EOL_STYLE_LF);
+      }
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @NotNull
+  private static Map<String, String> getProperties(@NotNull GitRevision revision, @NotNull String path) throws IOException {
+    final GitFile file = revision.getFile(path);
+    Assert.assertNotNull(file, path);
+    return file.getProperties();
+  }
+
+  @NotNull
+  private static GitRevision getLatestRevision(@NotNull GitRepository repository) throws Exception {
+    final GitBranch branch = repository.getBranches().get(Constants.MASTER);
+    branch.updateRevisions();
+    return branch.getLatestRevision();
+  }
+
+  @NotNull
+  private static SharedContext createContext(@NotNull Path basePath) throws Exception {
+    return SharedContext.create(basePath, "realm", new MapDbCacheStore(DBMaker.memoryDB().make()), Thread::new, Collections.emptyList());
+  }
+
+  @NotNull
+  private static GitRepository createRepository(@NotNull SharedContext context, @NotNull Repository git) throws IOException {
+    final LocalContext local = new LocalContext(context, "test");
+    return GitRepositoryConfig.createRepository(local, null, git, new GitPushEmbedded(local, null), Collections.singleton(Constants.MASTER), true);
+  }
+
+  private static void createCommit(@NotNull Repository git) throws IOException {
+    try (ObjectInserter inserter = git.newObjectInserter()) {
+      final DirCache cache = DirCache.newInCore();
+      final DirCacheBuilder builder = cache.builder();
+      add(builder, inserter, ".gitattributes", FileMode.REGULAR_FILE, "*.txt eol=lf\n*.bin binary\n");
+      add(builder, inserter, "a.txt", FileMode.REGULAR_FILE, "Content\n");
+      add(builder, inserter, "b.bin", FileMode.REGULAR_FILE, "Binary\n");
+      add(builder, inserter, "dir/.gitattributes", FileMode.REGULAR_FILE, "c.txt -text\n");
+      add(builder, inserter, "dir/.gitignore", FileMode.REGULAR_FILE, "*.tmp\n");
+      add(builder, inserter, "dir/c.txt", FileMode.REGULAR_FILE, "Content\n");
+      add(builder, inserter, "dir/d.txt", FileMode.REGULAR_FILE, "Content\n");
+      add(builder, inserter, "link", FileMode.SYMLINK, "a.txt");
+      add(builder, inserter, "run.sh", FileMode.EXECUTABLE_FILE, "#!/bin/sh\n");
+      builder.finish();
+
+      final CommitBuilder commit = new CommitBuilder();
+      commit.setTreeId(cache.writeTree(inserter));
+      final PersonIdent ident = new PersonIdent("test", "test@example.com");
+      commit.setAuthor(ident);
+      commit.setCommitter(ident);
+      commit.setMessage("Initial commit");
+      final ObjectId commitId = inserter.insert(commit);
+      inserter.flush();
+
+      final RefUpdate refUpdate = git.updateRef(Constants.R_HEADS + Constants.MASTER);
+      refUpdate.setNewObjectId(commitId);
+      Assert.assertEquals(refUpdate.update(), RefUpdate.Result.NEW);
+    }
+  }
+
+  private static void add(@NotNull DirCacheBuilder builder, @NotNull ObjectInserter inserter, @NotNull String path, @NotNull FileMode fileMode, @NotNull String content) throws IOException {
+    final DirCacheEntry entry = new DirCacheEntry(path);
+    entry.setFileMode(fileMode);
+    entry.setObjectId(inserter.insert(Constants.OBJ_BLOB, content.getBytes(StandardCharsets.UTF_8)));
+    builder.add(entry);
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.eclipse.jgit.internal.storage.file.FileRepository;
+import org.eclipse.jgit.lib.Constants;
+import org.jetbrains.annotations.NotNull;
+import org.mapdb.DBMaker;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import svnserver.TestHelper;
+import svnserver.cache.MapDbCacheStore;
+import svnserver.config.GitRepositoryConfig;
+import svnserver.context.LocalContext;
+import svnserver.context.SharedContext;
+import svnserver.repository.git.push.GitPushEmbedded;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Lazy repository loading tests.
+ */
+public final class GitRepositoryHolderTest {
+  @Test
+  public void unloadLeastRecentlyUsed() throws Exception {
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try (SharedContext context = createContext(tempDir)) {
+      final GitRepositoryHolder.Lru lru = new GitRepositoryHolder.Lru(1);
+      try (GitRepositoryHolder first = createHolder(context, tempDir, "first", lru);
+           GitRepositoryHolder second = createHolder(context, tempDir, "second", lru)) {
+        Assert.assertFalse(first.getBranches().isEmpty());
+        Assert.assertTrue(first.isLoaded());
+
+        Assert.assertFalse(second.getBranches().isEmpty());
+        Assert.assertTrue(second.isLoaded());
+        Assert.assertFalse(first.isLoaded());
+      }
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @Test
+  public void pinnedIsNotUnloaded() throws Exception {
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try (SharedContext context = createContext(tempDir)) {
+      final GitRepositoryHolder.Lru lru = new GitRepositoryHolder.Lru(1);
+      try (GitRepositoryHolder first = createHolder(context, tempDir, "first", lru);
+           GitRepositoryHolder second = createHolder(context, tempDir, "second", lru)) {
+        try (BranchProvider.Pin ignored = first.pin()) {
+          final GitBranch branch = first.getBranches().get(Constants.MASTER);
+          Assert.assertNotNull(branch);
+
+          // Unpinned repository is evicted instead of pinned one
+          Assert.assertFalse(second.getBranches().isEmpty());
+          Assert.assertTrue(first.isLoaded());
+          Assert.assertFalse(second.isLoaded());
+
+          // Session must see the same repository instance while it is pinned
+          Assert.assertSame(first.getBranches().get(Constants.MASTER).getRepository(), branch.getRepository());
+        }
+        Assert.assertTrue(first.isLoaded());
+
+        Assert.assertFalse(second.getBranches().isEmpty());
+        Assert.assertTrue(second.isLoaded());
+        Assert.assertFalse(first.isLoaded());
+      }
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @Test
+  public void unloadOnRelease() throws Exception {
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try (SharedContext context = createContext(tempDir)) {
+      final GitRepositoryHolder.Lru lru = new GitRepositoryHolder.Lru(1);
+      try (GitRepositoryHolder first = createHolder(context, tempDir, "first", lru);
+           GitRepositoryHolder second = createHolder(context, tempDir, "second", lru)) {
+        final BranchProvider.Pin firstPin1 = first.pin();
+        final BranchProvider.Pin firstPin2 = first.pin();
+        Assert.assertFalse(first.getBranches().isEmpty());
+        try (BranchProvider.Pin ignored = second.pin()) {
+          Assert.assertFalse(second.getBranches().isEmpty());
+          Assert.assertTrue(first.isLoaded());
+          Assert.assertTrue(second.isLoaded());
+
+          firstPin1.close();
+          // Closing the same pin twice must not release other session
+          firstPin1.close();
+          Assert.assertTrue(first.isLoaded());
+
+          // Repository is over the limit, so it is unloaded as soon as it becomes idle
+          firstPin2.close();
+          Assert.assertFalse(first.isLoaded());
+          Assert.assertTrue(second.isLoaded());
+        }
+        Assert.assertTrue(second.isLoaded());
+      }
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void pinClosed() throws Exception {
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try (SharedContext context = createContext(tempDir)) {
+      final GitRepositoryHolder holder = createHolder(context, tempDir, "closed", new GitRepositoryHolder.Lru(1));
+      holder.close();
+      holder.pin();
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @NotNull
+  private static SharedContext createContext(@NotNull Path basePath) throws Exception {
+    return SharedContext.create(basePath, "realm", new MapDbCacheStore(DBMaker.memoryDB().make()), Thread::new, Collections.emptyList());
+  }
+
+  @NotNull
+  private static GitRepositoryHolder createHolder(@NotNull SharedContext context, @NotNull Path basePath, @NotNull String name, @NotNull GitRepositoryHolder.Lru lru) {
+    final Set<String> branches = Collections.singleton(Constants.MASTER);
+    final Path path = basePath.resolve(name);
+    return new GitRepositoryHolder(name, () -> {
+      final LocalContext local = new LocalContext(context, name);
+      return GitRepositoryConfig.createRepository(
+          local,
+          null,
+          Files.exists(path) ? new FileRepository(path.toFile()) : GitCreateMode.EXAMPLE.createRepository(path, branches),
+          new GitPushEmbedded(local, null),
+          branches,
+          true
+      );
+    }, lru);
+  }
+}
@@ -0,0 +1,219 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.eclipse.jgit.internal.storage.dfs.DfsRepositoryDescription;
+import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.lib.*;
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Test for GitTreeUpdate.
+ */
+public final class GitTreeUpdateTest {
+  @Test
+  public void simple() throws Exception {
+    try (Repository repo = new InMemoryRepository(new DfsRepositoryDescription(null));
+         ObjectInserter inserter = repo.newObjectInserter()) {
+      final ObjectId blob = inserter.insert(Constants.OBJ_BLOB, "data".getBytes(StandardCharsets.UTF_8));
+      final List<GitTreeEntry> entries = new ArrayList<>();
+      entries.add(new GitTreeEntry(repo, FileMode.REGULAR_FILE, blob, "a"));
+      entries.add(new GitTreeEntry(repo, FileMode.REGULAR_FILE, blob, "b.txt"));
+      final ObjectId subtree = buildTree(inserter, entries);
+      entries.add(new GitTreeEntry(repo, FileMode.TREE, subtree, "b"));
+      entries.add(new GitTreeEntry(repo, FileMode.REGULAR_FILE, blob, "c"));
+      Collections.sort(entries);
+      final ObjectId treeId = buildTree(inserter, entries);
+
+      final GitTreeUpdate update = new GitTreeUpdate("", treeId, entries);
+      Assert.assertEquals(update.buildTree(inserter), treeId);
+      Assert.assertNotNull(update.get("b"));
+      Assert.assertNotNull(update.get("b.txt"));
+      Assert.assertNull(update.get("b/"));
+
+      // Restore of original entry is not a change
+      final GitTreeEntry removed = update.remove("b");
+      Assert.assertNotNull(removed);
+      Assert.assertFalse(update.contains("b"));
+      Assert.assertNull(update.put(removed));
+      Assert.assertEquals(update.buildTree(inserter), treeId);
+
+      update.remove("a");
+      update.put(new GitTreeEntry(repo, FileMode.REGULAR_FILE, blob, "b0"));
+      update.put(new GitTreeEntry(repo, FileMode.EXECUTABLE_FILE, blob, "c"));
+
+      final List<GitTreeEntry> expected = new ArrayList<>(entries);
+      expected.remove(0);
+      expected.removeIf(entry -> entry.getFileName().equals("c"));
+      expected.add(new GitTreeEntry(repo, FileMode.REGULAR_FILE, blob, "b0"));
+      expected.add(new GitTreeEntry(repo, FileMode.EXECUTABLE_FILE, blob, "c"));
+      Collections.sort(expected);
+      Assert.assertEquals(update.buildTree(inserter), buildTree(inserter, expected));
+      Assert.assertFalse(update.isEmpty());
+    }
+  }
+
+  /**
+   * Replace entries with entries of different type: file with directory and directory with file.
+   * <p>
+   * Directory names are sorted with trailing slash, so replaced entry changes its position in tree.
+   */
+  @Test
+  public void replaceType() throws Exception {
+    try (Repository repo = new InMemoryRepository(new DfsRepositoryDescription(null));
+         ObjectInserter inserter = repo.newObjectInserter()) {
+      final ObjectId blob = inserter.insert(Constants.OBJ_BLOB, "data".getBytes(StandardCharsets.UTF_8));
+      final ObjectId subtree = buildTree(inserter, Collections.singletonList(new GitTreeEntry(repo, FileMode.REGULAR_FILE, blob, "file")));
+      final List<GitTreeEntry> entries = new ArrayList<>();
+      entries.add(new GitTreeEntry(repo, FileMode.REGULAR_FILE, blob, "a"));
+      entries.add(new GitTreeEntry(repo, FileMode.REGULAR_FILE, blob, "a.txt"));
+      entries.add(new GitTreeEntry(repo, FileMode.TREE, subtree, "b"));
+      entries.add(new GitTreeEntry(repo, FileMode.REGULAR_FILE, blob, "b.txt"));
+      Collections.sort(entries);
+      final ObjectId treeId = buildTree(inserter, entries);
+
+      final GitTreeUpdate update = new GitTreeUpdate("", treeId, entries);
+      final GitTreeEntry oldFile = update.put(new GitTreeEntry(repo, FileMode.TREE, subtree, "a"));
+      Assert.assertNotNull(oldFile);
+      Assert.assertEquals(oldFile.getFileMode(), FileMode.REGULAR_FILE);
+      final GitTreeEntry oldDir = update.put(new GitTreeEntry(repo, FileMode.REGULAR_FILE, blob, "b"));
+      Assert.assertNotNull(oldDir);
+      Assert.assertEquals(oldDir.getFileMode(), FileMode.TREE);
+
+      Assert.assertEquals(update.get("a").getFileMode(), FileMode.TREE);
+      Assert.assertEquals(update.get("b").getFileMode(), FileMode.REGULAR_FILE);
+
+      final List<GitTreeEntry> expected = new ArrayList<>();
+      expected.add(new GitTreeEntry(repo, FileMode.REGULAR_FILE, blob, "a.txt"));
+      expected.add(new GitTreeEntry(repo, FileMode.TREE, subtree, "a"));
+      expected.add(new GitTreeEntry(repo, FileMode.REGULAR_FILE, blob, "b"));
+      expected.add(new GitTreeEntry(repo, FileMode.REGULAR_FILE, blob, "b.txt"));
+      final ObjectId result = update.buildTree(inserter);
+      Assert.assertEquals(result, buildTree(inserter, expected));
+      checkTree(inserter, result);
+
+      // Revert to original types
+      Assert.assertEquals(update.put(oldFile).getFileMode(), FileMode.TREE);
+      Assert.assertEquals(update.put(oldDir).getFileMode(), FileMode.REGULAR_FILE);
+      Assert.assertEquals(update.buildTree(inserter), treeId);
+    }
+  }
+
+  /**
+   * Remove entries and add them again.
+   */
+  @Test
+  public void removeAndAdd() throws Exception {
+    try (Repository repo = new InMemoryRepository(new DfsRepositoryDescription(null));
+         ObjectInserter inserter = repo.newObjectInserter()) {
+      final ObjectId blob = inserter.insert(Constants.OBJ_BLOB, "data".getBytes(StandardCharsets.UTF_8));
+      final ObjectId changed = inserter.insert(Constants.OBJ_BLOB, "changed".getBytes(StandardCharsets.UTF_8));
+      final ObjectId subtree = buildTree(inserter, Collections.singletonList(new GitTreeEntry(repo, FileMode.REGULAR_FILE, blob, "file")));
+      final List<GitTreeEntry> entries = new ArrayList<>();
+      entries.add(new GitTreeEntry(repo, FileMode.REGULAR_FILE, blob, "a"));
+      entries.add(new GitTreeEntry(repo, FileMode.TREE, subtree, "b"));
+      Collections.sort(entries);
+      final ObjectId treeId = buildTree(inserter, entries);
+
+      final GitTreeUpdate update = new GitTreeUpdate("", treeId, entries);
+
+      // Remove original entry and add it with other content
+      Assert.assertNotNull(update.remove("a"));
+      Assert.assertNull(update.remove("a"));
+      Assert.assertFalse(update.contains("a"));
+      Assert.assertNull(update.put(new GitTreeEntry(repo, FileMode.REGULAR_FILE, changed, "a")));
+      Assert.assertEquals(update.get("a").getObjectId().getObject(), changed);
+
+      // Remove directory and add file with the same name
+      Assert.assertNotNull(update.remove("b"));
+      Assert.assertNull(update.put(new GitTreeEntry(repo, FileMode.REGULAR_FILE, blob, "b")));
+
+      // Add new entry, remove it and add again
+      Assert.assertNull(update.put(new GitTreeEntry(repo, FileMode.REGULAR_FILE, blob, "c")));
+      Assert.assertNotNull(update.remove("c"));
+      Assert.assertFalse(update.contains("c"));
+      Assert.assertNull(update.put(new GitTreeEntry(repo, FileMode.REGULAR_FILE, changed, "c")));
+
+      final List<GitTreeEntry> expected = new ArrayList<>();
+      expected.add(new GitTreeEntry(repo, FileMode.REGULAR_FILE, changed, "a"));
+      expected.add(new GitTreeEntry(repo, FileMode.REGULAR_FILE, blob, "b"));
+      expected.add(new GitTreeEntry(repo, FileMode.REGULAR_FILE, changed, "c"));
+      final ObjectId result = update.buildTree(inserter);
+      Assert.assertEquals(result, buildTree(inserter, expected));
+      checkTree(inserter, result);
+
+      // Remove everything: tree is empty
+      update.remove("a");
+      update.remove("b");
+      update.remove("c");
+      Assert.assertTrue(update.isEmpty());
+
+      // Restore original entries
+      Assert.assertNull(update.put(entries.get(0)));
+      Assert.assertNull(update.put(entries.get(1)));
+      Assert.assertFalse(update.isEmpty());
+      Assert.assertEquals(update.buildTree(inserter), treeId);
+    }
+  }
+
+  /**
+   * Modify single file in wide directory.
+   */
+  @Test(groups = "benchmark")
+  public void wideDirectory() throws Exception {
+    final int size = Integer.parseInt(System.getProperty("git.benchmark.entries", "100000"));
+    final int passes = 10;
+    try (Repository repo = new InMemoryRepository(new DfsRepositoryDescription(null));
+         ObjectInserter inserter = repo.newObjectInserter()) {
+      final List<GitTreeEntry> entries = new ArrayList<>();
+      for (int i = 0; i < size; ++i) {
+        final ObjectId blob = inserter.insert(Constants.OBJ_BLOB, Integer.toString(i).getBytes(StandardCharsets.UTF_8));
+        entries.add(new GitTreeEntry(repo, FileMode.REGULAR_FILE, blob, String.format("file-%08d.txt", i)));
+      }
+      Collections.sort(entries);
+      final ObjectId treeId = buildTree(inserter, entries);
+      final ObjectId blob = inserter.insert(Constants.OBJ_BLOB, "changed".getBytes(StandardCharsets.UTF_8));
+
+      ObjectId result = null;
+      final long startTime = System.nanoTime();
+      for (int pass = 0; pass < passes; ++pass) {
+        final GitTreeUpdate update = new GitTreeUpdate("", treeId, entries);
+        update.put(new GitTreeEntry(repo, FileMode.REGULAR_FILE, blob, String.format("file-%08d.txt", size / 2)));
+        result = update.buildTree(inserter);
+      }
+      final long duration = System.nanoTime() - startTime;
+      System.out.printf("Modify one file in directory with %d entries: %.2fms per pass%n", size, duration / 1000000.0 / passes);
+
+      final List<GitTreeEntry> expected = new ArrayList<>(entries);
+      expected.set(size / 2, new GitTreeEntry(repo, FileMode.REGULAR_FILE, blob, String.format("file-%08d.txt", size / 2)));
+      Assert.assertEquals(result, buildTree(inserter, expected));
+    }
+  }
+
+  private static void checkTree(@NotNull ObjectInserter inserter, @NotNull ObjectId treeId) throws Exception {
+    try (ObjectReader reader = inserter.newReader()) {
+      // Also checks entries order
+      new ObjectChecker().checkTree(reader.open(treeId).getBytes());
+    }
+  }
+
+  @NotNull
+  private static ObjectId buildTree(@NotNull ObjectInserter inserter, @NotNull List<GitTreeEntry> entries) throws Exception {
+    final TreeFormatter formatter = new TreeFormatter();
+    for (GitTreeEntry entry : entries)
+      formatter.append(entry.getFileName(), entry.getFileMode(), entry.getObjectId().getObject());
+    return inserter.insert(formatter);
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git.filter;
+
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+import org.eclipse.jgit.lib.ObjectId;
+import org.mapdb.DBMaker;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import svnserver.cache.CacheCodec;
+import svnserver.cache.CacheStore;
+import svnserver.cache.MapDbCacheStore;
+
+import java.util.Map;
+
+/**
+ * Test for filter metadata cache.
+ */
+public final class GitFilterCacheTest {
+  private static final ObjectId objectId = ObjectId.fromString("2c6f6dd51d48ec8a7ff8c9d93d0f4ef1e2a5b5b1");
+  private static final String md5 = "9fe77772b085e3533101d59d33a51f19";
+
+  @Test
+  public void merge() throws DecoderException {
+    try (CacheStore store = new MapDbCacheStore(DBMaker.memoryDB().make())) {
+      final GitFilterCache cache = GitFilterCache.open("test", store);
+      Assert.assertNull(cache.getMd5(objectId));
+      Assert.assertNull(cache.getSize(objectId));
+      Assert.assertNull(cache.isBinary(objectId));
+
+      cache.putBinary(objectId, true);
+      Assert.assertNull(cache.getMd5(objectId));
+      Assert.assertNull(cache.getSize(objectId));
+      Assert.assertEquals(cache.isBinary(objectId), Boolean.TRUE);
+
+      cache.putMetadata(objectId, Hex.decodeHex(md5.toCharArray()), 1234567890123L);
+      Assert.assertEquals(cache.getMd5(objectId), md5);
+      Assert.assertEquals(cache.getSize(objectId), Long.valueOf(1234567890123L));
+      Assert.assertEquals(cache.isBinary(objectId), Boolean.TRUE);
+
+      // Reopened cache reads serialized entries
+      final GitFilterCache reopened = GitFilterCache.open("test", store);
+      Assert.assertEquals(reopened.getMd5(objectId), md5);
+      Assert.assertEquals(reopened.getSize(objectId), Long.valueOf(1234567890123L));
+      Assert.assertEquals(reopened.isBinary(objectId), Boolean.TRUE);
+    }
+  }
+
+  @Test
+  public void migrate() {
+    try (CacheStore store = new MapDbCacheStore(DBMaker.memoryDB().make())) {
+      final Map<String, String> oldMd5 = store.getHashMap("cache.filter.test.md5", CacheCodec.STRING, CacheCodec.STRING);
+      final Map<String, Long> oldSize = store.getHashMap("cache.filter.test.size", CacheCodec.STRING, CacheCodec.LONG);
+      oldMd5.put(objectId.name(), md5);
+      oldSize.put(objectId.name(), 15L);
+      oldMd5.put("invalid", md5);
+
+      final GitFilterCache cache = GitFilterCache.open("test", store);
+      Assert.assertEquals(cache.getMd5(objectId), md5);
+      Assert.assertEquals(cache.getSize(objectId), Long.valueOf(15L));
+      Assert.assertNull(cache.isBinary(objectId));
+      Assert.assertTrue(oldMd5.isEmpty());
+      Assert.assertTrue(oldSize.isEmpty());
+
+      // Second open finds nothing to migrate
+      final GitFilterCache reopened = GitFilterCache.open("test", store);
+      Assert.assertEquals(reopened.getMd5(objectId), md5);
+      Assert.assertEquals(reopened.getSize(objectId), Long.valueOf(15L));
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git.prop;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.jgit.lib.FileMode;
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Compare indexed properties matching with sequential one.
+ */
+public final class GitPropertyIndexTest {
+  @NotNull
+  private static final String[] names = {
+      "README.md", "main.c", "Main.java", "script.sh", "build.bat", "image.png", "image.PNG", "photo.jpeg", "archive.tar.gz",
+      "lib.so", "lib.so.1", "Makefile", "makefile", "Dockerfile", "gradlew", "gradlew.bat", "report.docx", "icon.ico",
+      "scene.unity", "prefab.prefab.meta", "model.fbx", "unknown", "unknown.ext", ".gitattributes", "md", "png",
+      "docs", "third_party", "build", "Assets", "Plugins", "src"
+  };
+
+  @Test
+  public void sameAsSequential() throws IOException {
+    final GitProperty[] props = loadProperties();
+    for (FileMode mode : new FileMode[]{FileMode.REGULAR_FILE, FileMode.EXECUTABLE_FILE, FileMode.TREE}) {
+      for (String name : names) {
+        final GitProperty[] expected = createForChild(props, name, mode);
+        // Index is built on second use of properties array
+        for (int pass = 0; pass < 2; ++pass)
+          Assert.assertEquals(GitProperty.joinProperties(props, name, mode, GitProperty.emptyArray), expected, name + " " + mode);
+      }
+    }
+    Assert.assertNotNull(GitPropertyIndex.get(props));
+  }
+
+  @Test
+  public void nestedDirectories() throws IOException {
+    final GitProperty[] root = loadProperties();
+    for (String dir : new String[]{"docs", "third_party", "Assets", "src"}) {
+      final GitProperty[] expectedDir = createForChild(root, dir, FileMode.TREE);
+      final GitProperty[] actualDir = GitProperty.joinProperties(root, dir, FileMode.TREE, GitProperty.emptyArray);
+      Assert.assertEquals(actualDir, expectedDir, dir);
+      for (String name : names) {
+        for (int pass = 0; pass < 2; ++pass)
+          Assert.assertEquals(GitProperty.joinProperties(actualDir, name, FileMode.REGULAR_FILE, GitProperty.emptyArray), createForChild(expectedDir, name, FileMode.REGULAR_FILE), dir + "/" + name);
+      }
+    }
+  }
+
+  /**
+   * Properties of wide directory with real world .gitattributes.
+   * <p>
+   * Entry count can be changed by git.benchmark.entries property.
+   */
+  @Test(groups = "benchmark")
+  public void wideDirectory() throws IOException {
+    final int size = Integer.parseInt(System.getProperty("git.benchmark.entries", "100000"));
+    final GitProperty[] props = loadProperties();
+    final String[] files = new String[size];
+    for (int i = 0; i < size; ++i) {
+      final String name = names[i % names.length];
+      files[i] = i + "-" + name;
+    }
+
+    for (int pass = 0; pass < 2; ++pass) {
+      long startTime = System.nanoTime();
+      for (String file : files)
+        createForChild(props, file, FileMode.REGULAR_FILE);
+      final long sequential = System.nanoTime() - startTime;
+
+      startTime = System.nanoTime();
+      for (String file : files)
+        GitProperty.joinProperties(props, file, FileMode.REGULAR_FILE, GitProperty.emptyArray);
+      final long indexed = System.nanoTime() - startTime;
+
+      System.out.printf("Properties for %d files with %d inherited properties: sequential %.2fms, indexed %.2fms%n", size, props.length, sequential / 1000000.0, indexed / 1000000.0);
+    }
+  }
+
+  @NotNull
+  private static GitProperty[] loadProperties() throws IOException {
+    final String content;
+    try (InputStream stream = GitPropertyIndexTest.class.getResourceAsStream("gitattributes.txt")) {
+      content = IOUtils.toString(stream, StandardCharsets.UTF_8);
+    }
+    final GitAttributesFactory factory = new GitAttributesFactory();
+    return GitProperty.joinProperties(factory.rootDefaults(), factory.create(content));
+  }
+
+  @NotNull
+  private static GitProperty[] createForChild(@NotNull GitProperty[] props, @NotNull String name, @NotNull FileMode mode) {
+    final GitProperty[] result = new GitProperty[props.length];
+    int count = 0;
+    for (GitProperty prop : props) {
+      final GitProperty child = prop.createForChild(name, mode);
+      if (child != null) {
+        result[count++] = child;
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+}
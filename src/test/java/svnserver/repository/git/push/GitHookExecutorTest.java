@@ -0,0 +1,219 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git.push;
+
+import org.eclipse.jgit.lib.*;
+import org.jetbrains.annotations.NotNull;
+import org.mapdb.DBMaker;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNException;
+import svnserver.TestHelper;
+import svnserver.VcsAccessEveryone;
+import svnserver.auth.LocalUserDB;
+import svnserver.auth.User;
+import svnserver.auth.UserDB;
+import svnserver.cache.MapDbCacheStore;
+import svnserver.context.LocalContext;
+import svnserver.context.SharedContext;
+import svnserver.repository.VcsAccess;
+import svnserver.repository.git.GitCreateMode;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hook execution tests.
+ */
+public final class GitHookExecutorTest {
+  @Test
+  public void asyncQueueFull() throws Exception {
+    final GitHookExecutor executor = new GitHookExecutor("test", 1, 0);
+    final List<String> executed = new CopyOnWriteArrayList<>();
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    try {
+      executor.submit("first", () -> {
+        started.countDown();
+        release.await();
+        executed.add("first:" + Thread.currentThread().getName());
+      });
+      Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+
+      executor.submit("second", () -> executed.add("second:" + Thread.currentThread().getName()));
+      Assert.assertEquals(executor.getQueueSize(), 1);
+
+      // Queue is full: hook must not be executed by committing thread
+      executor.submit("third", () -> executed.add("third:" + Thread.currentThread().getName()));
+      Assert.assertEquals(executor.getDroppedCount(), 1);
+      Assert.assertTrue(executed.isEmpty());
+    } finally {
+      release.countDown();
+      executor.close();
+    }
+    Assert.assertEquals(executed, Arrays.asList("first:hook-test", "second:hook-test"));
+  }
+
+  @Test
+  public void asyncRetry() throws Exception {
+    final GitHookExecutor executor = new GitHookExecutor("test", 10, 1);
+    final List<String> executed = new CopyOnWriteArrayList<>();
+    try {
+      executor.submit("post-receive", () -> {
+        executed.add(Thread.currentThread().getName());
+        if (executed.size() == 1)
+          throw new IOException("Failure");
+      });
+    } finally {
+      executor.close();
+    }
+    Assert.assertEquals(executed, Arrays.asList("hook-test", "hook-test"));
+  }
+
+  @Test
+  public void hookTimeout() throws Exception {
+    checkShell();
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try (SharedContext shared = createContext(tempDir);
+         Repository repository = createRepository(tempDir)) {
+      writeHook(repository, "pre-receive", "exec sleep 60");
+
+      final GitHookExecutor executor = new GitHookExecutor("test", 0, 0);
+      final GitPushEmbedded pusher = new GitPushEmbedded(createLocal(shared), null, executor, 500);
+      final ObjectId oldCommit = repository.resolve(Constants.MASTER);
+      final long start = System.nanoTime();
+      try {
+        pusher.push(repository, createCommit(repository, oldCommit, "test"), Constants.R_HEADS + Constants.MASTER, User.getAnonymous());
+        Assert.fail();
+      } catch (SVNException e) {
+        Assert.assertEquals(e.getErrorMessage().getErrorCode(), SVNErrorCode.REPOS_HOOK_FAILURE);
+      }
+      Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+      Assert.assertEquals(repository.resolve(Constants.MASTER), oldCommit);
+      Assert.assertNotNull(executor.getLatency("pre-receive"));
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @Test
+  public void hookTimeoutBackgroundChild() throws Exception {
+    checkShell();
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try (SharedContext shared = createContext(tempDir);
+         Repository repository = createRepository(tempDir)) {
+      // Hook exits at once, but its child keeps stdout open
+      writeHook(repository, "pre-receive", "sleep 60 &\nexit 0");
+
+      final GitPushEmbedded pusher = new GitPushEmbedded(createLocal(shared), null, new GitHookExecutor("test", 0, 0), 500);
+      final ObjectId oldCommit = repository.resolve(Constants.MASTER);
+      final long start = System.nanoTime();
+      try {
+        pusher.push(repository, createCommit(repository, oldCommit, "test"), Constants.R_HEADS + Constants.MASTER, User.getAnonymous());
+        Assert.fail();
+      } catch (SVNException e) {
+        Assert.assertEquals(e.getErrorMessage().getErrorCode(), SVNErrorCode.REPOS_HOOK_FAILURE);
+      }
+      Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+      Assert.assertEquals(repository.resolve(Constants.MASTER), oldCommit);
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @Test
+  public void asyncPostReceive() throws Exception {
+    checkShell();
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try (SharedContext shared = createContext(tempDir);
+         Repository repository = createRepository(tempDir)) {
+      // Hook waits for "release" file, so push can finish only if hook is executed in background
+      writeHook(repository, "post-receive", "while [ ! -f release ]; do sleep 0.1; done\ncat > result.tmp\nmv result.tmp result");
+
+      final GitHookExecutor executor = new GitHookExecutor("test", 10, 0);
+      final GitPushEmbedded pusher = new GitPushEmbedded(createLocal(shared), null, executor, 0);
+      final ObjectId oldCommit = repository.resolve(Constants.MASTER);
+      final ObjectId newCommit = createCommit(repository, oldCommit, "test");
+      try {
+        Assert.assertTrue(pusher.push(repository, newCommit, Constants.R_HEADS + Constants.MASTER, User.getAnonymous()));
+        Assert.assertEquals(repository.resolve(Constants.MASTER), newCommit);
+
+        final Path result = repository.getDirectory().toPath().resolve("result");
+        Assert.assertFalse(Files.exists(result));
+        Files.createFile(repository.getDirectory().toPath().resolve("release"));
+
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!Files.exists(result) && System.nanoTime() < deadline)
+          Thread.sleep(100);
+
+        Assert.assertEquals(new String(Files.readAllBytes(result), StandardCharsets.UTF_8), oldCommit.getName() + " " + newCommit.getName() + " " + Constants.R_HEADS + Constants.MASTER + "\n");
+      } finally {
+        executor.close();
+      }
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  static void checkShell() {
+    if (System.getProperty("os.name", "").toLowerCase().contains("windows"))
+      throw new SkipException("Hook scripts require POSIX shell");
+  }
+
+  @NotNull
+  static SharedContext createContext(@NotNull Path basePath) throws Exception {
+    final SharedContext shared = SharedContext.create(basePath, "realm", new MapDbCacheStore(DBMaker.memoryDB().make()), Thread::new, Collections.emptyList());
+    shared.add(UserDB.class, new LocalUserDB());
+    return shared;
+  }
+
+  @NotNull
+  static LocalContext createLocal(@NotNull SharedContext shared) {
+    final LocalContext local = new LocalContext(shared, "test");
+    local.add(VcsAccess.class, new VcsAccessEveryone());
+    return local;
+  }
+
+  @NotNull
+  static Repository createRepository(@NotNull Path basePath) throws IOException {
+    return GitCreateMode.EXAMPLE.createRepository(basePath.resolve("repo"), Collections.singleton(Constants.MASTER));
+  }
+
+  static void writeHook(@NotNull Repository repository, @NotNull String name, @NotNull String script) throws IOException {
+    final Path hook = repository.getDirectory().toPath().resolve("hooks").resolve(name);
+    Files.createDirectories(hook.getParent());
+    TestHelper.saveFile(hook, "#!/bin/sh\n" + script + "\n");
+    Assert.assertTrue(hook.toFile().setExecutable(true));
+  }
+
+  @NotNull
+  static ObjectId createCommit(@NotNull Repository repository, @NotNull ObjectId parent, @NotNull String message) throws IOException {
+    try (ObjectInserter inserter = repository.newObjectInserter()) {
+      final CommitBuilder commit = new CommitBuilder();
+      commit.setTreeId(inserter.insert(new TreeFormatter()));
+      commit.setParentId(parent);
+      final PersonIdent ident = new PersonIdent("test", "test@example.com");
+      commit.setAuthor(ident);
+      commit.setCommitter(ident);
+      commit.setMessage(message);
+      final ObjectId result = inserter.insert(commit);
+      inserter.flush();
+      return result;
+    }
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git.push;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNException;
+import svnserver.TestHelper;
+import svnserver.auth.User;
+import svnserver.context.SharedContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static svnserver.repository.git.push.GitHookExecutorTest.*;
+
+/**
+ * Push by native git client and by in-process receive-pack must behave the same way.
+ */
+public final class GitPushNativeTest {
+  @NotNull
+  private static final String BRANCH = Constants.R_HEADS + Constants.MASTER;
+
+  @DataProvider
+  public static Object[][] inProcessProvider() {
+    return new Object[][]{
+        new Object[]{false},
+        new Object[]{true},
+    };
+  }
+
+  @Test(dataProvider = "inProcessProvider")
+  public void accepted(boolean inProcess) throws Exception {
+    checkGit(inProcess);
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try (SharedContext shared = createContext(tempDir);
+         Repository repository = createRepository(tempDir)) {
+      writeHook(repository, "post-receive", "cat > post-receive.out");
+
+      final GitPushNative pusher = new GitPushNative(createLocal(shared), inProcess, 0);
+      final ObjectId oldCommit = repository.resolve(BRANCH);
+      final ObjectId newCommit = createCommit(repository, oldCommit, "accepted");
+      Assert.assertTrue(pusher.push(repository, newCommit, BRANCH, User.getAnonymous()));
+      Assert.assertEquals(repository.resolve(BRANCH), newCommit);
+
+      final Path output = repository.getDirectory().toPath().resolve("post-receive.out");
+      Assert.assertEquals(new String(Files.readAllBytes(output), StandardCharsets.UTF_8), oldCommit.getName() + " " + newCommit.getName() + " " + BRANCH + "\n");
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @Test(dataProvider = "inProcessProvider")
+  public void hookRejected(boolean inProcess) throws Exception {
+    checkGit(inProcess);
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try (SharedContext shared = createContext(tempDir);
+         Repository repository = createRepository(tempDir)) {
+      writeHook(repository, "pre-receive", "echo Rejected by test hook\nexit 1");
+
+      final GitPushNative pusher = new GitPushNative(createLocal(shared), inProcess, 0);
+      final ObjectId oldCommit = repository.resolve(BRANCH);
+      try {
+        pusher.push(repository, createCommit(repository, oldCommit, "rejected"), BRANCH, User.getAnonymous());
+        Assert.fail();
+      } catch (SVNException e) {
+        Assert.assertEquals(e.getErrorMessage().getErrorCode(), SVNErrorCode.REPOS_HOOK_FAILURE);
+        Assert.assertTrue(e.getMessage().contains("Rejected by test hook"), e.getMessage());
+      }
+      Assert.assertEquals(repository.resolve(BRANCH), oldCommit);
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @Test(dataProvider = "inProcessProvider")
+  public void nonFastForward(boolean inProcess) throws Exception {
+    checkGit(inProcess);
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try (SharedContext shared = createContext(tempDir);
+         Repository repository = createRepository(tempDir)) {
+      final GitPushNative pusher = new GitPushNative(createLocal(shared), inProcess, 0);
+      final ObjectId baseCommit = repository.resolve(BRANCH);
+      final ObjectId firstCommit = createCommit(repository, baseCommit, "first");
+      Assert.assertTrue(pusher.push(repository, firstCommit, BRANCH, User.getAnonymous()));
+
+      // Commit based on outdated branch state
+      Assert.assertFalse(pusher.push(repository, createCommit(repository, baseCommit, "second"), BRANCH, User.getAnonymous()));
+      Assert.assertEquals(repository.resolve(BRANCH), firstCommit);
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @Test(dataProvider = "inProcessProvider")
+  public void concurrentPush(boolean inProcess) throws Exception {
+    checkGit(inProcess);
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try (SharedContext shared = createContext(tempDir);
+         Repository repository = createRepository(tempDir)) {
+      writeHook(repository, "pre-receive", "cat >> pre-receive.out");
+
+      final ObjectId baseCommit = repository.resolve(BRANCH);
+      final ObjectId ourCommit = createCommit(repository, baseCommit, "ours");
+
+      // Another push moves branch after our commit was created
+      final ObjectId theirCommit = createCommit(repository, baseCommit, "theirs");
+      Assert.assertTrue(new GitPushNative(createLocal(shared), inProcess, 0).push(repository, theirCommit, BRANCH, User.getAnonymous()));
+
+      Assert.assertFalse(new GitPushNative(createLocal(shared), inProcess, 0).push(repository, ourCommit, BRANCH, User.getAnonymous()));
+      Assert.assertEquals(repository.resolve(BRANCH), theirCommit);
+
+      // Rejected command must not reach hooks
+      final Path output = repository.getDirectory().toPath().resolve("pre-receive.out");
+      Assert.assertEquals(new String(Files.readAllBytes(output), StandardCharsets.UTF_8), baseCommit.getName() + " " + theirCommit.getName() + " " + BRANCH + "\n");
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @Test
+  public void inProcessHookTimeout() throws Exception {
+    checkGit(true);
+    final Path tempDir = TestHelper.createTempDir("git-as-svn");
+    try (SharedContext shared = createContext(tempDir);
+         Repository repository = createRepository(tempDir)) {
+      writeHook(repository, "pre-receive", "exec sleep 60");
+
+      final GitPushNative pusher = new GitPushNative(createLocal(shared), true, 500);
+      final ObjectId oldCommit = repository.resolve(BRANCH);
+      final long start = System.nanoTime();
+      try {
+        pusher.push(repository, createCommit(repository, oldCommit, "timeout"), BRANCH, User.getAnonymous());
+        Assert.fail();
+      } catch (SVNException e) {
+        Assert.assertEquals(e.getErrorMessage().getErrorCode(), SVNErrorCode.REPOS_HOOK_FAILURE);
+        Assert.assertTrue(e.getMessage().contains("timed out"), e.getMessage());
+      }
+      Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+      Assert.assertEquals(repository.resolve(BRANCH), oldCommit);
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  private static void checkGit(boolean inProcess) throws InterruptedException {
+    checkShell();
+    if (inProcess)
+      return;
+
+    try {
+      if (new ProcessBuilder("git", "--version").start().waitFor() == 0)
+        return;
+    } catch (IOException ignored) {
+    }
+    throw new SkipException("Native git executable not found");
+  }
+}
@@ -81,6 +81,23 @@ public class RepositoryListMappingTest {
     checkMapped(map, "/foo.test/", "/foo.test/foo");
   }
 
+  @Test
+  public void testNestedRepositories() {
+    final TreeMap<String, String> map = new Builder()
+        .add("/foo/")
+        .add("/foo/bar/")
+        .add("/foo/bar/bazz/")
+        .add("/foo/barr")
+        .build();
+    checkMapped(map, null, "/bar");
+    checkMapped(map, "/foo/", "/foo");
+    checkMapped(map, "/foo/", "/foo/ba");
+    checkMapped(map, "/foo/bar/", "/foo/bar");
+    checkMapped(map, "/foo/bar/", "/foo/bar/bazz2/bazz");
+    checkMapped(map, "/foo/bar/bazz/", "/foo/bar/bazz/foo/bar");
+    checkMapped(map, "/foo/barr", "/foo/barr/bazz");
+  }
+
   public static class Builder {
     @NotNull
     private final Map<String, String> mapping = new TreeMap<>();
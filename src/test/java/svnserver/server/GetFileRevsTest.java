@@ -9,18 +9,29 @@ package svnserver.server;
 
 import org.jetbrains.annotations.NotNull;
 import org.testng.Assert;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 import org.tmatesoft.svn.core.SVNErrorCode;
 import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.io.ISVNFileRevisionHandler;
 import org.tmatesoft.svn.core.io.SVNCapability;
 import org.tmatesoft.svn.core.io.SVNFileRevision;
 import org.tmatesoft.svn.core.io.SVNRepository;
+import org.tmatesoft.svn.core.io.diff.SVNDeltaProcessor;
+import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
+import svnserver.SvnTestServer;
+import svnserver.config.DeltaCacheConfig;
+import svnserver.config.SharedConfig;
 import svnserver.tester.SvnTester;
 import svnserver.tester.SvnTesterDataProvider;
 import svnserver.tester.SvnTesterExternalListener;
 import svnserver.tester.SvnTesterFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -60,6 +71,113 @@ public final class GetFileRevsTest {
     }
   }
 
+  @DataProvider
+  public static Object[][] deltaCache() {
+    return new Object[][]{{false}, {true}};
+  }
+
+  /**
+   * Repeated blame-like request must return same content: second request uses cached deltas.
+   */
+  @Test(dataProvider = "deltaCache")
+  public void blameTwice(boolean deltaCache) throws Exception {
+    final SharedConfig[] shared = deltaCache ? new SharedConfig[]{new DeltaCacheConfig()} : new SharedConfig[0];
+    try (SvnTestServer server = SvnTestServer.createEmpty(null, false, shared)) {
+      final SVNRepository repository = server.openSvnRepository();
+
+      final List<String> expected = new ArrayList<>();
+      final StringBuilder content = new StringBuilder();
+      for (int i = 0; i < 10; ++i) {
+        content.append("line ").append(i).append('\n');
+        final String text = content.toString().replace("line " + (i / 2), "changed " + i);
+        if (i == 0) {
+          createFile(repository, fileName, text, propsEolNative);
+        } else {
+          modifyFile(repository, fileName, text, repository.getLatestRevision());
+        }
+        expected.add(text);
+      }
+
+      final long latestRevision = repository.getLatestRevision();
+      Assert.assertEquals(getFileContents(repository, latestRevision), expected);
+      Assert.assertEquals(getFileContents(repository, latestRevision), expected);
+      Assert.assertEquals(getFileContents(repository, latestRevision - 1), expected.subList(0, expected.size() - 1));
+    }
+  }
+
+  /**
+   * Blame-like history request on file with long history.
+   * <p>
+   * Revision count can be changed by svn.benchmark.revisions property (10000 for real benchmark).
+   */
+  @Test(dataProvider = "deltaCache", groups = "benchmark")
+  public void longHistory(boolean deltaCache) throws Exception {
+    final int size = Integer.parseInt(System.getProperty("svn.benchmark.revisions", "200"));
+    final int passes = 10;
+    final SharedConfig[] shared = deltaCache ? new SharedConfig[]{new DeltaCacheConfig()} : new SharedConfig[0];
+    try (SvnTestServer server = SvnTestServer.createEmpty(null, false, shared)) {
+      final SVNRepository repository = server.openSvnRepository();
+
+      createFile(repository, fileName, "0\n", propsEolNative);
+      for (int i = 1; i < size; ++i)
+        modifyFile(repository, fileName, i + "\n", repository.getLatestRevision());
+
+      final long latestRevision = repository.getLatestRevision();
+      final long startTime = System.nanoTime();
+      for (int pass = 0; pass < passes; ++pass) {
+        final List<SVNFileRevision> fileRevisions = new ArrayList<>();
+        repository.getFileRevisions(fileName, fileRevisions, 0, latestRevision);
+        Assert.assertEquals(fileRevisions.size(), size);
+        Assert.assertEquals(fileRevisions.get(size - 1).getRevision(), latestRevision);
+      }
+      final long duration = System.nanoTime() - startTime;
+      System.out.printf("Get file revisions for file with %d revisions (delta cache: %s): %.2fms per pass%n", size, deltaCache, duration / 1000000.0 / passes);
+    }
+  }
+
+  /**
+   * @return File content in every revision, restored from get-file-revs deltas.
+   */
+  @NotNull
+  private static List<String> getFileContents(@NotNull SVNRepository repository, long endRev) throws SVNException {
+    final List<String> result = new ArrayList<>();
+    repository.getFileRevisions(fileName, 0, endRev, new ISVNFileRevisionHandler() {
+      @NotNull
+      private final SVNDeltaProcessor processor = new SVNDeltaProcessor();
+      @NotNull
+      private byte[] content = new byte[0];
+      @NotNull
+      private ByteArrayOutputStream target = new ByteArrayOutputStream();
+
+      @Override
+      public void openRevision(SVNFileRevision fileRevision) {
+      }
+
+      @Override
+      public void closeRevision(String token) {
+      }
+
+      @Override
+      public void applyTextDelta(String path, String baseChecksum) {
+        target = new ByteArrayOutputStream();
+        processor.applyTextDelta(new ByteArrayInputStream(content), target, false);
+      }
+
+      @Override
+      public OutputStream textDeltaChunk(String path, SVNDiffWindow diffWindow) throws SVNException {
+        return processor.textDeltaChunk(diffWindow);
+      }
+
+      @Override
+      public void textDeltaEnd(String path) {
+        processor.textDeltaEnd();
+        content = target.toByteArray();
+        result.add(new String(content, StandardCharsets.UTF_8));
+      }
+    });
+    return result;
+  }
+
   private void assertFileRevisions(@NotNull SVNRepository repository, long startRev, long endRev, long... expected) throws SVNException {
     final List<SVNFileRevision> fileRevisions = new ArrayList<>();
 
@@ -0,0 +1,350 @@
+/*
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server;
+
+import com.google.common.collect.ImmutableMap;
+import org.eclipse.jgit.internal.storage.dfs.DfsRepositoryDescription;
+import org.eclipse.jgit.internal.storage.dfs.InMemoryRepository;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Repository;
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.*;
+import org.tmatesoft.svn.core.io.ISVNEditor;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import svnserver.StringHelper;
+import svnserver.SvnTestServer;
+import svnserver.auth.ACL;
+import svnserver.config.GitRepositoryConfig;
+import svnserver.context.LocalContext;
+import svnserver.ext.gitlfs.storage.LfsStorageFactory;
+import svnserver.parser.SvnServerParser;
+import svnserver.parser.SvnServerToken;
+import svnserver.parser.SvnServerWriter;
+import svnserver.parser.token.*;
+import svnserver.repository.VcsAccess;
+import svnserver.repository.git.GitRepository;
+import svnserver.repository.git.push.GitPushEmbedded;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static svnserver.SvnTestHelper.createFile;
+import static svnserver.SvnTestHelper.sendDeltaAndClose;
+
+/**
+ * Protocol-level tests for list command.
+ */
+public final class ListCmdTest {
+  @NotNull
+  private static final String[] allFields = {"kind", "size", "has-props", "created-rev", "time", "last-author"};
+
+  @Test
+  public void direntFields() throws Exception {
+    try (Repository git = createRepository();
+         SvnTestServer server = createServer(git);
+         Connection connection = new Connection(server, SvnTestServer.USER_NAME)) {
+      Assert.assertEquals(connection.list("", "files", new String[]{"kind"}), Arrays.asList(
+          "( \"\" dir )",
+          "( \"a.txt\" file )"
+      ));
+      Assert.assertEquals(connection.list("a.txt", "empty", new String[]{"kind", "size", "last-author"}), Collections.singletonList(
+          "( \"\" file ( 3 ) ( ) ( ) ( ) ( \"Test User <foo@bar.org>\" ) )"
+      ));
+      Assert.assertEquals(connection.list("secret/c.dat", "empty", new String[]{"has-props", "created-rev"}), Collections.singletonList(
+          "( \"\" file ( ) ( true ) ( 3 ) ( ) ( ) )"
+      ));
+      Assert.assertEquals(connection.list("dir", "immediates", new String[]{"has-props", "created-rev"}).get(1),
+          "( \"b.txt\" file ( ) ( false ) ( 2 ) ( ) ( ) )"
+      );
+
+      final List<String> all = connection.list("a.txt", "empty", allFields);
+      Assert.assertEquals(all.size(), 1);
+      Assert.assertTrue(all.get(0).matches("\\( \"\" file \\( 3 \\) \\( false \\) \\( 1 \\) \\( \"\\d{4}-\\d{2}-\\d{2}T[^\"]+\" \\) \\( \"Test User <foo@bar.org>\" \\) \\)"), all.get(0));
+    }
+  }
+
+  @Test
+  public void depth() throws Exception {
+    try (Repository git = createRepository();
+         SvnTestServer server = createServer(git);
+         Connection connection = new Connection(server, SvnTestServer.USER_NAME)) {
+      Assert.assertEquals(connection.listPaths("", "empty"), Collections.singletonList(""));
+      Assert.assertEquals(connection.listPaths("", "files"), Arrays.asList("", "a.txt"));
+      Assert.assertEquals(connection.listPaths("", "immediates"), Arrays.asList("", "a.txt", "dir", "secret"));
+      Assert.assertEquals(connection.listPaths("", "infinity"), Arrays.asList("", "a.txt", "dir", "dir/b.txt", "secret", "secret/c.dat"));
+      Assert.assertEquals(connection.listPaths("dir", "infinity"), Arrays.asList("", "b.txt"));
+      Assert.assertEquals(connection.listPaths("a.txt", "infinity"), Collections.singletonList(""));
+    }
+  }
+
+  @Test
+  public void patterns() throws Exception {
+    try (Repository git = createRepository();
+         SvnTestServer server = createServer(git);
+         Connection connection = new Connection(server, SvnTestServer.USER_NAME)) {
+      Assert.assertEquals(connection.listPaths("", "infinity", "*.txt"), Arrays.asList("a.txt", "dir/b.txt"));
+      Assert.assertEquals(connection.listPaths("", "infinity", "b.*", "c.*"), Arrays.asList("dir/b.txt", "secret/c.dat"));
+      Assert.assertEquals(connection.listPaths("", "immediates", "*.txt"), Collections.singletonList("a.txt"));
+      Assert.assertEquals(connection.listPaths("", "infinity", "secret"), Collections.singletonList("secret"));
+      Assert.assertEquals(connection.listPaths("", "infinity", "*.bin"), Collections.emptyList());
+    }
+  }
+
+  @Test
+  public void acl() throws Exception {
+    try (Repository git = createRepository();
+         SvnTestServer server = createServer(git)) {
+      try (Connection connection = new Connection(server, SvnTestServer.USER_NAME_NO_MAIL)) {
+        Assert.assertEquals(connection.listPaths("", "infinity"), Arrays.asList("", "a.txt", "dir", "dir/b.txt"));
+        try {
+          connection.listPaths("secret", "infinity");
+          Assert.fail();
+        } catch (SVNException e) {
+          Assert.assertEquals(e.getErrorMessage().getErrorCode(), SVNErrorCode.AUTHZ_UNREADABLE);
+        }
+      }
+      try (Connection connection = new Connection(server, SvnTestServer.USER_NAME)) {
+        Assert.assertEquals(connection.listPaths("secret", "infinity"), Arrays.asList("", "c.dat"));
+      }
+    }
+  }
+
+  @Test
+  public void notFound() throws Exception {
+    try (Repository git = createRepository();
+         SvnTestServer server = createServer(git);
+         Connection connection = new Connection(server, SvnTestServer.USER_NAME)) {
+      try {
+        connection.listPaths("missing", "infinity");
+        Assert.fail();
+      } catch (SVNException e) {
+        Assert.assertEquals(e.getErrorMessage().getErrorCode(), SVNErrorCode.ENTRY_NOT_FOUND);
+      }
+      // Connection is still usable
+      Assert.assertEquals(connection.listPaths("", "files"), Arrays.asList("", "a.txt"));
+    }
+  }
+
+  @NotNull
+  private static Repository createRepository() throws IOException {
+    final Repository repository = new InMemoryRepository(new DfsRepositoryDescription(null));
+    repository.create();
+    return repository;
+  }
+
+  /**
+   * Create server with content:
+   * <pre>
+   *   r1: /a.txt
+   *   r2: /dir/b.txt
+   *   r3: /secret/c.dat (executable, unreadable for user without mail)
+   * </pre>
+   */
+  @NotNull
+  private static SvnTestServer createServer(@NotNull Repository git) throws Exception {
+    final VcsAccess acl = new ACL(Collections.emptyMap(), ImmutableMap.<String, Map<String, String>>builder()
+        .put("/", Collections.singletonMap("*", "rw"))
+        .put("/secret", Collections.singletonMap(SvnTestServer.USER_NAME_NO_MAIL, ""))
+        .build());
+    final SvnTestServer server = SvnTestServer.createEmpty(null, path -> (context, canUseParallelIndexing) -> {
+      final LocalContext local = new LocalContext(context, "test");
+      local.add(VcsAccess.class, acl);
+      final GitRepository repository = GitRepositoryConfig.createRepository(
+          local,
+          LfsStorageFactory.tryCreateStorage(local),
+          git,
+          new GitPushEmbedded(local, null),
+          Collections.singleton(Constants.MASTER),
+          true
+      );
+      return () -> new TreeMap<>(Collections.singletonMap("", repository));
+    }, false, SvnTestServer.LfsMode.None);
+
+    final SVNRepository repo = server.openSvnRepository();
+    createFile(repo, "a.txt", "aaa", null);
+    createDirWithFile(repo, "dir", "dir/b.txt", Collections.emptyMap());
+    createDirWithFile(repo, "secret", "secret/c.dat", Collections.singletonMap(SVNProperty.EXECUTABLE, "*"));
+    return server;
+  }
+
+  private static void createDirWithFile(@NotNull SVNRepository repo, @NotNull String dirPath, @NotNull String filePath, @NotNull Map<String, String> props) throws Exception {
+    final ISVNEditor editor = repo.getCommitEditor("Create directory: " + dirPath, null, false, null);
+    editor.openRoot(-1);
+    editor.addDir(dirPath, null, -1);
+    editor.addFile(filePath, null, -1);
+    for (Map.Entry<String, String> entry : props.entrySet())
+      editor.changeFileProperty(filePath, entry.getKey(), SVNPropertyValue.create(entry.getValue()));
+    sendDeltaAndClose(editor, filePath, null, "Content");
+    editor.closeDir();
+    editor.closeDir();
+    Assert.assertNotEquals(editor.closeEdit(), SVNCommitInfo.NULL);
+  }
+
+  /**
+   * Raw svn protocol connection: SVNKit can't send list command.
+   */
+  private static final class Connection implements AutoCloseable {
+    @NotNull
+    private final Socket socket;
+    @NotNull
+    private final SvnServerParser parser;
+    @NotNull
+    private final SvnServerWriter writer;
+
+    private Connection(@NotNull SvnTestServer server, @NotNull String userName) throws Exception {
+      final SVNURL url = server.getUrl();
+      socket = new Socket(url.getHost(), url.getPort());
+      parser = new SvnServerParser(socket.getInputStream());
+      writer = new SvnServerWriter(socket.getOutputStream());
+
+      // Greeting
+      readResponse();
+      writer
+          .listBegin()
+          .number(2)
+          .listBegin()
+          .word("edit-pipeline")
+          .word("depth")
+          .listEnd()
+          .string(url.toString())
+          .string("test")
+          .listBegin()
+          .listEnd()
+          .listEnd();
+
+      // Authentication
+      readResponse();
+      writer
+          .listBegin()
+          .word("CRAM-MD5")
+          .listBegin()
+          .listEnd()
+          .listEnd();
+      parser.readToken(ListBeginToken.class);
+      Assert.assertEquals(parser.readText(), "step");
+      parser.readToken(ListBeginToken.class);
+      final String challenge = parser.readText();
+      parser.readToken(ListEndToken.class);
+      parser.readToken(ListEndToken.class);
+      writer.string(userName + ' ' + hmac(challenge, SvnTestServer.PASSWORD));
+      readResponse();
+
+      // Repository info
+      readResponse();
+    }
+
+    @NotNull
+    private List<String> listPaths(@NotNull String path, @NotNull String depth, @NotNull String... patterns) throws IOException, SVNException {
+      final List<String> result = new ArrayList<>();
+      for (String dirent : list(path, depth, new String[]{"kind"}, patterns)) {
+        // ( "path" kind )
+        result.add(dirent.substring(3, dirent.lastIndexOf('"')));
+      }
+      return result;
+    }
+
+    /**
+     * @return Dirents in text form.
+     */
+    @NotNull
+    private List<String> list(@NotNull String path, @NotNull String depth, @NotNull String[] fields, @NotNull String... patterns) throws IOException, SVNException {
+      writer
+          .listBegin()
+          .word("list")
+          .listBegin()
+          .string(path)
+          .listBegin()
+          .listEnd()
+          .word(depth)
+          .listBegin();
+      for (String field : fields)
+        writer.word(field);
+      writer
+          .listEnd()
+          .listBegin();
+      for (String pattern : patterns)
+        writer.string(pattern);
+      writer
+          .listEnd()
+          .listEnd()
+          .listEnd();
+
+      // Authentication request
+      readResponse();
+
+      final List<String> result = new ArrayList<>();
+      while (true) {
+        final SvnServerToken token = parser.readToken(SvnServerToken.class);
+        if (token instanceof WordToken) {
+          Assert.assertEquals(((WordToken) token).getText(), "done");
+          break;
+        }
+        Assert.assertEquals(token, ListBeginToken.instance);
+        result.add(readList());
+      }
+      readResponse();
+      return result;
+    }
+
+    private void readResponse() throws IOException, SVNException {
+      parser.readToken(ListBeginToken.class);
+      final String status = parser.readText();
+      if (status.equals("failure")) {
+        // ( failure ( ( code message file line ) ) )
+        parser.readToken(ListBeginToken.class);
+        parser.readToken(ListBeginToken.class);
+        final int code = parser.readNumber();
+        parser.skipItems();
+        parser.readToken(ListEndToken.class);
+        parser.readToken(ListEndToken.class);
+        throw new SVNException(SVNErrorMessage.create(SVNErrorCode.getErrorCode(code)));
+      }
+      Assert.assertEquals(status, "success");
+      parser.skipItems();
+    }
+
+    @NotNull
+    private String readList() throws IOException {
+      final StringBuilder result = new StringBuilder("(");
+      while (true) {
+        final SvnServerToken token = parser.readToken(SvnServerToken.class);
+        if (token instanceof ListEndToken)
+          return result.append(" )").toString();
+
+        result.append(' ');
+        if (token instanceof ListBeginToken) {
+          result.append(readList());
+        } else if (token instanceof NumberToken) {
+          result.append(((NumberToken) token).getNumber());
+        } else if (token instanceof StringToken) {
+          result.append('"').append(((StringToken) token).getText()).append('"');
+        } else {
+          result.append(((TextToken) token).getText());
+        }
+      }
+    }
+
+    @NotNull
+    private static String hmac(@NotNull String challenge, @NotNull String password) throws Exception {
+      final Mac mac = Mac.getInstance("HmacMD5");
+      mac.init(new SecretKeySpec(password.getBytes(StandardCharsets.UTF_8), "HmacMD5"));
+      return StringHelper.toHex(mac.doFinal(challenge.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public void close() throws IOException {
+      socket.close();
+    }
+  }
+}
@@ -8,6 +8,12 @@
 package svnserver.server;
 
 import com.google.common.collect.ImmutableMap;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheBuilder;
+import org.eclipse.jgit.dircache.DirCacheEditor;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.lib.*;
+import org.eclipse.jgit.revwalk.RevWalk;
 import org.jetbrains.annotations.NotNull;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -17,6 +23,7 @@ import org.tmatesoft.svn.core.io.SVNRepository;
 import svnserver.SvnTestServer;
 import svnserver.ext.gitlfs.storage.local.LfsLocalStorageTest;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static svnserver.SvnTestHelper.*;
@@ -211,4 +218,120 @@ public final class SvnCommitTest {
       }
     }
   }
+
+  /**
+   * Commit based on outdated branch state is rebased when changes are independent.
+   */
+  @Test
+  public void concurrentIndependentChanges() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty()) {
+      final SVNRepository repo = server.openSvnRepository();
+      createFile(repo, "/README.md", "Old content 1", propsEolNative);
+      createFile(repo, "/build.gradle", "Old content 2", propsEolNative);
+      final long lastRevision = repo.getLatestRevision();
+
+      externalCommit(server, "/README.md", "New content 1");
+      modifyFile(repo, "/build.gradle", "New content 2", lastRevision);
+
+      final SVNRepository check = server.openSvnRepository();
+      checkFileContent(check, "/README.md", "New content 1");
+      checkFileContent(check, "/build.gradle", "New content 2");
+    }
+  }
+
+  /**
+   * Concurrent creation of the same directory must fail.
+   */
+  @Test
+  public void concurrentAddDir() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty()) {
+      final SVNRepository repo = server.openSvnRepository();
+      createFile(repo, "/README.md", "Old content", propsEolNative);
+
+      externalCommit(server, "/dir/first.txt", "First");
+      try {
+        addDirWithFile(repo, "/dir", "/dir/second.txt", propsEolNative);
+        Assert.fail();
+      } catch (SVNException e) {
+        Assert.assertEquals(e.getErrorMessage().getErrorCode(), SVNErrorCode.FS_ALREADY_EXISTS);
+      }
+    }
+  }
+
+  /**
+   * Concurrent change of directory properties must be visible for added file.
+   */
+  @Test
+  public void concurrentDirPropChange() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty()) {
+      final SVNRepository repo = server.openSvnRepository();
+      addDirWithFile(repo, "/dir", "/dir/first.txt", propsEolNative);
+
+      externalCommit(server, "/dir/.gitattributes", "*.txt binary");
+      try {
+        createFile(repo, "/dir/second.txt", "Second", propsEolNative);
+        Assert.fail();
+      } catch (SVNException e) {
+        Assert.assertEquals(e.getErrorMessage().getErrorCode(), SVNErrorCode.REPOS_HOOK_FAILURE);
+      }
+
+      final SVNRepository check = server.openSvnRepository();
+      Assert.assertEquals(check.checkPath("/dir/second.txt", check.getLatestRevision()), SVNNodeKind.NONE);
+    }
+  }
+
+  private static void addDirWithFile(@NotNull SVNRepository repo, @NotNull String dirPath, @NotNull String filePath, @NotNull Map<String, String> props) throws Exception {
+    final ISVNEditor editor = repo.getCommitEditor("Create directory: " + dirPath, null, false, null);
+    editor.openRoot(-1);
+    editor.addDir(dirPath, null, -1);
+    editor.addFile(filePath, null, -1);
+    for (Map.Entry<String, String> entry : props.entrySet())
+      editor.changeFileProperty(filePath, entry.getKey(), SVNPropertyValue.create(entry.getValue()));
+    sendDeltaAndClose(editor, filePath, null, "Content");
+    editor.closeDir();
+    editor.closeDir();
+    Assert.assertNotEquals(editor.closeEdit(), SVNCommitInfo.NULL);
+  }
+
+  /**
+   * Commit to branch bypassing svn server: server sees it only on next push attempt.
+   */
+  private static void externalCommit(@NotNull SvnTestServer server, @NotNull String path, @NotNull String content) throws Exception {
+    final Repository git = server.getRepository();
+    final String branch = Constants.R_HEADS + server.getTestBranch();
+    final ObjectId head = git.resolve(branch);
+    try (ObjectInserter inserter = git.newObjectInserter();
+         ObjectReader reader = git.newObjectReader()) {
+      final DirCache cache = DirCache.newInCore();
+      final DirCacheBuilder builder = cache.builder();
+      builder.addTree(new byte[0], DirCacheEntry.STAGE_0, reader, new RevWalk(reader).parseTree(head));
+      builder.finish();
+
+      final ObjectId blobId = inserter.insert(Constants.OBJ_BLOB, content.getBytes(StandardCharsets.UTF_8));
+      final DirCacheEditor editor = cache.editor();
+      editor.add(new DirCacheEditor.PathEdit(path.substring(1)) {
+        @Override
+        public void apply(@NotNull DirCacheEntry entry) {
+          entry.setFileMode(FileMode.REGULAR_FILE);
+          entry.setObjectId(blobId);
+        }
+      });
+      editor.finish();
+
+      final CommitBuilder commit = new CommitBuilder();
+      commit.setTreeId(cache.writeTree(inserter));
+      commit.setParentId(head);
+      final PersonIdent ident = new PersonIdent("external", "external@example.com");
+      commit.setAuthor(ident);
+      commit.setCommitter(ident);
+      commit.setMessage("External commit: " + path);
+      final ObjectId commitId = inserter.insert(commit);
+      inserter.flush();
+
+      final RefUpdate refUpdate = git.updateRef(branch);
+      refUpdate.setExpectedOldObjectId(head);
+      refUpdate.setNewObjectId(commitId);
+      Assert.assertEquals(refUpdate.update(), RefUpdate.Result.FAST_FORWARD);
+    }
+  }
 }
@@ -320,6 +320,58 @@ public final class SvnLogTest {
     }
   }
 
+  /**
+   * Check log of file copied from revision after last change of copy source.
+   */
+  @Test
+  public void moveFileFromOlderRevision() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty()) {
+      final SVNRepository repo = server.openSvnRepository();
+      // r1 - add single file.
+      createFile(repo, "/foo.txt", "Foo content", propsEolNative);
+      // r2 - add unrelated file.
+      createFile(repo, "/other.txt", "Other content", propsEolNative);
+      // r3 - rename file: copy source revision is r2, but file was last changed in r1
+      {
+        final long revision = repo.getLatestRevision();
+        final ISVNEditor editor = repo.getCommitEditor("Rename: /foo.txt to /bar.txt", null, false, null);
+        editor.openRoot(-1);
+        editor.addFile("/bar.txt", "/foo.txt", revision);
+        editor.changeFileProperty("/bar.txt", SVNProperty.EOL_STYLE, SVNPropertyValue.create(SVNProperty.EOL_STYLE_NATIVE));
+        editor.closeFile("/bar.txt", null);
+        editor.deleteEntry("/foo.txt", revision);
+        // Close dir
+        editor.closeDir();
+        editor.closeEdit();
+      }
+      // r4 - modify file.
+      modifyFile(repo, "/bar.txt", "Bar content", repo.getLatestRevision());
+      final long last = repo.getLatestRevision();
+
+      checkLog(repo, last, 0, "/bar.txt",
+          new LogEntry(4, "Modify file: /bar.txt", "M /bar.txt"),
+          new LogEntry(3, "Rename: /foo.txt to /bar.txt", "D /foo.txt", "A /bar.txt"),
+          new LogEntry(1, "Create file: /foo.txt", "A /foo.txt")
+      );
+
+      checkLog(repo, 0, last, "/bar.txt",
+          new LogEntry(1, "Create file: /foo.txt", "A /foo.txt"),
+          new LogEntry(3, "Rename: /foo.txt to /bar.txt", "D /foo.txt", "A /bar.txt"),
+          new LogEntry(4, "Modify file: /bar.txt", "M /bar.txt")
+      );
+
+      checkLogLimit(repo, last, 0, 2, "/bar.txt",
+          new LogEntry(4, "Modify file: /bar.txt", "M /bar.txt"),
+          new LogEntry(3, "Rename: /foo.txt to /bar.txt", "D /foo.txt", "A /bar.txt")
+      );
+
+      // Log of copy source starting from copy source revision
+      checkLog(repo, 2, 0, "/foo.txt",
+          new LogEntry(1, "Create file: /foo.txt", "A /foo.txt")
+      );
+    }
+  }
+
   /**
    * Check file move log test.
    */
@@ -407,6 +459,27 @@ public final class SvnLogTest {
     }
   }
 
+  /**
+   * Log with changed paths compares properties of every changed entry.
+   * <p>
+   * First pass fills entry properties cache, next passes use it.
+   */
+  @Test(groups = "benchmark")
+  public void changedPathsBenchmark() throws Exception {
+    final int passes = 3;
+    try (SvnTestServer server = SvnTestServer.createMasterRepository()) {
+      final SVNRepository repo = server.openSvnRepository();
+      final long last = repo.getLatestRevision();
+      for (int pass = 0; pass < passes; ++pass) {
+        final long startTime = System.nanoTime();
+        final int[] count = {0};
+        repo.log(new String[]{""}, last, 0, true, false, 0, logEntry -> count[0]++);
+        final long duration = System.nanoTime() - startTime;
+        System.out.printf("Log with changed paths, pass %d: %d revisions in %.2fms%n", pass, count[0], duration / 1000000.0);
+      }
+    }
+  }
+
   private void checkLog(@NotNull SVNRepository repo, long r1, long r2, @NotNull String path, @NotNull LogEntry... expecteds) throws SVNException {
     checkLogLimit(repo, r1, r2, 0, path, expecteds);
   }